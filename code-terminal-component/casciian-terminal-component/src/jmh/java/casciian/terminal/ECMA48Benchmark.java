@@ -0,0 +1,287 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.terminal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import casciian.backend.HeadlessBackend;
+
+/**
+ * Throughput of the ECMA48 emulator parsing a recorded byte stream, from
+ * the first byte read to EOF.  Each invocation uses a fresh emulator, so
+ * the cost of starting its reader thread is included; the streams are long
+ * enough (FRAMES screens each) for that to be noise.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ECMA48Benchmark {
+
+    /**
+     * The number of screens of output in each stream.
+     */
+    private static final int FRAMES = 20;
+
+    /**
+     * Screen size, columns x rows.
+     */
+    @Param({"80x24", "132x43", "240x67"})
+    public String screenSize;
+
+    /**
+     * The kind of program output: "text" is plain scrolling text like cat
+     * or a build log, "sgr" is colored text like ls --color, and "cursor"
+     * is a full-screen application repainting with cursor addressing like
+     * top or an editor.
+     */
+    @Param({"text", "sgr", "cursor"})
+    public String stream;
+
+    /**
+     * The screen width.
+     */
+    private int width;
+
+    /**
+     * The screen height.
+     */
+    private int height;
+
+    /**
+     * The recorded stream.
+     */
+    private File file;
+
+    /**
+     * A headless backend for the emulator's default colors.
+     */
+    private HeadlessBackend backend;
+
+    /**
+     * A FileInputStream that holds the emulator's reader thread in its
+     * first read until the screen size has been set.
+     */
+    private static class GatedInputStream extends FileInputStream {
+
+        /**
+         * Released when the emulator may start reading.
+         */
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        /**
+         * Public constructor.
+         *
+         * @param file the file to read
+         * @throws FileNotFoundException if the file cannot be opened
+         */
+        public GatedInputStream(final File file) throws FileNotFoundException {
+            super(file);
+        }
+
+        /**
+         * Let the emulator start reading.
+         */
+        public void open() {
+            gate.countDown();
+        }
+
+        /**
+         * Wait until open() has been called.
+         *
+         * @throws IOException if interrupted while waiting
+         */
+        private void awaitOpen() throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            awaitOpen();
+            return super.read();
+        }
+
+        @Override
+        public int read(final byte[] b) throws IOException {
+            awaitOpen();
+            return super.read(b);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off,
+            final int len) throws IOException {
+
+            awaitOpen();
+            return super.read(b, off, len);
+        }
+    }
+
+    /**
+     * Record the stream to a temporary file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Setup
+    public void setup() throws IOException {
+        int x = screenSize.indexOf('x');
+        width = Integer.parseInt(screenSize.substring(0, x));
+        height = Integer.parseInt(screenSize.substring(x + 1));
+        backend = new HeadlessBackend();
+
+        StringBuilder sb = new StringBuilder();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            switch (stream) {
+            case "text":
+                recordText(sb, frame);
+                break;
+            case "sgr":
+                recordSgr(sb, frame);
+                break;
+            case "cursor":
+                recordCursor(sb, frame);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown stream: " +
+                    stream);
+            }
+        }
+        file = File.createTempFile("casciian-vt-", ".bin");
+        file.deleteOnExit();
+        Files.write(file.toPath(), sb.toString().getBytes(
+            StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Remove the recorded stream.
+     */
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Parse the whole stream.
+     *
+     * @return the final screen state
+     * @throws IOException if the stream cannot be opened
+     */
+    @Benchmark
+    public TerminalState consume() throws IOException {
+        GatedInputStream input = new GatedInputStream(file);
+        ECMA48 emulator = new ECMA48(ECMA48.DeviceType.XTERM, input,
+            OutputStream.nullOutputStream(), null, backend);
+        emulator.setWidth(width);
+        emulator.setHeight(height);
+        input.open();
+        while (emulator.isReading()) {
+            Thread.onSpinWait();
+        }
+        TerminalState state = emulator.captureState();
+        emulator.close();
+        return state;
+    }
+
+    /**
+     * Append one screen of plain scrolling text.
+     *
+     * @param sb the stream being recorded
+     * @param frame the frame number
+     */
+    private void recordText(final StringBuilder sb, final int frame) {
+        for (int y = 0; y < height; y++) {
+            int n = (frame * 31 + y * 17) % width;
+            sb.append("[").append(frame).append(':').append(y).append("] ");
+            for (int i = 0; i < n; i++) {
+                sb.append((char) ('a' + ((i + y) % 26)));
+                if (i % 7 == 6) {
+                    sb.append(' ');
+                }
+            }
+            sb.append("\r\n");
+        }
+    }
+
+    /**
+     * Append one screen of colored text.
+     *
+     * @param sb the stream being recorded
+     * @param frame the frame number
+     */
+    private void recordSgr(final StringBuilder sb, final int frame) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x + 10 < width; x += 10) {
+                int color = (frame + x + y) % 256;
+                if ((x / 10) % 2 == 0) {
+                    sb.append("\033[1;38;5;").append(color).append('m');
+                } else {
+                    sb.append("\033[38;2;").append(color).append(';')
+                        .append(255 - color).append(";128m");
+                }
+                sb.append("file").append(x / 10).append(".txt ");
+                sb.append("\033[0m");
+            }
+            sb.append("\r\n");
+        }
+    }
+
+    /**
+     * Append one full-screen repaint using cursor addressing, erases, and
+     * box drawing characters.
+     *
+     * @param sb the stream being recorded
+     * @param frame the frame number
+     */
+    private void recordCursor(final StringBuilder sb, final int frame) {
+        sb.append("\033[?2026h\033[H\033[2J");
+        sb.append("\033[44;37m");
+        sb.append('┌').append("─".repeat(width - 2)).append('┐');
+        for (int y = 2; y < height; y++) {
+            sb.append("\033[").append(y).append(";1H│");
+            sb.append("\033[").append((frame + y) % 2 == 0 ? "1" : "22")
+                .append('m');
+            sb.append(String.format("%5d %-10s %6.1f%%", frame * height + y,
+                "proc" + y, (frame * y % 1000) / 10.0));
+            sb.append("\033[K");
+            sb.append("\033[").append(y).append(';').append(width)
+                .append("H│");
+        }
+        sb.append("\033[").append(height).append(";1H");
+        sb.append('└').append("─".repeat(width - 2)).append('┘');
+        sb.append("\033[0m\033[?2026l");
+    }
+
+}
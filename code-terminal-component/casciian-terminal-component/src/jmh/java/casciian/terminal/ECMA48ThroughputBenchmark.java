@@ -0,0 +1,126 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.terminal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import casciian.backend.HeadlessBackend;
+
+/**
+ * Raw emulation throughput: the ECMA48 emulator swallowing 1 MiB of "cat
+ * bigfile" output on an 80x24 screen.  Each operation is one MiB, so the
+ * score in ops/s reads directly as MiB/s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ECMA48ThroughputBenchmark {
+
+    /**
+     * The size of the stream, 1 MiB.
+     */
+    private static final int SIZE = 1024 * 1024;
+
+    /**
+     * The kind of file being cat'ed: "ascii" is source code or a log,
+     * "utf8" is prose with accented letters and some CJK.
+     */
+    @Param({"ascii", "utf8"})
+    public String content;
+
+    /**
+     * The recorded stream.
+     */
+    private byte [] bytes;
+
+    /**
+     * A headless backend for the emulator's default colors.
+     */
+    private HeadlessBackend backend;
+
+    /**
+     * Record the stream.
+     */
+    @Setup
+    public void setup() {
+        backend = new HeadlessBackend();
+
+        String [] words;
+        if (content.equals("utf8")) {
+            words = new String [] { "café", "naïve", "über", "señor",
+                "日本語", "テキスト", "the", "of", "and", "résumé" };
+        } else {
+            words = new String [] { "public", "static", "final", "int",
+                "return", "if", "(x", "==", "null)", "{", "}", "=", "0;" };
+        }
+
+        // A pty turns each LF into CRLF on its way to the terminal.
+        StringBuilder sb = new StringBuilder(SIZE + 100);
+        int line = 0;
+        while (sb.length() < SIZE) {
+            int column = 0;
+            int indent = (line % 5) * 4;
+            sb.append(" ".repeat(indent));
+            column += indent;
+            for (int i = 0; ; i++) {
+                String word = words[(line * 7 + i * 3) % words.length];
+                if (column + word.length() + 1 > 72) {
+                    break;
+                }
+                sb.append(word).append(' ');
+                column += word.length() + 1;
+            }
+            sb.append("\r\n");
+            line++;
+        }
+        byte [] all = sb.toString().getBytes(StandardCharsets.UTF_8);
+        bytes = new byte[SIZE];
+        System.arraycopy(all, 0, bytes, 0, SIZE);
+    }
+
+    /**
+     * Parse the whole stream.
+     *
+     * @return the final screen state
+     * @throws IOException if the emulator cannot be created
+     */
+    @Benchmark
+    public TerminalState cat() throws IOException {
+        ECMA48 emulator = new ECMA48(ECMA48.DeviceType.XTERM,
+            new ByteArrayInputStream(bytes), OutputStream.nullOutputStream(),
+            null, backend);
+        while (emulator.isReading()) {
+            Thread.onSpinWait();
+        }
+        TerminalState state = emulator.captureState();
+        emulator.close();
+        return state;
+    }
+
+}
@@ -203,6 +203,30 @@ public class DisplayLine {
         chars.get(idx).setTo(newCell);
     }
 
+    /**
+     * Replace a run of characters starting at the specified position, each
+     * with the same attributes.  This is the same as calling replace() for
+     * each character, without allocating a cell for each one.
+     *
+     * @param idx the character index of the first character
+     * @param text the characters, which must be BMP codepoints
+     * @param start the index in text of the first character
+     * @param length the number of characters
+     * @param cellAttr the attributes to use
+     */
+    public void replace(final int idx, final char [] text, final int start,
+        final int length, final CellAttributes cellAttr) {
+
+        while (idx + length > chars.size()) {
+            chars.add(new ComplexCell(attr));
+        }
+        ComplexCell newCell = new ComplexCell(cellAttr);
+        for (int i = 0; i < length; i++) {
+            newCell.setChar(text[start + i]);
+            chars.get(idx + i).setTo(newCell);
+        }
+    }
+
     /**
      * Set the Cell at the specified position to the blank (reset).
      *
@@ -25,7 +25,6 @@ import java.io.CharArrayWriter;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
-import java.io.FileInputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -267,6 +266,32 @@ public class ECMA48 implements Runnable {
         String version = (pkg != null) ? pkg.getImplementationVersion() : null;
         return (version != null) ? version : "unknown";
     }
+
+    /**
+     * The ASCII characters that consume() always prints as a cell of their
+     * own: each one breaks a grapheme cluster on both sides, and none of
+     * them can modify an emoji.  A run of these can be written to the
+     * display by printRun().
+     */
+    private static final boolean [] PLAIN_ASCII = new boolean[0x80];
+
+    static {
+        for (int ch = 0x20; ch < 0x7F; ch++) {
+            PLAIN_ASCII[ch] = !ExtendedGraphemeClusterUtils.isEmoji(ch)
+                && !ExtendedGraphemeClusterUtils.isEmojiBMP(ch)
+                && !ExtendedGraphemeClusterUtils.isEmojiCombiner(ch)
+                && !ExtendedGraphemeClusterUtils.isEmojiComponent(ch)
+                && (StringUtils.width(ch) == 1);
+        }
+        for (int a = 0x20; a < 0x7F; a++) {
+            for (int b = 0x20; b < 0x7F; b++) {
+                if (!ExtendedGraphemeClusterUtils.shouldBreak(a, b)) {
+                    PLAIN_ASCII[a] = false;
+                    PLAIN_ASCII[b] = false;
+                }
+            }
+        }
+    }
     // ------------------------------------------------------------------------
     // Variables --------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -292,6 +317,13 @@ public class ECMA48 implements Runnable {
      */
     private boolean doNotUpdateDisplay = false;
 
+    /**
+     * When true, the listener has been told that the screen changed and
+     * has not yet taken a snapshot with pollState().  Further changes do
+     * not notify it again.
+     */
+    private boolean updatePending = false;
+
     /**
      * When true, the reader thread is expected to exit.
      */
@@ -338,12 +370,20 @@ public class ECMA48 implements Runnable {
      * The terminal's output.  For type == XTERM, this wraps an
      * OutputStreamWriter with UTF-8 encoding.
      */
-    private Writer output;
+    @SuppressWarnings("java:S3077")
+    private volatile Writer output;
 
     /**
      * The terminal's raw OutputStream.  This is used for type != XTERM.
      */
-    private OutputStream outputStream;
+    @SuppressWarnings("java:S3077")
+    private volatile OutputStream outputStream;
+
+    /**
+     * Serializes writes to the remote side.  Held only while writing, never
+     * together with a wait for the emulator lock.
+     */
+    private final Object writeLock = new Object();
 
     /**
      * Current scanning state.
@@ -604,12 +644,6 @@ public class ECMA48 implements Runnable {
      */
     private int textHeight = 20;
 
-    /**
-     * Input queue for keystrokes and mouse events to send to the remote
-     * side.
-     */
-    private final ArrayList<TInputEvent> userQueue = new ArrayList<>();
-
     /**
      * Number of bytes/characters passed to consume().
      */
@@ -770,8 +804,9 @@ public class ECMA48 implements Runnable {
         if (inputStream instanceof TimeoutInputStream timeoutInputStream) {
             this.inputStream  = timeoutInputStream;
         } else {
-            this.inputStream  = new TimeoutInputStream(inputStream,
-                ((inputStream instanceof FileInputStream) ? 0 : 2000));
+            // Block on reads: the reader thread has nothing else to do
+            // until the remote side sends something.
+            this.inputStream  = new TimeoutInputStream(inputStream, 0);
         }
         if (type == DeviceType.XTERM) {
             this.input    = new InputStreamReader(new BufferedInputStream(
@@ -824,56 +859,10 @@ public class ECMA48 implements Runnable {
         }
 
         while (!done && !stopReaderThread) {
-            synchronized (userQueue) {
-                while (!userQueue.isEmpty()) {
-                    handleUserEvent(userQueue.removeFirst());
-                }
-            }
-
             try {
-                int n = inputStream.available();
-
-                // System.err.printf("available() %d\n", n); System.err.flush();
-                if (utf8) {
-                    if (readBufferUTF8.length < n) {
-                        // The buffer wasn't big enough, make it huger
-                        readBufferUTF8 = new char[n * 2];
-                    }
-                } else {
-                    if (readBuffer.length < n) {
-                        // The buffer wasn't big enough, make it huger
-                        readBuffer = new byte[n * 2];
-                    }
-                }
-                if (n == 0) {
-                    try {
-                        Thread.sleep(10);
-                    } catch (InterruptedException e) {
-                        // SQUASH
-                    }
-
-                    if (inputStream.getStream() instanceof FileInputStream) {
-                        // Special case: force a read of files in order
-                        // to see the EOF.
-                    } else {
-                        // Check if the screen was modified and needs an update.
-                        // Synchronize to avoid race conditions with resize
-                        // operations that modify screenIsDirty.
-                        TerminalState stateToPost = null;
-                        synchronized (this) {
-                            if (screenIsDirty && (terminalListener != null)) {
-                                stateToPost = captureState();
-                                screenIsDirty = false;
-                            }
-                        }
-                        if (stateToPost != null) {
-                            terminalListener.postUpdate(stateToPost);
-                        }
-                        // Go back to waiting.
-                        continue;
-                    }
-                }
-
+                // Block until the remote side sends something.  Keyboard
+                // and mouse events are written by addUserEvent() on the
+                // caller's thread, so there is nothing to poll for here.
                 int rc = -1;
                 try {
                     if (utf8) {
@@ -897,6 +886,11 @@ public class ECMA48 implements Runnable {
                         // Don't step on UI events
                         synchronized (this) {
                             for (int i = 0; i < rc;) {
+                                int n = printRun(readBufferUTF8, i, rc);
+                                if (n > 0) {
+                                    i += n;
+                                    continue;
+                                }
                                 int ch = Character.codePointAt(readBufferUTF8,
                                     i);
                                 i += Character.charCount(ch);
@@ -930,20 +924,17 @@ public class ECMA48 implements Runnable {
                             }
                         }
                     }
-                    // Permit my enclosing UI to know that I updated.
-                    // Synchronize to avoid race conditions with resize
-                    // operations that modify screenIsDirty.
-                    TerminalState stateToPost = null;
-                    synchronized (this) {
-                        if ((terminalListener != null) && !doNotUpdateDisplay) {
-                            stateToPost = captureState();
-                            screenIsDirty = false;
-                        }
-                    }
-                    if (stateToPost != null) {
-                        terminalListener.postUpdate(stateToPost);
+                    // Permit my enclosing UI to know that I updated.  It
+                    // will pull a snapshot when it is ready to draw.
+                    if (!doNotUpdateDisplay) {
+                        postDirty();
                     }
                     doNotUpdateDisplay = false;
+
+                    // Wake up waitForOutput().
+                    synchronized (this) {
+                        notifyAll();
+                    }
                 }
                 // System.err.println("end while loop"); System.err.flush();
             } catch (IOException e) {
@@ -977,6 +968,9 @@ public class ECMA48 implements Runnable {
 
         // Let the rest of the world know that I am done.
         stopReaderThread = true;
+        synchronized (this) {
+            notifyAll();
+        }
 
         try {
             inputStream.cancelRead();
@@ -1014,49 +1008,99 @@ public class ECMA48 implements Runnable {
         if (millis < 0) {
             throw new IllegalArgumentException("timeout must be >= 0");
         }
-        int waitedMillis = millis;
-        final int pollTimeout = 5;
-        while (true) {
-            if (readCount != 0) {
-                return true;
-            }
-            if ((millis > 0) && (waitedMillis < 0)){
-                return false;
-            }
-            try {
-                Thread.sleep(pollTimeout);
-            } catch (InterruptedException e) {
-                // SQUASH
+        long deadline = System.currentTimeMillis() + millis;
+        synchronized (this) {
+            while (readCount == 0) {
+                long remaining = 0;
+                if (millis > 0) {
+                    remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                }
+                try {
+                    // The reader thread notifies after every read.
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    // SQUASH
+                }
             }
-            waitedMillis -= pollTimeout;
+            return true;
         }
     }
 
     /**
-     * Process keyboard and mouse events from the user.
+     * Translate a keyboard or mouse event from the user to the sequence the
+     * remote side expects.
      *
      * @param event the input event to consume
+     * @return the sequence, or null if nothing is sent for this event
      */
-    private void handleUserEvent(final TInputEvent event) {
+    private String userEventToString(final TInputEvent event) {
         if (event instanceof TKeypressEvent keypressEvent) {
-            keypress(keypressEvent.getKey());
+            return keypressToString(keypressEvent.getKey());
         }
         if (event instanceof TMouseEvent mouseEvent) {
-            mouse(mouseEvent);
+            return mouseToString(mouseEvent);
         }
+        return null;
     }
 
     /**
-     * Add a keyboard and mouse event from the user to the queue.
+     * Send a keyboard or mouse event from the user to the remote side.
+     * This writes directly from the caller's thread, rather than waiting
+     * for the reader thread to come around.  The event is encoded under the
+     * emulator lock, but written outside it: a remote side blocked writing
+     * its own output cannot read its input until the reader thread, which
+     * needs that lock, drains it.
      *
      * @param event the input event to consume
      */
     public void addUserEvent(final TInputEvent event) {
-        synchronized (userQueue) {
-            userQueue.add(event);
+        String str;
+        synchronized (this) {
+            str = userEventToString(event);
+        }
+        if (str != null) {
+            writeRemote(str);
         }
     }
 
+    /**
+     * Tell the listener that the screen changed, unless it has already been
+     * told and has not yet taken a snapshot.
+     */
+    private void postDirty() {
+        boolean notify = false;
+        synchronized (this) {
+            if ((terminalListener != null) && !updatePending) {
+                updatePending = true;
+                notify = true;
+            }
+        }
+        if (notify) {
+            terminalListener.postDirty(this);
+        }
+    }
+
+    /**
+     * Obtain a snapshot of the terminal state if it has changed since the
+     * last call.  A listener notified by postDirty() calls this when it is
+     * ready to draw, so that a burst of output costs one snapshot per
+     * frame rather than one per read.
+     *
+     * @return the terminal state, or null if nothing changed since the last
+     * call
+     */
+    public synchronized TerminalState pollState() {
+        if (!updatePending) {
+            return null;
+        }
+        updatePending = false;
+        screenIsDirty = false;
+        return captureState();
+    }
+
     /**
      * Obtain a snapshot of the terminal state.
      *
@@ -1211,52 +1255,61 @@ public class ECMA48 implements Runnable {
     }
 
     /**
-     * Write a string directly to the remote side.
+     * Write a string directly to the remote side.  Writes are serialized on
+     * their own lock rather than the emulator's, so that a write blocked on
+     * a full pipe does not stop the reader thread draining the remote
+     * side's output.
      *
      * @param str string to send
      */
-    public synchronized void writeRemote(final String str) {
-        if (stopReaderThread) {
-            // Reader hit EOF, bail out now.
+    public void writeRemote(final String str) {
+        if (stopReaderThread || !write(str)) {
+            // Reader hit EOF or the write failed, bail out now.
             close();
-            return;
         }
+    }
 
+    /**
+     * Write a string to the output stream.
+     *
+     * @param str string to send
+     * @return false if the write failed
+     */
+    private boolean write(final String str) {
         // System.err.printf("writeRemote() '%s'\n", str);
 
-        switch (type) {
-        case VT100:
-        case VT102:
-        case VT220:
-            if (outputStream == null) {
-                return;
-            }
+        synchronized (writeLock) {
             try {
-                outputStream.flush();
-                for (int i = 0; i < str.length(); i++) {
-                    outputStream.write(str.charAt(i));
+                switch (type) {
+                case VT100:
+                case VT102:
+                case VT220:
+                    OutputStream rawOutput = outputStream;
+                    if (rawOutput != null) {
+                        rawOutput.flush();
+                        for (int i = 0; i < str.length(); i++) {
+                            rawOutput.write(str.charAt(i));
+                        }
+                        rawOutput.flush();
+                    }
+                    break;
+                case XTERM:
+                    Writer writer = output;
+                    if (writer != null) {
+                        writer.flush();
+                        writer.write(str);
+                        writer.flush();
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid device type: " +
+                        type);
                 }
-                outputStream.flush();
             } catch (IOException e) {
                 // Assume EOF
-                close();
-            }
-            break;
-        case XTERM:
-            if (output == null) {
-                return;
-            }
-            try {
-                output.flush();
-                output.write(str);
-                output.flush();
-            } catch (IOException e) {
-                // Assume EOF
-                close();
+                return false;
             }
-            break;
-        default:
-            throw new IllegalArgumentException("Invalid device type: " + type);
+            return true;
         }
     }
 
@@ -1743,8 +1796,12 @@ public class ECMA48 implements Runnable {
      * @param x X location to render to
      * @param y Y location to render to
      * @param wcWidth width of character on screen, either 1 or 2
+     * @param complete if true, no more codepoints will join the sequence,
+     * so its cells can share an interned copy
      */
-    private void printEmojiXY(final int x, final int y, final int wcWidth) {
+    private void printEmojiXY(final int x, final int y, final int wcWidth,
+        final boolean complete) {
+
         screenIsDirty = true;
         var codePoints = repCodePoints.stream().mapToInt(Integer::intValue).toArray();
 
@@ -1754,7 +1811,8 @@ public class ECMA48 implements Runnable {
             printCharacter(' ');
         }
 
-        var cell = new ComplexCell(codePoints, currentState.attr);
+        var cell = new ComplexCell(currentState.attr);
+        cell.setCodePoints(codePoints, complete);
         cell.setWidth(wcWidth == 2 ? Cell.Width.LEFT : Cell.Width.SINGLE);
         display.get(y).replace(x, cell);
 
@@ -1784,25 +1842,106 @@ public class ECMA48 implements Runnable {
             && (currentState.cursorY == y0)
         ) {
             // We can draw both halves of the character.
-            printEmojiXY(x0, y0, wcWidth);
+            printEmojiXY(x0, y0, wcWidth, false);
         } else if ((currentState.cursorX == x0 + 1)
             && (currentState.cursorY == y0)
         ) {
             // VT100 line wrap behavior: we should be at the right margin.  We
             // can draw both halves of the character.
-            printEmojiXY(x0, y0, wcWidth);
+            printEmojiXY(x0, y0, wcWidth, false);
         } else {
             // The character splits across the line.  Draw the entire
             // character on the new line, giving one more space for it.
             x0 = currentState.cursorX - 1;
             y0 = currentState.cursorY;
             printCharacter(' ');
-            printEmojiXY(x0, y0, wcWidth);
+            printEmojiXY(x0, y0, wcWidth, false);
         }
         lastEmojiX = x0;
         lastEmojiY = y0;
     }
 
+    /**
+     * Print a run of plain ASCII text straight into the current line,
+     * bypassing consume().  This only applies when the result is exactly
+     * what consume() would do for each character: the parser is in the
+     * ground state, the last printed character was itself plain ASCII (so
+     * nothing can join the run to an earlier cluster), the GL character
+     * set is US ASCII, insert mode and printer controller mode are off, and
+     * the run ends before the right margin so no wrapping logic is needed.
+     * Anything else is left for consume().
+     *
+     * @param buffer the characters read from the remote side
+     * @param start the index of the first character to look at
+     * @param end the index just past the last character read
+     * @return the number of characters printed, or 0 if consume() must
+     * handle the character at start
+     */
+    private int printRun(final char [] buffer, final int start,
+        final int end) {
+
+        if ((scanState != ScanState.GROUND)
+            || (lastScanState != ScanState.GROUND)
+            || insertMode
+            || printerControllerMode
+            || (repCodePoints.size() != 1)
+            || (repCodePoints.get(0) >= 0x80)
+            || !PLAIN_ASCII[repCodePoints.get(0)]
+            || !isGlUsAscii()
+        ) {
+            return 0;
+        }
+
+        DisplayLine line = display.get(currentState.cursorY);
+        int rMargin = this.rightMargin;
+        if (line.isDoubleWidth()) {
+            rMargin = ((rMargin + 1) / 2) - 1;
+        }
+        int x = currentState.cursorX;
+        int n = 0;
+        while ((start + n < end)
+            && (x + n < rMargin)
+            && (buffer[start + n] < 0x80)
+            && PLAIN_ASCII[buffer[start + n]]
+        ) {
+            n++;
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        screenIsDirty = true;
+        line.replace(x, buffer, start, n, currentState.attr);
+        readCount += n;
+        wrapLineFlag = false;
+        currentState.cursorX = x + n;
+        lastEmojiX = x + n - 1;
+        lastEmojiY = currentState.cursorY;
+        repCodePoints.set(0, (int) buffer[start + n - 1]);
+        return n;
+    }
+
+    /**
+     * Check if mapCharacter() currently maps ASCII to itself.
+     *
+     * @return true if the GL character set is US ASCII and no shift is in
+     * effect
+     */
+    private boolean isGlUsAscii() {
+        if (vt52Mode || shiftOut || (singleshift != Singleshift.NONE)) {
+            return false;
+        }
+        CharacterSet charsetGl = currentState.g0Charset;
+        if ((type == DeviceType.VT220) || (type == DeviceType.XTERM)) {
+            if (currentState.glLockshift == LockshiftMode.G2_GL) {
+                charsetGl = currentState.g2Charset;
+            } else if (currentState.glLockshift == LockshiftMode.G3_GL) {
+                charsetGl = currentState.g3Charset;
+            }
+        }
+        return (charsetGl == CharacterSet.US);
+    }
+
     /**
      * Prints one character to the display buffer.
      *
@@ -1883,22 +2022,23 @@ public class ECMA48 implements Runnable {
     }
 
     /**
-     * Translate the mouse event to a VT100, VT220, or XTERM sequence and
-     * send to the remote side.
+     * Translate the mouse event to a VT100, VT220, or XTERM sequence.
      *
      * @param mouse mouse event received from the local user
+     * @return the sequence to send to the remote side, or null if the
+     * current mouse protocol does not report this event
      */
-    private void mouse(final TMouseEvent mouse) {
+    private String mouseToString(final TMouseEvent mouse) {
 
         /*
-        System.err.printf("mouse(): protocol %s encoding %s mouse %s\n",
+        System.err.printf("mouseToString(): protocol %s encoding %s mouse %s\n",
             mouseProtocol, mouseEncoding, mouse);
         */
 
         if (mouseEncoding == MouseEncoding.X10) {
             // We will support X10 but only for (160,94) and smaller.
             if ((mouse.getX() >= 160) || (mouse.getY() >= 94)) {
-                return;
+                return null;
             }
         }
 
@@ -1906,12 +2046,12 @@ public class ECMA48 implements Runnable {
 
         case OFF:
             // Do nothing
-            return;
+            return null;
 
         case X10:
             // Only report button presses
             if (mouse.getType() != TMouseEvent.Type.MOUSE_DOWN) {
-                return;
+                return null;
             }
             break;
 
@@ -1920,7 +2060,7 @@ public class ECMA48 implements Runnable {
             if ((mouse.getType() != TMouseEvent.Type.MOUSE_DOWN)
                 && (mouse.getType() != TMouseEvent.Type.MOUSE_UP)
             ) {
-                return;
+                return null;
             }
             break;
 
@@ -1938,7 +2078,7 @@ public class ECMA48 implements Runnable {
                     && !mouse.isMouseWheelLeft()
                     && !mouse.isMouseWheelRight()
                 ) {
-                    return;
+                    return null;
                 }
             }
             break;
@@ -2059,17 +2199,7 @@ public class ECMA48 implements Runnable {
         }
 
         // System.err.printf("Would write: \'%s\'\n", sb.toString());
-        writeRemote(sb.toString());
-    }
-
-    /**
-     * Translate the keyboard press to a VT100, VT220, or XTERM sequence and
-     * send to the remote side.
-     *
-     * @param keypress keypress received from the local user
-     */
-    private void keypress(final TKeypress keypress) {
-        writeRemote(keypressToString(keypress));
+        return sb.toString();
     }
 
     /**
@@ -2132,18 +2262,7 @@ public class ECMA48 implements Runnable {
                 // Local echo for everything else
                 printCharacter(keypress.getChar());
             }
-            // Synchronize to avoid race conditions with resize
-            // operations that modify screenIsDirty.
-            TerminalState stateToPost = null;
-            synchronized (this) {
-                if (terminalListener != null) {
-                    stateToPost = captureState();
-                    screenIsDirty = false;
-                }
-            }
-            if (stateToPost != null) {
-                terminalListener.postUpdate(stateToPost);
-            }
+            postDirty();
         }
 
         if (newLineMode && keypress.equals(kbEnter)) {
@@ -5637,7 +5756,7 @@ public class ECMA48 implements Runnable {
 
                     // Modify the last printed graphic character, replace
                     // with repCodePoints.
-                    printEmojiXY(lastEmojiX, lastEmojiY, 2);
+                    printEmojiXY(lastEmojiX, lastEmojiY, 2, false);
                 } else if ((!repCodePoints.isEmpty())
                     && (repCodePoints.getLast() == 0x200D)
                     && (lastScanState == ScanState.GROUND)
@@ -5658,15 +5777,15 @@ public class ECMA48 implements Runnable {
 
                     // Modify the last printed graphic character, replace
                     // with repCodePoints.
-                    printEmojiXY(lastEmojiX, lastEmojiY, wcWidth);
+                    printEmojiXY(lastEmojiX, lastEmojiY, wcWidth, false);
                 } else {
                     // Fresh new codepoint has arrived.
                     if (repCodePoints.size() > 1) {
                         int wcWidth = StringUtils.width(repCodePoints);
 
-                        // Modify the last printed graphic character, replace
-                        // with repCodePoints.
-                        printEmojiXY(lastEmojiX, lastEmojiY, wcWidth);
+                        // The sequence is finished: replace the last printed
+                        // graphic character with it, interned this time.
+                        printEmojiXY(lastEmojiX, lastEmojiY, wcWidth, true);
                     }
                     repCodePoints.clear();
                     repCodePoints.add(mapCharacter(ch));
@@ -0,0 +1,740 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.terminal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import casciian.backend.Backend;
+import casciian.backend.EventRecording;
+import casciian.backend.SessionRecording;
+
+/**
+ * SessionPlayer plays back a file written by SessionRecording.  It is a
+ * Process whose output is the recorded terminal output, so it can be shown
+ * by a TTerminal or TTerminalWindow like any command.
+ *
+ * <p>The file is memory-mapped and indexed when it is opened, reading only
+ * the record headers; the recorded bytes are handed to the emulator
+ * straight from the mapping.  seek() resets the emulator, draws the
+ * nearest keyframe at or before the new time, and replays only the output
+ * recorded after that keyframe.</p>
+ *
+ * <p>Playback starts at the beginning as soon as the player is created.
+ * It stays at the end of the recording until destroy() is called, so that
+ * the final screen remains visible and can be seeked back from.</p>
+ */
+public class SessionPlayer extends Process {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Sent before a keyframe: CAN aborts any escape sequence cut short by
+     * the seek, and RIS resets the emulator.
+     */
+    private static final byte [] RESET = { 0x18, 0x1B, 'c' };
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The recording file.
+     */
+    private final MappedByteBuffer data;
+
+    /**
+     * The wall clock time the recording started, in millis since the
+     * epoch.
+     */
+    private final long startTime;
+
+    /**
+     * The number of records.
+     */
+    private int count = 0;
+
+    /**
+     * The kind of each record.
+     */
+    private byte [] kinds = new byte[1024];
+
+    /**
+     * The time of each record, in millis since the start.
+     */
+    private long [] times = new long[1024];
+
+    /**
+     * The file offset of each record's payload.  For keyframes this is
+     * after the width and height.
+     */
+    private int [] offsets = new int[1024];
+
+    /**
+     * The length of each record's payload.
+     */
+    private int [] lengths = new int[1024];
+
+    /**
+     * The record index of each keyframe, in order.
+     */
+    private int [] keyframes = new int[16];
+
+    /**
+     * The number of keyframes.
+     */
+    private int keyframeCount = 0;
+
+    /**
+     * The screen width of the first keyframe.
+     */
+    private int width = 80;
+
+    /**
+     * The screen height of the first keyframe.
+     */
+    private int height = 24;
+
+    /**
+     * The output being fed to the emulator.
+     */
+    private final PlaybackStream stream = new PlaybackStream();
+
+    /**
+     * The index of the next record to play.
+     */
+    private int position = 0;
+
+    /**
+     * The recording time, in millis, at which the playback clock was last
+     * set.
+     */
+    private long clockTime = 0;
+
+    /**
+     * The wall clock time, in nanos, at which the playback clock was last
+     * set.
+     */
+    private long clockNanos = System.nanoTime();
+
+    /**
+     * Playback speed, 1.0 is real time.
+     */
+    private double speed = 1.0;
+
+    /**
+     * If true, playback is paused.
+     */
+    private boolean paused = false;
+
+    /**
+     * Completed with 0 when destroy() is called.
+     */
+    private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+
+    /**
+     * The recorded output as a stream.  Chunks are slices of the mapped
+     * file, queued by the playback thread and taken by the emulator's
+     * reader thread.
+     */
+    private final class PlaybackStream extends InputStream {
+
+        /**
+         * The queued chunks.
+         */
+        private final ArrayDeque<ByteBuffer> chunks = new ArrayDeque<>();
+
+        /**
+         * If true, read() returns end of stream.
+         */
+        private boolean closed = false;
+
+        /**
+         * Queue a chunk.
+         *
+         * @param chunk the bytes
+         */
+        synchronized void add(final ByteBuffer chunk) {
+            chunks.add(chunk);
+            notifyAll();
+        }
+
+        /**
+         * Drop every queued chunk.
+         */
+        synchronized void clear() {
+            chunks.clear();
+        }
+
+        /**
+         * Make read() return end of stream.
+         */
+        @Override
+        public synchronized void close() {
+            closed = true;
+            chunks.clear();
+            notifyAll();
+        }
+
+        /**
+         * Read one byte, blocking until one is queued.
+         *
+         * @return the byte, or -1 once the player is destroyed
+         * @throws IOException if the read is interrupted
+         */
+        @Override
+        public int read() throws IOException {
+            byte [] b = new byte[1];
+            int rc = read(b, 0, 1);
+            return (rc == -1 ? -1 : (b[0] & 0xFF));
+        }
+
+        /**
+         * Read bytes, blocking until some are queued.
+         *
+         * @param b the buffer to read into
+         * @param off the offset in b
+         * @param len the most bytes to read
+         * @return the number of bytes read, or -1 once the player is
+         * destroyed
+         * @throws IOException if the read is interrupted
+         */
+        @Override
+        public synchronized int read(final byte [] b, final int off,
+            final int len) throws IOException {
+
+            if (len == 0) {
+                return 0;
+            }
+            for (;;) {
+                if (closed) {
+                    return -1;
+                }
+                ByteBuffer chunk = chunks.peek();
+                if (chunk != null) {
+                    int n = Math.min(len, chunk.remaining());
+                    chunk.get(b, off, n);
+                    if (!chunk.hasRemaining()) {
+                        chunks.remove();
+                    }
+                    return n;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        /**
+         * Get the number of bytes that can be read without blocking.
+         *
+         * @return the bytes left in the current chunk
+         */
+        @Override
+        public synchronized int available() {
+            ByteBuffer chunk = chunks.peek();
+            return (chunk == null ? 0 : chunk.remaining());
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Public constructor opens a recording and starts playing it.
+     *
+     * @param file the recording
+     * @throws IOException if the file cannot be read, is larger than 2 GiB,
+     * or is not a recording
+     */
+    @SuppressWarnings("this-escape")
+    public SessionPlayer(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Recording is too large to map: "
+                    + file);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                channel.size());
+        }
+
+        byte [] magic = SessionRecording.MAGIC.getBytes(
+            StandardCharsets.US_ASCII);
+        if (data.limit() < SessionRecording.HEADER_LENGTH) {
+            throw new IOException("Not a session recording: " + file);
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (data.get(i) != magic[i]) {
+                throw new IOException("Not a session recording: " + file);
+            }
+        }
+        if (data.get(magic.length) != SessionRecording.VERSION) {
+            throw new IOException("Unsupported recording version "
+                + data.get(magic.length) + ": " + file);
+        }
+        startTime = data.getLong(magic.length + 1);
+        index();
+
+        Thread thread = new Thread(this::play,
+            "casciian-session-player");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // ------------------------------------------------------------------------
+    // Process ----------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the stream keystrokes are written to.  A recording cannot be
+     * typed at, so this discards them.
+     *
+     * @return a stream that discards everything
+     */
+    @Override
+    public OutputStream getOutputStream() {
+        return OutputStream.nullOutputStream();
+    }
+
+    /**
+     * Get the recorded terminal output, as it is played back.
+     *
+     * @return the output stream of the recording
+     */
+    @Override
+    public InputStream getInputStream() {
+        return stream;
+    }
+
+    /**
+     * Get the standard error stream, which is always empty.
+     *
+     * @return an empty stream
+     */
+    @Override
+    public InputStream getErrorStream() {
+        return InputStream.nullInputStream();
+    }
+
+    /**
+     * Wait until the player is destroyed.
+     *
+     * @return 0
+     * @throws InterruptedException if the wait is interrupted
+     */
+    @Override
+    public int waitFor() throws InterruptedException {
+        try {
+            return exit.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Get the exit value of the player.
+     *
+     * @return 0
+     * @throws IllegalThreadStateException if the player was not destroyed
+     */
+    @Override
+    public int exitValue() {
+        if (!exit.isDone()) {
+            throw new IllegalThreadStateException("player hasn't exited");
+        }
+        return exit.join();
+    }
+
+    /**
+     * Check if the player is still running.
+     *
+     * @return true until destroy() is called
+     */
+    @Override
+    public boolean isAlive() {
+        return !exit.isDone();
+    }
+
+    /**
+     * Stop playback and end the output stream.
+     */
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            stream.close();
+            notifyAll();
+        }
+        exit.complete(0);
+    }
+
+    /**
+     * Get a future completed when the player is destroyed.
+     *
+     * @return the future
+     */
+    @Override
+    public CompletableFuture<Process> onExit() {
+        return exit.thenApply(rc -> this);
+    }
+
+    // ------------------------------------------------------------------------
+    // SessionPlayer ----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the wall clock time the recording started.
+     *
+     * @return the time in millis since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Get the length of the recording.
+     *
+     * @return the time of the last record, in millis since the start
+     */
+    public long getDuration() {
+        return (count == 0 ? 0 : times[count - 1]);
+    }
+
+    /**
+     * Get the screen width at the start of the recording.
+     *
+     * @return the number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the screen height at the start of the recording.
+     *
+     * @return the number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the number of keyframes, which is the number of places seek()
+     * can start from.
+     *
+     * @return the number of keyframes
+     */
+    public int getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    /**
+     * Get the current playback time.
+     *
+     * @return the time in millis since the start of the recording
+     */
+    public synchronized long getTime() {
+        if (paused) {
+            return clockTime;
+        }
+        long elapsed = (long) ((System.nanoTime() - clockNanos) / 1_000_000
+            * speed);
+        return Math.min(clockTime + elapsed, getDuration());
+    }
+
+    /**
+     * Check if playback is paused.
+     *
+     * @return true if paused
+     */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pause playback.
+     */
+    public synchronized void pause() {
+        if (!paused) {
+            setClock(getTime());
+            paused = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Resume playback.
+     */
+    public synchronized void resume() {
+        if (paused) {
+            paused = false;
+            setClock(clockTime);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Get the playback speed.
+     *
+     * @return the speed, 1.0 is real time
+     */
+    public synchronized double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Set the playback speed.
+     *
+     * @param speed the speed, 1.0 is real time
+     * @throws IllegalArgumentException if speed is not positive
+     */
+    public synchronized void setSpeed(final double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive: "
+                + speed);
+        }
+        setClock(getTime());
+        this.speed = speed;
+        notifyAll();
+    }
+
+    /**
+     * Jump to a time in the recording.  Only the output after the nearest
+     * keyframe at or before that time is replayed.
+     *
+     * @param millis the time in millis since the start of the recording
+     */
+    public synchronized void seek(final long millis) {
+        long time = Math.max(0, Math.min(millis, getDuration()));
+
+        // The last record at or before the time.
+        int end = upperBound(time);
+
+        // The last keyframe at or before that record.
+        int k = Arrays.binarySearch(keyframes, 0, keyframeCount, end - 1);
+        if (k < 0) {
+            k = -k - 2;
+        }
+
+        stream.clear();
+        stream.add(ByteBuffer.wrap(RESET));
+        int first = 0;
+        if (k >= 0) {
+            int keyframe = keyframes[k];
+            stream.add(slice(keyframe));
+            first = keyframe + 1;
+        }
+        for (int i = first; i < end; i++) {
+            if (kinds[i] == SessionRecording.OUTPUT) {
+                stream.add(slice(i));
+            }
+        }
+        position = end;
+        setClock(time);
+        notifyAll();
+    }
+
+    /**
+     * Get the input events of the recording, with their times, for example
+     * to audit them or to drive a ReplayBackend.
+     *
+     * @param backend the backend to attach to the events
+     * @return the events
+     * @throws IOException if an event cannot be parsed
+     */
+    public EventRecording getEventRecording(final Backend backend)
+        throws IOException {
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (kinds[i] == SessionRecording.INPUT) {
+                byte [] bytes = new byte[lengths[i]];
+                data.get(offsets[i], bytes);
+                sb.append(times[i]).append(' ');
+                sb.append(new String(bytes, StandardCharsets.UTF_8));
+                sb.append('\n');
+            }
+        }
+        return EventRecording.read(new StringReader(sb.toString()), backend);
+    }
+
+    /**
+     * Read the record headers and build the index.
+     *
+     * @throws IOException if a record is cut short, other than the last
+     * one, which may have been cut short by a crash
+     */
+    private void index() throws IOException {
+        int offset = SessionRecording.HEADER_LENGTH;
+        long time = 0;
+        int [] cursor = new int[1];
+        while (offset < data.limit()) {
+            byte kind = data.get(offset);
+            cursor[0] = offset + 1;
+            long delta = getVarint(cursor);
+            long length = getVarint(cursor);
+            if ((delta < 0) || (length < 0)
+                || (cursor[0] + length > data.limit())
+            ) {
+                // A partly written last record.
+                break;
+            }
+            time += delta;
+            int payload = cursor[0];
+            offset = (int) (payload + length);
+
+            if (count == kinds.length) {
+                int size = count * 2;
+                kinds = Arrays.copyOf(kinds, size);
+                times = Arrays.copyOf(times, size);
+                offsets = Arrays.copyOf(offsets, size);
+                lengths = Arrays.copyOf(lengths, size);
+            }
+            if (kind == SessionRecording.KEYFRAME) {
+                cursor[0] = payload;
+                int keyframeWidth = (int) getVarint(cursor);
+                int keyframeHeight = (int) getVarint(cursor);
+                if (keyframeCount == 0) {
+                    width = keyframeWidth;
+                    height = keyframeHeight;
+                }
+                if (keyframeCount == keyframes.length) {
+                    keyframes = Arrays.copyOf(keyframes, keyframeCount * 2);
+                }
+                keyframes[keyframeCount++] = count;
+                length -= cursor[0] - payload;
+                payload = cursor[0];
+            } else if ((kind != SessionRecording.OUTPUT)
+                && (kind != SessionRecording.INPUT)
+            ) {
+                throw new IOException("Unknown record kind " + kind
+                    + " at offset " + (payload - 1));
+            }
+            kinds[count] = kind;
+            times[count] = time;
+            offsets[count] = payload;
+            lengths[count] = (int) length;
+            count++;
+        }
+    }
+
+    /**
+     * Decode an unsigned LEB128 varint.
+     *
+     * @param cursor the offset to read at, advanced past the varint
+     * @return the value, or -1 if the varint runs past the end of the file
+     */
+    private long getVarint(final int [] cursor) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (cursor[0] >= data.limit()) {
+                return -1;
+            }
+            byte b = data.get(cursor[0]++);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the payload of a record as a view of the mapped file.
+     *
+     * @param record the record index
+     * @return the payload
+     */
+    private ByteBuffer slice(final int record) {
+        return data.slice(offsets[record], lengths[record]);
+    }
+
+    /**
+     * Find the first record after a time.
+     *
+     * @param time the time in millis since the start
+     * @return the index of the first record with a later time, or count
+     */
+    private int upperBound(final long time) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Set the playback clock.  Callers must hold this object's lock.
+     *
+     * @param time the recording time that is now, in millis
+     */
+    private void setClock(final long time) {
+        clockTime = time;
+        clockNanos = System.nanoTime();
+    }
+
+    /**
+     * Feed the output to the emulator as its recorded time comes.  This
+     * runs on its own daemon thread until destroy() is called.
+     */
+    private synchronized void play() {
+        while (!exit.isDone()) {
+            long wait = 0;
+            if (!paused && (position < count)) {
+                long due = times[position] - getTime();
+                if (due <= 0) {
+                    if (kinds[position] == SessionRecording.OUTPUT) {
+                        stream.add(slice(position));
+                    }
+                    position++;
+                    continue;
+                }
+                wait = Math.max(1, (long) (due / speed));
+            }
+            try {
+                wait(wait);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+}
@@ -36,6 +36,23 @@ public interface TerminalListener {
      */
     public void postUpdate(final TerminalState terminalState);
 
+    /**
+     * Function to call when the terminal state has changed, but no snapshot
+     * has been taken yet.  The emulator calls this once, and not again
+     * until the snapshot is taken with emulator.pollState().  The default
+     * takes the snapshot immediately and passes it to postUpdate();
+     * listeners that draw on their own schedule can instead call
+     * pollState() when they draw.
+     *
+     * @param emulator the emulator that changed
+     */
+    public default void postDirty(final ECMA48 emulator) {
+        TerminalState terminalState = emulator.pollState();
+        if (terminalState != null) {
+            postUpdate(terminalState);
+        }
+    }
+
     /**
      * Function to call to obtain the external UI display width.
      *
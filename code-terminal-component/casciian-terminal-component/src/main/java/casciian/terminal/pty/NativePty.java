@@ -0,0 +1,72 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.terminal.pty;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * NativePty creates pseudo-terminals with the foreign function API.  This
+ * is the Java 21 version, where that API is still a preview: it is never
+ * available.  The real implementation is in src/main/java22, and replaces
+ * this class in the multi-release jar.
+ */
+final class NativePty {
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Private constructor: this is a utility class.
+     */
+    private NativePty() {
+        // NOP
+    }
+
+    // ------------------------------------------------------------------------
+    // NativePty --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Check if pseudo-terminals can be created.
+     *
+     * @return false
+     */
+    static boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * Start a process on a new pseudo-terminal.
+     *
+     * @param command the program and its arguments
+     * @param environment the environment of the process
+     * @param directory the working directory of the process
+     * @param columns the initial window width
+     * @param rows the initial window height
+     * @return never
+     * @throws IOException always
+     */
+    static PtyProcess start(final String [] command,
+        final Map<String, String> environment, final File directory,
+        final int columns, final int rows) throws IOException {
+
+        throw new IOException("Native pseudo-terminals need Java 22 or later");
+    }
+
+}
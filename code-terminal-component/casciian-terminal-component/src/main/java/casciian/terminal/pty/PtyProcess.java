@@ -0,0 +1,115 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.terminal.pty;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ByteChannel;
+import java.util.Map;
+
+/**
+ * PtyProcess is a child process whose standard input, output, and error
+ * are the slave side of a pseudo-terminal owned by this JVM.  The master
+ * side is exposed as a channel, and the window size can be changed at any
+ * time, which the child sees as SIGWINCH.
+ *
+ * <p>Compared to running the child under script(1) or ptypipe, there is no
+ * extra process relaying every byte through a pipe, and resizing does not
+ * need an in-band protocol.</p>
+ *
+ * <p>The native implementation needs Linux and Java 22 or later, where the
+ * foreign function API is final; it is shipped in the multi-release part of
+ * the jar.  Use {@link #isAvailable()} to check for it and fall back to
+ * ProcessBuilder otherwise.  Java 24 and later print a warning for native
+ * access unless the application is run with
+ * --enable-native-access=ALL-UNNAMED.</p>
+ */
+public abstract class PtyProcess extends Process {
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Protected constructor for implementations.
+     */
+    protected PtyProcess() {
+        // NOP
+    }
+
+    // ------------------------------------------------------------------------
+    // PtyProcess -------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Check if pseudo-terminals can be created on this platform and JVM.
+     *
+     * @return true if {@link #start(String[], Map, File, int, int)} can be
+     * used
+     */
+    public static boolean isAvailable() {
+        return NativePty.isAvailable();
+    }
+
+    /**
+     * Start a process on a new pseudo-terminal.  The process is the leader
+     * of a new session, and the pseudo-terminal is its controlling
+     * terminal.
+     *
+     * @param command the program (command[0], searched for on the PATH) and
+     * its arguments
+     * @param environment the complete environment of the process
+     * @param directory the working directory of the process
+     * @param columns the initial window width
+     * @param rows the initial window height
+     * @return the process
+     * @throws IOException if the pseudo-terminal cannot be created or the
+     * program cannot be run
+     * @throws IllegalArgumentException if command is empty
+     */
+    public static PtyProcess start(final String [] command,
+        final Map<String, String> environment, final File directory,
+        final int columns, final int rows) throws IOException {
+
+        if (command.length == 0) {
+            throw new IllegalArgumentException("empty command");
+        }
+        return NativePty.start(command, environment, directory, columns,
+            rows);
+    }
+
+    /**
+     * Get the master side of the pseudo-terminal.  Reads block until the
+     * process writes something, and return -1 once every copy of the slave
+     * side is closed, usually because the process exited.
+     * getInputStream() and getOutputStream() are views of this channel.
+     *
+     * @return the channel
+     */
+    public abstract ByteChannel getChannel();
+
+    /**
+     * Set the window size of the pseudo-terminal.  The foreground process
+     * group is sent SIGWINCH.
+     *
+     * @param columns the window width
+     * @param rows the window height
+     * @throws IOException if the size cannot be set
+     */
+    public abstract void setWindowSize(final int columns, final int rows)
+        throws IOException;
+
+}
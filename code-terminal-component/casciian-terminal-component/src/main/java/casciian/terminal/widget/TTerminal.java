@@ -34,6 +34,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -53,6 +54,7 @@ import casciian.terminal.DisplayLine;
 import casciian.terminal.ECMA48;
 import casciian.terminal.TerminalListener;
 import casciian.terminal.TerminalState;
+import casciian.terminal.pty.PtyProcess;
 import org.jline.utils.InfoCmp;
 
 import static casciian.TCommand.*;
@@ -73,6 +75,12 @@ public class TTerminal extends TScrollable
      */
     public static final String RESOURCE_BUNDLE_NAME = TTerminal.class.getName() + "Bundle";
 
+    /**
+     * Default for the longest time in millis that new output may wait
+     * before it is drawn.
+     */
+    private static final long DEFAULT_MAX_LATENCY = 50;
+
     // ------------------------------------------------------------------------
     // Variables --------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -88,7 +96,8 @@ public class TTerminal extends TScrollable
     private ECMA48 emulator;
 
     /**
-     * The Process created by the shell spawning constructor.
+     * The Process created by the shell spawning constructor.  This is a
+     * PtyProcess when the shell runs on a native pseudo-terminal.
      */
     private Process shell;
 
@@ -119,6 +128,19 @@ public class TTerminal extends TScrollable
      */
     private List<TerminalState> dirtyQueue = new ArrayList<TerminalState>();
 
+    /**
+     * The longest time in millis that new output may wait before it is
+     * drawn.  TApplication.doRepaint() drops requests that arrive too soon
+     * after the last frame, so a timer makes sure the output is drawn no
+     * later than this.  0 means no timer.
+     */
+    private volatile long maxLatency = DEFAULT_MAX_LATENCY;
+
+    /**
+     * If true, a timer is already set to draw pending output.
+     */
+    private volatile boolean latencyTimerPending = false;
+
     /**
      * Current visible display.
      */
@@ -249,6 +271,11 @@ public class TTerminal extends TScrollable
         // terminal, not the fully-processed command line.
         commandLine = command;
 
+        if (useNativePty()) {
+            spawnShell(command, true);
+            return;
+        }
+
         String [] fullCommand;
 
         // Spawn a shell and pass its I/O to the other constructor.
@@ -305,6 +332,37 @@ public class TTerminal extends TScrollable
         spawnShell(fullCommand);
     }
 
+    /**
+     * Public constructor shows a process that is already running, for
+     * example a SessionPlayer.  Its input stream is fed to the emulator,
+     * and keystrokes are written to its output stream.
+     *
+     * @param parent parent widget
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of widget
+     * @param height height of widget
+     * @param process the process
+     * @param closeAction action to perform when the process exits
+     */
+    @SuppressWarnings("this-escape")
+    public TTerminal(final TWidget parent, final int x, final int y,
+        final int width, final int height, final Process process,
+        final TAction closeAction) {
+
+        super(parent, x, y, width, height);
+        i18n = ResourceBundle.getBundle(RESOURCE_BUNDLE_NAME,
+            getLocale());
+
+        setMouseStyle("text");
+        this.closeAction = closeAction;
+
+        // There is no command line that recreates this terminal.
+        commandLine = new String[0];
+
+        attachShell(process);
+    }
+
     /**
      * Public constructor spawns a shell.
      *
@@ -363,6 +421,15 @@ public class TTerminal extends TScrollable
         // Save an empty command line.
         commandLine = new String[0];
 
+        if (useNativePty()) {
+            // The same shell that script would run.
+            String [] cmdShellNative = {
+                Objects.requireNonNullElse(System.getenv("SHELL"), "/bin/sh")
+            };
+            spawnShell(cmdShellNative, true);
+            return;
+        }
+
         String cmdShellWindows = "cmd.exe";
 
         // You cannot run a login shell in a bare Process interactively, due
@@ -447,6 +514,23 @@ public class TTerminal extends TScrollable
                     emulator.setHeight(getHeight());
 
                     emulator.writeRemote(ControlSequences.CSI_8T.formatted(getHeight(), getWidth()));
+
+                    // Show the new size now, even if the remote side does
+                    // not redraw.
+                    postUpdate(emulator.captureState());
+                } else if (shell instanceof PtyProcess pty) {
+                    emulator.setWidth(getWidth());
+                    emulator.setHeight(getHeight());
+
+                    try {
+                        pty.setWindowSize(getWidth(), getHeight());
+                    } catch (IOException e) {
+                        // SQUASH, the shell has exited.
+                    }
+
+                    // Show the new size now, even if the remote side does
+                    // not redraw.
+                    postUpdate(emulator.captureState());
                 }
             }
         }
@@ -746,9 +830,15 @@ public class TTerminal extends TScrollable
                 terminalState = emulator.captureState();
             }
         } else {
-            // If the emulator posted updated, sync.
+            // Take at most one snapshot per frame, however much output
+            // came in since the last one.
+            TerminalState update = emulator.pollState();
             synchronized (dirtyQueue) {
-                if (dirtyQueue.size() > 0) {
+                if (update != null) {
+                    // This is newer than anything posted.
+                    terminalState = update;
+                    dirtyQueue.clear();
+                } else if (dirtyQueue.size() > 0) {
                     // We will be dropping frames to keep up.
                     terminalState = dirtyQueue.remove(dirtyQueue.size() - 1);
                     dirtyQueue.clear();
@@ -757,6 +847,28 @@ public class TTerminal extends TScrollable
         }
     }
 
+    /**
+     * Check if shells should run on a native pseudo-terminal rather than
+     * under 'script' or 'ptypipe'.  This is the default where it is
+     * available, unless casciian.TTerminal.pty is false or
+     * casciian.TTerminal.ptypipe is true.
+     *
+     * @return true to use PtyProcess
+     */
+    private static boolean useNativePty() {
+        if (System.getProperty("casciian.TTerminal.pty",
+                "true").equals("false")
+        ) {
+            return false;
+        }
+        if (System.getProperty("casciian.TTerminal.ptypipe",
+                "auto").equals("true")
+        ) {
+            return false;
+        }
+        return PtyProcess.isAvailable();
+    }
+
     /**
      * Check for 'ptypipe' on the path.  If available, set ptypipeOnPath.
      */
@@ -888,31 +1000,37 @@ public class TTerminal extends TScrollable
     }
 
     /**
-     * Spawn the shell.
+     * Spawn the shell with ProcessBuilder.
      *
      * @param command the command line to execute
      */
     private void spawnShell(final String [] command) {
+        spawnShell(command, false);
+    }
+
+    /**
+     * Spawn the shell.
+     *
+     * @param command the command line to execute
+     * @param nativePty if true, run the command on a native pseudo-terminal
+     * instead of with ProcessBuilder
+     */
+    private void spawnShell(final String [] command,
+        final boolean nativePty) {
+
         /*
         System.err.printf("spawnShell(): '%s'\n",
             stringArrayToString(command));
         */
 
-        // We will have vScroller for its data fields and mouse event
-        // handling, but do not want to draw it.
-        vScroller = new TVScroller(null, getWidth(), 0, getHeight());
-        vScroller.setVisible(false);
-        setBottomValue(0);
-
-        title = i18n.getString("windowTitle");
-
         // Assume XTERM
         ECMA48.DeviceType deviceType = ECMA48.DeviceType.XTERM;
 
+        Process process = null;
         try {
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.directory(new File(SystemProperties.getUserDir()));
-            Map<String, String> env = pb.environment();
+            File directory = new File(SystemProperties.getUserDir());
+            Map<String, String> env = new HashMap<String, String>(
+                System.getenv());
             String langString = System.getenv().get("LANG");
             if (langString == null) {
                 Locale locale = Locale.getDefault();
@@ -930,17 +1048,56 @@ public class TTerminal extends TScrollable
                 Objects.requireNonNullElse(System.getenv("TERM"), "xterm-256color"));
             env.put("TERM", termString);
             env.put("LANG", ECMA48.deviceTypeLang(deviceType, langString));
-            env.put("COLUMNS", "80");
-            env.put("LINES", "24");
-            pb.redirectErrorStream(true);
-            shell = pb.start();
-            emulator = new ECMA48(deviceType, shell.getInputStream(),
-                shell.getOutputStream(), this, getApplication().getBackend());
+            if (nativePty) {
+                // The pseudo-terminal knows its size, and curses programs
+                // prefer these variables over it if they are set.
+                env.remove("COLUMNS");
+                env.remove("LINES");
+                process = PtyProcess.start(command, env, directory, 80, 24);
+            } else {
+                env.put("COLUMNS", "80");
+                env.put("LINES", "24");
+                ProcessBuilder pb = new ProcessBuilder(command);
+                pb.directory(directory);
+                pb.environment().clear();
+                pb.environment().putAll(env);
+                pb.redirectErrorStream(true);
+                process = pb.start();
+            }
         } catch (IOException e) {
             messageBox(i18n.getString("errorLaunchingShellTitle"),
                 MessageFormat.format(i18n.getString("errorLaunchingShellText"),
                     e.getMessage()));
         }
+        attachShell(process);
+    }
+
+    /**
+     * Start the emulator on a process' streams.
+     *
+     * @param process the process, or null if it could not be started
+     */
+    private void attachShell(final Process process) {
+        // We will have vScroller for its data fields and mouse event
+        // handling, but do not want to draw it.
+        vScroller = new TVScroller(null, getWidth(), 0, getHeight());
+        vScroller.setVisible(false);
+        setBottomValue(0);
+
+        title = i18n.getString("windowTitle");
+
+        shell = process;
+        if (shell != null) {
+            try {
+                emulator = new ECMA48(ECMA48.DeviceType.XTERM,
+                    shell.getInputStream(), shell.getOutputStream(), this,
+                    getApplication().getBackend());
+            } catch (IOException e) {
+                messageBox(i18n.getString("errorLaunchingShellTitle"),
+                    MessageFormat.format(i18n.getString(
+                        "errorLaunchingShellText"), e.getMessage()));
+            }
+        }
 
         // Setup the scroll bars
         onResize(new TResizeEvent(null, TResizeEvent.Type.WIDGET, getWidth(),
@@ -963,6 +1120,14 @@ public class TTerminal extends TScrollable
             // SQUASH
         }
 
+        try {
+            maxLatency = Math.max(0, Long.parseLong(System.getProperty(
+                "casciian.TTerminal.maxLatency",
+                    Long.toString(DEFAULT_MAX_LATENCY))));
+        } catch (NumberFormatException e) {
+            // SQUASH
+        }
+
     }
 
     /**
@@ -1321,6 +1486,30 @@ public class TTerminal extends TScrollable
         }
     }
 
+    /**
+     * Called by emulator when fresh data has come in.  The snapshot is
+     * taken on the next draw.
+     *
+     * @param emulator the emulator
+     */
+    @Override
+    public void postDirty(final ECMA48 emulator) {
+        TApplication app = getApplication();
+        if (app == null) {
+            return;
+        }
+        app.doRepaint();
+        if ((maxLatency > 0) && !latencyTimerPending) {
+            latencyTimerPending = true;
+            app.addTimer(maxLatency, false, new TAction() {
+                public void DO() {
+                    // The timer firing is enough to repaint.
+                    latencyTimerPending = false;
+                }
+            });
+        }
+    }
+
     /**
      * Function to call to obtain the display width.
      *
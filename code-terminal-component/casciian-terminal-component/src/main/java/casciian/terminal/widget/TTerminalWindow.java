@@ -192,6 +192,63 @@ public class TTerminalWindow extends TScrollableWindow {
         setAlpha(opacity * 255 / 100);
     }
 
+    /**
+     * Public constructor shows a process that is already running, for
+     * example a casciian.terminal.SessionPlayer playing back a recorded
+     * session.
+     *
+     * @param application TApplication that manages this window
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param flags mask of CENTERED, MODAL, or RESIZABLE
+     * @param process the process
+     * @param closeOnExit if true, close the window when the process exits
+     */
+    @SuppressWarnings("this-escape")
+    public TTerminalWindow(final TApplication application, final int x,
+        final int y, final int flags, final Process process,
+        final boolean closeOnExit) {
+
+        super(application, "", x, y, 80 + 2, 24 + 2, flags);
+
+        i18n = ResourceBundle.getBundle(RESOURCE_BUNDLE_NAME,
+            getLocale());
+        setTitle(i18n.getString("windowTitle"));
+
+        // Require at least one line for the display.
+        setMinimumWindowHeight(3);
+
+        this.closeOnExit = closeOnExit;
+        vScroller = new TVScroller(this, getWidth() - 2, 0, getHeight() - 2);
+
+        // Claim the keystrokes the emulator will need.
+        addShortcutKeys();
+
+        // Add shortcut text
+        TStatusBar statusBar = newStatusBar(i18n.getString("statusBarRunning"));
+        statusBar.addShortcutKeypress(kbF1, cmHelp,
+            i18n.getString("statusBarHelp"));
+        statusBar.addShortcutKeypress(kbShiftF10, cmMenu,
+            i18n.getString("statusBarMenu"));
+
+        terminal = new TTerminal(this, 0, 0, 80, 24, process, new TAction() {
+            public void DO() {
+                onShellExit();
+            }
+        });
+
+        int opacity = 95;
+        try {
+            opacity = Integer.parseInt(System.getProperty(
+                "casciian.TTerminal.opacity", "95"));
+            opacity = Math.max(opacity, 10);
+            opacity = Math.min(opacity, 100);
+        } catch (NumberFormatException e) {
+            // SQUASH
+        }
+        setAlpha(opacity * 255 / 100);
+    }
+
     /**
      * Public constructor spawns a shell.
      *
@@ -0,0 +1,720 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.terminal.pty;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+
+/**
+ * NativePty creates pseudo-terminals on Linux by calling the C library
+ * through the foreign function API: posix_openpt() for the master side,
+ * and posix_spawnp() to start the child in a new session with the slave
+ * side as its controlling terminal.  This is what openpty() plus fork()
+ * would do, but posix_spawn() is safe to call from a multithreaded JVM.
+ *
+ * <p>Constants and structure sizes are those of glibc on x86_64 and
+ * aarch64, the only platforms this class claims to support.</p>
+ */
+final class NativePty {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * open() flag: read and write.
+     */
+    private static final int O_RDWR = 02;
+
+    /**
+     * open() flag: do not become the controlling terminal.
+     */
+    private static final int O_NOCTTY = 0400;
+
+    /**
+     * open() flag: close on exec, so the child does not inherit the master.
+     */
+    private static final int O_CLOEXEC = 02000000;
+
+    /**
+     * errno: interrupted system call.
+     */
+    static final int EINTR = 4;
+
+    /**
+     * errno: I/O error, which is what reading the master returns once the
+     * slave side is closed.
+     */
+    static final int EIO = 5;
+
+    /**
+     * ioctl() request to set the window size.
+     */
+    private static final long TIOCSWINSZ = 0x5414;
+
+    /**
+     * posix_spawnattr flag: reset the signals in the default set.
+     */
+    private static final short POSIX_SPAWN_SETSIGDEF = 0x04;
+
+    /**
+     * posix_spawnattr flag: set the signal mask.
+     */
+    private static final short POSIX_SPAWN_SETSIGMASK = 0x08;
+
+    /**
+     * posix_spawnattr flag (glibc): call setsid() in the child.
+     */
+    private static final short POSIX_SPAWN_SETSID = 0x80;
+
+    /**
+     * Room for posix_spawn_file_actions_t, posix_spawnattr_t, and sigset_t,
+     * which are opaque and smaller than this.
+     */
+    private static final long OPAQUE_SIZE = 1024;
+
+    /**
+     * Room for the name of the slave device.
+     */
+    private static final long PTSNAME_SIZE = 128;
+
+    /**
+     * Layout of struct winsize.
+     */
+    private static final StructLayout WINSIZE = MemoryLayout.structLayout(
+        JAVA_SHORT.withName("ws_row"), JAVA_SHORT.withName("ws_col"),
+        JAVA_SHORT.withName("ws_xpixel"), JAVA_SHORT.withName("ws_ypixel"));
+
+    /**
+     * Layout of the call state captured after calls that set errno.
+     */
+    static final StructLayout CALL_STATE = Linker.Option.captureStateLayout();
+
+    /**
+     * Offset of errno in the captured call state.
+     */
+    private static final long ERRNO_OFFSET = CALL_STATE.byteOffset(
+        MemoryLayout.PathElement.groupElement("errno"));
+
+    /**
+     * Whether the functions below were all found.
+     */
+    private static final boolean AVAILABLE;
+
+    /**
+     * A descriptor open on /dev/null, duplicated over a master descriptor
+     * when its channel is closed while another thread may still be using
+     * it.  See NativePtyProcess.MasterChannel.close().
+     */
+    static final int DEV_NULL;
+
+    /**
+     * int posix_openpt(int flags), capturing errno.
+     */
+    private static final MethodHandle POSIX_OPENPT;
+
+    /**
+     * int grantpt(int fd), capturing errno.
+     */
+    private static final MethodHandle GRANTPT;
+
+    /**
+     * int unlockpt(int fd), capturing errno.
+     */
+    private static final MethodHandle UNLOCKPT;
+
+    /**
+     * int ptsname_r(int fd, char *buf, size_t buflen).
+     */
+    private static final MethodHandle PTSNAME_R;
+
+    /**
+     * int ioctl(int fd, unsigned long request, void *arg), capturing errno.
+     */
+    private static final MethodHandle IOCTL;
+
+    /**
+     * ssize_t read(int fd, void *buf, size_t count), capturing errno.
+     */
+    static final MethodHandle READ;
+
+    /**
+     * ssize_t write(int fd, const void *buf, size_t count), capturing
+     * errno.
+     */
+    static final MethodHandle WRITE;
+
+    /**
+     * int close(int fd).
+     */
+    static final MethodHandle CLOSE;
+
+    /**
+     * int dup2(int oldfd, int newfd).
+     */
+    static final MethodHandle DUP2;
+
+    /**
+     * int kill(pid_t pid, int sig).
+     */
+    static final MethodHandle KILL;
+
+    /**
+     * pid_t waitpid(pid_t pid, int *status, int options), capturing errno.
+     */
+    static final MethodHandle WAITPID;
+
+    /**
+     * char *strerror(int errnum).
+     */
+    private static final MethodHandle STRERROR;
+
+    /**
+     * int posix_spawn_file_actions_init(posix_spawn_file_actions_t *fa).
+     */
+    private static final MethodHandle FILE_ACTIONS_INIT;
+
+    /**
+     * int posix_spawn_file_actions_destroy(posix_spawn_file_actions_t *fa).
+     */
+    private static final MethodHandle FILE_ACTIONS_DESTROY;
+
+    /**
+     * int posix_spawn_file_actions_addopen(posix_spawn_file_actions_t *fa,
+     * int fd, const char *path, int oflag, mode_t mode).
+     */
+    private static final MethodHandle FILE_ACTIONS_ADDOPEN;
+
+    /**
+     * int posix_spawn_file_actions_adddup2(posix_spawn_file_actions_t *fa,
+     * int fd, int newfd).
+     */
+    private static final MethodHandle FILE_ACTIONS_ADDDUP2;
+
+    /**
+     * int posix_spawn_file_actions_addchdir_np(posix_spawn_file_actions_t
+     * *fa, const char *path), glibc 2.29 and later.
+     */
+    private static final MethodHandle FILE_ACTIONS_ADDCHDIR;
+
+    /**
+     * int posix_spawn_file_actions_addclosefrom_np(posix_spawn_file_actions_t
+     * *fa, int from), glibc 2.34 and later; null if missing.
+     */
+    private static final MethodHandle FILE_ACTIONS_ADDCLOSEFROM;
+
+    /**
+     * int posix_spawnattr_init(posix_spawnattr_t *attr).
+     */
+    private static final MethodHandle ATTR_INIT;
+
+    /**
+     * int posix_spawnattr_destroy(posix_spawnattr_t *attr).
+     */
+    private static final MethodHandle ATTR_DESTROY;
+
+    /**
+     * int posix_spawnattr_setflags(posix_spawnattr_t *attr, short flags).
+     */
+    private static final MethodHandle ATTR_SETFLAGS;
+
+    /**
+     * int posix_spawnattr_setsigmask(posix_spawnattr_t *attr,
+     * const sigset_t *sigmask).
+     */
+    private static final MethodHandle ATTR_SETSIGMASK;
+
+    /**
+     * int posix_spawnattr_setsigdefault(posix_spawnattr_t *attr,
+     * const sigset_t *sigdefault).
+     */
+    private static final MethodHandle ATTR_SETSIGDEFAULT;
+
+    /**
+     * int sigemptyset(sigset_t *set).
+     */
+    private static final MethodHandle SIGEMPTYSET;
+
+    /**
+     * int sigfillset(sigset_t *set).
+     */
+    private static final MethodHandle SIGFILLSET;
+
+    /**
+     * int posix_spawnp(pid_t *pid, const char *file,
+     * const posix_spawn_file_actions_t *fa, const posix_spawnattr_t *attr,
+     * char *const argv[], char *const envp[]).
+     */
+    private static final MethodHandle POSIX_SPAWNP;
+
+    static {
+        boolean available = false;
+        MethodHandle posixOpenpt = null;
+        MethodHandle grantpt = null;
+        MethodHandle unlockpt = null;
+        MethodHandle ptsnameR = null;
+        MethodHandle ioctl = null;
+        MethodHandle read = null;
+        MethodHandle write = null;
+        MethodHandle close = null;
+        MethodHandle dup2 = null;
+        MethodHandle kill = null;
+        MethodHandle waitpid = null;
+        MethodHandle strerror = null;
+        MethodHandle faInit = null;
+        MethodHandle faDestroy = null;
+        MethodHandle faAddopen = null;
+        MethodHandle faAdddup2 = null;
+        MethodHandle faAddchdir = null;
+        MethodHandle faAddclosefrom = null;
+        MethodHandle attrInit = null;
+        MethodHandle attrDestroy = null;
+        MethodHandle attrSetflags = null;
+        MethodHandle attrSetsigmask = null;
+        MethodHandle attrSetsigdefault = null;
+        MethodHandle sigemptyset = null;
+        MethodHandle sigfillset = null;
+        MethodHandle posixSpawnp = null;
+        int devNull = -1;
+
+        String os = System.getProperty("os.name", "");
+        String arch = System.getProperty("os.arch", "");
+        if (os.toLowerCase(Locale.ROOT).startsWith("linux")
+            && (arch.equals("amd64") || arch.equals("x86_64")
+                || arch.equals("aarch64"))
+        ) {
+            try {
+                Linker linker = Linker.nativeLinker();
+                SymbolLookup libc = linker.defaultLookup();
+                Linker.Option errno = Linker.Option.captureCallState("errno");
+
+                posixOpenpt = downcall(linker, libc, "posix_openpt",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT), errno);
+                grantpt = downcall(linker, libc, "grantpt",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT), errno);
+                unlockpt = downcall(linker, libc, "unlockpt",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT), errno);
+                ptsnameR = downcall(linker, libc, "ptsname_r",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS,
+                        JAVA_LONG));
+                ioctl = downcall(linker, libc, "ioctl",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG,
+                        ADDRESS), errno, Linker.Option.firstVariadicArg(2));
+                read = downcall(linker, libc, "read",
+                    FunctionDescriptor.of(JAVA_LONG, JAVA_INT, ADDRESS,
+                        JAVA_LONG), errno);
+                write = downcall(linker, libc, "write",
+                    FunctionDescriptor.of(JAVA_LONG, JAVA_INT, ADDRESS,
+                        JAVA_LONG), errno);
+                close = downcall(linker, libc, "close",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+                dup2 = downcall(linker, libc, "dup2",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT));
+                MethodHandle open = downcall(linker, libc, "open",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+                kill = downcall(linker, libc, "kill",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT));
+                waitpid = downcall(linker, libc, "waitpid",
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS,
+                        JAVA_INT), errno);
+                strerror = downcall(linker, libc, "strerror",
+                    FunctionDescriptor.of(ADDRESS, JAVA_INT));
+                faInit = downcall(linker, libc,
+                    "posix_spawn_file_actions_init",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS));
+                faDestroy = downcall(linker, libc,
+                    "posix_spawn_file_actions_destroy",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS));
+                faAddopen = downcall(linker, libc,
+                    "posix_spawn_file_actions_addopen",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT,
+                        ADDRESS, JAVA_INT, JAVA_INT));
+                faAdddup2 = downcall(linker, libc,
+                    "posix_spawn_file_actions_adddup2",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT,
+                        JAVA_INT));
+                faAddchdir = downcall(linker, libc,
+                    "posix_spawn_file_actions_addchdir_np",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+                attrInit = downcall(linker, libc, "posix_spawnattr_init",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS));
+                attrDestroy = downcall(linker, libc,
+                    "posix_spawnattr_destroy",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS));
+                attrSetflags = downcall(linker, libc,
+                    "posix_spawnattr_setflags",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_SHORT));
+                attrSetsigmask = downcall(linker, libc,
+                    "posix_spawnattr_setsigmask",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+                attrSetsigdefault = downcall(linker, libc,
+                    "posix_spawnattr_setsigdefault",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+                sigemptyset = downcall(linker, libc, "sigemptyset",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS));
+                sigfillset = downcall(linker, libc, "sigfillset",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS));
+                posixSpawnp = downcall(linker, libc, "posix_spawnp",
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS,
+                        ADDRESS, ADDRESS, ADDRESS, ADDRESS));
+
+                try (Arena arena = Arena.ofConfined()) {
+                    devNull = (int) call(open,
+                        arena.allocateFrom("/dev/null"), O_RDWR | O_CLOEXEC);
+                }
+                if (devNull < 0) {
+                    throw new UnsupportedOperationException("Cannot open " +
+                        "/dev/null");
+                }
+                available = true;
+
+                // Optional: without it the child may inherit descriptors
+                // that the JVM opened without O_CLOEXEC.
+                if (libc.find("posix_spawn_file_actions_addclosefrom_np").
+                    isPresent()
+                ) {
+                    faAddclosefrom = downcall(linker, libc,
+                        "posix_spawn_file_actions_addclosefrom_np",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+                }
+            } catch (RuntimeException e) {
+                // A missing symbol (musl, old glibc) or native access
+                // denied: fall back to the caller's alternative.
+                available = false;
+            }
+        }
+
+        AVAILABLE                 = available;
+        DEV_NULL                  = devNull;
+        POSIX_OPENPT              = posixOpenpt;
+        GRANTPT                   = grantpt;
+        UNLOCKPT                  = unlockpt;
+        PTSNAME_R                 = ptsnameR;
+        IOCTL                     = ioctl;
+        READ                      = read;
+        WRITE                     = write;
+        CLOSE                     = close;
+        DUP2                      = dup2;
+        KILL                      = kill;
+        WAITPID                   = waitpid;
+        STRERROR                  = strerror;
+        FILE_ACTIONS_INIT         = faInit;
+        FILE_ACTIONS_DESTROY      = faDestroy;
+        FILE_ACTIONS_ADDOPEN      = faAddopen;
+        FILE_ACTIONS_ADDDUP2      = faAdddup2;
+        FILE_ACTIONS_ADDCHDIR     = faAddchdir;
+        FILE_ACTIONS_ADDCLOSEFROM = faAddclosefrom;
+        ATTR_INIT                 = attrInit;
+        ATTR_DESTROY              = attrDestroy;
+        ATTR_SETFLAGS             = attrSetflags;
+        ATTR_SETSIGMASK           = attrSetsigmask;
+        ATTR_SETSIGDEFAULT        = attrSetsigdefault;
+        SIGEMPTYSET               = sigemptyset;
+        SIGFILLSET                = sigfillset;
+        POSIX_SPAWNP              = posixSpawnp;
+    }
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Private constructor: this is a utility class.
+     */
+    private NativePty() {
+        // NOP
+    }
+
+    // ------------------------------------------------------------------------
+    // NativePty --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Check if pseudo-terminals can be created.
+     *
+     * @return true on Linux with glibc 2.29 or later
+     */
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Start a process on a new pseudo-terminal.
+     *
+     * @param command the program (command[0], searched for on the PATH) and
+     * its arguments
+     * @param environment the complete environment of the process
+     * @param directory the working directory of the process
+     * @param columns the initial window width
+     * @param rows the initial window height
+     * @return the process
+     * @throws IOException if the pseudo-terminal cannot be created or the
+     * program cannot be run
+     * @throws IllegalArgumentException if command is empty
+     */
+    static PtyProcess start(final String [] command,
+        final Map<String, String> environment, final File directory,
+        final int columns, final int rows) throws IOException {
+
+        if (!AVAILABLE) {
+            throw new IOException("Native pseudo-terminals are not " +
+                "available on this platform");
+        }
+        if (command.length == 0) {
+            throw new IllegalArgumentException("empty command");
+        }
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment state = arena.allocate(CALL_STATE);
+
+            int master = (int) call(POSIX_OPENPT, state,
+                O_RDWR | O_NOCTTY | O_CLOEXEC);
+            if (master < 0) {
+                throw error("posix_openpt", errno(state));
+            }
+
+            boolean started = false;
+            try {
+                if ((int) call(GRANTPT, state, master) != 0) {
+                    throw error("grantpt", errno(state));
+                }
+                if ((int) call(UNLOCKPT, state, master) != 0) {
+                    throw error("unlockpt", errno(state));
+                }
+                MemorySegment slave = arena.allocate(PTSNAME_SIZE);
+                int rc = (int) call(PTSNAME_R, master, slave, PTSNAME_SIZE);
+                if (rc != 0) {
+                    throw error("ptsname_r", rc);
+                }
+                setWindowSize(master, columns, rows);
+
+                int pid = spawn(arena, command, environment, directory,
+                    slave);
+                started = true;
+                return new NativePtyProcess(pid, master);
+            } finally {
+                if (!started) {
+                    call(CLOSE, master);
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the window size of a pseudo-terminal.
+     *
+     * @param master the master file descriptor
+     * @param columns the window width
+     * @param rows the window height
+     * @throws IOException if the size cannot be set
+     */
+    static void setWindowSize(final int master, final int columns,
+        final int rows) throws IOException {
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment state = arena.allocate(CALL_STATE);
+            MemorySegment winsize = arena.allocate(WINSIZE);
+            winsize.set(JAVA_SHORT, 0, (short) Math.clamp(rows, 0, 0xFFFF));
+            winsize.set(JAVA_SHORT, 2,
+                (short) Math.clamp(columns, 0, 0xFFFF));
+            if ((int) call(IOCTL, state, master, TIOCSWINSZ, winsize) != 0) {
+                throw error("ioctl(TIOCSWINSZ)", errno(state));
+            }
+        }
+    }
+
+    /**
+     * Spawn the child in a new session, with the slave side as its
+     * controlling terminal and standard input, output, and error.
+     *
+     * @param arena the arena for the arguments
+     * @param command the program and its arguments
+     * @param environment the environment of the process
+     * @param directory the working directory, or null for this one
+     * @param slave the NUL-terminated name of the slave device
+     * @return the process ID
+     * @throws IOException if the program cannot be run
+     */
+    private static int spawn(final Arena arena, final String [] command,
+        final Map<String, String> environment, final File directory,
+        final MemorySegment slave) throws IOException {
+
+        MemorySegment argv = arena.allocate(ADDRESS, command.length + 1);
+        for (int i = 0; i < command.length; i++) {
+            argv.setAtIndex(ADDRESS, i, arena.allocateFrom(command[i]));
+        }
+        argv.setAtIndex(ADDRESS, command.length, MemorySegment.NULL);
+
+        MemorySegment envp = arena.allocate(ADDRESS,
+            environment.size() + 1);
+        int n = 0;
+        for (Map.Entry<String, String> entry: environment.entrySet()) {
+            envp.setAtIndex(ADDRESS, n++, arena.allocateFrom(entry.getKey() +
+                    "=" + entry.getValue()));
+        }
+        envp.setAtIndex(ADDRESS, n, MemorySegment.NULL);
+
+        MemorySegment actions = arena.allocate(OPAQUE_SIZE, 16);
+        MemorySegment attr = arena.allocate(OPAQUE_SIZE, 16);
+        MemorySegment noSignals = arena.allocate(OPAQUE_SIZE, 16);
+        MemorySegment allSignals = arena.allocate(OPAQUE_SIZE, 16);
+        MemorySegment pid = arena.allocate(JAVA_INT);
+
+        call(FILE_ACTIONS_INIT, actions);
+        call(ATTR_INIT, attr);
+        try {
+            // After setsid(), the first terminal a session leader opens
+            // becomes its controlling terminal.
+            check("posix_spawn_file_actions_addopen",
+                call(FILE_ACTIONS_ADDOPEN, actions, 0, slave, O_RDWR, 0));
+            check("posix_spawn_file_actions_adddup2",
+                call(FILE_ACTIONS_ADDDUP2, actions, 0, 1));
+            check("posix_spawn_file_actions_adddup2",
+                call(FILE_ACTIONS_ADDDUP2, actions, 0, 2));
+            if (FILE_ACTIONS_ADDCLOSEFROM != null) {
+                check("posix_spawn_file_actions_addclosefrom_np",
+                    call(FILE_ACTIONS_ADDCLOSEFROM, actions, 3));
+            }
+            if (directory != null) {
+                check("posix_spawn_file_actions_addchdir_np",
+                    call(FILE_ACTIONS_ADDCHDIR, actions,
+                        arena.allocateFrom(directory.getPath())));
+            }
+
+            // The JVM blocks and handles signals that a shell expects to
+            // start out unblocked and at their defaults.
+            call(SIGEMPTYSET, noSignals);
+            call(SIGFILLSET, allSignals);
+            check("posix_spawnattr_setsigmask",
+                call(ATTR_SETSIGMASK, attr, noSignals));
+            check("posix_spawnattr_setsigdefault",
+                call(ATTR_SETSIGDEFAULT, attr, allSignals));
+            check("posix_spawnattr_setflags",
+                call(ATTR_SETFLAGS, attr, (short) (POSIX_SPAWN_SETSID
+                        | POSIX_SPAWN_SETSIGMASK | POSIX_SPAWN_SETSIGDEF)));
+
+            int rc = (int) call(POSIX_SPAWNP, pid, argv.getAtIndex(ADDRESS,
+                    0), actions, attr, argv, envp);
+            if (rc != 0) {
+                throw new IOException("Cannot run program \"" + command[0] +
+                    "\": error=" + rc + ", " + strerror(rc));
+            }
+            return pid.get(JAVA_INT, 0);
+        } finally {
+            call(ATTR_DESTROY, attr);
+            call(FILE_ACTIONS_DESTROY, actions);
+        }
+    }
+
+    /**
+     * Look up a C library function.
+     *
+     * @param linker the native linker
+     * @param libc the C library
+     * @param name the function name
+     * @param descriptor the function signature
+     * @param options linker options
+     * @return the method handle
+     */
+    private static MethodHandle downcall(final Linker linker,
+        final SymbolLookup libc, final String name,
+        final FunctionDescriptor descriptor, final Linker.Option... options) {
+
+        return linker.downcallHandle(libc.find(name).orElseThrow(() ->
+                new UnsupportedOperationException(name + "() not found")),
+            descriptor, options);
+    }
+
+    /**
+     * Call a C library function that cannot throw.  This is used for calls
+     * that are not on the hot path; read() and write() use invokeExact().
+     *
+     * @param function the method handle
+     * @param args the arguments
+     * @return the result
+     */
+    static Object call(final MethodHandle function, final Object... args) {
+        try {
+            return function.invokeWithArguments(args);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get errno from a captured call state.
+     *
+     * @param state the call state
+     * @return errno
+     */
+    static int errno(final MemorySegment state) {
+        return state.get(JAVA_INT, ERRNO_OFFSET);
+    }
+
+    /**
+     * Describe an error number.
+     *
+     * @param errno the error number
+     * @return the description
+     */
+    static String strerror(final int errno) {
+        MemorySegment message = (MemorySegment) call(STRERROR, errno);
+        return message.reinterpret(Integer.MAX_VALUE).getString(0);
+    }
+
+    /**
+     * Build the exception for a failed call.
+     *
+     * @param function the function that failed
+     * @param errno the error number
+     * @return the exception
+     */
+    static IOException error(final String function, final int errno) {
+        return new IOException(function + ": " + strerror(errno));
+    }
+
+    /**
+     * Check the result of a function that returns an error number.
+     *
+     * @param function the function name
+     * @param result the result, 0 on success
+     * @throws IOException if the result is not 0
+     */
+    private static void check(final String function,
+        final Object result) throws IOException {
+
+        int rc = (int) result;
+        if (rc != 0) {
+            throw error(function, rc);
+        }
+    }
+
+}
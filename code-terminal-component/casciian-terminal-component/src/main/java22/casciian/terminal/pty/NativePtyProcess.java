@@ -0,0 +1,549 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.terminal.pty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+/**
+ * NativePtyProcess is a child process started by NativePty, along with the
+ * master side of its pseudo-terminal.
+ */
+final class NativePtyProcess extends PtyProcess {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Signal sent by destroy(), as when a terminal window is closed.
+     */
+    private static final int SIGHUP = 1;
+
+    /**
+     * Signal sent by destroyForcibly().
+     */
+    private static final int SIGKILL = 9;
+
+    /**
+     * The largest read or write done in one call.
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The process ID, which is also its process group and session ID.
+     */
+    private final int pid;
+
+    /**
+     * The master file descriptor.
+     */
+    private final int master;
+
+    /**
+     * The master side as a channel.
+     */
+    private final MasterChannel channel;
+
+    /**
+     * The channel as an input stream.
+     */
+    private final InputStream inputStream;
+
+    /**
+     * The channel as an output stream.
+     */
+    private final OutputStream outputStream;
+
+    /**
+     * Completed with the exit value by the reaper thread.
+     */
+    private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+
+    /**
+     * The master side of the pseudo-terminal.  Reads and writes go through
+     * native buffers owned by the channel, one per direction, so the reader
+     * thread and the writer never contend.  The buffers belong to an
+     * automatic arena: a read may still be blocked in the kernel when the
+     * channel is closed, and must not have its buffer freed under it.
+     *
+     * <p>Closing follows the JDK's channels: the master descriptor is
+     * first replaced with /dev/null by dup2(), so its number cannot be
+     * reused by another open() in the JVM while a read or write is still
+     * using it, and is only closed once no call is using it.</p>
+     */
+    private final class MasterChannel implements ByteChannel {
+
+        /**
+         * Whether close() has been called.  Guarded by this.
+         */
+        private boolean closed = false;
+
+        /**
+         * The number of calls using the master descriptor.  Guarded by
+         * this.
+         */
+        private int users = 0;
+
+        /**
+         * Native buffer for reads.
+         */
+        private final MemorySegment readBuffer;
+
+        /**
+         * Captured errno for reads.
+         */
+        private final MemorySegment readState;
+
+        /**
+         * Native buffer for writes.
+         */
+        private final MemorySegment writeBuffer;
+
+        /**
+         * Captured errno for writes.
+         */
+        private final MemorySegment writeState;
+
+        /**
+         * Package private constructor.
+         */
+        MasterChannel() {
+            Arena arena = Arena.ofAuto();
+            readBuffer  = arena.allocate(BUFFER_SIZE);
+            readState   = arena.allocate(NativePty.CALL_STATE);
+            writeBuffer = arena.allocate(BUFFER_SIZE);
+            writeState  = arena.allocate(NativePty.CALL_STATE);
+        }
+
+        /**
+         * Read from the process, blocking until it writes something.  Once
+         * the channel is closed, reads return -1 rather than throw: the
+         * emulator closes its output side while its reader thread may still
+         * be blocked here, and should then see a plain end of stream.
+         *
+         * @param dst the buffer to read into
+         * @return the number of bytes read, or -1 once the slave side or
+         * the channel is closed
+         * @throws IOException if the read fails
+         */
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            synchronized (readBuffer) {
+                int length = Math.min(dst.remaining(), BUFFER_SIZE);
+                for (;;) {
+                    if (!begin()) {
+                        return -1;
+                    }
+                    long rc;
+                    try {
+                        rc = (long) NativePty.READ.invokeExact(readState,
+                            master, readBuffer, (long) length);
+                    } catch (Throwable e) {
+                        throw new IOException(e);
+                    } finally {
+                        end();
+                    }
+                    if (!isOpen()) {
+                        // Closed while reading: whatever came back may be
+                        // from /dev/null.
+                        return -1;
+                    }
+                    if (rc > 0) {
+                        dst.put(readBuffer.asSlice(0, rc).asByteBuffer());
+                        return (int) rc;
+                    }
+                    if (rc == 0) {
+                        return -1;
+                    }
+                    int errno = NativePty.errno(readState);
+                    if (errno == NativePty.EIO) {
+                        // Every copy of the slave side is closed.
+                        return -1;
+                    }
+                    if (errno != NativePty.EINTR) {
+                        throw NativePty.error("read", errno);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Write to the process.
+         *
+         * @param src the buffer to write from
+         * @return the number of bytes written
+         * @throws IOException if the write fails
+         */
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            synchronized (writeBuffer) {
+                int length = Math.min(src.remaining(), BUFFER_SIZE);
+                MemorySegment.copy(MemorySegment.ofBuffer(src), 0,
+                    writeBuffer, 0, length);
+                for (;;) {
+                    if (!begin()) {
+                        throw new ClosedChannelException();
+                    }
+                    long rc;
+                    try {
+                        rc = (long) NativePty.WRITE.invokeExact(writeState,
+                            master, writeBuffer, (long) length);
+                    } catch (Throwable e) {
+                        throw new IOException(e);
+                    } finally {
+                        end();
+                    }
+                    if (rc >= 0) {
+                        src.position(src.position() + (int) rc);
+                        return (int) rc;
+                    }
+                    int errno = NativePty.errno(writeState);
+                    if (errno != NativePty.EINTR) {
+                        throw NativePty.error("write", errno);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Set the window size.
+         *
+         * @param columns the window width
+         * @param rows the window height
+         * @throws IOException if the size cannot be set
+         */
+        void setWindowSize(final int columns, final int rows)
+            throws IOException {
+
+            if (!begin()) {
+                throw new ClosedChannelException();
+            }
+            try {
+                NativePty.setWindowSize(master, columns, rows);
+            } finally {
+                end();
+            }
+        }
+
+        /**
+         * Check if the channel is open.
+         *
+         * @return true if close() has not been called
+         */
+        @Override
+        public synchronized boolean isOpen() {
+            return !closed;
+        }
+
+        /**
+         * Close the channel.  The master descriptor is pointed at
+         * /dev/null at once, and closed when the last call using it
+         * returns.  A read blocked in the kernel returns once the process
+         * exits, or the master is closed as soon as nothing is using it.
+         */
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (users > 0) {
+                // Keep the number taken until the last user is done.
+                NativePty.call(NativePty.DUP2, NativePty.DEV_NULL, master);
+            } else {
+                NativePty.call(NativePty.CLOSE, master);
+            }
+        }
+
+        /**
+         * Start a call using the master descriptor.
+         *
+         * @return false if the channel is closed
+         */
+        private synchronized boolean begin() {
+            if (closed) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        /**
+         * Finish a call using the master descriptor, closing it if the
+         * channel was closed during the call.
+         */
+        private synchronized void end() {
+            users--;
+            if (closed && (users == 0)) {
+                NativePty.call(NativePty.CLOSE, master);
+            }
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Package private constructor.
+     *
+     * @param pid the process ID
+     * @param master the master file descriptor
+     */
+    NativePtyProcess(final int pid, final int master) {
+        this.pid     = pid;
+        this.master  = master;
+        channel      = new MasterChannel();
+        inputStream  = Channels.newInputStream(channel);
+        outputStream = Channels.newOutputStream(channel);
+
+        Thread reaper = new Thread(this::reap, "casciian-pty-reaper-" + pid);
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    // ------------------------------------------------------------------------
+    // Process ----------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the stream written to the process' terminal.
+     *
+     * @return the output stream
+     */
+    @Override
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * Get the stream read from the process' terminal.  Standard output and
+     * standard error both arrive here.
+     *
+     * @return the input stream
+     */
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * Get the standard error stream, which is always empty: standard error
+     * goes to the terminal.
+     *
+     * @return an empty stream
+     */
+    @Override
+    public InputStream getErrorStream() {
+        return InputStream.nullInputStream();
+    }
+
+    /**
+     * Wait for the process to exit.
+     *
+     * @return the exit value
+     * @throws InterruptedException if the wait is interrupted
+     */
+    @Override
+    public int waitFor() throws InterruptedException {
+        try {
+            return exit.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Wait for the process to exit, at most for some time.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of timeout
+     * @return true if the process exited
+     * @throws InterruptedException if the wait is interrupted
+     */
+    @Override
+    public boolean waitFor(final long timeout, final TimeUnit unit)
+        throws InterruptedException {
+
+        try {
+            exit.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Get the exit value of the process: its exit status, or 128 plus the
+     * signal number if it was killed by a signal.
+     *
+     * @return the exit value
+     * @throws IllegalThreadStateException if the process has not exited
+     */
+    @Override
+    public int exitValue() {
+        if (!exit.isDone()) {
+            throw new IllegalThreadStateException("process hasn't exited");
+        }
+        return exit.join();
+    }
+
+    /**
+     * Check if the process is alive.
+     *
+     * @return true if it has not exited
+     */
+    @Override
+    public boolean isAlive() {
+        return !exit.isDone();
+    }
+
+    /**
+     * Hang up the terminal: send SIGHUP to the process group.
+     */
+    @Override
+    public void destroy() {
+        signal(SIGHUP);
+    }
+
+    /**
+     * Send SIGKILL to the process group.
+     *
+     * @return this process
+     */
+    @Override
+    public Process destroyForcibly() {
+        signal(SIGKILL);
+        return this;
+    }
+
+    /**
+     * Get the process ID.
+     *
+     * @return the process ID
+     */
+    @Override
+    public long pid() {
+        return pid;
+    }
+
+    /**
+     * Get a future completed when the process exits.
+     *
+     * @return the future
+     */
+    @Override
+    public CompletableFuture<Process> onExit() {
+        return exit.thenApply(rc -> this);
+    }
+
+    // ------------------------------------------------------------------------
+    // PtyProcess -------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the master side of the pseudo-terminal.
+     *
+     * @return the channel
+     */
+    @Override
+    public ByteChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Set the window size of the pseudo-terminal.
+     *
+     * @param columns the window width
+     * @param rows the window height
+     * @throws IOException if the size cannot be set
+     */
+    @Override
+    public void setWindowSize(final int columns, final int rows)
+        throws IOException {
+
+        channel.setWindowSize(columns, rows);
+    }
+
+    // ------------------------------------------------------------------------
+    // NativePtyProcess -------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Send a signal to the process group, unless the process was already
+     * reaped and its ID may have been reused.
+     *
+     * @param signal the signal number
+     */
+    private void signal(final int signal) {
+        if (!exit.isDone()) {
+            NativePty.call(NativePty.KILL, -pid, signal);
+        }
+    }
+
+    /**
+     * Wait for the process to exit and complete the exit future.  This
+     * runs on its own daemon thread.
+     */
+    private void reap() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment state = arena.allocate(NativePty.CALL_STATE);
+            MemorySegment status = arena.allocate(JAVA_INT);
+            for (;;) {
+                int rc = (int) NativePty.call(NativePty.WAITPID, state, pid,
+                    status, 0);
+                if (rc == pid) {
+                    int value = status.get(JAVA_INT, 0);
+                    if ((value & 0x7F) == 0) {
+                        // WIFEXITED: WEXITSTATUS
+                        exit.complete((value >> 8) & 0xFF);
+                    } else {
+                        // WIFSIGNALED: 128 + WTERMSIG, like ProcessBuilder
+                        exit.complete(0x80 + (value & 0x7F));
+                    }
+                    return;
+                }
+                if (NativePty.errno(state) != NativePty.EINTR) {
+                    exit.completeExceptionally(NativePty.error("waitpid",
+                            NativePty.errno(state)));
+                    return;
+                }
+            }
+        }
+    }
+
+}
@@ -22,6 +22,13 @@ import org.junit.jupiter.api.RepeatedTest;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -29,11 +36,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import casciian.TKeypress;
 import casciian.backend.Backend;
 import casciian.backend.HeadlessBackend;
 import casciian.bits.Cell;
 import casciian.bits.CellAttributes;
 import casciian.bits.ComplexCell;
+import casciian.event.TKeypressEvent;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -602,4 +611,167 @@ class ECMA48Test {
             emulator.close();
         }
     }
+
+    /**
+     * Test that a burst of output, spread over many reads, notifies the
+     * listener once, and that the listener then pulls a single snapshot.
+     */
+    @Test
+    @DisplayName("Output bursts notify the listener once until it polls")
+    void shouldCoalesceUpdatesUntilPolled() throws Exception {
+        Backend backend = new HeadlessBackend();
+        java.io.PipedOutputStream pipedOut = new java.io.PipedOutputStream();
+        java.io.PipedInputStream pipedIn = new java.io.PipedInputStream(
+            pipedOut, 4096);
+        java.util.concurrent.atomic.AtomicInteger dirty =
+            new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.atomic.AtomicInteger updates =
+            new java.util.concurrent.atomic.AtomicInteger();
+
+        TerminalListener listener = new TerminalListener() {
+            public void postUpdate(final TerminalState terminalState) {
+                updates.incrementAndGet();
+            }
+            @Override
+            public void postDirty(final ECMA48 emulator) {
+                dirty.incrementAndGet();
+            }
+            public int getDisplayWidth() {
+                return 80;
+            }
+            public int getDisplayHeight() {
+                return 24;
+            }
+            public casciian.bits.Clipboard getClipboard() {
+                return null;
+            }
+        };
+
+        ECMA48 emulator = new ECMA48(ECMA48.DeviceType.XTERM, pipedIn,
+            new ByteArrayOutputStream(), listener, backend);
+        try {
+            for (int i = 0; i < 50; i++) {
+                pipedOut.write(("line " + i + "\r\n").getBytes("UTF-8"));
+                pipedOut.flush();
+                emulator.waitForOutput(10);
+            }
+            emulator.waitForOutput(100);
+            assertEquals(1, dirty.get());
+            assertEquals(0, updates.get());
+
+            TerminalState state = emulator.pollState();
+            assertNotNull(state);
+            assertNull(emulator.pollState());
+
+            pipedOut.write("more\r\n".getBytes("UTF-8"));
+            pipedOut.flush();
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((dirty.get() < 2)
+                && (System.currentTimeMillis() < deadline)
+            ) {
+                emulator.waitForOutput(10);
+            }
+            assertEquals(2, dirty.get());
+        } finally {
+            pipedOut.close();
+            emulator.close();
+        }
+    }
+
+    /**
+     * Test that runs of plain text, which are printed in bulk, still wrap
+     * at the right margin and pick up the current attributes.
+     */
+    @Test
+    @DisplayName("Plain text runs wrap and keep attributes")
+    void shouldPrintPlainRunsLikeSingleCharacters() throws Exception {
+        Backend backend = new HeadlessBackend();
+        String sequence = "a\033[1m" + "x".repeat(84) + "\033[0my\r\nz";
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(
+            sequence.getBytes("UTF-8"));
+
+        ECMA48 emulator = new ECMA48(ECMA48.DeviceType.XTERM, inputStream,
+            new ByteArrayOutputStream(), null, backend);
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (emulator.isReading()
+                && (System.currentTimeMillis() < deadline)
+            ) {
+                emulator.waitForOutput(10);
+            }
+
+            TerminalState state = emulator.captureState();
+            var first = state.getDisplayBuffer().get(0);
+            var second = state.getDisplayBuffer().get(1);
+            var third = state.getDisplayBuffer().get(2);
+
+            assertEquals('a', first.charAt(0).getChar());
+            assertFalse(first.charAt(0).isBold());
+            for (int x = 1; x < 80; x++) {
+                assertEquals('x', first.charAt(x).getChar());
+                assertTrue(first.charAt(x).isBold());
+            }
+            for (int x = 0; x < 5; x++) {
+                assertEquals('x', second.charAt(x).getChar());
+                assertTrue(second.charAt(x).isBold());
+            }
+            assertEquals('y', second.charAt(5).getChar());
+            assertFalse(second.charAt(5).isBold());
+            assertEquals('z', third.charAt(0).getChar());
+        } finally {
+            emulator.close();
+        }
+    }
+
+    /**
+     * Test that a keypress write blocked on a full pipe does not hold the
+     * lock the reader thread needs to drain the remote side's output.
+     */
+    @Test
+    @DisplayName("A blocked user event write should not stop the reader")
+    void shouldReadWhileUserEventWriteIsBlocked() throws Exception {
+        Backend backend = new HeadlessBackend();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream blocked = new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off,
+                final int len) throws IOException {
+
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+        PipedOutputStream remote = new PipedOutputStream();
+        PipedInputStream input = new PipedInputStream(remote);
+        ECMA48 emulator = new ECMA48(ECMA48.DeviceType.XTERM, input,
+            blocked, null, backend);
+        Thread ui = new Thread(() -> emulator.addUserEvent(
+            new TKeypressEvent(backend, TKeypress.kbEnter)));
+        try {
+            ui.start();
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            remote.write("hello".getBytes(StandardCharsets.UTF_8));
+            remote.flush();
+            assertTrue(CompletableFuture.supplyAsync(() ->
+                emulator.waitForOutput(5000)).get(10, TimeUnit.SECONDS));
+            assertEquals('h', emulator.captureState().getDisplayBuffer()
+                .get(0).charAt(0).getChar());
+        } finally {
+            release.countDown();
+            ui.join(5000);
+            emulator.close();
+            remote.close();
+        }
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package casciian.terminal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import casciian.TKeypress;
+import casciian.backend.HeadlessBackend;
+import casciian.backend.SessionRecording;
+import casciian.event.TKeypressEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for playing back session recordings.
+ */
+@DisplayName("SessionPlayer Tests")
+class SessionPlayerTest {
+
+    @Test
+    @DisplayName("Seeking replays from the nearest keyframe, not the start")
+    void shouldSeekFromKeyframe(@TempDir Path tempDir) throws Exception {
+        HeadlessBackend backend = new HeadlessBackend();
+        Path file = tempDir.resolve("session.rec");
+        SessionRecording recording = new SessionRecording(file);
+        recording.recordOutput("\033[1;1Hbefore");
+        recording.recordKeyframe(100, 30, "\033[2J\033[1;1Hkeyframe");
+        recording.recordInput(List.of(new TKeypressEvent(backend,
+            TKeypress.kbEnter)));
+        recording.recordOutput("\033[2;1Hafter");
+        recording.close();
+
+        SessionPlayer player = new SessionPlayer(file);
+        try {
+            assertEquals(1, player.getKeyframeCount());
+            assertEquals(100, player.getWidth());
+            assertEquals(30, player.getHeight());
+            assertEquals(1, player.getEventRecording(backend).size());
+
+            player.pause();
+            player.seek(player.getDuration());
+            InputStream stream = player.getInputStream();
+            StringBuilder sb = new StringBuilder();
+            while (stream.available() > 0) {
+                byte [] buffer = new byte[stream.available()];
+                int n = stream.read(buffer);
+                sb.append(new String(buffer, 0, n, StandardCharsets.UTF_8));
+            }
+            assertEquals("\030\033c\033[2J\033[1;1Hkeyframe\033[2;1Hafter",
+                sb.toString());
+        } finally {
+            player.destroy();
+        }
+        assertEquals(-1, player.getInputStream().read());
+        assertEquals(0, player.exitValue());
+    }
+
+    @Test
+    @DisplayName("A file that is not a recording is rejected")
+    void shouldRejectOtherFiles(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("other.txt");
+        Files.writeString(file, "hello, world");
+        assertThrows(IOException.class,
+            () -> new SessionPlayer(file));
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package casciian.terminal.pty;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for PtyProcess.  The native tests only run where pseudo-terminals
+ * are available: Linux on Java 22 or later, e.g. the testJava22 task.
+ */
+@DisplayName("PtyProcess Tests")
+class PtyProcessTest {
+
+    @Test
+    @DisplayName("start rejects an empty command")
+    void testStartRejectsEmptyCommand() {
+        assertThrows(IllegalArgumentException.class, () ->
+            PtyProcess.start(new String[0], System.getenv(), null, 80, 24));
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("the child sees the window size, before and after a resize")
+    void testWindowSize() throws Exception {
+        assumeTrue(PtyProcess.isAvailable(),
+            "Native pseudo-terminals are not available");
+
+        PtyProcess process = PtyProcess.start(new String[] {
+            "/bin/sh", "-c", "stty size; read line; stty size"
+        }, System.getenv(), null, 100, 30);
+        try {
+            InputStream input = process.getInputStream();
+            assertEquals("30 100", readLine(input));
+
+            process.setWindowSize(120, 40);
+            OutputStream output = process.getOutputStream();
+            output.write('\n');
+            output.flush();
+
+            // The terminal echoes the newline before the second size.
+            String line = readLine(input);
+            while (line.isEmpty()) {
+                line = readLine(input);
+            }
+            assertEquals("40 120", line);
+
+            assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+            assertEquals(0, process.exitValue());
+        } finally {
+            process.destroyForcibly();
+            process.getChannel().close();
+        }
+        assertFalse(process.getChannel().isOpen());
+        assertThrows(IOException.class, () -> process.setWindowSize(80, 24));
+    }
+
+    /**
+     * Read one line of terminal output, without its CR LF.
+     *
+     * @param input the stream
+     * @return the line
+     * @throws IOException if the stream ends first
+     */
+    private static String readLine(final InputStream input)
+        throws IOException {
+
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (;;) {
+            int ch = input.read();
+            if (ch == -1) {
+                throw new IOException("End of stream after \"" +
+                    line.toString(StandardCharsets.UTF_8) + "\"");
+            }
+            if (ch == '\n') {
+                break;
+            }
+            if (ch != '\r') {
+                line.write(ch);
+            }
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+}
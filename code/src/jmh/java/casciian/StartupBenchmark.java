@@ -0,0 +1,221 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import casciian.backend.HeadlessBackend;
+import casciian.backend.TrainingRun;
+import casciian.bits.ColorTheme;
+
+/**
+ * Cost of starting an application: the time from launching a JVM to the
+ * first frame reaching the backend, and the cost of the theme every
+ * TApplication makes.
+ *
+ * <p>firstFrame() launches a new JVM on every call, because a JVM that
+ * has already drawn a frame has nothing left to show about cold start.
+ * With archive=appcds the trial first runs TrainingRun to dump an AppCDS
+ * archive for the benchmark classpath, and every launched JVM maps it.
+ * CDS needs a classpath of JARs only, which is what the jmh task uses.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The program run by firstFrame(): start an application with one
+     * window on a HeadlessBackend and exit as soon as the first frame is
+     * flushed.
+     */
+    public static final class FirstFrame {
+
+        /**
+         * Private constructor.
+         */
+        private FirstFrame() {}
+
+        /**
+         * Main entry point.
+         *
+         * @param args ignored
+         * @throws InterruptedException if interrupted while waiting for the
+         * frame
+         */
+        public static void main(final String [] args)
+            throws InterruptedException {
+
+            CountDownLatch frame = new CountDownLatch(1);
+            HeadlessBackend backend = new HeadlessBackend() {
+                @Override
+                public void flushScreen() {
+                    frame.countDown();
+                }
+            };
+            TApplication app = new TApplication(backend);
+            new TWindow(app, "Startup", 0, 0, 40, 10);
+            Thread thread = new Thread(app::run);
+            thread.start();
+            boolean drawn = frame.await(30, TimeUnit.SECONDS);
+            app.exit();
+            System.exit(drawn ? 0 : 1);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Extra options for the launched JVM, separated by spaces.
+     */
+    @Param({""})
+    public String jvmArgs;
+
+    /**
+     * Class data sharing for the launched JVM: "none" for the JDK default
+     * archive only, or "appcds" for an archive trained by TrainingRun.
+     */
+    @Param({"none", "appcds"})
+    public String archive;
+
+    /**
+     * The trained archive, or null.
+     */
+    private Path archiveFile;
+
+    // ------------------------------------------------------------------------
+    // StartupBenchmark -------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Train the AppCDS archive if this trial uses one.
+     *
+     * @throws IOException if the JVM cannot be launched
+     * @throws InterruptedException if interrupted while waiting for it
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        if (archive.equals("appcds")) {
+            archiveFile = Files.createTempFile("casciian", ".jsa");
+            Files.delete(archiveFile);
+            launch("-XX:ArchiveClassesAtExit=" + archiveFile,
+                TrainingRun.class.getName());
+            if (!Files.exists(archiveFile)) {
+                throw new IllegalStateException("No archive written to " +
+                    archiveFile);
+            }
+        }
+    }
+
+    /**
+     * Delete the trained archive.
+     *
+     * @throws IOException if the archive cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (archiveFile != null) {
+            Files.deleteIfExists(archiveFile);
+            archiveFile = null;
+        }
+    }
+
+    /**
+     * Launch a JVM running FirstFrame and wait for it to exit.
+     *
+     * @return the exit code of the launched JVM
+     * @throws IOException if the JVM cannot be launched
+     * @throws InterruptedException if interrupted while waiting for it
+     */
+    @Benchmark
+    public int firstFrame() throws IOException, InterruptedException {
+        String options = jvmArgs;
+        if (archiveFile != null) {
+            options += " -XX:SharedArchiveFile=" + archiveFile;
+        }
+        return launch(options, FirstFrame.class.getName());
+    }
+
+    /**
+     * Make the theme of one more TApplication in a JVM that has already
+     * made one.
+     *
+     * @return the theme
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ColorTheme colorTheme() {
+        return new ColorTheme();
+    }
+
+    /**
+     * Launch a JVM on this benchmark's classpath and wait for it to exit.
+     *
+     * @param options JVM options, separated by spaces
+     * @param mainClass the class to run
+     * @return the exit code, always 0
+     * @throws IOException if the JVM cannot be launched
+     * @throws InterruptedException if interrupted while waiting for it
+     */
+    private static int launch(final String options, final String mainClass)
+        throws IOException, InterruptedException {
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java")
+            .toString());
+        for (String arg: options.trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                command.add(arg);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException(mainClass + " failed, exit code " +
+                exitCode);
+        }
+        return exitCode;
+    }
+
+}
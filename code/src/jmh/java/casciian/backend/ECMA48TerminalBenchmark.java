@@ -0,0 +1,144 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.backend;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import casciian.bits.BenchmarkData;
+import casciian.bits.CellAttributes;
+import casciian.bits.Color;
+
+/**
+ * Cost of turning a changed logical screen into escape sequences
+ * (ECMA48Terminal.flushPhysical() and flushString()), written to a writer
+ * that discards everything.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ECMA48TerminalBenchmark {
+
+    /**
+     * Screen size, columns x rows.
+     */
+    @Param({"80x24", "132x43", "240x67"})
+    public String screenSize;
+
+    /**
+     * How much of the screen changes between frames: "full" repaints
+     * everything with new colors, "line" edits a single row, "none" flushes
+     * an unchanged screen.
+     */
+    @Param({"full", "line", "none"})
+    public String change;
+
+    /**
+     * The terminal under test.
+     */
+    private ECMA48Terminal terminal;
+
+    /**
+     * The text drawn on each row.
+     */
+    private String line;
+
+    /**
+     * Alternating attributes, so that every frame really differs.
+     */
+    private CellAttributes [] attrs;
+
+    /**
+     * The frame counter.
+     */
+    private int frame;
+
+    /**
+     * Build a terminal over a silent input and a discarding output.
+     */
+    @Setup
+    public void setup() {
+        int [] size = BenchmarkData.parseSize(screenSize);
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+            OutputStream.nullOutputStream(), StandardCharsets.UTF_8));
+        ByteArrayInputStream input = new ByteArrayInputStream(new byte[0]);
+        terminal = new ECMA48Terminal(new HeadlessBackend(), null, input,
+            new InputStreamReader(input, StandardCharsets.UTF_8), writer);
+        terminal.setDimensions(size[0], size[1]);
+
+        line = BenchmarkData.line(BenchmarkData.ASCII, size[0]);
+        attrs = new CellAttributes[2];
+        for (int i = 0; i < attrs.length; i++) {
+            attrs[i] = new CellAttributes();
+            attrs[i].setForeColor(i == 0 ? Color.WHITE : Color.YELLOW);
+            attrs[i].setBackColor(i == 0 ? Color.BLUE : Color.BLACK);
+        }
+        for (int y = 0; y < terminal.getHeight(); y++) {
+            terminal.putStringXY(0, y, line, attrs[0]);
+        }
+        terminal.flushPhysical();
+    }
+
+    /**
+     * Stop the terminal's reader thread.
+     */
+    @TearDown
+    public void tearDown() {
+        terminal.closeTerminal();
+    }
+
+    /**
+     * Change the screen and flush it.
+     *
+     * @return the terminal, so that the work is not optimized away
+     */
+    @Benchmark
+    public ECMA48Terminal flushPhysical() {
+        frame++;
+        CellAttributes attr = attrs[frame % 2];
+        switch (change) {
+            case "full":
+                for (int y = 0; y < terminal.getHeight(); y++) {
+                    terminal.putStringXY(0, y, line, attr);
+                }
+                break;
+            case "line":
+                terminal.putStringXY(0, frame % terminal.getHeight(), line,
+                    attr);
+                break;
+            default:
+                break;
+        }
+        terminal.flushPhysical();
+        return terminal;
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.backend;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import casciian.bits.BenchmarkData;
+import casciian.bits.ImageRGB;
+
+/**
+ * Cost of encoding an image to sixel with HQSixelEncoder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HQSixelEncoderBenchmark {
+
+    /**
+     * Image size in text cells, columns x rows.  Each cell is 10x20
+     * pixels.
+     */
+    @Param({"20x10", "40x20", "80x24"})
+    public String screenSize;
+
+    /**
+     * The encoder.
+     */
+    private HQSixelEncoder encoder;
+
+    /**
+     * The image to encode.
+     */
+    private ImageRGB image;
+
+    /**
+     * Build the encoder and the image.
+     */
+    @Setup
+    public void setup() {
+        int [] size = BenchmarkData.parseSize(screenSize);
+        encoder = new HQSixelEncoder();
+        image = BenchmarkData.image(size[0] * 10, size[1] * 20);
+    }
+
+    /**
+     * Encode the image.
+     *
+     * @return the sixel string
+     */
+    @Benchmark
+    public String toSixel() {
+        return encoder.toSixel(image);
+    }
+
+}
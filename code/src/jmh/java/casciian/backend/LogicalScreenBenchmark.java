@@ -0,0 +1,134 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.backend;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import casciian.bits.BenchmarkData;
+import casciian.bits.BorderStyle;
+import casciian.bits.CellAttributes;
+import casciian.bits.Color;
+
+/**
+ * Cost of drawing into the logical screen: a full screen of text, and a
+ * stack of overlapping windows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogicalScreenBenchmark {
+
+    /**
+     * Screen size, columns x rows.
+     */
+    @Param({"80x24", "132x43", "240x67"})
+    public String screenSize;
+
+    /**
+     * Which sample text to draw.
+     */
+    @Param({"ascii", "cjk", "emoji"})
+    public String text;
+
+    /**
+     * The screen being drawn on.
+     */
+    private LogicalScreen screen;
+
+    /**
+     * One line of text, at least a screen wide.
+     */
+    private String line;
+
+    /**
+     * Text attributes.
+     */
+    private CellAttributes textAttr;
+
+    /**
+     * Window border attributes.
+     */
+    private CellAttributes borderAttr;
+
+    /**
+     * Window background attributes.
+     */
+    private CellAttributes backgroundAttr;
+
+    /**
+     * Build the screen and the text to draw.
+     */
+    @Setup
+    public void setup() {
+        int [] size = BenchmarkData.parseSize(screenSize);
+        screen = new LogicalScreen(size[0], size[1]) {
+            @Override
+            public void flushPhysical() {
+                // Nothing to flush to.
+            }
+        };
+        line = BenchmarkData.line(BenchmarkData.sample(text), size[0]);
+        textAttr = new CellAttributes();
+        textAttr.setForeColor(Color.WHITE);
+        textAttr.setBackColor(Color.BLUE);
+        borderAttr = new CellAttributes();
+        borderAttr.setForeColor(Color.YELLOW);
+        borderAttr.setBackColor(Color.BLUE);
+        borderAttr.setBold(true);
+        backgroundAttr = new CellAttributes();
+        backgroundAttr.setForeColor(Color.BLACK);
+        backgroundAttr.setBackColor(Color.CYAN);
+    }
+
+    /**
+     * Write every row of the screen with putStringXY().
+     *
+     * @return the screen, so that the work is not optimized away
+     */
+    @Benchmark
+    public LogicalScreen putStringXY() {
+        for (int y = 0; y < screen.getHeight(); y++) {
+            screen.putStringXY(0, y, line, textAttr);
+        }
+        return screen;
+    }
+
+    /**
+     * Draw a cascade of shadowed boxes, like a desktop full of windows.
+     *
+     * @return the screen, so that the work is not optimized away
+     */
+    @Benchmark
+    public LogicalScreen drawBox() {
+        int width = screen.getWidth();
+        int height = screen.getHeight();
+        for (int i = 0; (i * 2 < width / 2) && (i < height / 2); i++) {
+            screen.drawBox(i * 2, i, width - i * 2, height - i,
+                borderAttr, backgroundAttr, BorderStyle.DOUBLE, true);
+        }
+        return screen;
+    }
+
+}
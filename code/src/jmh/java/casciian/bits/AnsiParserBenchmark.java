@@ -0,0 +1,74 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of parsing a screen of ANSI art into attributed lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnsiParserBenchmark {
+
+    /**
+     * Screen size, columns x rows.
+     */
+    @Param({"80x24", "132x43", "240x67"})
+    public String screenSize;
+
+    /**
+     * The screen width.
+     */
+    private int width;
+
+    /**
+     * The text to parse.
+     */
+    private String art;
+
+    /**
+     * Build the text.
+     */
+    @Setup
+    public void setup() {
+        int [] size = BenchmarkData.parseSize(screenSize);
+        width = size[0];
+        art = BenchmarkData.ansiArt(size[0], size[1]);
+    }
+
+    /**
+     * Parse the text.
+     *
+     * @return the lines
+     */
+    @Benchmark
+    public List<AnsiParser.Line> parse() {
+        return AnsiParser.parse(art, width);
+    }
+
+}
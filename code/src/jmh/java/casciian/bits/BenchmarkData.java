@@ -0,0 +1,161 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+/**
+ * Deterministic input data shared by the JMH benchmarks, so that results
+ * stay comparable from one commit to the next.
+ */
+public final class BenchmarkData {
+
+    /**
+     * Plain ASCII prose.
+     */
+    public static final String ASCII = "The quick brown fox jumps over the "
+        + "lazy dog, then files a bug report about it. ";
+
+    /**
+     * Western European text, all inside Latin-1.
+     */
+    public static final String LATIN1 = "Ça été très agréable, señor "
+        + "Müller; à bientôt, garçon ñandú. ";
+
+    /**
+     * Double-width CJK text.
+     */
+    public static final String CJK = "終端機模擬器のテストです。漢字와 한글도 "
+        + "섞여 있습니다。";
+
+    /**
+     * Emoji: modifiers, ZWJ sequences, flags and variation selectors.
+     */
+    public static final String EMOJI = "👍🏽 👨‍👩‍👧‍👦 🇪🇸🇺🇸 ❤️ ok "
+        + "🧑🏿‍💻 é ";
+
+    /**
+     * Private constructor prevents accidental creation of this class.
+     */
+    private BenchmarkData() {
+    }
+
+    /**
+     * Parse a "columns x rows" benchmark parameter such as "80x24".
+     *
+     * @param size the parameter value
+     * @return {columns, rows}
+     */
+    public static int [] parseSize(final String size) {
+        int x = size.indexOf('x');
+        return new int [] {
+            Integer.parseInt(size.substring(0, x)),
+            Integer.parseInt(size.substring(x + 1))
+        };
+    }
+
+    /**
+     * Get one of the sample texts by name.
+     *
+     * @param name "ascii", "latin1", "cjk", or "emoji"
+     * @return the sample text
+     */
+    public static String sample(final String name) {
+        switch (name) {
+            case "ascii":
+                return ASCII;
+            case "latin1":
+                return LATIN1;
+            case "cjk":
+                return CJK;
+            case "emoji":
+                return EMOJI;
+            default:
+                throw new IllegalArgumentException("Unknown sample: " + name);
+        }
+    }
+
+    /**
+     * Repeat a sample text until it fills at least one screen line.
+     *
+     * @param sample the text to repeat
+     * @param columns the line width in columns
+     * @return a line that is at least columns wide
+     */
+    public static String line(final String sample, final int columns) {
+        StringBuilder sb = new StringBuilder();
+        while (StringUtils.width(sb.toString()) < columns) {
+            sb.append(sample);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Generate a screen of ANSI art: SGR 256-color and truecolor runs,
+     * box drawing characters, and CRLF line ends, much like the output of
+     * ls --color or a colorized log viewer.
+     *
+     * @param columns the screen width
+     * @param rows the screen height
+     * @return the text with escape sequences
+     */
+    public static String ansiArt(final int columns, final int rows) {
+        StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x += 8) {
+                int color = (x + y * 7) % 256;
+                if ((x / 8) % 3 == 0) {
+                    sb.append("\033[38;5;").append(color).append('m');
+                } else if ((x / 8) % 3 == 1) {
+                    sb.append("\033[1;48;2;").append(color).append(';')
+                        .append(255 - color).append(";64m");
+                } else {
+                    sb.append("\033[0m");
+                }
+                int n = Math.min(8, columns - x);
+                for (int i = 0; i < n; i++) {
+                    sb.append(((x + i + y) % 5 == 0) ? '│'
+                        : ASCII.charAt((x + i + y) % ASCII.length()));
+                }
+            }
+            sb.append("\033[0m\r\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Generate a picture with smooth gradients and some hard edges, which
+     * exercises both palette selection and run-length encoding.
+     *
+     * @param width the width in pixels
+     * @param height the height in pixels
+     * @return the image
+     */
+    public static ImageRGB image(final int width, final int height) {
+        ImageRGB image = new ArrayImageRGB(width, height);
+        int [] rgb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255) / Math.max(1, width - 1);
+                int g = (y * 255) / Math.max(1, height - 1);
+                int b = ((x / 16 + y / 16) % 2 == 0) ? 0x40 : 0xC0;
+                rgb[y * width + x] = (r << 16) | (g << 8) | b;
+            }
+        }
+        image.setRGB(0, 0, width, height, rgb, 0, width);
+        image.fillRect(width / 4, height / 4, width / 2, height / 8, 0xFFFFFF);
+        return image;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of splitting one screen line of text into grapheme clusters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GraphemeClusterBenchmark {
+
+    /**
+     * Screen size, columns x rows.  Only the columns matter here.
+     */
+    @Param({"80x24", "132x43", "240x67"})
+    public String screenSize;
+
+    /**
+     * Which sample text to split.
+     */
+    @Param({"ascii", "latin1", "cjk", "emoji"})
+    public String text;
+
+    /**
+     * One screen line of text.
+     */
+    private String line;
+
+    /**
+     * Build the line.
+     */
+    @Setup
+    public void setup() {
+        int [] size = BenchmarkData.parseSize(screenSize);
+        line = BenchmarkData.line(BenchmarkData.sample(text), size[0]);
+    }
+
+    /**
+     * Split the line into cells.
+     *
+     * @return the cells
+     */
+    @Benchmark
+    public List<ComplexCell> toComplexCells() {
+        return ExtendedGraphemeClusterUtils.toComplexCells(line);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.image.decoders;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import casciian.backend.HQSixelEncoder;
+import casciian.bits.BenchmarkData;
+import casciian.bits.ImageRGB;
+
+/**
+ * Cost of decoding a sixel string back into an image.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SixelDecoderBenchmark {
+
+    /**
+     * Image size in text cells, columns x rows.  Each cell is 10x20
+     * pixels.
+     */
+    @Param({"20x10", "40x20", "80x24"})
+    public String screenSize;
+
+    /**
+     * The sixel data, as it would appear between "DCS q" and ST.
+     */
+    private String sixel;
+
+    /**
+     * Encode the image once, up front.
+     */
+    @Setup
+    public void setup() {
+        int [] size = BenchmarkData.parseSize(screenSize);
+        sixel = new HQSixelEncoder().toSixel(BenchmarkData.image(
+            size[0] * 10, size[1] * 20));
+    }
+
+    /**
+     * Decode the image.
+     *
+     * @return the image
+     */
+    @Benchmark
+    public ImageRGB decode() {
+        return new SixelDecoder(sixel, null, 0x000000, false).getImage();
+    }
+
+}
@@ -21,13 +21,13 @@
 package casciian;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -550,6 +550,11 @@ public class TApplication implements Runnable {
                     ) {
                         lastUserInputTime = event.getTime().getTime();
                     }
+                    if (event instanceof TMouseEvent) {
+                        // The mouse must hit widgets where they will be
+                        // drawn.
+                        application.doLayout();
+                    }
 
                     if (primary) {
                         primaryHandleEvent(event);
@@ -888,8 +893,7 @@ public class TApplication implements Runnable {
         invokeLater(() -> {
             try {
                 ClassLoader loader = Thread.currentThread().getContextClassLoader();
-                helpFile = new HelpFile();
-                helpFile.load(loader.getResourceAsStream("help.xml"));
+                helpFile = HelpFile.getDefault(loader);
             } catch (Exception e) {
                 new TExceptionDialog(TApplication.this, e);
             }
@@ -1236,7 +1240,7 @@ public class TApplication implements Runnable {
                 if (filename != null) {
                     helpTopics = new ArrayList<>();
                     helpFile = new HelpFile();
-                    helpFile.load(new FileInputStream(filename));
+                    helpFile.load(Path.of(filename));
                 }
             } catch (Exception e) {
                 // Show this exception to the user.
@@ -1546,8 +1550,62 @@ public class TApplication implements Runnable {
         }
 
         synchronized (drainEventQueue) {
-            // Put into the main queue
-            drainEventQueue.add(event);
+            // Put into the main queue.  A mouse motion that arrives before
+            // the previous one has been handled replaces it: only the
+            // latest position matters, and a fast mouse can otherwise queue
+            // far more motion than the widgets can keep up with.
+            int last = drainEventQueue.size() - 1;
+            if ((last >= 0)
+                && isSameMotion(drainEventQueue.get(last), event)
+            ) {
+                drainEventQueue.set(last, event);
+            } else {
+                drainEventQueue.add(event);
+            }
+        }
+    }
+
+    /**
+     * See if a new event is a mouse motion that can replace a queued one:
+     * the same backend, buttons, and modifiers, and only the position
+     * changed.
+     *
+     * @param queued the event already in the queue
+     * @param event the new event
+     * @return true if event can replace queued
+     */
+    private static boolean isSameMotion(final TInputEvent queued,
+        final TInputEvent event) {
+
+        if (!(queued instanceof TMouseEvent older)
+            || !(event instanceof TMouseEvent newer)
+        ) {
+            return false;
+        }
+        return (older.getType() == TMouseEvent.Type.MOUSE_MOTION)
+            && (newer.getType() == TMouseEvent.Type.MOUSE_MOTION)
+            && (older.getBackend() == newer.getBackend())
+            && (older.isMouse1() == newer.isMouse1())
+            && (older.isMouse2() == newer.isMouse2())
+            && (older.isMouse3() == newer.isMouse3())
+            && (older.isAlt() == newer.isAlt())
+            && (older.isCtrl() == newer.isCtrl())
+            && (older.isShift() == newer.isShift());
+    }
+
+    /**
+     * Run the layout that resizes have left pending on the desktop and
+     * every window.
+     *
+     * @see TWidget#doLayout()
+     */
+    private void doLayout() {
+        if (desktop != null) {
+            desktop.doLayout();
+        }
+        List<TWindow> layoutWindows = new ArrayList<>(windows);
+        for (TWindow window: layoutWindows) {
+            window.doLayout();
         }
     }
 
@@ -2673,6 +2731,9 @@ public class TApplication implements Runnable {
                 System.currentTimeMillis(), Thread.currentThread());
         }
 
+        // Put widgets where the resizes since the last frame left them.
+        doLayout();
+
         // I don't think this does anything useful anymore...
         if (!repaint) {
             if (debugThreads) {
@@ -4483,7 +4544,12 @@ public class TApplication implements Runnable {
         final TAction action) {
 
         TTimer timer = new TTimer(duration, recurring, action);
-        timers.add(timer);
+        synchronized (timers) {
+            timers.add(timer);
+        }
+
+        // The new timer may be due before the event handler next wakes up.
+        wakeEventHandler();
 
         return timer;
     }
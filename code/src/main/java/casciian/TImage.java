@@ -14,11 +14,16 @@
  */
 package casciian;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import casciian.backend.SystemProperties;
+import casciian.bits.AnimatedImage;
 import casciian.bits.Cell;
+import casciian.bits.CellAttributes;
 import casciian.bits.ImageRGB;
 import casciian.bits.ImageUtils;
 import casciian.bits.UnicodeGlyphImage;
@@ -84,6 +89,89 @@ public class TImage extends TWidget implements EditMenuUser {
      */
     private static final double MAX_SCALED_PIXELS = 18_000_000;
 
+    /**
+     * Default number of scaled and sliced animation frames kept per widget.
+     */
+    public static final int DEFAULT_FRAME_CACHE_SIZE = 64;
+
+    /**
+     * Images that will be smaller than this many pixels once scaled are
+     * processed on the UI thread, because starting a thread would take
+     * longer.  Larger images are processed in the background.
+     */
+    private static final long ASYNC_MIN_PIXELS = 512 * 512;
+
+    /**
+     * The key of one scaled and sliced animation frame: the frame index
+     * plus everything about the cell geometry that changes the result.
+     *
+     * @param frame the frame index
+     * @param textWidth the width in pixels of one text cell
+     * @param textHeight the height in pixels of one text cell
+     * @param width the widget width in text cells
+     * @param height the widget height in text cells
+     * @param displayMode the effective display mode
+     */
+    private record FrameKey(int frame, int textWidth, int textHeight,
+        int width, int height, DisplayMode displayMode) {}
+
+    /**
+     * One scaled and sliced animation frame.
+     *
+     * @param image the processed image
+     * @param cells the cells containing the broken up image pieces
+     * @param columns the number of columns in cells
+     * @param rows the number of rows in cells
+     */
+    private record FrameCells(ImageRGB image, Cell [][] cells, int columns,
+        int rows) {}
+
+    /**
+     * Everything needed to rotate, scale, and slice an image, captured on
+     * the UI thread so that the work can run on another one.  Two requests
+     * are equal if they would produce the same cells.
+     *
+     * @param source the image to start from
+     * @param transform if true, source is the original image and must be
+     * rotated and scaled; if false, source was already rotated and scaled
+     * and only needs to be sliced again
+     * @param clockwise number of turns clockwise
+     * @param scaleFactor the scale factor
+     * @param scale the scaling strategy
+     * @param width the widget width in text cells
+     * @param height the widget height in text cells
+     * @param textWidth the width in pixels of one text cell
+     * @param textHeight the height in pixels of one text cell
+     * @param displayMode the requested display mode
+     * @param effectiveMode the display mode the backend can show
+     * @param background the window background attributes
+     * @param backgroundColor the window background as an RGB color
+     * @param frameKey the animation frame cache key, or null
+     */
+    private record Request(ImageRGB source, boolean transform, int clockwise,
+        double scaleFactor, Scale scale, int width, int height, int textWidth,
+        int textHeight, DisplayMode displayMode, DisplayMode effectiveMode,
+        CellAttributes background, int backgroundColor, FrameKey frameKey) {
+
+        /**
+         * Estimate how many pixels processing will touch.
+         *
+         * @return the larger of the source and result sizes, in pixels
+         */
+        long getPixels() {
+            long pixels = (long) source.getWidth() * source.getHeight();
+            if (!transform) {
+                return pixels;
+            }
+            if (scale == Scale.NONE) {
+                return (long) (pixels * Math.max(1.0, scaleFactor
+                        * scaleFactor));
+            }
+            return Math.max(pixels, (long) width * textWidth * height
+                * textHeight);
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Variables --------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -129,6 +217,42 @@ public class TImage extends TWidget implements EditMenuUser {
      */
     private boolean resized = false;
 
+    /**
+     * If true, the original image, rotation, or scale changed, and the
+     * image must be rotated and scaled again.  The previous image and cells
+     * stay on screen until the new ones are ready.
+     */
+    private boolean rescale = true;
+
+    /**
+     * If true, large images are processed on a background thread.  This is
+     * set by the casciian.TImage.async property, default true.
+     */
+    private boolean async = true;
+
+    /**
+     * The request being processed in the background, or null.
+     */
+    private Request pending;
+
+    /**
+     * The last request that failed in the background, or null.  It is not
+     * tried again, so that an image too large to process does not fail
+     * on every repaint.
+     */
+    private Request failed;
+
+    /**
+     * Incremented by every new request.  A background request whose
+     * generation is no longer current was superseded, and stops early.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * The action to perform when new cells are put on screen, or null.
+     */
+    private TAction readyAction;
+
     /**
      * If true, a scaling/rotation operation is already in progress.
      * Additional calls to sizeToImage() will be skipped.
@@ -170,6 +294,52 @@ public class TImage extends TWidget implements EditMenuUser {
      */
     private int lastTextHeight = -1;
 
+    /**
+     * The animation being shown, or null for a still image.
+     */
+    private AnimatedImage animation;
+
+    /**
+     * The index of the animation frame being shown.
+     */
+    private int frameIndex = 0;
+
+    /**
+     * The number of complete loops played since play() was called.
+     */
+    private int loopsPlayed = 0;
+
+    /**
+     * The time at which the next animation frame is due.
+     */
+    private long nextFrameTime = 0;
+
+    /**
+     * The application timer driving playback, or null when stopped.
+     */
+    private TTimer animationTimer;
+
+    /**
+     * The maximum number of entries in frameCache.
+     */
+    private int frameCacheSize = DEFAULT_FRAME_CACHE_SIZE;
+
+    /**
+     * Scaled and sliced animation frames.  Reusing the same cells (and
+     * hence the same image IDs) on later loops lets the backend replay its
+     * already-encoded sixel / Casciian image strings instead of re-scaling
+     * and re-quantizing every frame.
+     */
+    private final LinkedHashMap<FrameKey, FrameCells> frameCache =
+        new LinkedHashMap<FrameKey, FrameCells>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                final Map.Entry<FrameKey, FrameCells> eldest) {
+
+                return size() > frameCacheSize;
+            }
+        };
+
     // ------------------------------------------------------------------------
     // Constructors -----------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -218,6 +388,8 @@ public class TImage extends TWidget implements EditMenuUser {
         this.left = left;
         this.top = top;
         this.clickAction = clickAction;
+        async = !"false".equals(System.getProperty("casciian.TImage.async",
+                "true"));
 
         sizeToImage(true);
     }
@@ -263,6 +435,8 @@ public class TImage extends TWidget implements EditMenuUser {
         this.left = left;
         this.top = top;
         this.clickAction = clickAction;
+        async = !"false".equals(System.getProperty("casciian.TImage.async",
+                "true"));
 
         sizeToImage(true);
     }
@@ -296,10 +470,21 @@ public class TImage extends TWidget implements EditMenuUser {
         if (scale == Scale.NONE) {
             return;
         }
-        image = null;
+        rescale = true;
         resized = true;
     }
 
+    /**
+     * Stop any animation playback when the widget goes away.
+     */
+    @Override
+    public void close() {
+        stop();
+        generation.incrementAndGet();
+        pending = null;
+        super.close();
+    }
+
     // ------------------------------------------------------------------------
     // TWidget ----------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -339,7 +524,11 @@ public class TImage extends TWidget implements EditMenuUser {
     // ------------------------------------------------------------------------
 
     /**
-     * Size cells[][] according to the screen font size.
+     * Size cells[][] according to the screen font size.  Images that are
+     * large once scaled are rotated, scaled, and sliced on a background
+     * thread, so that opening or resizing a large photo does not freeze
+     * the application.  Until the new cells are ready the previous ones
+     * stay on screen, and a newer request cancels an older one.
      *
      * @param always if true, always resize the cells
      */
@@ -354,6 +543,9 @@ public class TImage extends TWidget implements EditMenuUser {
             if (getApplication() == null || getApplication().getBackend() == null) {
                 return;
             }
+            if (originalImage == null) {
+                return;
+            }
 
             // Determine the effective display mode.  When the user
             // requested BITMAP but the backend cannot render bitmap
@@ -376,94 +568,43 @@ public class TImage extends TWidget implements EditMenuUser {
             int textWidth = getScreen().getTextWidth();
             int textHeight = getScreen().getTextHeight();
 
-            if (image == null) {
-                image = rotateImage(originalImage, clockwise);
-                image = scaleImage(image, scaleFactor, getWidth(), getHeight(),
-                    textWidth, textHeight);
+            FrameKey frameKey = null;
+            FrameCells cachedFrame = null;
+            if ((animation != null) && (textWidth > 0) && (textHeight > 0)) {
+                frameKey = new FrameKey(frameIndex, textWidth, textHeight,
+                    getWidth(), getHeight(), effectiveMode);
+                cachedFrame = frameCache.get(frameKey);
             }
 
-            if (always || resized || (textWidth > 0
-                && (textWidth != lastTextWidth)
-                && (textHeight > 0)
-                && (textHeight != lastTextHeight))) {
-
-                resized = false;
-
-                adjustImageSize(textWidth, textHeight);
-
-                int imageWidth = image.getWidth();
-                int imageHeight = image.getHeight();
-
-                cellColumns = imageWidth / textWidth;
-                cellRows = imageHeight / textHeight;
-
-                // Break the image up into an array of cells.
-                var newCells = new Cell[cellColumns][cellRows];
-
-                int imageId = System.identityHashCode(this);
-                imageId ^= (int) System.currentTimeMillis();
-                for (int x = 0; x < cellColumns; x++) {
-                    for (int y = 0; y < cellRows; y++) {
-
-                        int width = textWidth;
-                        if ((x + 1) * textWidth > imageWidth) {
-                            width = imageWidth - (x * textWidth);
-                        }
-                        int height = textHeight;
-                        if ((y + 1) * textHeight > imageHeight) {
-                            height = imageHeight - (y * textHeight);
-                        }
-
-                        Cell cell = new Cell();
-                        cell.setTo(getWindow().getBackground());
-
-                        // Render over a full-cell-size image.
-                        ImageRGB subImage = image.getSubimage(x * textWidth,
-                            y * textHeight, width, height);
-
-                        cell.setImage(subImage);
-
-                        if ((displayMode != DisplayMode.BITMAP)
-                            || (!cell.checkForSingleColor(true))
-                        ) {
-                            imageId++;
-                            cell.setImageId(imageId & 0x7FFFFFFF);
-                        }
-
-                        switch (effectiveMode) {
-                            case BITMAP:
-                                newCells[x][y] = cell;
-                                break;
-                            case BLOCKS:
-                                if (cell.isImage()) {
-                                    int rgb = ImageUtils.rgbAverage(cell.getImage(),
-                                        0, 0, cell.getImage().getWidth(),
-                                        cell.getImage().getHeight());
-                                    Cell newCell = new Cell(' ');
-                                    newCell.setForeColorRGB(rgb);
-                                    newCell.setBackColorRGB(rgb);
-                                    newCells[x][y] = newCell;
-                                } else {
-                                    newCells[x][y] = cell;
-                                }
-                                break;
-                            case UNICODE_HALVES:
-                                if (cell.isImage()) {
-                                    UnicodeGlyphImage glyphImage =
-                                        new UnicodeGlyphImage(cell);
-                                    newCells[x][y] = glyphImage.toHalfBlockGlyph();
-                                } else {
-                                    newCells[x][y] = cell;
-                                }
-                                break;
-                        }
-                    }
-                }
-
-                cells = newCells;
-
+            if (cachedFrame != null) {
+                // This frame was already scaled and sliced for the current
+                // cell geometry.
+                generation.incrementAndGet();
+                pending = null;
+                image = cachedFrame.image();
+                cells = cachedFrame.cells();
+                cellColumns = cachedFrame.columns();
+                cellRows = cachedFrame.rows();
                 lastTextWidth = textWidth;
                 lastTextHeight = textHeight;
+                rescale = false;
+                resized = false;
+            } else if (rescale || always || resized || (textWidth > 0
+                    && (textWidth != lastTextWidth)
+                    && (textHeight > 0)
+                    && (textHeight != lastTextHeight))) {
+
+                CellAttributes background = getWindow().getBackground();
+                Request request = new Request(rescale ? originalImage : image,
+                    rescale, clockwise, scaleFactor, scale, getWidth(),
+                    getHeight(), textWidth, textHeight, displayMode,
+                    effectiveMode, new CellAttributes(background),
+                    getApplication().getBackend().attrToBackgroundColor(
+                        background), frameKey);
+                if (!request.equals(pending) && !request.equals(failed)) {
+                    resized = false;
+                    submit(request);
+                }
             }
 
             if ((left + getWidth()) > cellColumns) {
@@ -484,14 +625,201 @@ public class TImage extends TWidget implements EditMenuUser {
         }
     }
 
-    private void adjustImageSize(int textWidth, int textHeight) {
+    /**
+     * Process a request, either right away or on a background thread.
+     *
+     * @param request the request
+     */
+    private void submit(final Request request) {
+        final int requestGeneration = generation.incrementAndGet();
+        if (!async || (request.getPixels() < ASYNC_MIN_PIXELS)) {
+            pending = null;
+            show(request, process(request, requestGeneration));
+            return;
+        }
+
+        pending = request;
+        final TApplication application = getApplication();
+        Thread.ofVirtual().name("casciian-image").start(() -> {
+            final FrameCells result;
+            try {
+                result = process(request, requestGeneration);
+            } catch (Throwable t) {
+                // Out of memory, or a bad image: keep showing the last
+                // image.
+                application.invokeLater(() -> {
+                    if (generation.get() == requestGeneration) {
+                        pending = null;
+                        failed = request;
+                    }
+                });
+                return;
+            }
+            if (result == null) {
+                // A newer request replaced this one.
+                return;
+            }
+            application.invokeLater(() -> {
+                if (generation.get() == requestGeneration) {
+                    pending = null;
+                    show(request, result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Put newly processed cells on screen.  This runs on the UI thread.
+     *
+     * @param request the request that was processed
+     * @param result the processed image and cells
+     */
+    private void show(final Request request, final FrameCells result) {
+        image = result.image();
+        cells = result.cells();
+        cellColumns = result.columns();
+        cellRows = result.rows();
+        lastTextWidth = request.textWidth();
+        lastTextHeight = request.textHeight();
+        if (request.transform()) {
+            rescale = false;
+        }
+        if (request.frameKey() != null) {
+            frameCache.put(request.frameKey(), result);
+        }
+
+        setLeft(left);
+        setTop(top);
+        if (readyAction != null) {
+            readyAction.DO(this);
+        }
+    }
+
+    /**
+     * Rotate, scale, and slice an image into cells.  This may run on any
+     * thread, so it uses only the request and does not touch the widget.
+     *
+     * @param request the request
+     * @param requestGeneration the generation of the request
+     * @return the image and cells, or null if a newer request was made
+     * before this one finished
+     */
+    private FrameCells process(final Request request,
+        final int requestGeneration) {
+
+        final int textWidth = request.textWidth();
+        final int textHeight = request.textHeight();
+
+        ImageRGB image = request.source();
+        if (request.transform()) {
+            image = rotateImage(image, request.clockwise());
+            if (generation.get() != requestGeneration) {
+                return null;
+            }
+            image = scaleImage(image, request.scale(), request.scaleFactor(),
+                request.width(), request.height(), textWidth, textHeight);
+            if (generation.get() != requestGeneration) {
+                return null;
+            }
+        }
+        image = adjustImageSize(image, textWidth, textHeight,
+            request.backgroundColor());
+
+        int imageWidth = image.getWidth();
+        int imageHeight = image.getHeight();
+
+        int cellColumns = imageWidth / textWidth;
+        int cellRows = imageHeight / textHeight;
+
+        // Break the image up into an array of cells.
+        var newCells = new Cell[cellColumns][cellRows];
+
+        int imageId = System.identityHashCode(this);
+        imageId ^= (int) System.currentTimeMillis();
+        for (int x = 0; x < cellColumns; x++) {
+            if (generation.get() != requestGeneration) {
+                return null;
+            }
+            for (int y = 0; y < cellRows; y++) {
+
+                int width = textWidth;
+                if ((x + 1) * textWidth > imageWidth) {
+                    width = imageWidth - (x * textWidth);
+                }
+                int height = textHeight;
+                if ((y + 1) * textHeight > imageHeight) {
+                    height = imageHeight - (y * textHeight);
+                }
+
+                Cell cell = new Cell();
+                cell.setTo(request.background());
+
+                // A view onto the scaled image, rather than a copy.
+                ImageRGB subImage = image.getView(x * textWidth,
+                    y * textHeight, width, height);
+
+                cell.setImage(subImage);
+
+                if ((request.displayMode() != DisplayMode.BITMAP)
+                    || (!cell.checkForSingleColor(true))
+                ) {
+                    imageId++;
+                    cell.setImageId(imageId & 0x7FFFFFFF);
+                }
+
+                switch (request.effectiveMode()) {
+                    case BITMAP:
+                        newCells[x][y] = cell;
+                        break;
+                    case BLOCKS:
+                        if (cell.isImage()) {
+                            int rgb = ImageUtils.rgbAverage(cell.getImage(),
+                                0, 0, cell.getImage().getWidth(),
+                                cell.getImage().getHeight());
+                            Cell newCell = new Cell(' ');
+                            newCell.setForeColorRGB(rgb);
+                            newCell.setBackColorRGB(rgb);
+                            newCells[x][y] = newCell;
+                        } else {
+                            newCells[x][y] = cell;
+                        }
+                        break;
+                    case UNICODE_HALVES:
+                        if (cell.isImage()) {
+                            UnicodeGlyphImage glyphImage =
+                                new UnicodeGlyphImage(cell);
+                            newCells[x][y] = glyphImage.toHalfBlockGlyph();
+                        } else {
+                            newCells[x][y] = cell;
+                        }
+                        break;
+                }
+            }
+        }
+
+        return new FrameCells(image, newCells, cellColumns, cellRows);
+    }
+
+    /**
+     * Pad an image out to a whole number of text cells.
+     *
+     * @param image the image
+     * @param textWidth the width in pixels of one text cell
+     * @param textHeight the height in pixels of one text cell
+     * @param backgroundColor the RGB color to pad with
+     * @return the padded image, or image if it already fits
+     */
+    private static ImageRGB adjustImageSize(final ImageRGB image,
+        final int textWidth, final int textHeight,
+        final int backgroundColor) {
+
         int newWidth = ((image.getWidth() + textWidth - 1) / textWidth) * textWidth;
         int newHeight = ((image.getHeight() + textHeight - 1) / textHeight) * textHeight;
 
         if (newWidth != image.getWidth() || newHeight != image.getHeight()) {
-            int backgroundColor = getApplication().getBackend().attrToBackgroundColor(getWindow().getBackground());
-            image = image.resizeCanvas(newWidth, newHeight, backgroundColor);
+            return image.resizeCanvas(newWidth, newHeight, backgroundColor);
         }
+        return image;
     }
 
     /**
@@ -575,8 +903,12 @@ public class TImage extends TWidget implements EditMenuUser {
      * @param image the new image
      */
     public void setImage(final ImageRGB image) {
+        stop();
+        animation = null;
+        frameIndex = 0;
+        frameCache.clear();
         this.originalImage = image;
-        this.image = null;
+        rescale = true;
         lastTextWidth = -1;
         lastTextHeight = -1;
         sizeToImage(true);
@@ -607,7 +939,8 @@ public class TImage extends TWidget implements EditMenuUser {
      */
     public void setScaleType(final Scale scale) {
         this.scale = scale;
-        this.image = null;
+        frameCache.clear();
+        rescale = true;
         sizeToImage(true);
     }
 
@@ -643,7 +976,8 @@ public class TImage extends TWidget implements EditMenuUser {
         }
 
         this.scaleFactor = effectiveScaleFactor;
-        image = null;
+        frameCache.clear();
+        rescale = true;
         sizeToImage(true);
     }
 
@@ -664,7 +998,8 @@ public class TImage extends TWidget implements EditMenuUser {
     public void setDisplayMode(final DisplayMode displayMode) {
         this.displayMode = Objects.requireNonNull(displayMode,
             "displayMode must not be null");
-        this.image = null;
+        frameCache.clear();
+        rescale = true;
         lastTextWidth = -1;
         lastTextHeight = -1;
         sizeToImage(true);
@@ -688,7 +1023,7 @@ public class TImage extends TWidget implements EditMenuUser {
             default:
                 // Don't know how this happened, but fix it.
                 clockwise = 0;
-                image = null;
+                rescale = true;
                 sizeToImage(true);
                 return 0;
         }
@@ -719,22 +1054,213 @@ public class TImage extends TWidget implements EditMenuUser {
                 break;
         }
 
-        image = null;
+        frameCache.clear();
+        rescale = true;
+        sizeToImage(true);
+    }
+
+    /**
+     * Get the animation being shown.
+     *
+     * @return the animation, or null if a still image was set with
+     * setImage()
+     */
+    public AnimatedImage getAnimation() {
+        return animation;
+    }
+
+    /**
+     * Set a possibly animated image, and show its first frame.  Call play()
+     * to start playback.
+     *
+     * @param animation the new animation
+     */
+    public void setAnimation(final AnimatedImage animation) {
+        Objects.requireNonNull(animation, "animation must not be null");
+        stop();
+        this.animation = animation;
+        frameCache.clear();
+        frameIndex = 0;
+        originalImage = animation.getFrame(0);
+        rescale = true;
+        lastTextWidth = -1;
+        lastTextHeight = -1;
+        sizeToImage(true);
+    }
+
+    /**
+     * Get the index of the animation frame being shown.
+     *
+     * @return the frame index, 0-based
+     */
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+
+    /**
+     * Show one animation frame.
+     *
+     * @param frameIndex the frame index, 0-based
+     */
+    public void setFrameIndex(final int frameIndex) {
+        if ((animation == null) || (frameIndex < 0)
+            || (frameIndex >= animation.getFrameCount())
+        ) {
+            return;
+        }
+        this.frameIndex = frameIndex;
+        originalImage = animation.getFrame(frameIndex);
+        rescale = true;
         sizeToImage(true);
     }
 
+    /**
+     * Get the maximum number of scaled and sliced frames kept for replay.
+     *
+     * @return the frame cache size
+     */
+    public int getFrameCacheSize() {
+        return frameCacheSize;
+    }
+
+    /**
+     * Set the maximum number of scaled and sliced frames kept for replay.
+     * Animations with more frames than this are re-scaled on every loop.
+     *
+     * @param frameCacheSize the frame cache size, at least 1
+     */
+    public void setFrameCacheSize(final int frameCacheSize) {
+        this.frameCacheSize = Math.max(1, frameCacheSize);
+        frameCache.clear();
+    }
+
+    /**
+     * Check if large images are processed on a background thread.
+     *
+     * @return true if large images are processed in the background
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Set whether large images are processed on a background thread.  When
+     * false, every change is processed before the method making it
+     * returns.
+     *
+     * @param async if true, process large images in the background
+     */
+    public void setAsync(final boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Check if the image is being processed in the background.
+     *
+     * @return true if the cells on screen are not yet those for the latest
+     * image, rotation, scale, or size
+     */
+    public boolean isPending() {
+        return (pending != null);
+    }
+
+    /**
+     * Set the action to perform when new cells are put on screen, for
+     * example to fit a window to the image once its size is known.  The
+     * action runs on the UI thread.
+     *
+     * @param readyAction the action, or null
+     */
+    public void setReadyAction(final TAction readyAction) {
+        this.readyAction = readyAction;
+    }
+
+    /**
+     * Start playing the animation, if there is more than one frame.
+     * Playback is driven by an application timer, so frames advance on the
+     * UI thread.
+     */
+    public void play() {
+        if ((animation == null) || !animation.isAnimated()
+            || (animationTimer != null) || (getApplication() == null)
+        ) {
+            return;
+        }
+        loopsPlayed = 0;
+        nextFrameTime = System.currentTimeMillis()
+            + animation.getDelay(frameIndex);
+        // Frames can have different delays, so tick at the shortest one
+        // and advance only when the current frame is due.
+        animationTimer = getApplication().addTimer(
+            animation.getMinimumDelay(), true,
+            new TAction() {
+                public void DO() {
+                    onAnimationTick();
+                }
+            });
+    }
+
+    /**
+     * Stop playing the animation, leaving the current frame on screen.
+     */
+    public void stop() {
+        if (animationTimer != null) {
+            if (getApplication() != null) {
+                getApplication().removeTimer(animationTimer);
+            }
+            animationTimer = null;
+        }
+    }
+
+    /**
+     * Check if the animation is playing.
+     *
+     * @return true if playing
+     */
+    public boolean isPlaying() {
+        return (animationTimer != null);
+    }
+
+    /**
+     * Advance to the next animation frame if it is due.
+     */
+    private void onAnimationTick() {
+        if (animation == null) {
+            stop();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now < nextFrameTime) {
+            return;
+        }
+        int next = frameIndex + 1;
+        if (next >= animation.getFrameCount()) {
+            loopsPlayed++;
+            if ((animation.getLoopCount() > 0)
+                && (loopsPlayed >= animation.getLoopCount())
+            ) {
+                stop();
+                return;
+            }
+            next = 0;
+        }
+        setFrameIndex(next);
+        nextFrameTime = now + animation.getDelay(frameIndex);
+    }
+
     /**
      * Scale an image to be scaleFactor size, OR stretch it.
      *
      * @param image      the image to scale
+     * @param scale      the scaling strategy
      * @param factor     the scale to make the new image
      * @param width      the number of text cell columns for the destination image
      * @param height     the number of text cell rows for the destination image
      * @param textWidth  the width in pixels for one text cell
      * @param textHeight the height in pixels for one text cell
      */
-    private ImageRGB scaleImage(final ImageRGB image,
-                                final double factor, final int width, final int height,
+    private static ImageRGB scaleImage(final ImageRGB image,
+                                final Scale scale, final double factor, final int width, final int height,
                                 final int textWidth, final int textHeight) {
 
         if ((scale == Scale.NONE) && (Math.abs(factor - 1.0) < 0.03)) {
@@ -781,7 +1307,7 @@ public class TImage extends TWidget implements EditMenuUser {
      * @param image     the image to rotate
      * @param clockwise number of turns clockwise
      */
-    private ImageRGB rotateImage(final ImageRGB image,
+    private static ImageRGB rotateImage(final ImageRGB image,
                                  final int clockwise) {
 
         if (clockwise % 4 == 0) {
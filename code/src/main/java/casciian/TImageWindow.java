@@ -15,10 +15,13 @@
 package casciian;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ResourceBundle;
 
-import casciian.bits.ImageRGB;
+import casciian.bits.AnimatedImage;
+import casciian.bits.StringUtils;
 import casciian.event.TKeypressEvent;
 import casciian.event.TMouseEvent;
 import casciian.event.TResizeEvent;
@@ -84,6 +87,11 @@ public class TImageWindow extends TScrollableWindow {
      */
     private int panStartTop;
 
+    /**
+     * If true, the window was already fitted to the image.
+     */
+    private boolean fitted = false;
+
     // ------------------------------------------------------------------------
     // Constructors -----------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -93,7 +101,7 @@ public class TImageWindow extends TScrollableWindow {
      *
      * @param parent the main application
      * @param file the file to open
-     * @throws IOException if a java.io operation throws
+     * @throws IOException if the file cannot be read
      */
     public TImageWindow(final TApplication parent,
         final File file) throws IOException {
@@ -103,7 +111,9 @@ public class TImageWindow extends TScrollableWindow {
     }
 
     /**
-     * Public constructor opens a file.
+     * Public constructor opens a file.  The window appears right away, and
+     * the image is decoded on a background thread.  If it cannot be
+     * decoded, the window closes and the error is shown in a message box.
      *
      * @param parent the main application
      * @param file the file to open
@@ -111,7 +121,7 @@ public class TImageWindow extends TScrollableWindow {
      * @param y row relative to parent
      * @param width width of window
      * @param height height of window
-     * @throws IOException if a java.io operation throws
+     * @throws IOException if the file cannot be read
      */
     @SuppressWarnings("this-escape")
     public TImageWindow(final TApplication parent, final File file,
@@ -121,28 +131,79 @@ public class TImageWindow extends TScrollableWindow {
         super(parent, file.getName(), x, y, width, height, RESIZABLE);
         i18n = ResourceBundle.getBundle(RESOURCE_BUNDLE_NAME, getLocale());
 
-        // Use the image decoder registry to decode the file
-        ImageDecoderRegistry registry = ImageDecoderRegistry.getInstance();
-        try {
-            ImageRGB image = registry.decodeImage(file.toPath());
+        if (!Files.isReadable(file.toPath())) {
+            close();
+            throw new FileNotFoundException(file.getPath());
+        }
 
-            imageField = addImage(0, 0, getWidth() - 2, getHeight() - 2,
-                image, 0, 0);
+        imageField = addImage(0, 0, getWidth() - 2, getHeight() - 2, 0, 0);
+        imageField.setReadyAction(new TAction() {
+            public void DO() {
+                fitToImage();
+            }
+        });
+        setupAfterImage();
 
-            setTitle(file.getName());
+        // Use the image decoder registry to decode the file
+        final ImageDecoderRegistry registry = ImageDecoderRegistry.getInstance();
+        Thread.ofVirtual().name("casciian-image-decode").start(() -> {
+            try {
+                final AnimatedImage animation = registry.decodeAnimation(
+                    file.toPath());
+                parent.invokeLater(() -> showImage(animation));
+            } catch (IOException | RuntimeException e) {
+                parent.invokeLater(() -> {
+                    close();
+                    parent.messageBox(i18n.getString("errorTitle"),
+                        e.getMessage(), TMessageBox.Type.OK);
+                });
+            }
+        });
+    }
 
-            setupAfterImage();
-        } catch (IOException e) {
-            close();
+    /**
+     * Setup other fields after the image is created.
+     */
+    private void setupAfterImage() {
+        hScroller = new THScroller(this,
+            Math.min(Math.max(0, getWidth() - 17), 17),
+            getHeight() - 2,
+            getWidth() - Math.min(Math.max(0, getWidth() - 17), 17) - 3);
+        vScroller = new TVScroller(this, getWidth() - 2, 0, getHeight() - 2);
+        setTopValue(0);
+        setBottomValue(0);
+        setLeftValue(0);
+        setRightValue(0);
+
+        statusBar = newStatusBar(i18n.getString("statusBar"));
+    }
 
-            throw e;
+    /**
+     * Show the decoded image.  This runs on the UI thread.
+     *
+     * @param animation the decoded image
+     */
+    private void showImage(final AnimatedImage animation) {
+        if (!getApplication().hasWindow(this)) {
+            // The window was closed while the image was decoding.
+            return;
+        }
+        imageField.setAnimation(animation);
+        if (animation.isAnimated()) {
+            imageField.play();
         }
     }
 
     /**
-     * Setup other fields after the image is created.
+     * Shrink the window to fit the image the first time the image size is
+     * known.
      */
-    private void setupAfterImage() {
+    private void fitToImage() {
+        if (fitted) {
+            return;
+        }
+        fitted = true;
+
         if (imageField.getRows() < getHeight() - 2) {
             imageField.setHeight(imageField.getRows());
             setHeight(imageField.getRows() + 2);
@@ -151,18 +212,9 @@ public class TImageWindow extends TScrollableWindow {
             imageField.setWidth(imageField.getColumns());
             setWidth(imageField.getColumns() + 2);
         }
-
-        hScroller = new THScroller(this,
-            Math.min(Math.max(0, getWidth() - 17), 17),
-            getHeight() - 2,
-            getWidth() - Math.min(Math.max(0, getWidth() - 17), 17) - 3);
-        vScroller = new TVScroller(this, getWidth() - 2, 0, getHeight() - 2);
-        setTopValue(0);
+        placeScrollbars();
         setBottomValue(imageField.getRows() - imageField.getHeight());
-        setLeftValue(0);
         setRightValue(imageField.getColumns() - imageField.getWidth());
-
-        statusBar = newStatusBar(i18n.getString("statusBar"));
     }
 
     // ------------------------------------------------------------------------
@@ -470,6 +522,14 @@ public class TImageWindow extends TScrollableWindow {
         // Draw as normal.
         super.draw();
 
+        if (imageField.getVisibleImage() == null) {
+            // Still decoding or scaling.
+            String loading = i18n.getString("loading");
+            putStringXY(Math.max(1, (getWidth() - StringUtils.width(
+                loading)) / 2), (getHeight() - 1) / 2, loading,
+                getBackground());
+        }
+
         // We have to get the scrollbar values after we have let the image
         // try to draw.
         setBottomValue(imageField.getRows() - imageField.getHeight());
@@ -249,6 +249,8 @@ public class TPanel extends TWidget {
         } else {
             this.borderStyle = BorderStyle.getStyle(borderStyle);
         }
+        // My children now sit inside or on the border.
+        invalidateAbsolutePosition();
     }
 
     /**
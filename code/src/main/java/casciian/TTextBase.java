@@ -22,6 +22,7 @@ import casciian.backend.Backend;
 import casciian.bits.CellAttributes;
 import casciian.bits.ColorTheme;
 import casciian.bits.ComplexCell;
+import casciian.bits.GraphemeCache;
 import casciian.bits.StringUtils;
 import casciian.event.TCommandEvent;
 import casciian.event.TKeypressEvent;
@@ -794,9 +795,11 @@ public abstract class TTextBase extends TScrollable implements EditMenuUser {
         int areaX = getTextAreaX();
         int areaRight = areaX + getTextAreaWidth();
 
+        GraphemeCache.Clusters clusters = GraphemeCache.get(text);
         int screenX = x;
-        for (ComplexCell cell: StringUtils.toComplexCells(text)) {
-            int cellWidth = cell.getDisplayWidth();
+        for (int i = 0; i < clusters.size(); i++) {
+            ComplexCell cell = clusters.getCell(i);
+            int cellWidth = clusters.getWidth(i);
             if (screenX + cellWidth > areaRight) {
                 // Never partially place a two-cell cluster.
                 break;
@@ -48,6 +48,22 @@ import static casciian.TKeypress.*;
  */
 public abstract class TWidget implements Comparable<TWidget> {
 
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Widgets with at least this many children find the child under the
+     * mouse through a per-row index rather than testing every child.
+     */
+    private static final int HIT_INDEX_MIN_CHILDREN = 8;
+
+    /**
+     * The most rows a per-row index will cover.  Children spread over more
+     * rows than this (a long tree view, say) are tested one by one.
+     */
+    private static final int HIT_INDEX_MAX_ROWS = 1024;
+
     // ------------------------------------------------------------------------
     // Variables --------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -154,6 +170,84 @@ public abstract class TWidget implements Comparable<TWidget> {
      */
     private String mouseStyle = "default";
 
+    /**
+     * The children that cover each row, topmost first, built on demand when
+     * there are many children.  hitIndex[i] holds the children covering
+     * row hitIndexTop + i in child coordinates.  It is dropped when a child
+     * moves or resizes, or when the list of children changes.
+     */
+    private TWidget [][] hitIndex = null;
+
+    /**
+     * The child row covered by hitIndex[0].
+     */
+    private int hitIndexTop = 0;
+
+    /**
+     * The number of children when hitIndex was built.
+     */
+    private int hitIndexSize = 0;
+
+    /**
+     * The child that was under the mouse for the last motion event with no
+     * buttons down.  It gets the next motion event too, so that it can see
+     * the mouse leave.
+     */
+    private TWidget mouseOverChild = null;
+
+    /**
+     * If true, my size has changed since my layout manager last arranged
+     * my children.
+     */
+    private boolean layoutPending = false;
+
+    /**
+     * If true, one of my descendants has layoutPending set.
+     */
+    private boolean layoutPendingBelow = false;
+
+    /**
+     * The width my layout manager last arranged my children for, or -1.
+     */
+    private int layoutWidth = -1;
+
+    /**
+     * The height my layout manager last arranged my children for, or -1.
+     */
+    private int layoutHeight = -1;
+
+    /**
+     * If true, absoluteX and absoluteY are up to date.  When this is true
+     * it is also true for every ancestor, so invalidating a subtree can
+     * stop at the first widget that is already invalid.
+     */
+    private boolean absoluteValid = false;
+
+    /**
+     * Cached absolute screen column of my X position.
+     */
+    private int absoluteX = 0;
+
+    /**
+     * Cached absolute screen row of my Y position.
+     */
+    private int absoluteY = 0;
+
+    /**
+     * If true, clipRight and clipBottom are up to date.
+     */
+    private boolean clipValid = false;
+
+    /**
+     * Cached right clipping edge, relative to my X position.
+     */
+    private int clipRight = 0;
+
+    /**
+     * Cached bottom clipping edge, relative to my Y position.
+     */
+    private int clipBottom = 0;
+
     // ------------------------------------------------------------------------
     // Constructors -----------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -268,6 +362,7 @@ public abstract class TWidget implements Comparable<TWidget> {
         this.y      = y;
         this.width  = width;
         this.height = height;
+        invalidateAbsolutePosition();
     }
 
     // ------------------------------------------------------------------------
@@ -564,21 +659,18 @@ public abstract class TWidget implements Comparable<TWidget> {
                 return;
             }
         }
-        for (int i = children.size() - 1 ; i >= 0 ; i--) {
-            TWidget widget = children.get(i);
-            if (widget.mouseWouldHit(mouse)) {
-                // Dispatch to this child, and activate it only if it is
-                // enabled.
-                if (widget.enabled) {
-                    activate(widget);
-                }
-
-                // Set x and y relative to the child's coordinates
-                mouse.setX(mouse.getAbsoluteX() - widget.getAbsoluteX());
-                mouse.setY(mouse.getAbsoluteY() - widget.getAbsoluteY());
-                widget.onMouseDown(mouse);
-                return;
+        TWidget widget = getChildAt(mouse);
+        if (widget != null) {
+            // Dispatch to this child, and activate it only if it is
+            // enabled.
+            if (widget.enabled) {
+                activate(widget);
             }
+
+            // Set x and y relative to the child's coordinates
+            mouse.setX(mouse.getAbsoluteX() - widget.getAbsoluteX());
+            mouse.setY(mouse.getAbsoluteY() - widget.getAbsoluteY());
+            widget.onMouseDown(mouse);
         }
     }
 
@@ -600,21 +692,18 @@ public abstract class TWidget implements Comparable<TWidget> {
                 return;
             }
         }
-        for (int i = children.size() - 1 ; i >= 0 ; i--) {
-            TWidget widget = children.get(i);
-            if (widget.mouseWouldHit(mouse)) {
-                // Dispatch to this child, and activate it only if it is
-                // enabled.
-                if (widget.enabled) {
-                    activate(widget);
-                }
-
-                // Set x and y relative to the child's coordinates
-                mouse.setX(mouse.getAbsoluteX() - widget.getAbsoluteX());
-                mouse.setY(mouse.getAbsoluteY() - widget.getAbsoluteY());
-                widget.onMouseUp(mouse);
-                return;
+        TWidget widget = getChildAt(mouse);
+        if (widget != null) {
+            // Dispatch to this child, and activate it only if it is
+            // enabled.
+            if (widget.enabled) {
+                activate(widget);
             }
+
+            // Set x and y relative to the child's coordinates
+            mouse.setX(mouse.getAbsoluteX() - widget.getAbsoluteX());
+            mouse.setY(mouse.getAbsoluteY() - widget.getAbsoluteY());
+            widget.onMouseUp(mouse);
         }
     }
 
@@ -624,13 +713,38 @@ public abstract class TWidget implements Comparable<TWidget> {
      * @param mouse mouse motion event
      */
     public void onMouseMotion(final TMouseEvent mouse) {
-        // Default: do nothing, pass it on to ALL of my children.  This way
-        // the children can see the mouse "leaving" their area.
-        for (TWidget widget: children) {
+        // Default: do nothing, pass it on to my children.
+        if (mouse.isMouse1() || mouse.isMouse2() || mouse.isMouse3()) {
+            // A drag: pass it on to ALL of my children.  This way the
+            // child being dragged sees the mouse wherever it goes.
+            mouseOverChild = null;
+            for (TWidget widget: children) {
+                // Set x and y relative to the child's coordinates
+                mouse.setX(mouse.getAbsoluteX() - widget.getAbsoluteX());
+                mouse.setY(mouse.getAbsoluteY() - widget.getAbsoluteY());
+                widget.onMouseMotion(mouse);
+            }
+            return;
+        }
+
+        // No buttons down: pass it on to the child under the mouse, and to
+        // the child that was under it last time so that it can see the
+        // mouse "leaving" its area.
+        TWidget over = getChildAt(mouse);
+        if ((mouseOverChild != null)
+            && (mouseOverChild != over)
+            && (mouseOverChild.parent == this)
+        ) {
+            mouse.setX(mouse.getAbsoluteX() - mouseOverChild.getAbsoluteX());
+            mouse.setY(mouse.getAbsoluteY() - mouseOverChild.getAbsoluteY());
+            mouseOverChild.onMouseMotion(mouse);
+        }
+        mouseOverChild = over;
+        if (over != null) {
             // Set x and y relative to the child's coordinates
-            mouse.setX(mouse.getAbsoluteX() - widget.getAbsoluteX());
-            mouse.setY(mouse.getAbsoluteY() - widget.getAbsoluteY());
-            widget.onMouseMotion(mouse);
+            mouse.setX(mouse.getAbsoluteX() - over.getAbsoluteX());
+            mouse.setY(mouse.getAbsoluteY() - over.getAbsoluteY());
+            over.onMouseMotion(mouse);
         }
     }
 
@@ -653,18 +767,15 @@ public abstract class TWidget implements Comparable<TWidget> {
                 return;
             }
         }
-        for (int i = children.size() - 1 ; i >= 0 ; i--) {
-            TWidget widget = children.get(i);
-            if (widget.mouseWouldHit(mouse)) {
-                // Dispatch to this child, also activate it
-                activate(widget);
+        TWidget widget = getChildAt(mouse);
+        if (widget != null) {
+            // Dispatch to this child, also activate it
+            activate(widget);
 
-                // Set x and y relative to the child's coordinates
-                mouse.setX(mouse.getAbsoluteX() - widget.getAbsoluteX());
-                mouse.setY(mouse.getAbsoluteY() - widget.getAbsoluteY());
-                widget.onMouseDoubleClick(mouse);
-                return;
-            }
+            // Set x and y relative to the child's coordinates
+            mouse.setX(mouse.getAbsoluteX() - widget.getAbsoluteX());
+            mouse.setY(mouse.getAbsoluteY() - widget.getAbsoluteY());
+            widget.onMouseDoubleClick(mouse);
         }
     }
 
@@ -679,17 +790,8 @@ public abstract class TWidget implements Comparable<TWidget> {
         if (resize.getType() == TResizeEvent.Type.WIDGET) {
             width = resize.getWidth();
             height = resize.getHeight();
-            if (layout != null) {
-                if ((this instanceof TWindow)
-                    || ((this instanceof TPanel)
-                        && ((TPanel) this).getBorderStyle() != BorderStyle.NONE)
-                ) {
-                    layout.onResize(new TResizeEvent(resize.getBackend(),
-                            TResizeEvent.Type.WIDGET, width - 2, height - 2));
-                } else {
-                    layout.onResize(resize);
-                }
-            }
+            moved();
+            invalidateLayout();
         } else {
             // Let children see the screen resize
             for (TWidget widget: children) {
@@ -806,11 +908,14 @@ public abstract class TWidget implements Comparable<TWidget> {
     }
 
     /**
-     * Get the list of child widgets that this widget contains.
+     * Get the list of child widgets that this widget contains.  Callers
+     * may add, remove, and reorder children through this list.
      *
      * @return the list of child widgets
      */
     public List<TWidget> getChildren() {
+        // The caller may change the list.
+        hitIndex = null;
         return children;
     }
 
@@ -862,6 +967,11 @@ public abstract class TWidget implements Comparable<TWidget> {
             child.close();
         }
         children.remove(child);
+        hitIndex = null;
+        if (mouseOverChild == child) {
+            mouseOverChild = null;
+        }
+        child.invalidateAbsolutePosition();
         child.parent = null;
         child.window = null;
         if (layout != null) {
@@ -1060,6 +1170,7 @@ public abstract class TWidget implements Comparable<TWidget> {
      */
     public final void setX(final int x) {
         this.x = x;
+        moved();
     }
 
     /**
@@ -1078,6 +1189,7 @@ public abstract class TWidget implements Comparable<TWidget> {
      */
     public final void setY(final int y) {
         this.y = y;
+        moved();
     }
 
     /**
@@ -1096,10 +1208,8 @@ public abstract class TWidget implements Comparable<TWidget> {
      */
     public void setWidth(final int width) {
         this.width = width;
-        if (layout != null) {
-            layout.onResize(new TResizeEvent(null, TResizeEvent.Type.WIDGET,
-                    width, height));
-        }
+        moved();
+        invalidateLayout();
     }
 
     /**
@@ -1118,10 +1228,8 @@ public abstract class TWidget implements Comparable<TWidget> {
      */
     public void setHeight(final int height) {
         this.height = height;
-        if (layout != null) {
-            layout.onResize(new TResizeEvent(null, TResizeEvent.Type.WIDGET,
-                    width, height));
-        }
+        moved();
+        invalidateLayout();
     }
 
     /**
@@ -1137,13 +1245,11 @@ public abstract class TWidget implements Comparable<TWidget> {
 
         this.x = x;
         this.y = y;
+        moved();
         // Call the functions so that subclasses can choose how to handle it.
         setWidth(width);
         setHeight(height);
-        if (layout != null) {
-            layout.onResize(new TResizeEvent(null, TResizeEvent.Type.WIDGET,
-                    width, height));
-        }
+        invalidateLayout();
     }
 
     /**
@@ -1155,6 +1261,65 @@ public abstract class TWidget implements Comparable<TWidget> {
         return layout;
     }
 
+    /**
+     * Arrange children whose layout has been left pending by resizes, here
+     * and in all descendants.  Resizing a widget only marks its layout as
+     * pending, so that the storm of resizes from dragging a window corner
+     * costs one layout per frame; TApplication calls this before drawing
+     * and before dispatching mouse events.  Code that resizes widgets and
+     * then needs their children's new positions without waiting for the
+     * next frame can call it directly.
+     */
+    public final void doLayout() {
+        if (layoutPending) {
+            layoutPending = false;
+            int layoutInsets = 0;
+            if ((this instanceof TWindow)
+                || ((this instanceof TPanel)
+                    && ((TPanel) this).getBorderStyle() != BorderStyle.NONE)
+            ) {
+                layoutInsets = 2;
+            }
+            // Skip the layout if I am back to the size it was done for.
+            if ((layout != null)
+                && ((width - layoutInsets != layoutWidth)
+                    || (height - layoutInsets != layoutHeight))
+            ) {
+                layoutWidth = width - layoutInsets;
+                layoutHeight = height - layoutInsets;
+                layout.onResize(new TResizeEvent(null,
+                        TResizeEvent.Type.WIDGET, layoutWidth, layoutHeight));
+            }
+        }
+        if (layoutPendingBelow) {
+            layoutPendingBelow = false;
+            List<TWidget> children2 = new ArrayList<TWidget>(children);
+            for (TWidget widget: children2) {
+                if (widget.layoutPending || widget.layoutPendingBelow) {
+                    widget.doLayout();
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark my layout as pending, to be done by the next doLayout() on me or
+     * an ancestor.
+     */
+    private void invalidateLayout() {
+        if (layout == null) {
+            return;
+        }
+        layoutPending = true;
+        // Mark the whole path up, even past ancestors that are already
+        // marked: a layout pass in progress may have cleared them.
+        TWidget widget = this;
+        while ((widget.parent != null) && (widget.parent != widget)) {
+            widget = widget.parent;
+            widget.layoutPendingBelow = true;
+        }
+    }
+
     /**
      * Set the layout manager.
      *
@@ -1168,6 +1333,8 @@ public abstract class TWidget implements Comparable<TWidget> {
             this.layout = null;
         }
         this.layout = layout;
+        layoutWidth = -1;
+        layoutHeight = -1;
         if (this.layout != null) {
             for (TWidget w: children) {
                 this.layout.add(w);
@@ -1457,60 +1624,30 @@ public abstract class TWidget implements Comparable<TWidget> {
 
     /**
      * Compute my absolute X position as the sum of my X plus all my parent's
-     * X's.
+     * X's.  The result is cached until this widget or one of its ancestors
+     * moves or resizes.
      *
      * @return absolute screen column number for my X position
      */
     public final int getAbsoluteX() {
-        assert (parent != null);
-        if (parent == this) {
-            return x;
-        }
-        if ((parent instanceof TWindow)
-            && !(parent instanceof TMenu)
-            && !(parent instanceof TDesktop)
-        ) {
-            // Widgets on a TWindow have (0,0) as their top-left, but this is
-            // actually the TWindow's (1,1).
-            return parent.getAbsoluteX() + x + 1;
+        if (!absoluteValid) {
+            computeAbsolutePosition();
         }
-        if ((parent instanceof TPanel)
-            && (((TPanel) parent).getBorderStyle() != BorderStyle.NONE)
-        ) {
-            // Widgets on a bordered TPanel will act like they are placed on
-            // a TWindow.
-            return parent.getAbsoluteX() + x + 1;
-        }
-        return parent.getAbsoluteX() + x;
+        return absoluteX;
     }
 
     /**
      * Compute my absolute Y position as the sum of my Y plus all my parent's
-     * Y's.
+     * Y's.  The result is cached until this widget or one of its ancestors
+     * moves or resizes.
      *
      * @return absolute screen row number for my Y position
      */
     public final int getAbsoluteY() {
-        assert (parent != null);
-        if (parent == this) {
-            return y;
+        if (!absoluteValid) {
+            computeAbsolutePosition();
         }
-        if ((parent instanceof TWindow)
-            && !(parent instanceof TMenu)
-            && !(parent instanceof TDesktop)
-        ) {
-            // Widgets on a TWindow have (0,0) as their top-left, but this is
-            // actually the TWindow's (1,1).
-            return parent.getAbsoluteY() + y + 1;
-        }
-        if ((parent instanceof TPanel)
-            && (((TPanel) parent).getBorderStyle() != BorderStyle.NONE)
-        ) {
-            // Widgets on a bordered TPanel will act like they are placed on
-            // a TWindow.
-            return parent.getAbsoluteY() + y + 1;
-        }
-        return parent.getAbsoluteY() + y;
+        return absoluteY;
     }
 
     /**
@@ -1633,39 +1770,11 @@ public abstract class TWidget implements Comparable<TWidget> {
             return;
         }
 
-        screen.setClipRight(width);
-        screen.setClipBottom(height);
-
-        int absoluteRightEdge = window.getAbsoluteX() + window.getWidth();
-        int absoluteBottomEdge = window.getAbsoluteY() + window.getHeight();
-        if (!(this instanceof TWindow)
-            && !(this instanceof TVScroller)
-            && !(window instanceof TDesktop)
-        ) {
-            absoluteRightEdge -= 1;
-        }
-        if (!(this instanceof TWindow)
-            && !(this instanceof THScroller)
-            && !(window instanceof TDesktop)
-        ) {
-            absoluteBottomEdge -= 1;
-        }
-        int myRightEdge = getAbsoluteX() + width;
-        int myBottomEdge = getAbsoluteY() + height;
-        if (getAbsoluteX() > absoluteRightEdge) {
-            // I am offscreen
-            screen.setClipRight(0);
-        } else if (myRightEdge > absoluteRightEdge) {
-            screen.setClipRight(screen.getClipRight()
-                - (myRightEdge - absoluteRightEdge));
-        }
-        if (getAbsoluteY() > absoluteBottomEdge) {
-            // I am offscreen
-            screen.setClipBottom(0);
-        } else if (myBottomEdge > absoluteBottomEdge) {
-            screen.setClipBottom(screen.getClipBottom()
-                - (myBottomEdge - absoluteBottomEdge));
+        if (!clipValid) {
+            computeClip();
         }
+        screen.setClipRight(clipRight);
+        screen.setClipBottom(clipBottom);
 
         // Set my offset
         screen.setOffsetX(getAbsoluteX());
@@ -1740,6 +1849,7 @@ public abstract class TWidget implements Comparable<TWidget> {
      */
     private void addChild(final TWidget child) {
         children.add(child);
+        hitIndex = null;
 
         if ((child.enabled)
             && !(child instanceof THScroller)
@@ -1757,6 +1867,194 @@ public abstract class TWidget implements Comparable<TWidget> {
         }
     }
 
+    /**
+     * Called when this widget moves or changes size, so that the parent's
+     * per-row index of its children is rebuilt, and the cached positions
+     * and clipping of this widget and its descendants are recomputed.
+     */
+    private void moved() {
+        if ((parent != null) && (parent != this)) {
+            parent.hitIndex = null;
+        }
+        invalidateAbsolutePosition();
+    }
+
+    /**
+     * Drop the cached absolute positions and clipping of this widget and
+     * all of its descendants.  TWidget calls this when a widget moves or
+     * resizes; subclasses that change where their children are drawn
+     * relative to themselves, as TPanel does when its border changes, call
+     * it too.
+     */
+    protected final void invalidateAbsolutePosition() {
+        if (!absoluteValid && !clipValid) {
+            // My descendants were already invalidated.
+            return;
+        }
+        absoluteValid = false;
+        clipValid = false;
+        for (TWidget widget: children) {
+            widget.invalidateAbsolutePosition();
+        }
+    }
+
+    /**
+     * Compute and cache my absolute screen position.
+     */
+    private void computeAbsolutePosition() {
+        assert (parent != null);
+        if (parent == this) {
+            absoluteX = x;
+            absoluteY = y;
+        } else if (((parent instanceof TWindow)
+                && !(parent instanceof TMenu)
+                && !(parent instanceof TDesktop))
+            || ((parent instanceof TPanel)
+                && (((TPanel) parent).getBorderStyle() != BorderStyle.NONE))
+        ) {
+            // Widgets on a TWindow have (0,0) as their top-left, but this is
+            // actually the TWindow's (1,1).  Widgets on a bordered TPanel
+            // will act like they are placed on a TWindow.
+            absoluteX = parent.getAbsoluteX() + x + 1;
+            absoluteY = parent.getAbsoluteY() + y + 1;
+        } else {
+            absoluteX = parent.getAbsoluteX() + x;
+            absoluteY = parent.getAbsoluteY() + y;
+        }
+        absoluteValid = true;
+    }
+
+    /**
+     * Compute and cache my clipping edges: my own size, cut down to the
+     * inside of my window's border.
+     */
+    private void computeClip() {
+        clipRight = width;
+        clipBottom = height;
+
+        int absoluteRightEdge = window.getAbsoluteX() + window.getWidth();
+        int absoluteBottomEdge = window.getAbsoluteY() + window.getHeight();
+        if (!(this instanceof TWindow)
+            && !(this instanceof TVScroller)
+            && !(window instanceof TDesktop)
+        ) {
+            absoluteRightEdge -= 1;
+        }
+        if (!(this instanceof TWindow)
+            && !(this instanceof THScroller)
+            && !(window instanceof TDesktop)
+        ) {
+            absoluteBottomEdge -= 1;
+        }
+        int myRightEdge = getAbsoluteX() + width;
+        int myBottomEdge = getAbsoluteY() + height;
+        if (getAbsoluteX() > absoluteRightEdge) {
+            // I am offscreen
+            clipRight = 0;
+        } else if (myRightEdge > absoluteRightEdge) {
+            clipRight -= (myRightEdge - absoluteRightEdge);
+        }
+        if (getAbsoluteY() > absoluteBottomEdge) {
+            // I am offscreen
+            clipBottom = 0;
+        } else if (myBottomEdge > absoluteBottomEdge) {
+            clipBottom -= (myBottomEdge - absoluteBottomEdge);
+        }
+        clipValid = true;
+    }
+
+    /**
+     * Find the child that a mouse event would be sent to: the topmost one
+     * that mouseWouldHit() says the mouse is over.
+     *
+     * @param mouse a mouse-based event
+     * @return the child, or null if the mouse is not over any child
+     */
+    private TWidget getChildAt(final TMouseEvent mouse) {
+        if (children.size() >= HIT_INDEX_MIN_CHILDREN) {
+            if ((hitIndex == null) || (hitIndexSize != children.size())) {
+                buildHitIndex();
+            }
+        } else {
+            hitIndex = null;
+        }
+        if (hitIndex == null) {
+            for (int i = children.size() - 1; i >= 0; i--) {
+                TWidget widget = children.get(i);
+                if (widget.mouseWouldHit(mouse)) {
+                    return widget;
+                }
+            }
+            return null;
+        }
+
+        // All children share the same origin, so any one of them gives the
+        // mouse row in child coordinates.
+        TWidget first = children.get(0);
+        int row = mouse.getAbsoluteY() - (first.getAbsoluteY() - first.y)
+            - hitIndexTop;
+        if ((row < 0) || (row >= hitIndex.length)) {
+            return null;
+        }
+        for (TWidget widget: hitIndex[row]) {
+            if (widget.mouseWouldHit(mouse)) {
+                return widget;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sort the children into hitIndex by the rows they cover.  If they
+     * cover too many rows, hitIndex is left null and getChildAt() tests
+     * each child.
+     */
+    private void buildHitIndex() {
+        hitIndex = null;
+        hitIndexSize = children.size();
+
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for (TWidget widget: children) {
+            if (widget.height > 0) {
+                top = Math.min(top, widget.y);
+                bottom = Math.max(bottom, widget.y + widget.height);
+            }
+        }
+        if (top > bottom) {
+            // No child can be hit.
+            hitIndexTop = 0;
+            hitIndex = new TWidget[0][];
+            return;
+        }
+        if ((long) bottom - top > HIT_INDEX_MAX_ROWS) {
+            return;
+        }
+
+        int [] counts = new int[bottom - top];
+        for (TWidget widget: children) {
+            for (int i = 0; i < widget.height; i++) {
+                counts[widget.y + i - top]++;
+            }
+        }
+        TWidget [][] index = new TWidget[counts.length][];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = new TWidget[counts[i]];
+            counts[i] = 0;
+        }
+        // Topmost (last) child first, matching the order that mouse events
+        // have always been delivered in.
+        for (int i = children.size() - 1; i >= 0; i--) {
+            TWidget widget = children.get(i);
+            for (int j = 0; j < widget.height; j++) {
+                int row = widget.y + j - top;
+                index[row][counts[row]++] = widget;
+            }
+        }
+        hitIndexTop = top;
+        hitIndex = index;
+    }
+
     /**
      * Reset the tab order of children to match their position in the list.
      * Available so that subclasses can re-order their widgets if needed.
@@ -79,6 +79,8 @@ public class ECMA48Backend extends GenericBackend {
 
         // ECMA48Terminal is the screen too
         screen = (ECMA48Terminal) terminal;
+
+        startSessionRecording();
     }
 
     /**
@@ -134,6 +136,8 @@ public class ECMA48Backend extends GenericBackend {
 
         // ECMA48Terminal is the screen too
         screen = (ECMA48Terminal) terminal;
+
+        startSessionRecording();
     }
 
     /**
@@ -165,6 +169,8 @@ public class ECMA48Backend extends GenericBackend {
 
         // ECMA48Terminal is the screen too
         screen = (ECMA48Terminal) terminal;
+
+        startSessionRecording();
     }
 
     /**
@@ -21,10 +21,12 @@ package casciian.backend;
 
 import java.io.InputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -49,6 +51,7 @@ import casciian.bits.ImageRGB;
 import casciian.bits.ArrayImageRGB;
 import casciian.bits.Palette256;
 import casciian.bits.StringUtils;
+import casciian.bits.ViewImageRGB;
 import casciian.bits.UnicodeGlyphImage;
 import casciian.event.TCommandEvent;
 import casciian.event.TInputEvent;
@@ -121,6 +124,14 @@ public class ECMA48Terminal extends LogicalScreen
      */
     private static final String XTVERSION_FOR_WARP = "Warp";
 
+    /**
+     * XTVERSION response prefixes for terminals that implement the Kitty
+     * graphics protocol.
+     */
+    private static final String [] XTVERSION_FOR_KITTY_GRAPHICS = {
+        "kitty", "WezTerm", "ghostty",
+    };
+
     /**
      * VT2026 Begin Synchronized Update (BSU).
      */
@@ -137,6 +148,24 @@ public class ECMA48Terminal extends LogicalScreen
      */
     private static final int FRAME_BUFFER_MAX_CHARS = 65536;
 
+    /**
+     * A frame write that blocks longer than this, in nanos, means the
+     * connection is not draining output as fast as we produce it.
+     */
+    private static final long BACKPRESSURE_NANOS = 2_000_000L;
+
+    /**
+     * Frame pacing relaxes once no write has blocked for this long, in
+     * nanos.
+     */
+    private static final long BACKPRESSURE_MEMORY_NANOS = 2_000_000_000L;
+
+    /**
+     * The longest a frame is held back by pacing, in nanos.  This keeps
+     * a very slow link at a few frames per second rather than none.
+     */
+    private static final long MAX_FRAME_INTERVAL_NANOS = 250_000_000L;
+
     /**
      * The local hostname used in OSC 7 file:// URIs.
      */
@@ -165,6 +194,15 @@ public class ECMA48Terminal extends LogicalScreen
         RGB,
     }
 
+    /**
+     * Available Kitty graphics protocol support.
+     */
+    private enum KittyImageOption {
+        DISABLED,
+        AUTO,
+        ENABLED,
+    }
+
     /**
      * Available text blink options.
      */
@@ -369,6 +407,24 @@ public class ECMA48Terminal extends LogicalScreen
      */
     private volatile ImageCache jexerCache = null;
 
+    /**
+     * If not DISABLED, emit image data via the Kitty graphics protocol.
+     * AUTO enables it only for terminals recognized by XTVERSION.
+     */
+    private KittyImageOption kittyImageOption = KittyImageOption.AUTO;
+
+    /**
+     * If true, XTVERSION identified a terminal that implements the Kitty
+     * graphics protocol.
+     */
+    private boolean kittyGraphicsDetected = false;
+
+    /**
+     * The Kitty graphics image ID and placement tracker, created on first
+     * use.
+     */
+    private KittyGraphics kittyGraphics = null;
+
     /**
      * The Unicode glyph post-rendered string cache.
      * Volatile to ensure visibility when the cache is written by one thread
@@ -517,6 +573,64 @@ public class ECMA48Terminal extends LogicalScreen
      */
     private int lastBytesPerSecond;
 
+    /**
+     * If true, hold frames back while the connection is still draining
+     * earlier ones, and send only the latest screen when it catches up.
+     */
+    private boolean framePacing = true;
+
+    /**
+     * The estimated rate at which the connection drains output, in bytes
+     * per second, or 0 if no write has blocked recently.
+     */
+    private double drainRate = 0;
+
+    /**
+     * When a frame write last blocked, from System.nanoTime().
+     */
+    private long lastBackpressureTime = 0;
+
+    /**
+     * The earliest time the next frame may be written, from
+     * System.nanoTime(), or 0 if frames are not being paced.
+     */
+    private volatile long nextFrameTime = 0;
+
+    /**
+     * Lock guarding readerWaiting, so that wakeReader() never interrupts
+     * the reader thread outside of its wait for input.
+     */
+    private final Object readerLock = new Object();
+
+    /**
+     * If true, the reader thread is waiting for input in run() and may be
+     * interrupted to wake it early.
+     */
+    private boolean readerWaiting = false;
+
+    /**
+     * If true, flushPhysical() was called while frames were being paced,
+     * and the screen still needs to be written once nextFrameTime passes.
+     */
+    private volatile boolean framePending = false;
+
+    /**
+     * The number of flushes folded into a later frame by pacing.
+     */
+    private long framesCoalesced = 0;
+
+    /**
+     * If true, clearPhysical() was called since the last frame was
+     * rendered.  MultiScreen checks this before it sends this terminal a
+     * frame rendered by another one.
+     */
+    private boolean physicalCleared = false;
+
+    /**
+     * If set, every frame written is also saved to this recording.
+     */
+    private volatile SessionRecording sessionRecording = null;
+
     /**
      * The terminal's input.  If an InputStream is not specified in the
      * constructor, then this InputStreamReader will be bound to System.in
@@ -593,6 +707,12 @@ public class ECMA48Terminal extends LogicalScreen
          */
         private static final int CHARS_PER_HASHCODE = 10;
 
+        /**
+         * Approximate heap size of one cache entry apart from the contents
+         * of its strings: the map entry and two String objects.
+         */
+        private static final int ENTRY_BYTES = 96;
+
         /**
          * Public constructor.
          *
@@ -618,7 +738,7 @@ public class ECMA48Terminal extends LogicalScreen
          * @param cells the cells
          * @return the key
          */
-        private String makeKey(final ArrayList<Cell> cells) {
+        static String makeKey(final ArrayList<Cell> cells) {
             StringBuilder sb = new StringBuilder(cells.size() * CHARS_PER_HASHCODE);
             for (Cell cell : cells) {
                 sb.append(cell.hashCode());
@@ -655,6 +775,110 @@ public class ECMA48Terminal extends LogicalScreen
         public synchronized int size() {
             return cache.size();
         }
+
+        /**
+         * Estimate the heap memory held by the cache.  Keys and encoded
+         * images are ASCII, so compact strings store them in one byte per
+         * char.
+         *
+         * @return the estimate in bytes
+         */
+        public synchronized long getMemoryUsage() {
+            long bytes = 0;
+            for (java.util.Map.Entry<String, String> entry: cache.entrySet()) {
+                bytes += ENTRY_BYTES + entry.getKey().length()
+                    + entry.getValue().length();
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * The writer under output.  It passes everything through to the
+     * connection, and on each flush saves what was written since the last
+     * one to the session recording, if there is one.  That way title
+     * changes, clears, and image deletes are recorded along with frames.
+     */
+    private class RecordingWriter extends Writer {
+
+        /**
+         * The connection to the user.
+         */
+        private final PrintWriter writer;
+
+        /**
+         * What was written since the last flush, while recording.
+         */
+        private final StringBuilder pending = new StringBuilder();
+
+        /**
+         * Public constructor.
+         *
+         * @param writer the connection to the user
+         */
+        public RecordingWriter(final PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        /**
+         * Write characters to the connection.
+         *
+         * @param chars the characters
+         * @param offset the first one to write
+         * @param length how many to write
+         */
+        @Override
+        public void write(final char [] chars, final int offset,
+            final int length) {
+
+            writer.write(chars, offset, length);
+            if (sessionRecording != null) {
+                pending.append(chars, offset, length);
+            }
+        }
+
+        /**
+         * Write part of a string to the connection.
+         *
+         * @param str the string
+         * @param offset the first character to write
+         * @param length how many to write
+         */
+        @Override
+        public void write(final String str, final int offset,
+            final int length) {
+
+            writer.write(str, offset, length);
+            if (sessionRecording != null) {
+                pending.append(str, offset, offset + length);
+            }
+        }
+
+        /**
+         * Flush the connection and record what was written.
+         *
+         * @throws IOException if the connection failed
+         */
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+            SessionRecording recording = sessionRecording;
+            if ((recording != null) && (pending.length() > 0)) {
+                recording.recordOutput(pending.toString());
+            }
+            pending.setLength(0);
+            if (writer.checkError()) {
+                throw new IOException("Error writing to the terminal");
+            }
+        }
+
+        /**
+         * Close the connection.
+         */
+        @Override
+        public void close() {
+            writer.close();
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -771,7 +995,8 @@ public class ECMA48Terminal extends LogicalScreen
         }
 
         // Get output writer from terminal
-        this.output = terminal.getWriter();
+        this.output = new PrintWriter(new RecordingWriter(
+            terminal.getWriter()));
 
         synchronized (outputLock) {
             // Request xterm version.  Due to the ambiguity between the response
@@ -922,7 +1147,7 @@ public class ECMA48Terminal extends LogicalScreen
             }
         }
 
-        this.output = writer;
+        this.output = new PrintWriter(new RecordingWriter(writer));
 
         synchronized (outputLock) {
             // Request xterm version.  Due to the ambiguity between the response
@@ -1027,6 +1252,36 @@ public class ECMA48Terminal extends LogicalScreen
     // LogicalScreen ----------------------------------------------------------
     // ------------------------------------------------------------------------
 
+    /**
+     * Estimate the heap memory held by this screen: the cell buffers and
+     * the encoded image caches.
+     *
+     * @return the estimate in bytes
+     */
+    @Override
+    public long getMemoryUsage() {
+        long bytes = super.getMemoryUsage();
+        for (ImageCache cache: new ImageCache[] {
+                sixelCache, jexerCache, unicodeGlyphCache }) {
+
+            if (cache != null) {
+                bytes += cache.getMemoryUsage();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Drop the encoded image caches.  They are created again the next time
+     * an image is drawn.
+     */
+    @Override
+    public void trimMemory() {
+        sixelCache = null;
+        jexerCache = null;
+        unicodeGlyphCache = null;
+    }
+
     /**
      * Set the window title.
      *
@@ -1062,11 +1317,97 @@ public class ECMA48Terminal extends LogicalScreen
         }
     }
 
+    /**
+     * Clear the physical screen, so that the next frame redraws every cell.
+     */
+    @Override
+    public synchronized void clearPhysical() {
+        super.clearPhysical();
+        physicalCleared = true;
+    }
+
     /**
      * Push the logical screen to the physical device.
      */
     @Override
     public void flushPhysical() {
+        if (framePacing && (nextFrameTime != 0)
+            && (System.nanoTime() - nextFrameTime < 0)
+        ) {
+            // The connection is still busy with earlier frames.  Leave the
+            // changes in the logical screen: the reader thread will write
+            // them, together with anything drawn until then, as one frame.
+            if (!framePending) {
+                framePending = true;
+                // The reader may be asleep until a later deadline.
+                wakeReader();
+            }
+            framesCoalesced++;
+            return;
+        }
+        framePending = false;
+        StringBuilder frame = buildFrame();
+        SessionRecording recording = sessionRecording;
+        String keyframe = null;
+        if ((recording != null) && recording.isKeyframeDue()) {
+            keyframe = renderKeyframe();
+        }
+        sendFrame(frame);
+        if (keyframe != null) {
+            recording.recordKeyframe(width, height, keyframe);
+        }
+    }
+
+    /**
+     * Render the whole screen as it now is, for a session recording to
+     * seek to, without disturbing what the next frame will send.
+     *
+     * @return escape sequences that redraw the screen from any state, or
+     * null if this terminal cannot render one
+     */
+    private String renderKeyframe() {
+        if (kittyGraphics != null) {
+            // Its placements would be redrawn, and forgotten, for real.
+            return null;
+        }
+        ComplexCell [][] current = physical;
+        physical = new ComplexCell[width][height];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                physical[col][row] = new ComplexCell();
+                physical[col][row].unset();
+            }
+        }
+        reallyCleared = true;
+        StringBuilder sb = new StringBuilder();
+        try {
+            flushString(sb);
+        } finally {
+            physical = current;
+            reallyCleared = false;
+        }
+        if (cursorVisible
+            && (cursorY >= 0)
+            && (cursorX >= 0)
+            && (cursorY <= height - 1)
+            && (cursorX <= width - 1)
+        ) {
+            sb.append(cursor(true));
+            sb.append(gotoXY(cursorX, cursorY));
+        } else {
+            sb.append(cursor(false));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Render the changes between the logical and physical screens as one
+     * frame, and bring the physical screen up to date.  Frame pacing and
+     * synchronized output are left to the caller.
+     *
+     * @return the frame, which may be empty
+     */
+    private StringBuilder buildFrame() {
         StringBuilder sb = new StringBuilder();
         if ((cursorVisible)
             && (cursorY >= 0)
@@ -1092,7 +1433,114 @@ public class ECMA48Terminal extends LogicalScreen
         } else if (blinkMillis <= 0) {
             textBlinkVisible = true;
         }
+        physicalCleared = false;
+        return sb;
+    }
+
+    /**
+     * Render the next frame without writing it, for MultiScreen to send to
+     * this terminal and to others with the same fan-out profile.  Frame
+     * pacing does not apply: MultiScreen skips terminals that are still
+     * writing an earlier frame instead.  Callers must hold this screen's
+     * lock.
+     *
+     * @return the frame, which may be empty
+     */
+    StringBuilder renderFrame() {
+        framePending = false;
+        return buildFrame();
+    }
+
+    /**
+     * Describe everything that decides the bytes renderFrame() produces for
+     * a given screen: the dimensions, the cursor, and how text, blink, and
+     * images are encoded.  Terminals with equal profiles can share one
+     * rendered frame.  Callers must hold this screen's lock.
+     *
+     * @return the profile, or null if this terminal's frames cannot be
+     * shared, for example because it keeps per-terminal state about the
+     * images it has already been sent
+     */
+    String getFanOutProfile() {
+        if (isKittyImages() || (kittyGraphics != null)
+            || (sessionRecording != null)
+        ) {
+            // Kitty keeps track of the images each terminal was sent, and
+            // a recording needs keyframes of its own.
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(width).append('x').append(height);
+        sb.append(';').append(getTextWidth()).append('x')
+            .append(getTextHeight());
+        if (cursorVisible) {
+            sb.append(";cursor=").append(cursorX).append(',').append(cursorY);
+        }
+        sb.append(";blink=").append(textBlinkOption).append(',')
+            .append(blinkMillis).append(',').append(blinkDimPercent);
+        sb.append(";images=").append(jexerImageOption).append(',')
+            .append(explicitlyDestroyImages);
+        if (sixel) {
+            sb.append(";sixel=").append(sixelEncoder.getPaletteSize())
+                .append(',').append(sixelFastAndDirty).append(',')
+                .append(sixelCursorOnRight).append(',').append(isGenuineXTerm);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Check if the physical screen was cleared since the last frame, in
+     * which case the next frame must be a full redraw.
+     *
+     * @return true if the physical screen was cleared
+     */
+    boolean isPhysicalCleared() {
+        return reallyCleared || physicalCleared;
+    }
+
+    /**
+     * Note that this terminal was sent a frame rendered by another terminal
+     * with the same fan-out profile, so it no longer needs a full redraw.
+     * Its own physical screen is left as it is.  Callers must hold this
+     * screen's lock.
+     */
+    void followFrame() {
+        reallyCleared = false;
+        physicalCleared = false;
+        framePending = false;
+    }
+
+    /**
+     * Take over another terminal's physical screen.  MultiScreen calls this
+     * when a terminal that was showing another one's frames starts
+     * rendering them itself: what the other terminal believes is on
+     * screen is exactly what this one is showing.  Callers must hold both
+     * screens' locks.
+     *
+     * @param other the terminal whose frames this one was showing
+     */
+    void copyPhysical(final ECMA48Terminal other) {
+        if ((other.width != width) || (other.height != height)) {
+            clearPhysical();
+            return;
+        }
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                physical[col][row] = new ComplexCell(other.physical[col][row]);
+            }
+        }
+        textBlinkVisible = other.textBlinkVisible;
+        lastBlinkTime = other.lastBlinkTime;
+    }
 
+    /**
+     * Write a rendered frame to the terminal, wrapped in a synchronized
+     * update if the terminal supports it.  The frame is only read, so the
+     * same frame may be sent to several terminals at once.
+     *
+     * @param sb the frame from buildFrame() or renderFrame()
+     */
+    void sendFrame(final StringBuilder sb) {
         final int frameChars = sb.length();
         final boolean wrapFrame = synchronizedOutputEnabled && (frameChars > 0);
         int frameLength = frameChars;
@@ -1116,6 +1564,9 @@ public class ECMA48Terminal extends LogicalScreen
                                 frameLength);
                         }
                     }
+                }
+                long writeStart = System.nanoTime();
+                if (frameChars > 0) {
                     if (wrapFrame) {
                         writer.write(BEGIN_SYNCHRONIZED_UPDATE);
                     }
@@ -1125,19 +1576,103 @@ public class ECMA48Terminal extends LogicalScreen
                     }
                 }
                 writer.flush();
+                updateFramePacing(frameLength, System.nanoTime() - writeStart);
 
                 long now = System.currentTimeMillis();
                 if ((int) (now / 1000) == (int) (lastFlushTime / 1000)) {
                     bytesPerSecond += frameLength;
                 } else {
-                    lastBytesPerSecond = frameLength;
-                    bytesPerSecond = 0;
+                    lastBytesPerSecond = bytesPerSecond;
+                    bytesPerSecond = frameLength;
                 }
                 lastFlushTime = now;
             }
         }
     }
 
+    /**
+     * Work out when the next frame may be written.  A write that blocked
+     * tells us how fast the connection really drains; while that keeps
+     * happening, each frame is followed by a pause long enough for the
+     * connection to drain it, so that bursts of redraws collapse into the
+     * latest screen instead of queueing up stale ones.  Callers must hold
+     * outputLock.
+     *
+     * @param frameLength the number of characters just written
+     * @param writeNanos how long writing and flushing them took
+     */
+    private void updateFramePacing(final int frameLength,
+        final long writeNanos) {
+
+        long now = System.nanoTime();
+        if ((writeNanos > BACKPRESSURE_NANOS) && (frameLength > 0)) {
+            double rate = frameLength * 1_000_000_000.0 / writeNanos;
+            if (drainRate == 0) {
+                drainRate = rate;
+            } else {
+                drainRate = (drainRate * 3 + rate) / 4;
+            }
+            lastBackpressureTime = now;
+        }
+        if ((drainRate > 0)
+            && (now - lastBackpressureTime < BACKPRESSURE_MEMORY_NANOS)
+        ) {
+            long interval = (long) (frameLength * 1_000_000_000.0 / drainRate);
+            nextFrameTime = now + Math.min(interval, MAX_FRAME_INTERVAL_NANOS);
+        } else {
+            drainRate = 0;
+            nextFrameTime = 0;
+        }
+    }
+
+    /**
+     * Work out how long the reader thread may wait for input before it
+     * has something else to do: check the window size, time out a lone
+     * ESC, or write a frame that pacing held back.
+     *
+     * @return the timeout in millis, always at least 1
+     */
+    private long getIdleTimeout() {
+        long deadline = windowSizeTime + 1000;
+        if (state == ParseState.ESCAPE) {
+            deadline = Math.min(deadline, escapeTime + 100);
+        }
+        long timeout = deadline - System.currentTimeMillis();
+        if (framePending) {
+            long frameNanos = nextFrameTime - System.nanoTime();
+            timeout = Math.min(timeout, (frameNanos + 999_999) / 1_000_000);
+        }
+        return Math.max(1, timeout);
+    }
+
+    /**
+     * Wake the reader thread if it is waiting for input, so that it picks
+     * up a new deadline or notices it should stop.
+     */
+    private void wakeReader() {
+        synchronized (readerLock) {
+            if (readerWaiting && (readerThread != null)) {
+                readerThread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Write a frame that pacing held back, once the connection has had
+     * time to drain the previous one.  Called from the reader thread.
+     */
+    private void flushPendingFrame() {
+        if (!framePending || (System.nanoTime() - nextFrameTime < 0)) {
+            return;
+        }
+        // Same lock the application holds while it draws and flushes.
+        synchronized (this) {
+            if (framePending) {
+                flushPhysical();
+            }
+        }
+    }
+
     /**
      * Write the contents of a rendered frame to the terminal without
      * allocating a String copy of it.  Frames up to
@@ -1243,6 +1778,7 @@ public class ECMA48Terminal extends LogicalScreen
 
         // Tell the reader thread to stop looking at input
         stopReaderThread = true;
+        wakeReader();
         try {
             readerThread.join();
         } catch (InterruptedException e) {
@@ -1267,6 +1803,11 @@ public class ECMA48Terminal extends LogicalScreen
             PrintWriter writer = output;
             if (writer != null) {
                 this.terminal.enableMouseReporting(false);
+                if (kittyGraphics != null) {
+                    // Free everything we uploaded, the terminal would
+                    // otherwise hold onto it until it is closed.
+                    writer.write(KittyGraphics.DELETE_ALL_IMAGES);
+                }
                 writer.printf("%s%s", cursor(true), defaultColor());
                 writer.write(END_SYNCHRONIZED_UPDATE);
                 writer.printf("\033[>4m");
@@ -1278,7 +1819,12 @@ public class ECMA48Terminal extends LogicalScreen
             sttyCooked();
             setRawMode = false;
             // We don't close System.in/out
+            closeTerminalImpl();
         } else {
+            // Release the terminal first: a thread still blocked reading
+            // the input stream would otherwise hold the reader's lock.
+            closeTerminalImpl();
+
             // Shut down the streams, this should wake up the reader thread
             // and make it exit.
             if (input != null) {
@@ -1296,8 +1842,6 @@ public class ECMA48Terminal extends LogicalScreen
                 }
             }
         }
-
-        closeTerminalImpl();
     }
 
     /**
@@ -1444,6 +1988,24 @@ public class ECMA48Terminal extends LogicalScreen
             }
         }
 
+        // Default to Kitty graphics only for terminals known to support it.
+        String kittyImagesStr = System.getProperty("casciian.ECMA48.kittyImages",
+            "auto").toLowerCase();
+        if (kittyImagesStr.equals("false")) {
+            kittyImageOption = KittyImageOption.DISABLED;
+        } else if (kittyImagesStr.equals("true")) {
+            kittyImageOption = KittyImageOption.ENABLED;
+        } else {
+            kittyImageOption = KittyImageOption.AUTO;
+        }
+
+        // Default to pacing frames to the connection's drain rate.
+        framePacing = !System.getProperty("casciian.ECMA48.framePacing",
+            "true").equals("false");
+        if (!framePacing) {
+            nextFrameTime = 0;
+        }
+
         String destroyImagesStr = System.getProperty("casciian.ECMA48.explicitlyDestroyImages",
             "auto").toLowerCase();
         explicitlyDestroyImages = destroyImagesStr.equals("true");
@@ -1504,54 +2066,47 @@ public class ECMA48Terminal extends LogicalScreen
      */
     public void run() {
         boolean done = false;
-        // available() will often return > 1, so we need to read in chunks to
-        // stay caught up.
-        char[] readBuffer = new char[128];
+        // Input often arrives several characters at a time, so we need to
+        // read in chunks to stay caught up.
+        char[] readBuffer = new char[1024];
         List<TInputEvent> events = new ArrayList<TInputEvent>();
 
         //boolean debugToStderr = true;
 
         while (!done && !stopReaderThread) {
             try {
-                // We assume that if inputStream has bytes available, then
-                // input won't block on read().
+                // Sleep until input arrives or the next idle deadline
+                // passes, whichever comes first.
                 if (DEBUG_TO_STDERR) {
                     System.err.printf("Looking for input...");
                 }
 
-                int n = terminal.available();
+                int rc;
+                synchronized (readerLock) {
+                    readerWaiting = true;
+                }
+                try {
+                    rc = terminal.read(readBuffer, 0, readBuffer.length,
+                        getIdleTimeout());
+                } catch (InterruptedIOException e) {
+                    // Woken early by wakeReader().
+                    rc = 0;
+                } finally {
+                    synchronized (readerLock) {
+                        readerWaiting = false;
+                        // Clear an interrupt that raced with a read that
+                        // returned anyway.
+                        Thread.interrupted();
+                    }
+                }
 
                 if (DEBUG_TO_STDERR) {
-                    if (n == 0) {
+                    if (rc == 0) {
                         System.err.println("none.");
                     }
-                    if (n < 0) {
-                        System.err.printf("WHAT?!  n = %d\n", n);
-                    }
                 }
 
-                if (n > 0) {
-                    if (DEBUG_TO_STDERR) {
-                        System.err.printf("%d bytes to read.\n", n);
-                    }
-
-                    if (readBuffer.length < n) {
-                        // The buffer wasn't big enough, make it huger
-                        readBuffer = new char[readBuffer.length * 2];
-                    }
-
-                    if (DEBUG_TO_STDERR) {
-                        System.err.printf("B4 read(): readBuffer.length = %d\n",
-                            readBuffer.length);
-                    }
-
-                    int rc = terminal.read(readBuffer, 0, readBuffer.length);
-
-                    /*
-                    System.err.printf("AFTER read() %d\n", rc);
-                    System.err.flush();
-                    */
-
+                if (rc != 0) {
                     if (rc == -1) {
                         if (DEBUG_TO_STDERR) {
                             System.err.println(" ---- EOF ----");
@@ -1645,12 +2200,10 @@ public class ECMA48Terminal extends LogicalScreen
                         }
                     }
 
-                    // Wait 20 millis for more data
-                    Thread.sleep(20);
+                    // Send the latest screen if pacing held it back.
+                    flushPendingFrame();
                 }
                 // System.err.println("end while loop"); System.err.flush();
-            } catch (InterruptedException e) {
-                // SQUASH
             } catch (IOException e) {
                 e.printStackTrace();
                 done = true;
@@ -1714,6 +2267,47 @@ public class ECMA48Terminal extends LogicalScreen
         return lastBytesPerSecond;
     }
 
+    /**
+     * Check if frames are being held back because the connection is not
+     * keeping up with them.
+     *
+     * @return true if the next flushPhysical() may be folded into a later
+     * frame
+     */
+    public boolean isFramePaced() {
+        return framePacing && (nextFrameTime != 0);
+    }
+
+    /**
+     * Get the number of flushes that frame pacing folded into a later
+     * frame.
+     *
+     * @return the number of skipped frames
+     */
+    public long getFramesCoalesced() {
+        return framesCoalesced;
+    }
+
+    /**
+     * Get the recording this terminal's output is saved to.
+     *
+     * @return the recording, or null if output is not being recorded
+     */
+    public SessionRecording getSessionRecording() {
+        return sessionRecording;
+    }
+
+    /**
+     * Start or stop saving everything written to the terminal to a
+     * recording.  The next frame is followed by a keyframe, so playback can
+     * start there.
+     *
+     * @param sessionRecording the recording, or null to stop recording
+     */
+    public void setSessionRecording(final SessionRecording sessionRecording) {
+        this.sessionRecording = sessionRecording;
+    }
+
     /**
      * Get the width of a character cell in pixels.
      *
@@ -2324,8 +2918,14 @@ public class ECMA48Terminal extends LogicalScreen
         if (reallyCleared) {
             attr = new CellAttributes();
             sb.append(clearAll());
+            if (kittyGraphics != null) {
+                sb.append(KittyGraphics.DELETE_ALL_PLACEMENTS);
+                kittyGraphics.clearPlacements(sb);
+            }
         }
 
+        final boolean kittyImages = isKittyImages();
+
         /*
          * For images support, draw all of the image output first, and
          * then draw all the text afterwards.
@@ -2359,7 +2959,7 @@ public class ECMA48Terminal extends LogicalScreen
                 unsetImageRow(y);
             }
 
-            if (explicitlyDestroyImages && eraseImagesOnRow) {
+            if (explicitlyDestroyImages && eraseImagesOnRow && !kittyImages) {
                 for (int x = 0; x < width; x++) {
                     physical[x][y].unset();
                 }
@@ -2388,6 +2988,38 @@ public class ECMA48Terminal extends LogicalScreen
 
         } //for (int y = 0; y < height; y++) {
 
+        if (kittyImages) {
+            flushKittyImages(sb);
+        } else {
+            flushEncodedImages(sb);
+        }
+
+        // Draw the text part now.
+        for (int y = 0; y < height; y++) {
+            flushLine(y, sb, attr);
+        }
+
+        // Close any OSC 8 hyperlink still open at the end of the flush so it
+        // does not bleed into subsequent output.
+        if ((attr != null) && (attr.getHyperlink() != null)) {
+            sb.append(hyperlinkSequence(null));
+            attr.setHyperlink(null);
+        }
+
+        reallyCleared = false;
+
+        if (DEBUG_TO_STDERR && !hasSynchronizedOutput) {
+            System.err.printf("flushString(): %s\n", sb.toString());
+        }
+    }
+
+    /**
+     * Render the changed image cells of the screen as sixel, Casciian
+     * images, or Unicode half-block glyphs.
+     *
+     * @param sb StringBuilder to write escape sequences to
+     */
+    private void flushEncodedImages(final StringBuilder sb) {
         /*
          * Image encoding is expensive, especially when the image is not in
          * cache.  We multithread it.  Since each image contains its own
@@ -2508,24 +3140,6 @@ public class ECMA48Terminal extends LogicalScreen
                 sb.append(imageString);
             }
         }
-
-        // Draw the text part now.
-        for (int y = 0; y < height; y++) {
-            flushLine(y, sb, attr);
-        }
-
-        // Close any OSC 8 hyperlink still open at the end of the flush so it
-        // does not bleed into subsequent output.
-        if ((attr != null) && (attr.getHyperlink() != null)) {
-            sb.append(hyperlinkSequence(null));
-            attr.setHyperlink(null);
-        }
-
-        reallyCleared = false;
-
-        if (DEBUG_TO_STDERR && !hasSynchronizedOutput) {
-            System.err.printf("flushString(): %s\n", sb.toString());
-        }
     }
 
     /**
@@ -2545,7 +3159,8 @@ public class ECMA48Terminal extends LogicalScreen
      * @return true if bitmap image cells can be rendered natively
      */
     public boolean isImageProtocolSupported() {
-        return sixel || (jexerImageOption != JexerImageOption.DISABLED);
+        return sixel || (jexerImageOption != JexerImageOption.DISABLED)
+            || isKittyImages();
     }
 
     /**
@@ -3193,6 +3808,21 @@ public class ECMA48Terminal extends LogicalScreen
             setPaletteOrRgbColorIfNotConfigured();
         }
 
+        for (String kittyName : XTVERSION_FOR_KITTY_GRAPHICS) {
+            if (text.contains(kittyName)) {
+                if (DEBUG_TO_STDERR) {
+                    System.err.println("  -- terminal supports Kitty graphics");
+                }
+                kittyGraphicsDetected = true;
+                // Make sure the first Kitty frame replaces whatever was
+                // already drawn with another image protocol.  Don't step on
+                // the screen refresh thread.
+                synchronized (this) {
+                    clearPhysical();
+                }
+            }
+        }
+
         if (text.contains(XTVERSION_FOR_WARP)) {
             // Warp doesn't support changing the palette, and the contrast between regular and bright colors
             // is too low in the default profile. So, we force sending full rgb colors, unless the user has
@@ -4642,6 +5272,17 @@ public class ECMA48Terminal extends LogicalScreen
         int tileWidth = firstImage.getWidth();
         int tileHeight = firstImage.getHeight();
 
+        ImageRGB image = joinViews(cells, tileWidth);
+        if (image != null) {
+            if ((image.getWidth() != cells.size() * getTextWidth())
+                || (image.getHeight() != getTextHeight())
+            ) {
+                image = image.scale(cells.size() * getTextWidth(),
+                    getTextHeight());
+            }
+            return image;
+        }
+
         // Piece cells.get(x).getImage() pieces together into one larger
         // image for final rendering.
         int totalWidth = 0;
@@ -4650,7 +5291,7 @@ public class ECMA48Terminal extends LogicalScreen
             totalWidth += cell.getImage().getWidth();
         }
 
-        ImageRGB image = new ArrayImageRGB(fullWidth, tileHeight);
+        image = new ArrayImageRGB(fullWidth, tileHeight);
 
         int[] rgbArray;
         for (int i = 0; i < cells.size() - 1; i++) {
@@ -4712,6 +5353,32 @@ public class ECMA48Terminal extends LogicalScreen
         return image;
     }
 
+    /**
+     * If a run of cells are full-size views that sit side by side in the
+     * same picture, as TImage slices them, make one view spanning them all
+     * instead of copying them into a new image.
+     *
+     * @param cells the cells containing image data
+     * @param tileWidth the width of the first cell's image
+     * @return the joined view, or null if the cells cannot be joined
+     */
+    private ImageRGB joinViews(final List<Cell> cells, final int tileWidth) {
+        if (!(cells.getFirst().getImage() instanceof ViewImageRGB first)) {
+            return null;
+        }
+        ViewImageRGB previous = first;
+        for (int i = 1; i < cells.size(); i++) {
+            if (!(cells.get(i).getImage() instanceof ViewImageRGB view)
+                || (view.getWidth() != tileWidth)
+                || !previous.isLeftOf(view)
+            ) {
+                return null;
+            }
+            previous = view;
+        }
+        return first.extendRight(cells.size() * tileWidth);
+    }
+
     // ------------------------------------------------------------------------
     // End sixel output support -----------------------------------------------
     // ------------------------------------------------------------------------
@@ -4805,6 +5472,127 @@ public class ECMA48Terminal extends LogicalScreen
     // End Casciian image output support -----------------------------------------
     // ------------------------------------------------------------------------
 
+    // ------------------------------------------------------------------------
+    // Kitty graphics output support ------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Check if images are emitted via the Kitty graphics protocol.
+     *
+     * @return true if Kitty graphics is enabled, or detected in AUTO mode
+     */
+    public boolean isKittyImages() {
+        switch (kittyImageOption) {
+            case ENABLED:
+                return true;
+            case AUTO:
+                return kittyGraphicsDetected;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Render the image cells of the screen via the Kitty graphics
+     * protocol.  Each run of adjacent image cells on a row becomes one
+     * placement.  Pixel data is uploaded only the first time a run is seen;
+     * after that, redrawing or moving it costs one small placement command,
+     * and runs that are unchanged since the last flush cost nothing at all.
+     *
+     * @param sb StringBuilder to write escape sequences to
+     */
+    private void flushKittyImages(final StringBuilder sb) {
+        if (kittyGraphics == null) {
+            kittyGraphics = new KittyGraphics(height * width);
+        }
+        final KittyGraphics kitty = kittyGraphics;
+
+        for (int y = 0; y < height; y++) {
+            // Take down the placements that no longer match an unchanged
+            // run, including those now covered by text.
+            List<KittyGraphics.Placement> placements = kitty.getPlacements(y);
+            for (KittyGraphics.Placement placement : new ArrayList<>(placements)) {
+                if (!isUnchangedImageRun(placement.x(), y,
+                        placement.columns())
+                ) {
+                    kitty.remove(y, placement, sb);
+                }
+            }
+
+            for (int x = 0; x < width; x++) {
+                if (!logical[x][y].isImage()) {
+                    continue;
+                }
+                int right = x;
+                while ((right < width) && (logical[right][y].isImage())) {
+                    right++;
+                }
+                int columns = right - x;
+
+                if (kitty.findPlacement(x, y, columns) == null) {
+                    ArrayList<Cell> cellsToDraw = new ArrayList<Cell>(columns);
+                    boolean reuse = true;
+                    for (int i = x; i < right; i++) {
+                        cellsToDraw.add(logical[i][y]);
+                        if (logical[i][y].isInvertedImage()) {
+                            reuse = false;
+                        }
+                    }
+                    String key = (reuse ? ImageCache.makeKey(cellsToDraw) : null);
+                    int imageId = (key == null ? 0 : kitty.getImageId(key));
+                    if (imageId == 0) {
+                        imageId = kitty.upload(key, cellsToImage(cellsToDraw),
+                            sb);
+                    }
+                    sb.append(gotoXY(x, y));
+                    kitty.place(x, y, columns, imageId, sb);
+                }
+
+                for (int i = x; i < right; i++) {
+                    // Physical is always updated.
+                    physical[i][y].setTo(logical[i][y]);
+                }
+                x = right;
+            }
+        }
+        kitty.flushPendingDeletes(sb);
+    }
+
+    /**
+     * Check if a horizontal range of cells is still exactly one run of
+     * image cells that has not changed since the last flush.
+     *
+     * @param x the left-most column
+     * @param y the row
+     * @param columns the number of columns
+     * @return true if the range can keep its current placement
+     */
+    private boolean isUnchangedImageRun(final int x, final int y,
+        final int columns) {
+
+        if ((y >= height) || (x + columns > width)) {
+            return false;
+        }
+        if ((x > 0) && logical[x - 1][y].isImage()) {
+            return false;
+        }
+        if ((x + columns < width) && logical[x + columns][y].isImage()) {
+            return false;
+        }
+        for (int i = x; i < x + columns; i++) {
+            if (!logical[i][y].isImage()
+                || !logical[i][y].equals(physical[i][y])
+            ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+    // End Kitty graphics output support --------------------------------------
+    // ------------------------------------------------------------------------
+
     // ------------------------------------------------------------------------
     // Pseudo image (Unicode half-block) output support -----------------------
     // ------------------------------------------------------------------------
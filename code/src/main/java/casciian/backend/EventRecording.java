@@ -0,0 +1,327 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.backend;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import casciian.TKeypress;
+import casciian.event.TInputEvent;
+import casciian.event.TKeypressEvent;
+import casciian.event.TMouseEvent;
+import casciian.event.TResizeEvent;
+
+/**
+ * EventRecording is a timestamped list of the keyboard, mouse, and resize
+ * events of a session, which can be saved to a small text file and later
+ * fed to a {@link ReplayBackend}.
+ *
+ * <p>Each event is one line: the milliseconds since the first recorded
+ * event, the event kind, and its fields, separated by spaces.  Booleans
+ * are written as 0 or 1:</p>
+ *
+ * <pre>
+ *     time key fnKey keyCode char alt ctrl shift
+ *     time mouse type x y absoluteX absoluteY pixelOffsetX pixelOffsetY
+ *         mouse1 mouse2 mouse3 wheelUp wheelDown wheelLeft wheelRight
+ *         alt ctrl shift
+ *     time resize type width height
+ * </pre>
+ *
+ * <p>Lines starting with '#' are comments.  Other event types (commands
+ * and menu events) are generated inside the application, and are not
+ * recorded.</p>
+ */
+public class EventRecording {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The first line of a recording file.
+     */
+    public static final String HEADER = "# casciian event recording 1";
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * One recorded event.
+     *
+     * @param time milliseconds since the first event of the recording
+     * @param event the event
+     */
+    public record Entry(long time, TInputEvent event) {}
+
+    /**
+     * The recorded events, in order.
+     */
+    private final List<Entry> entries = new ArrayList<Entry>();
+
+    /**
+     * The wall clock time of the first recorded event, or 0 if nothing has
+     * been recorded yet.
+     */
+    private long startTime = 0;
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Public constructor creates an empty recording.
+     */
+    public EventRecording() {
+    }
+
+    /**
+     * Read a recording.
+     *
+     * @param reader the text to read
+     * @param backend the backend to attach to the new events
+     * @return the recording
+     * @throws IOException if reading fails, or a line cannot be parsed
+     */
+    public static EventRecording read(final Reader reader,
+        final Backend backend) throws IOException {
+
+        EventRecording recording = new EventRecording();
+        BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null;
+             line = lines.readLine()) {
+
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                recording.entries.add(parseEntry(line, backend));
+            } catch (IllegalArgumentException
+                | IndexOutOfBoundsException e) {
+
+                throw new IOException("Invalid event at line " + lineNumber
+                    + ": " + line, e);
+            }
+        }
+        return recording;
+    }
+
+    // ------------------------------------------------------------------------
+    // EventRecording ---------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Append events as they arrive from a backend.  Events that cannot be
+     * replayed are skipped.
+     *
+     * @param events the events
+     */
+    public synchronized void record(final List<TInputEvent> events) {
+        for (TInputEvent event: events) {
+            if (!isRecordable(event)) {
+                continue;
+            }
+            long now = event.getTime().getTime();
+            if (startTime == 0) {
+                startTime = now;
+            }
+            entries.add(new Entry(Math.max(0, now - startTime), event));
+        }
+    }
+
+    /**
+     * Get the recorded events.
+     *
+     * @return the events, in order
+     */
+    public synchronized List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<Entry>(entries));
+    }
+
+    /**
+     * Get the number of recorded events.
+     *
+     * @return the number of events
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Save the recording.
+     *
+     * @param writer the writer to write to.  It is flushed but not closed.
+     * @throws IOException if writing fails
+     */
+    public synchronized void write(final Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Entry entry: entries) {
+            writer.write(formatEntry(entry));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Check if an event can be saved and replayed.
+     *
+     * @param event the event
+     * @return true for keyboard, mouse, and resize events
+     */
+    public static boolean isRecordable(final TInputEvent event) {
+        return (event instanceof TKeypressEvent)
+            || (event instanceof TMouseEvent)
+            || (event instanceof TResizeEvent);
+    }
+
+    /**
+     * Format one entry as a line of text.
+     *
+     * @param entry the entry
+     * @return the line, without a line terminator
+     */
+    private static String formatEntry(final Entry entry) {
+        return entry.time() + " " + formatEvent(entry.event());
+    }
+
+    /**
+     * Format the fields of one event, everything on its line after the
+     * time.  SessionRecording saves input events in this form too.
+     *
+     * @param event the event, which must be recordable
+     * @return the fields, separated by spaces
+     * @throws IllegalArgumentException if the event cannot be recorded
+     */
+    static String formatEvent(final TInputEvent event) {
+        StringBuilder sb = new StringBuilder();
+        if (event instanceof TKeypressEvent keypress) {
+            TKeypress key = keypress.getKey();
+            sb.append("key");
+            append(sb, key.isFnKey());
+            sb.append(' ').append(key.getKeyCode());
+            sb.append(' ').append(key.getChar());
+            append(sb, key.isAlt());
+            append(sb, key.isCtrl());
+            append(sb, key.isShift());
+        } else if (event instanceof TMouseEvent mouse) {
+            sb.append("mouse ").append(mouse.getType().name());
+            sb.append(' ').append(mouse.getX());
+            sb.append(' ').append(mouse.getY());
+            sb.append(' ').append(mouse.getAbsoluteX());
+            sb.append(' ').append(mouse.getAbsoluteY());
+            sb.append(' ').append(mouse.getPixelOffsetX());
+            sb.append(' ').append(mouse.getPixelOffsetY());
+            append(sb, mouse.isMouse1());
+            append(sb, mouse.isMouse2());
+            append(sb, mouse.isMouse3());
+            append(sb, mouse.isMouseWheelUp());
+            append(sb, mouse.isMouseWheelDown());
+            append(sb, mouse.isMouseWheelLeft());
+            append(sb, mouse.isMouseWheelRight());
+            append(sb, mouse.isAlt());
+            append(sb, mouse.isCtrl());
+            append(sb, mouse.isShift());
+        } else if (event instanceof TResizeEvent resize) {
+            sb.append("resize ").append(resize.getType().name());
+            sb.append(' ').append(resize.getWidth());
+            sb.append(' ').append(resize.getHeight());
+        } else {
+            throw new IllegalArgumentException("Cannot record " + event);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Append a boolean field.
+     *
+     * @param sb the line being built
+     * @param value the value
+     */
+    private static void append(final StringBuilder sb, final boolean value) {
+        sb.append(value ? " 1" : " 0");
+    }
+
+    /**
+     * Parse one line of text into an entry.
+     *
+     * @param line the line
+     * @param backend the backend to attach to the new event
+     * @return the entry
+     * @throws IllegalArgumentException if the line is not a valid event
+     */
+    private static Entry parseEntry(final String line, final Backend backend) {
+        String [] fields = line.split(" +");
+        long time = Long.parseLong(fields[0]);
+        TInputEvent event;
+        switch (fields[1]) {
+            case "key":
+                event = new TKeypressEvent(backend, flag(fields[2]),
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4]),
+                    flag(fields[5]), flag(fields[6]), flag(fields[7]));
+                break;
+            case "mouse":
+                event = new TMouseEvent(backend,
+                    TMouseEvent.Type.valueOf(fields[2]),
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4]),
+                    Integer.parseInt(fields[5]), Integer.parseInt(fields[6]),
+                    Integer.parseInt(fields[7]), Integer.parseInt(fields[8]),
+                    flag(fields[9]), flag(fields[10]), flag(fields[11]),
+                    flag(fields[12]), flag(fields[13]), flag(fields[14]),
+                    flag(fields[15]), flag(fields[16]), flag(fields[17]),
+                    flag(fields[18]));
+                break;
+            case "resize":
+                event = new TResizeEvent(backend,
+                    TResizeEvent.Type.valueOf(fields[2]),
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4]));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event kind " +
+                    fields[1]);
+        }
+        return new Entry(time, event);
+    }
+
+    /**
+     * Parse a boolean field.
+     *
+     * @param field "0" or "1"
+     * @return the value
+     * @throws IllegalArgumentException if the field is neither
+     */
+    private static boolean flag(final String field) {
+        switch (field) {
+            case "0":
+                return false;
+            case "1":
+                return true;
+            default:
+                throw new IllegalArgumentException("Expected 0 or 1, got " +
+                    field);
+        }
+    }
+
+}
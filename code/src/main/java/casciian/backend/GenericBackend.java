@@ -14,6 +14,11 @@
  */
 package casciian.backend;
 
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 
 import casciian.event.TInputEvent;
@@ -66,6 +71,22 @@ public abstract class GenericBackend implements Backend {
      */
     protected boolean readOnly = false;
 
+    /**
+     * If set, every input event is appended to this recording.
+     */
+    private EventRecording eventRecording;
+
+    /**
+     * If set, the event recording is saved to this file on shutdown.
+     */
+    private String eventRecordingFile;
+
+    /**
+     * If set, the terminal output and input events are saved to this
+     * recording.
+     */
+    private SessionRecording sessionRecording;
+
     // ------------------------------------------------------------------------
     // Constructors -----------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -73,7 +94,12 @@ public abstract class GenericBackend implements Backend {
     /**
      * Default constructor used by subclasses.
      */
-    protected GenericBackend() {}
+    protected GenericBackend() {
+        eventRecordingFile = System.getProperty("casciian.recordEvents");
+        if (eventRecordingFile != null) {
+            eventRecording = new EventRecording();
+        }
+    }
 
     // ------------------------------------------------------------------------
     // Backend ----------------------------------------------------------------
@@ -129,6 +155,7 @@ public abstract class GenericBackend implements Backend {
      */
     public void getEvents(final List<TInputEvent> queue) {
         if (terminal.hasEvents()) {
+            int first = queue.size();
             terminal.getEvents(queue);
 
             long now = System.currentTimeMillis();
@@ -169,6 +196,14 @@ public abstract class GenericBackend implements Backend {
                 queue.add(new TCommandEvent(backendDisconnect.getBackend(),
                         cmAbort));
             }
+
+            if ((eventRecording != null) && (queue.size() > first)) {
+                eventRecording.record(queue.subList(first, queue.size()));
+            }
+            if ((sessionRecording != null) && (queue.size() > first)) {
+                sessionRecording.recordInput(queue.subList(first,
+                        queue.size()));
+            }
         }
     }
 
@@ -177,6 +212,18 @@ public abstract class GenericBackend implements Backend {
      */
     public void shutdown() {
         terminal.closeTerminal();
+
+        if ((eventRecording != null) && (eventRecordingFile != null)) {
+            try (Writer writer = new FileWriter(eventRecordingFile,
+                    StandardCharsets.UTF_8)) {
+                eventRecording.write(writer);
+            } catch (IOException e) {
+                // SQUASH, the console may already be gone.
+            }
+        }
+        if (sessionRecording != null) {
+            sessionRecording.close();
+        }
     }
 
     /**
@@ -242,4 +289,76 @@ public abstract class GenericBackend implements Backend {
     public void setMouseStyle(final String mouseStyle) {
         // Default: do nothing
     }
+
+    // ------------------------------------------------------------------------
+    // GenericBackend ---------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the recording of this backend's input events.  Recording is
+     * turned on by setting the system property casciian.recordEvents to a
+     * file name (the recording is saved there on shutdown), or by calling
+     * setEventRecording().
+     *
+     * @return the recording, or null if events are not being recorded
+     */
+    public final EventRecording getEventRecording() {
+        return eventRecording;
+    }
+
+    /**
+     * Start or stop recording input events.  The recording can be replayed
+     * later with a ReplayBackend.
+     *
+     * @param eventRecording the recording to append events to, or null to
+     * stop recording
+     */
+    public final void setEventRecording(final EventRecording eventRecording) {
+        this.eventRecording = eventRecording;
+    }
+
+    /**
+     * Get the recording of this backend's session.
+     *
+     * @return the recording, or null if the session is not being recorded
+     */
+    public final SessionRecording getSessionRecording() {
+        return sessionRecording;
+    }
+
+    /**
+     * Start or stop recording the session: everything the terminal draws,
+     * and the input events.  Only an ECMA48Terminal screen can be recorded.
+     * The recording is closed on shutdown.
+     *
+     * @param sessionRecording the recording, or null to stop recording
+     */
+    public final void setSessionRecording(
+        final SessionRecording sessionRecording) {
+
+        this.sessionRecording = sessionRecording;
+        if (screen instanceof ECMA48Terminal ecma48Terminal) {
+            ecma48Terminal.setSessionRecording(sessionRecording);
+        }
+    }
+
+    /**
+     * Start recording the session if the system property
+     * casciian.recordSession names a file.  Subclasses call this once
+     * their screen is set up.  Every backend that records writes the same
+     * file, so this is meant for applications with one user; others can
+     * call setSessionRecording() with a file per session.
+     */
+    protected final void startSessionRecording() {
+        String file = System.getProperty("casciian.recordSession");
+        if ((file == null) || !(screen instanceof ECMA48Terminal)) {
+            return;
+        }
+        try {
+            setSessionRecording(new SessionRecording(Path.of(file)));
+        } catch (IOException e) {
+            // SQUASH, run the session without a recording.
+        }
+    }
+
 }
@@ -0,0 +1,399 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.backend;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import casciian.bits.ImageRGB;
+import casciian.bits.StringUtils;
+
+/**
+ * Support for the Kitty terminal graphics protocol.
+ *
+ * <p>Unlike sixel and the Jexer image protocol, Kitty graphics separates
+ * transmitting pixel data from displaying it.  An image is uploaded once
+ * under a numeric image ID, and then shown any number of times with tiny
+ * placement commands:</p>
+ *
+ * <pre>
+ *     APC G a=t,f=24,s=width,v=height,i=id,q=2,m=1 ; base64-chunk ST
+ *     APC G a=p,i=id,p=placement,c=columns,r=1,C=1,q=2 ST
+ *     APC G a=d,d=i,i=id,p=placement,q=2 ST
+ * </pre>
+ *
+ * <p>This class keeps track of which images the terminal already holds
+ * (keyed by the same cell hash key used by the other image caches) and
+ * which placements are currently visible on each screen row, so that
+ * redrawing, scrolling, or moving a window that contains an image costs
+ * bytes proportional to the number of placements rather than the number of
+ * pixels.  Images that fall out of the bounded ID table are freed on the
+ * terminal side as well.</p>
+ *
+ * <p>All commands are sent with <code>q=2</code> so that the terminal never
+ * answers: the input parser does not understand APC responses, and would
+ * otherwise see them as Alt-underscore keystrokes.</p>
+ *
+ * <p>This class is not thread-safe; ECMA48Terminal only calls it from the
+ * screen flush.</p>
+ */
+final class KittyGraphics {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Start of a Kitty graphics command (APC G).
+     */
+    private static final String APC_G = "\033_G";
+
+    /**
+     * End of a Kitty graphics command (ST).
+     */
+    private static final String ST = "\033\\";
+
+    /**
+     * Maximum number of base64 characters per transmission chunk, as
+     * required by the protocol.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Delete every placement on the screen, keeping the image data on the
+     * terminal side for reuse.
+     */
+    static final String DELETE_ALL_PLACEMENTS = APC_G + "a=d,d=a,q=2" + ST;
+
+    /**
+     * Delete every placement and free every image on the terminal side.
+     */
+    static final String DELETE_ALL_IMAGES = APC_G + "a=d,d=A,q=2" + ST;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * One visible image strip on a screen row.
+     *
+     * @param x the left-most column
+     * @param columns the number of columns covered
+     * @param imageId the image ID being shown
+     * @param placementId the placement ID of this strip
+     */
+    record Placement(int x, int columns, int imageId, int placementId) {}
+
+    /**
+     * Image IDs the terminal currently holds, keyed by cell hash key, in
+     * least-recently-used order.
+     */
+    private final LinkedHashMap<String, Integer> imageIds;
+
+    /**
+     * The maximum number of images held on the terminal side.
+     */
+    private final int maxImages;
+
+    /**
+     * The visible placements, one list per screen row.
+     */
+    private List<List<Placement>> rows = new ArrayList<List<Placement>>();
+
+    /**
+     * The next image ID to hand out.  Zero is not a valid image ID.
+     */
+    private int nextImageId = 1;
+
+    /**
+     * The next placement ID to hand out.  Zero is not a valid placement ID.
+     */
+    private int nextPlacementId = 1;
+
+    /**
+     * Image IDs that were uploaded without a key (for example inverted
+     * image cells), and must be freed as soon as they leave the screen.
+     */
+    private final Set<Integer> transientIds = new HashSet<Integer>();
+
+    /**
+     * Delete commands for images that were evicted from the ID table and
+     * still need to be freed on the terminal side.
+     */
+    private final StringBuilder pendingDeletes = new StringBuilder();
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Package private constructor.
+     *
+     * @param maxImages the maximum number of distinct images to keep
+     * uploaded on the terminal side
+     */
+    KittyGraphics(final int maxImages) {
+        this.maxImages = Math.max(1, maxImages);
+        this.imageIds = new LinkedHashMap<String, Integer>(16, 0.75f, true);
+    }
+
+    // ------------------------------------------------------------------------
+    // KittyGraphics ----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Look up the image ID for a cell hash key, marking it as recently
+     * used.
+     *
+     * @param key the cell hash key
+     * @return the image ID, or 0 if the terminal does not hold this image
+     */
+    int getImageId(final String key) {
+        Integer id = imageIds.get(key);
+        if (id == null) {
+            return 0;
+        }
+        return id;
+    }
+
+    /**
+     * Upload an image and remember its ID.  If the ID table is full, the
+     * least recently used image is freed on the terminal side.
+     *
+     * @param key the cell hash key, or null if this image must not be
+     * reused (for example inverted image cells), in which case it is freed
+     * as soon as its placement is removed
+     * @param image the image to upload
+     * @param sb the StringBuilder to write the transmission to
+     * @return the new image ID
+     */
+    int upload(final String key, final ImageRGB image,
+        final StringBuilder sb) {
+
+        int id = nextImageId++;
+        if (nextImageId <= 0) {
+            nextImageId = 1;
+        }
+        transmit(id, image, sb);
+
+        if (key == null) {
+            transientIds.add(id);
+            return id;
+        }
+        imageIds.put(key, id);
+        if (imageIds.size() > maxImages) {
+            // Free the least recently used image that is not visible
+            // right now.  If every image is visible the table is allowed
+            // to grow until some of them leave the screen.
+            Iterator<Map.Entry<String, Integer>> it;
+            it = imageIds.entrySet().iterator();
+            while (it.hasNext()) {
+                int evicted = it.next().getValue();
+                if (!isPlaced(evicted)) {
+                    it.remove();
+                    pendingDeletes.append(deleteImage(evicted));
+                    break;
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Get the placements currently visible on a row.
+     *
+     * @param y the row
+     * @return the placements, never null
+     */
+    List<Placement> getPlacements(final int y) {
+        while (rows.size() <= y) {
+            rows.add(new ArrayList<Placement>());
+        }
+        return rows.get(y);
+    }
+
+    /**
+     * Find the visible placement that exactly covers a strip.
+     *
+     * @param x the left-most column
+     * @param y the row
+     * @param columns the number of columns
+     * @return the placement, or null if there is none
+     */
+    Placement findPlacement(final int x, final int y, final int columns) {
+        for (Placement placement: getPlacements(y)) {
+            if ((placement.x() == x) && (placement.columns() == columns)) {
+                return placement;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Display an already-uploaded image at the cursor position, and
+     * remember the placement.  The cursor must already be at (x, y).
+     *
+     * @param x the left-most column
+     * @param y the row
+     * @param columns the number of columns to scale the image into
+     * @param imageId the image ID
+     * @param sb the StringBuilder to write the placement to
+     */
+    void place(final int x, final int y, final int columns,
+        final int imageId, final StringBuilder sb) {
+
+        int placementId = nextPlacementId++;
+        if (nextPlacementId <= 0) {
+            nextPlacementId = 1;
+        }
+        sb.append(APC_G).append("a=p,i=").append(imageId)
+            .append(",p=").append(placementId)
+            .append(",c=").append(columns)
+            .append(",r=1,C=1,q=2").append(ST);
+        getPlacements(y).add(new Placement(x, columns, imageId, placementId));
+    }
+
+    /**
+     * Remove a visible placement from the screen.  The image data stays on
+     * the terminal side so that it can be placed again cheaply.
+     *
+     * @param y the row
+     * @param placement the placement to remove
+     * @param sb the StringBuilder to write the delete command to
+     */
+    void remove(final int y, final Placement placement,
+        final StringBuilder sb) {
+
+        if (transientIds.remove(placement.imageId())) {
+            // Nobody can ever place this image again, free it.
+            sb.append(deleteImage(placement.imageId()));
+        } else {
+            sb.append(APC_G).append("a=d,d=i,i=").append(placement.imageId())
+                .append(",p=").append(placement.placementId())
+                .append(",q=2").append(ST);
+        }
+        getPlacements(y).remove(placement);
+    }
+
+    /**
+     * Forget all visible placements, for example after the screen has been
+     * cleared.  Images that cannot be placed again are freed.
+     *
+     * @param sb the StringBuilder to write the delete commands to
+     */
+    void clearPlacements(final StringBuilder sb) {
+        for (Integer imageId: transientIds) {
+            sb.append(deleteImage(imageId));
+        }
+        transientIds.clear();
+        rows = new ArrayList<List<Placement>>();
+    }
+
+    /**
+     * Emit the delete commands for images evicted since the last call.
+     *
+     * @param sb the StringBuilder to write the delete commands to
+     */
+    void flushPendingDeletes(final StringBuilder sb) {
+        if (pendingDeletes.length() > 0) {
+            sb.append(pendingDeletes);
+            pendingDeletes.setLength(0);
+        }
+    }
+
+    /**
+     * Get the number of images the terminal currently holds.
+     *
+     * @return the number of image IDs in the table
+     */
+    int getImageCount() {
+        return imageIds.size();
+    }
+
+    /**
+     * Check if an image is visible anywhere on the screen.
+     *
+     * @param imageId the image ID
+     * @return true if at least one placement shows this image
+     */
+    private boolean isPlaced(final int imageId) {
+        for (List<Placement> row: rows) {
+            for (Placement placement: row) {
+                if (placement.imageId() == imageId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the command that frees an image on the terminal side.
+     *
+     * @param imageId the image ID
+     * @return the delete command
+     */
+    static String deleteImage(final int imageId) {
+        return APC_G + "a=d,d=I,i=" + imageId + ",q=2" + ST;
+    }
+
+    /**
+     * Transmit the pixel data of an image as 24-bit RGB, split into
+     * chunks of at most {@link #CHUNK_SIZE} base64 characters.
+     *
+     * @param imageId the image ID to store the data under
+     * @param image the image
+     * @param sb the StringBuilder to write the transmission to
+     */
+    static void transmit(final int imageId, final ImageRGB image,
+        final StringBuilder sb) {
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int [] rgbArray = image.getRGB(0, 0, width, height, null, 0, width);
+        byte [] bytes = new byte[width * height * 3];
+        for (int i = 0; i < rgbArray.length; i++) {
+            int rgb = rgbArray[i];
+            bytes[i * 3] = (byte) ((rgb >>> 16) & 0xFF);
+            bytes[i * 3 + 1] = (byte) ((rgb >>> 8) & 0xFF);
+            bytes[i * 3 + 2] = (byte) (rgb & 0xFF);
+        }
+        String base64 = StringUtils.toBase64(bytes);
+
+        int offset = 0;
+        do {
+            int end = Math.min(base64.length(), offset + CHUNK_SIZE);
+            sb.append(APC_G);
+            if (offset == 0) {
+                sb.append("a=t,f=24,s=").append(width)
+                    .append(",v=").append(height)
+                    .append(",i=").append(imageId)
+                    .append(",q=2,");
+            }
+            sb.append("m=").append(end < base64.length() ? 1 : 0);
+            sb.append(';');
+            sb.append(base64, offset, end);
+            sb.append(ST);
+            offset = end;
+        } while (offset < base64.length());
+    }
+
+}
@@ -30,7 +30,7 @@ import casciian.bits.CellTransform;
 import casciian.bits.Color;
 import casciian.bits.ComplexCell;
 import casciian.bits.Clipboard;
-import casciian.bits.ExtendedGraphemeClusterUtils;
+import casciian.bits.GraphemeCache;
 import casciian.bits.ImageUtils;
 import casciian.bits.Palette256;
 import casciian.bits.StringUtils;
@@ -40,6 +40,16 @@ import casciian.bits.StringUtils;
  */
 public class LogicalScreen implements Screen {
 
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Approximate heap size of one ComplexCell holding one codepoint, in
+     * bytes: the object with its attributes, and its codepoint array.
+     */
+    protected static final int CELL_BYTES = 96;
+
     // ------------------------------------------------------------------------
     // Variables --------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -818,11 +828,11 @@ public class LogicalScreen implements Screen {
     public final void putStringXY(final int x, final int y, final String str,
                                   final CellAttributes attr) {
 
+        GraphemeCache.Clusters clusters = GraphemeCache.get(str);
         int i = x;
-        for (ComplexCell cell
-            : ExtendedGraphemeClusterUtils.toComplexCells(str)
-        ) {
-            int w = cell.getDisplayWidth();
+        for (int n = 0; n < clusters.size(); n++) {
+            ComplexCell cell = clusters.getCell(n);
+            int w = clusters.getWidth(n);
             // Never partially place a two-cell cluster: if there is not
             // enough room for the whole cluster, stop.
             if (i + w > width) {
@@ -851,11 +861,11 @@ public class LogicalScreen implements Screen {
     public void putForegroundStringXY(final int x, final int y,
                                       final String str, final CellAttributes attr) {
 
+        GraphemeCache.Clusters clusters = GraphemeCache.get(str);
         int i = x;
-        for (ComplexCell cell
-            : ExtendedGraphemeClusterUtils.toComplexCells(str)
-        ) {
-            int w = cell.getDisplayWidth();
+        for (int n = 0; n < clusters.size(); n++) {
+            ComplexCell cell = clusters.getCell(n);
+            int w = clusters.getWidth(n);
             // Never partially place a two-cell cluster: if there is not
             // enough room for the whole cluster, stop.
             if (i + w > width) {
@@ -883,11 +893,11 @@ public class LogicalScreen implements Screen {
      */
     public final void putStringXY(final int x, final int y, final String str) {
 
+        GraphemeCache.Clusters clusters = GraphemeCache.get(str);
         int i = x;
-        for (ComplexCell cell
-            : ExtendedGraphemeClusterUtils.toComplexCells(str)
-        ) {
-            int w = cell.getDisplayWidth();
+        for (int n = 0; n < clusters.size(); n++) {
+            ComplexCell cell = clusters.getCell(n);
+            int w = clusters.getWidth(n);
             // Never partially place a two-cell cluster: if there is not
             // enough room for the whole cluster, stop.
             if (i + w > width) {
@@ -1356,6 +1366,17 @@ public class LogicalScreen implements Screen {
     public void setWorkingDirectory(final String directory) {
     }
 
+    /**
+     * Estimate the heap memory held by this screen: the logical and
+     * physical cell buffers.
+     *
+     * @return the estimate in bytes
+     */
+    @Override
+    public long getMemoryUsage() {
+        return 2L * width * height * CELL_BYTES;
+    }
+
     // ------------------------------------------------------------------------
     // LogicalScreen ----------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -108,6 +108,10 @@ public class MultiBackend implements Backend {
     public void flushScreen() {
         multiScreen.flushPhysical();
         for (final Backend backend: backends) {
+            if (multiScreen.isHandled(backend.getScreen())) {
+                // MultiScreen already sent it a shared frame.
+                continue;
+            }
             // Flush to the physical device on another thread.
             Thread.ofVirtual().start(() -> {
                 synchronized (backend.getScreen()) {
@@ -15,11 +15,26 @@
 package casciian.backend;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
 
 /**
  * MultiScreen mirrors its I/O to several screens.
+ *
+ * <p>ECMA48Terminal screens that would encode the same screen to the same
+ * bytes -- same dimensions, cursor, blink, and image options -- are flushed
+ * as a group.  One of them, the leader, copies the screen, diffs it, and
+ * renders a frame; the same frame is then written to every other terminal
+ * in the group, so each additional viewer costs one write and nothing
+ * else.  A terminal that is still writing an earlier frame misses the
+ * newer ones and later catches up on its own.  Set
+ * casciian.MultiScreen.fanOut to "false" to have every screen copy and
+ * render the screen separately.</p>
  */
 public class MultiScreen extends LogicalScreen implements Screen {
 
@@ -32,7 +47,62 @@ public class MultiScreen extends LogicalScreen implements Screen {
      */
     private List<Screen> screens = new ArrayList<Screen>();
 
+    /**
+     * If true, share rendered frames between terminals with the same
+     * fan-out profile.
+     */
+    private final boolean fanOut = System.getProperty(
+        "casciian.MultiScreen.fanOut", "true").equals("true");
+
+    /**
+     * The fan-out state of each terminal flushed as part of a group.
+     * Accessed only while holding this map's lock.
+     */
+    private final Map<Screen, Viewer> viewers =
+        new IdentityHashMap<Screen, Viewer>();
+
+    /**
+     * The terminal that renders frames for each fan-out profile.
+     */
+    private final Map<String, ECMA48Terminal> leaders =
+        new HashMap<String, ECMA48Terminal>();
 
+    /**
+     * The screens that the last flushPhysical() already sent a frame to, or
+     * deliberately skipped.
+     */
+    private final Set<Screen> handled =
+        Collections.newSetFromMap(new IdentityHashMap<Screen, Boolean>());
+
+    /**
+     * The fan-out state of one terminal.
+     */
+    private static final class Viewer {
+
+        /**
+         * The fan-out profile the terminal was last flushed with.
+         */
+        private String profile;
+
+        /**
+         * If true, the terminal's physical screen matches what it shows.
+         * Terminals that were sent another terminal's frames do not keep
+         * their physical screen up to date.
+         */
+        private boolean tracking = true;
+
+        /**
+         * If true, the terminal shows exactly what its group leader's
+         * physical screen holds, so the leader's next frame applies to it.
+         */
+        private boolean inSync = false;
+
+        /**
+         * If true, a frame is still being written to the terminal.
+         */
+        private volatile boolean writing = false;
+
+    }
 
     // ------------------------------------------------------------------------
     // Constructors -----------------------------------------------------------
@@ -206,7 +276,9 @@ public class MultiScreen extends LogicalScreen implements Screen {
 
     /**
      * Classes must provide an implementation to push the logical screen to
-     * the physical device.
+     * the physical device.  Screens flushed as part of a fan-out group are
+     * sent their frame here; the others only get a copy of the logical
+     * screen, and are flushed by their backend.
      */
     @Override
     public void flushPhysical() {
@@ -214,7 +286,43 @@ public class MultiScreen extends LogicalScreen implements Screen {
         synchronized (screens) {
             screensToFlush.addAll(screens);
         }
-        for (Screen screen: screensToFlush) {
+        List<Screen> screensToCopy = new ArrayList<Screen>();
+        synchronized (viewers) {
+            handled.clear();
+            viewers.keySet().retainAll(screensToFlush);
+
+            Map<String, List<ECMA48Terminal>> groups;
+            groups = new LinkedHashMap<String, List<ECMA48Terminal>>();
+            for (Screen screen: screensToFlush) {
+                String profile = null;
+                if (fanOut && (screen.getClass() == ECMA48Terminal.class)) {
+                    synchronized (screen) {
+                        profile = ((ECMA48Terminal) screen).getFanOutProfile();
+                    }
+                }
+                if (profile == null) {
+                    if (leave(screen)) {
+                        screensToCopy.add(screen);
+                    }
+                } else {
+                    groups.computeIfAbsent(profile,
+                        k -> new ArrayList<ECMA48Terminal>()).add(
+                            (ECMA48Terminal) screen);
+                }
+            }
+            for (Map.Entry<String, List<ECMA48Terminal>> group:
+                     groups.entrySet()) {
+
+                List<ECMA48Terminal> members = group.getValue();
+                if (members.size() > 1) {
+                    fanOut(group.getKey(), members);
+                } else if (leave(members.get(0))) {
+                    screensToCopy.add(members.get(0));
+                }
+            }
+            leaders.keySet().retainAll(groups.keySet());
+        }
+        for (Screen screen: screensToCopy) {
             synchronized (screen) {
                 screen.copyScreen(this);
             }
@@ -279,4 +387,215 @@ public class MultiScreen extends LogicalScreen implements Screen {
         }
     }
 
+    /**
+     * Check if the last flushPhysical() already took care of a screen,
+     * either by sending it a shared frame or by skipping it because it is
+     * still writing an earlier one.  The backend of such a screen must not
+     * flush it again.
+     *
+     * @param screen the screen
+     * @return true if the screen must not be flushed
+     */
+    public boolean isHandled(final Screen screen) {
+        synchronized (viewers) {
+            return handled.contains(screen);
+        }
+    }
+
+    /**
+     * Take a screen out of fan-out, so that it is copied and flushed on its
+     * own from now on.  Callers must hold the viewers lock.
+     *
+     * @param screen the screen
+     * @return true if the screen can be flushed on its own now, false if it
+     * is still writing a shared frame and must skip this one
+     */
+    private boolean leave(final Screen screen) {
+        Viewer viewer = viewers.get(screen);
+        if (viewer == null) {
+            return true;
+        }
+        if (viewer.writing) {
+            handled.add(screen);
+            return false;
+        }
+        viewers.remove(screen);
+        if (!viewer.tracking) {
+            // Its physical screen is stale: redraw everything.
+            screen.clearPhysical();
+        }
+        return true;
+    }
+
+    /**
+     * Render one frame for a group of terminals with the same fan-out
+     * profile, and send it to each of them that is not still writing an
+     * earlier frame.  Callers must hold the viewers lock.
+     *
+     * @param profile the fan-out profile
+     * @param members the terminals, at least two
+     */
+    private void fanOut(final String profile,
+        final List<ECMA48Terminal> members) {
+
+        handled.addAll(members);
+        for (ECMA48Terminal member: members) {
+            viewers.computeIfAbsent(member, k -> new Viewer());
+        }
+
+        ECMA48Terminal leader = leaders.get(profile);
+        if ((leader != null)
+            && (!members.contains(leader)
+                || !profile.equals(viewers.get(leader).profile))
+        ) {
+            leader = null;
+        }
+        if ((leader == null) || viewers.get(leader).writing) {
+            ECMA48Terminal previous = leader;
+            leader = null;
+            if (previous != null) {
+                // An idle follower shows what the busy leader's physical
+                // screen holds, and can take over from it.
+                for (ECMA48Terminal member: members) {
+                    Viewer viewer = viewers.get(member);
+                    if (!viewer.writing && viewer.inSync
+                        && profile.equals(viewer.profile)
+                    ) {
+                        if (!viewer.tracking) {
+                            copyPhysical(member, previous);
+                            viewer.tracking = true;
+                        }
+                        leader = member;
+                        break;
+                    }
+                }
+            }
+            if (leader == null) {
+                // Nobody can take over: the followers of the previous
+                // leader go their own way.
+                for (ECMA48Terminal member: members) {
+                    Viewer viewer = viewers.get(member);
+                    if (viewer.inSync && !viewer.tracking
+                        && (previous != null)
+                        && profile.equals(viewer.profile)
+                    ) {
+                        copyPhysical(member, previous);
+                        viewer.tracking = true;
+                    }
+                    viewer.inSync = false;
+                }
+                for (ECMA48Terminal member: members) {
+                    if (!viewers.get(member).writing) {
+                        leader = member;
+                        break;
+                    }
+                }
+            }
+            if (leader == null) {
+                // Everyone is still writing.  Nothing was drawn, so the
+                // next frame still applies to all of them.
+                return;
+            }
+            leaders.put(profile, leader);
+        }
+
+        // Followers still writing an earlier frame miss this one.  They
+        // will end up showing what the leader's physical screen holds now.
+        for (ECMA48Terminal member: members) {
+            Viewer viewer = viewers.get(member);
+            if ((member != leader) && viewer.writing) {
+                if (viewer.inSync && !viewer.tracking
+                    && profile.equals(viewer.profile)
+                ) {
+                    copyPhysical(member, leader);
+                    viewer.tracking = true;
+                }
+                viewer.inSync = false;
+            }
+        }
+
+        Viewer leaderViewer = viewers.get(leader);
+        boolean fullRedraw;
+        StringBuilder frame;
+        synchronized (leader) {
+            if (!leaderViewer.tracking) {
+                leader.clearPhysical();
+                leaderViewer.tracking = true;
+            }
+            fullRedraw = leader.isPhysicalCleared();
+            leader.copyScreen(this);
+            frame = leader.renderFrame();
+        }
+        leaderViewer.profile = profile;
+        leaderViewer.inSync = true;
+        send(leader, leaderViewer, frame);
+
+        for (ECMA48Terminal member: members) {
+            Viewer viewer = viewers.get(member);
+            if ((member == leader) || viewer.writing) {
+                continue;
+            }
+            StringBuilder ownFrame = null;
+            synchronized (member) {
+                if (fullRedraw
+                    || (viewer.inSync && profile.equals(viewer.profile)
+                        && !member.isPhysicalCleared())
+                ) {
+                    member.followFrame();
+                } else {
+                    // Catch up on its own, starting from what it shows.
+                    if (!viewer.tracking) {
+                        member.clearPhysical();
+                    }
+                    member.copyScreen(this);
+                    ownFrame = member.renderFrame();
+                }
+            }
+            viewer.tracking = (ownFrame != null);
+            viewer.profile = profile;
+            viewer.inSync = true;
+            send(member, viewer, (ownFrame == null ? frame : ownFrame));
+        }
+    }
+
+    /**
+     * Give a terminal a copy of another one's physical screen.
+     *
+     * @param terminal the terminal to copy to
+     * @param other the terminal to copy from
+     */
+    private void copyPhysical(final ECMA48Terminal terminal,
+        final ECMA48Terminal other) {
+
+        synchronized (terminal) {
+            synchronized (other) {
+                terminal.copyPhysical(other);
+            }
+        }
+    }
+
+    /**
+     * Write a frame to a terminal on another thread, so that a slow
+     * connection does not hold up the others.
+     *
+     * @param terminal the terminal
+     * @param viewer the terminal's fan-out state
+     * @param frame the frame
+     */
+    private void send(final ECMA48Terminal terminal, final Viewer viewer,
+        final StringBuilder frame) {
+
+        if (frame.length() == 0) {
+            return;
+        }
+        viewer.writing = true;
+        Thread.ofVirtual().start(() -> {
+            try {
+                terminal.sendFrame(frame);
+            } finally {
+                viewer.writing = false;
+            }
+        });
+    }
+
 }
@@ -0,0 +1,497 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.backend;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import casciian.TApplication;
+import casciian.event.TInputEvent;
+
+/**
+ * ReplayBackend drives a TApplication from an {@link EventRecording} as
+ * fast as the application can keep up, without a terminal.  Every frame
+ * the application flushes is also encoded by an ECMA48Terminal into a
+ * byte-counting sink, so that the report covers the whole path from input
+ * event to escape sequences:
+ *
+ * <ul>
+ * <li>frames per second,</li>
+ * <li>bytes emitted per frame,</li>
+ * <li>heap bytes allocated by all threads during the replay (when the JVM
+ * supports measuring it), and</li>
+ * <li>the latency from handing an event to the application until the
+ * first frame flushed after it, as median, 99th percentile, and
+ * maximum.</li>
+ * </ul>
+ *
+ * <p>Events are delivered one at a time, each after the frame for the
+ * previous one, so runs are repeatable.  Event timestamps keep their
+ * recorded spacing, so two clicks that were not a double-click in the
+ * original session are not one in the replay either.</p>
+ */
+public class ReplayBackend extends HeadlessBackend {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The default time to wait for the frame of one event, in millis.
+     */
+    public static final long DEFAULT_FRAME_TIMEOUT = 1000;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The results of one replay.
+     *
+     * @param events the number of events delivered
+     * @param frames the number of frames flushed
+     * @param elapsedNanos the wall clock time of the replay
+     * @param bytes the total bytes emitted by the terminal encoder
+     * @param maxFrameBytes the bytes emitted by the largest frame
+     * @param allocatedBytes heap bytes allocated by all threads, or -1 if
+     * the JVM cannot measure it
+     * @param medianLatencyNanos median event-to-frame latency
+     * @param p99LatencyNanos 99th percentile event-to-frame latency
+     * @param maxLatencyNanos worst event-to-frame latency
+     * @param timeouts the number of events that did not produce a frame
+     * within the frame timeout
+     */
+    public record Report(int events, int frames, long elapsedNanos,
+        long bytes, long maxFrameBytes, long allocatedBytes,
+        long medianLatencyNanos, long p99LatencyNanos, long maxLatencyNanos,
+        int timeouts) {
+
+        /**
+         * Get the frame rate.
+         *
+         * @return frames per second
+         */
+        public double getFramesPerSecond() {
+            if (elapsedNanos == 0) {
+                return 0;
+            }
+            return frames * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Get the average output per frame.
+         *
+         * @return bytes per frame
+         */
+        public double getBytesPerFrame() {
+            if (frames == 0) {
+                return 0;
+            }
+            return (double) bytes / frames;
+        }
+
+        /**
+         * Make human-readable description of this Report.
+         *
+         * @return displayable String
+         */
+        @Override
+        public String toString() {
+            return String.format("events %d, frames %d in %.1f ms: %.1f " +
+                "frames/s, %.0f bytes/frame (max %d), allocated %s, " +
+                "latency median %.2f ms, p99 %.2f ms, max %.2f ms, " +
+                "timeouts %d", events, frames, elapsedNanos / 1e6,
+                getFramesPerSecond(), getBytesPerFrame(), maxFrameBytes,
+                (allocatedBytes < 0 ? "n/a" : allocatedBytes + " bytes"),
+                medianLatencyNanos / 1e6, p99LatencyNanos / 1e6,
+                maxLatencyNanos / 1e6, timeouts);
+        }
+    }
+
+    /**
+     * An OutputStream that only counts what is written to it.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        /**
+         * The number of bytes written.
+         */
+        private long count = 0;
+
+        @Override
+        public void write(final int b) {
+            count++;
+        }
+
+        @Override
+        public void write(final byte [] b, final int off, final int len) {
+            count += len;
+        }
+
+        /**
+         * Get the number of bytes written.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * The terminal that encodes each frame.
+     */
+    private final ECMA48Terminal terminal;
+
+    /**
+     * Where the terminal's output goes.
+     */
+    private final CountingOutputStream sink = new CountingOutputStream();
+
+    /**
+     * Events waiting for the application to pick them up.
+     */
+    private final List<TInputEvent> pending = new ArrayList<TInputEvent>();
+
+    /**
+     * The object to notify when an event is pending.
+     */
+    private Object listener;
+
+    /**
+     * Lock and condition for the frame bookkeeping below.
+     */
+    private final Object frameLock = new Object();
+
+    /**
+     * The number of events handed to the application so far.
+     */
+    private int eventsDelivered = 0;
+
+    /**
+     * The number of events handed to the application before the most
+     * recently flushed frame started.
+     */
+    private int eventsShown = 0;
+
+    /**
+     * The number of frames flushed.
+     */
+    private int frames = 0;
+
+    /**
+     * The largest frame, in bytes.
+     */
+    private long maxFrameBytes = 0;
+
+    /**
+     * When the most recent frame finished, from System.nanoTime().
+     */
+    private long lastFrameTime = 0;
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Public constructor.
+     *
+     * @param width the screen width
+     * @param height the screen height
+     */
+    @SuppressWarnings("this-escape")
+    public ReplayBackend(final int width, final int height) {
+        setBackend(this);
+        setDimensions(width, height);
+
+        InputStream input = InputStream.nullInputStream();
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(sink,
+                StandardCharsets.UTF_8));
+        terminal = new ECMA48Terminal(this, null, input,
+            new InputStreamReader(input, StandardCharsets.UTF_8), writer);
+        terminal.setDimensions(width, height);
+    }
+
+    // ------------------------------------------------------------------------
+    // Backend ----------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Encode the screen through the terminal, and note the frame.
+     */
+    @Override
+    public void flushScreen() {
+        int shown;
+        synchronized (frameLock) {
+            shown = eventsDelivered;
+        }
+
+        long before = sink.getCount();
+        terminal.copyScreen(this);
+        terminal.flushPhysical();
+        long bytes = sink.getCount() - before;
+
+        synchronized (frameLock) {
+            frames++;
+            maxFrameBytes = Math.max(maxFrameBytes, bytes);
+            eventsShown = shown;
+            lastFrameTime = System.nanoTime();
+            frameLock.notifyAll();
+        }
+    }
+
+    /**
+     * Check if there are events in the queue.
+     *
+     * @return if true, getEvents() has something to return to the
+     * application
+     */
+    @Override
+    public boolean hasEvents() {
+        synchronized (pending) {
+            return !pending.isEmpty();
+        }
+    }
+
+    /**
+     * Hand the pending events to the application.
+     *
+     * @param queue list to append new events to
+     */
+    @Override
+    public void getEvents(final List<TInputEvent> queue) {
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            synchronized (frameLock) {
+                eventsDelivered += pending.size();
+            }
+            queue.addAll(pending);
+            pending.clear();
+        }
+    }
+
+    /**
+     * Stop the terminal encoder.
+     */
+    @Override
+    public void shutdown() {
+        terminal.closeTerminal();
+    }
+
+    /**
+     * Set listener to a different Object.
+     *
+     * @param listener the new listening object that is woken up when an
+     * event is pending
+     */
+    @Override
+    public void setListener(final Object listener) {
+        this.listener = listener;
+    }
+
+    // ------------------------------------------------------------------------
+    // ReplayBackend ----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Run an application, feed it every event of a recording, then make it
+     * exit.  The application must have been constructed with this backend.
+     *
+     * @param application the application
+     * @param recording the events, read with this backend
+     * @param frameTimeout how long to wait for the frame of each event, in
+     * millis
+     * @return the measurements
+     * @throws InterruptedException if interrupted while waiting for a frame
+     */
+    public Report replay(final TApplication application,
+        final EventRecording recording,
+        final long frameTimeout) throws InterruptedException {
+
+        List<EventRecording.Entry> entries = recording.getEntries();
+        long [] latencies = new long[entries.size()];
+        int latencyCount = 0;
+        int timeouts = 0;
+
+        long allocatedBefore = getAllocatedBytes();
+        long bytesBefore = sink.getCount();
+        int framesBefore;
+        synchronized (frameLock) {
+            framesBefore = frames;
+            maxFrameBytes = 0;
+        }
+        long start = System.nanoTime();
+        long baseTime = System.currentTimeMillis();
+
+        Thread thread = new Thread(application, "ReplayBackend");
+        thread.start();
+        waitForFrame(0, start, frameTimeout);
+
+        for (EventRecording.Entry entry: entries) {
+            if (!thread.isAlive()) {
+                // The application exited in the middle of the recording.
+                break;
+            }
+            TInputEvent event = entry.event();
+            event.setTime(new Date(baseTime + entry.time()));
+
+            int target;
+            synchronized (frameLock) {
+                target = eventsDelivered + 1;
+            }
+            long sent = System.nanoTime();
+            synchronized (pending) {
+                pending.add(event);
+            }
+            wakeListener();
+
+            long frameTime = waitForFrame(target, sent, frameTimeout);
+            if (frameTime < 0) {
+                timeouts++;
+            } else {
+                latencies[latencyCount++] = frameTime - sent;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long allocatedAfter = getAllocatedBytes();
+        int frameCount;
+        long maxBytes;
+        synchronized (frameLock) {
+            frameCount = frames - framesBefore;
+            maxBytes = maxFrameBytes;
+        }
+        long bytes = sink.getCount() - bytesBefore;
+
+        application.exit();
+        wakeListener();
+        thread.join(frameTimeout);
+
+        long [] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        return new Report(latencyCount + timeouts, frameCount, elapsed,
+            bytes, maxBytes,
+            ((allocatedBefore < 0) || (allocatedAfter < 0)) ? -1
+                : allocatedAfter - allocatedBefore,
+            percentile(sorted, 50), percentile(sorted, 99),
+            (sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+            timeouts);
+    }
+
+    /**
+     * Run an application with the default frame timeout.
+     *
+     * @param application the application
+     * @param recording the events, read with this backend
+     * @return the measurements
+     * @throws InterruptedException if interrupted while waiting for a frame
+     */
+    public Report replay(final TApplication application,
+        final EventRecording recording) throws InterruptedException {
+
+        return replay(application, recording, DEFAULT_FRAME_TIMEOUT);
+    }
+
+    /**
+     * Wait for a frame that started after a number of events had been
+     * handed to the application.
+     *
+     * @param events the number of events the frame must include
+     * @param since when the wait started, from System.nanoTime()
+     * @param timeout the maximum wait in millis
+     * @return when the frame finished, from System.nanoTime(), or -1 on
+     * timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private long waitForFrame(final int events, final long since,
+        final long timeout) throws InterruptedException {
+
+        long deadline = since + timeout * 1_000_000L;
+        synchronized (frameLock) {
+            while ((frames == 0) || (eventsShown < events)) {
+                long millis = (deadline - System.nanoTime()) / 1_000_000L;
+                if (millis <= 0) {
+                    return -1;
+                }
+                frameLock.wait(millis);
+            }
+            return lastFrameTime;
+        }
+    }
+
+    /**
+     * Wake up the application's input loop.
+     */
+    private void wakeListener() {
+        Object target = listener;
+        if (target != null) {
+            synchronized (target) {
+                target.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Get a percentile of a sorted array.
+     *
+     * @param sorted the values, sorted ascending
+     * @param percent the percentile, 1 to 100
+     * @return the value, or 0 if there are no values
+     */
+    private static long percentile(final long [] sorted, final int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Get the number of heap bytes allocated by all threads since the JVM
+     * started.
+     *
+     * @return the number of bytes, or -1 if the JVM cannot measure it (or
+     * the jdk.management module is not available)
+     */
+    private static long getAllocatedBytes() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof
+                com.sun.management.ThreadMXBean bean
+            ) {
+                if (bean.isThreadAllocatedMemorySupported()
+                    && bean.isThreadAllocatedMemoryEnabled()
+                ) {
+                    return bean.getTotalThreadAllocatedBytes();
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // SQUASH
+        }
+        return -1;
+    }
+
+}
@@ -721,4 +721,23 @@ public interface Screen {
         final int x, final int y, final int width, final int height,
         final CellTransform cellTransform, final TWidget widget);
 
+    /**
+     * Estimate the heap memory held by this screen: its cell buffers, and
+     * any output it has encoded and cached.
+     *
+     * @return the estimate in bytes, or 0 if this screen does not keep
+     * track
+     */
+    public default long getMemoryUsage() {
+        return 0;
+    }
+
+    /**
+     * Release memory that can be rebuilt on demand, such as caches of
+     * encoded images.
+     */
+    public default void trimMemory() {
+        // NOP
+    }
+
 }
@@ -0,0 +1,321 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.backend;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import casciian.event.TInputEvent;
+
+/**
+ * SessionRecording saves the bytes an ECMA48Terminal writes to the user
+ * while it records, along with the user's input events, to an append-only
+ * file.  The file can be played back by casciian.terminal.SessionPlayer,
+ * which can seek anywhere in it without replaying from the start.
+ *
+ * <p>The file starts with the ASCII bytes "CSREC", a version byte, and the
+ * wall clock time the recording started as an 8-byte big-endian count of
+ * milliseconds since the epoch.  Records follow, each one a kind byte, the
+ * milliseconds since the previous record and the payload length as
+ * unsigned LEB128 varints, then the payload:</p>
+ *
+ * <ul>
+ * <li>OUTPUT - UTF-8 bytes written to the terminal between two flushes:
+ * usually one frame, or a title change, clear, or the like.</li>
+ * <li>INPUT - one input event, formatted as an EventRecording line
+ * without its time field.</li>
+ * <li>KEYFRAME - the screen width and height as varints, then UTF-8 bytes
+ * that redraw the whole screen from nothing.  A keyframe is written after
+ * the frame it follows, whenever {@link #KEYFRAME_BYTES} of output or
+ * {@link #KEYFRAME_MILLIS} have passed since the last one.  A player seeks
+ * by resetting its emulator, drawing the nearest earlier keyframe, and
+ * replaying the output after it.</li>
+ * </ul>
+ *
+ * <p>Errors writing the file stop the recording, but are otherwise
+ * ignored: the session must go on.</p>
+ */
+public class SessionRecording implements Closeable {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The first bytes of a recording file.
+     */
+    public static final String MAGIC = "CSREC";
+
+    /**
+     * The file format version.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The length of the file header: magic, version, and start time.
+     */
+    public static final int HEADER_LENGTH = MAGIC.length() + 1 + 8;
+
+    /**
+     * Record kind: bytes written to the terminal.
+     */
+    public static final int OUTPUT = 'O';
+
+    /**
+     * Record kind: one input event.
+     */
+    public static final int INPUT = 'I';
+
+    /**
+     * Record kind: a full redraw of the screen.
+     */
+    public static final int KEYFRAME = 'K';
+
+    /**
+     * Output bytes between keyframes.  This bounds how much a player
+     * replays to seek.
+     */
+    public static final long KEYFRAME_BYTES = 256 * 1024;
+
+    /**
+     * Time between keyframes in millis, if there was any output at all.
+     */
+    public static final long KEYFRAME_MILLIS = 10000;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The file.
+     */
+    private final OutputStream output;
+
+    /**
+     * The time of the last record, in millis since the epoch.
+     */
+    private long lastTime;
+
+    /**
+     * The time of the last keyframe, in millis since the epoch, or 0 if
+     * there is none yet.
+     */
+    private long keyframeTime = 0;
+
+    /**
+     * Output bytes recorded since the last keyframe.
+     */
+    private long keyframeBytes = 0;
+
+    /**
+     * If true, the recording was closed or failed.
+     */
+    private boolean closed = false;
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Public constructor starts a recording, replacing the file if it
+     * exists.
+     *
+     * @param file the file to write to
+     * @throws IOException if the file cannot be created
+     */
+    public SessionRecording(final Path file) throws IOException {
+        output = new BufferedOutputStream(Files.newOutputStream(file));
+        lastTime = System.currentTimeMillis();
+
+        output.write(MAGIC.getBytes(StandardCharsets.US_ASCII));
+        output.write(VERSION);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            output.write((int) (lastTime >>> shift));
+        }
+        output.flush();
+    }
+
+    // ------------------------------------------------------------------------
+    // Closeable --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Stop recording and close the file.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            output.close();
+        } catch (IOException e) {
+            // SQUASH
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // SessionRecording -------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Check if the recording is still being written.
+     *
+     * @return false once the recording was closed, or writing it failed
+     */
+    public synchronized boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Record output written to the terminal.
+     *
+     * @param frame the output, exactly as written
+     */
+    public synchronized void recordOutput(final String frame) {
+        if (closed || frame.isEmpty()) {
+            return;
+        }
+        byte [] bytes = frame.getBytes(StandardCharsets.UTF_8);
+        keyframeBytes += bytes.length;
+        writeRecord(OUTPUT, null, bytes);
+    }
+
+    /**
+     * Record input events as they arrive from the terminal.  Events that
+     * EventRecording cannot save are skipped.
+     *
+     * @param events the events
+     */
+    public synchronized void recordInput(final List<TInputEvent> events) {
+        for (TInputEvent event: events) {
+            if (closed) {
+                return;
+            }
+            if (EventRecording.isRecordable(event)) {
+                writeRecord(INPUT, null, EventRecording.formatEvent(
+                    event).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Check if the terminal should render a keyframe after the frame it is
+     * about to write.
+     *
+     * @return true if enough output or time has passed since the last
+     * keyframe, or there is none yet
+     */
+    public synchronized boolean isKeyframeDue() {
+        if (closed) {
+            return false;
+        }
+        if (keyframeTime == 0) {
+            return true;
+        }
+        return (keyframeBytes >= KEYFRAME_BYTES)
+            || ((keyframeBytes > 0)
+                && (System.currentTimeMillis() - keyframeTime
+                    >= KEYFRAME_MILLIS));
+    }
+
+    /**
+     * Record a full redraw of the screen.
+     *
+     * @param width the screen width
+     * @param height the screen height
+     * @param frame escape sequences that redraw the whole screen starting
+     * from any state
+     */
+    public synchronized void recordKeyframe(final int width, final int height,
+        final String frame) {
+
+        if (closed) {
+            return;
+        }
+        byte [] size = new byte[10];
+        int sizeLength = putVarint(size, 0, width);
+        sizeLength = putVarint(size, sizeLength, height);
+        byte [] prefix = new byte[sizeLength];
+        System.arraycopy(size, 0, prefix, 0, sizeLength);
+
+        writeRecord(KEYFRAME, prefix, frame.getBytes(StandardCharsets.UTF_8));
+        keyframeTime = lastTime;
+        keyframeBytes = 0;
+    }
+
+    /**
+     * Append one record and flush it to the file.  On failure the
+     * recording is closed.
+     *
+     * @param kind OUTPUT, INPUT, or KEYFRAME
+     * @param prefix bytes that go before the payload and count towards its
+     * length, or null
+     * @param payload the payload
+     */
+    private void writeRecord(final int kind, final byte [] prefix,
+        final byte [] payload) {
+
+        long now = Math.max(lastTime, System.currentTimeMillis());
+        int prefixLength = (prefix == null ? 0 : prefix.length);
+        byte [] header = new byte[21];
+        header[0] = (byte) kind;
+        int headerLength = putVarint(header, 1, now - lastTime);
+        headerLength = putVarint(header, headerLength,
+            prefixLength + payload.length);
+        try {
+            output.write(header, 0, headerLength);
+            if (prefix != null) {
+                output.write(prefix);
+            }
+            output.write(payload);
+            output.flush();
+            lastTime = now;
+        } catch (IOException e) {
+            // The disk is full or gone: stop recording.
+            close();
+        }
+    }
+
+    /**
+     * Encode a non-negative number as an unsigned LEB128 varint.
+     *
+     * @param buffer the buffer to write to
+     * @param offset where to write
+     * @param value the number
+     * @return the offset after the varint
+     */
+    private static int putVarint(final byte [] buffer, final int offset,
+        final long value) {
+
+        int i = offset;
+        long rest = value;
+        while (rest >= 0x80) {
+            buffer[i++] = (byte) ((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        buffer[i++] = (byte) rest;
+        return i;
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import casciian.TApplication;
+import casciian.TKeypress;
+import casciian.TRadioGroup;
+import casciian.TWindow;
+import casciian.event.TInputEvent;
+import casciian.event.TKeypressEvent;
+import casciian.event.TMouseEvent;
+import casciian.event.TResizeEvent;
+
+/**
+ * TrainingRun drives a small application through a scripted session on a
+ * ReplayBackend: menus, the stock widgets, focus changes, mouse hover and
+ * drags, scrolling, and a screen resize, with every frame encoded by an
+ * ECMA48Terminal.  That loads and links the classes every casciian
+ * application needs at startup, so running it under a JVM that records
+ * them gives a class data sharing archive for an application's classpath:
+ *
+ * <pre>
+ *     java -XX:ArchiveClassesAtExit=app.jsa -cp app.jar casciian.backend.TrainingRun
+ *     java -XX:SharedArchiveFile=app.jsa -cp app.jar com.example.Main
+ * </pre>
+ *
+ * <p>On JDK 25 and later, -XX:AOTCacheOutput=app.aot with -XX:AOTCache=app.aot
+ * builds and uses an ahead-of-time cache from the same run.  Either way the
+ * archive only works for the JDK that made it and a classpath that starts
+ * with the one it was made with.  Applications can also call run() from
+ * their own training entry point, after exercising their own classes.</p>
+ */
+public final class TrainingRun {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Screen width.
+     */
+    private static final int WIDTH = 80;
+
+    /**
+     * Screen height.
+     */
+    private static final int HEIGHT = 24;
+
+    /**
+     * Millis between scripted events, enough that two clicks are never a
+     * double-click.
+     */
+    private static final long EVENT_SPACING = 1000;
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Private constructor prevents accidental creation of this class.
+     */
+    private TrainingRun() {}
+
+    // ------------------------------------------------------------------------
+    // TrainingRun ------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Main entry point.  The JVM exits when the session is over, which is
+     * when -XX:ArchiveClassesAtExit writes the archive.
+     *
+     * @param args ignored
+     */
+    public static void main(final String [] args) {
+        try {
+            run();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Run the scripted session.
+     *
+     * @return the replay measurements
+     * @throws InterruptedException if interrupted while waiting for a frame
+     */
+    public static ReplayBackend.Report run() throws InterruptedException {
+        ReplayBackend backend = new ReplayBackend(WIDTH, HEIGHT);
+        TApplication app = makeApplication(backend);
+        EventRecording recording = new EventRecording();
+        recording.record(makeSession(backend));
+        return backend.replay(app, recording);
+    }
+
+    /**
+     * Make an application with the stock menus and a window of the common
+     * widgets.
+     *
+     * @param backend the backend
+     * @return the application
+     */
+    private static TApplication makeApplication(final Backend backend) {
+        TApplication app = new TApplication(backend);
+        app.addToolMenu();
+        app.addFileMenu();
+        app.addEditMenu();
+        app.addWindowMenu();
+        app.addHelpMenu();
+
+        TWindow window = new TWindow(app, "Training", 2, 2, 70, 18);
+        window.addField(2, 1, 20, false);
+        window.addButton("&OK", 24, 1);
+        window.addCheckBox(2, 3, "&Check", false);
+        TRadioGroup group = window.addRadioGroup(2, 5, "&Group");
+        group.addRadioButton("&One");
+        group.addRadioButton("&Two");
+        window.addComboBox(24, 3, 16, Arrays.asList("alpha", "beta",
+            "gamma"), 0, 4);
+        window.addProgressBar(24, 5, 20, 40);
+        window.addList(Arrays.asList("one", "two", "three", "four", "five",
+            "six", "seven", "eight", "nine", "ten"), 2, 10, 20, 5);
+        window.addText("The quick brown fox jumps over the lazy dog. " +
+            "Pack my box with five dozen liquor jugs.", 24, 8, 20, 4);
+        window.addEditor("Hello, world!\n", 46, 1, 20, 8);
+        window.addLabel("Label", 46, 10);
+        return app;
+    }
+
+    /**
+     * Script the session.
+     *
+     * @param backend the backend the events come from
+     * @return the events, timestamped
+     */
+    private static List<TInputEvent> makeSession(final Backend backend) {
+        List<TInputEvent> events = new ArrayList<TInputEvent>();
+
+        // Type into the field, then walk the focus through the widgets.
+        for (char ch: "hello".toCharArray()) {
+            events.add(new TKeypressEvent(backend, false, 0, ch, false,
+                    false, false));
+        }
+        for (int i = 0; i < 12; i++) {
+            events.add(new TKeypressEvent(backend, TKeypress.kbTab));
+            events.add(new TKeypressEvent(backend, TKeypress.kbDown));
+        }
+
+        // Open each menu and walk down it.
+        events.add(new TKeypressEvent(backend, TKeypress.kbF10));
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 3; j++) {
+                events.add(new TKeypressEvent(backend, TKeypress.kbDown));
+            }
+            events.add(new TKeypressEvent(backend, TKeypress.kbRight));
+        }
+        events.add(new TKeypressEvent(backend, TKeypress.kbEsc));
+        events.add(new TKeypressEvent(backend, TKeypress.kbEsc));
+
+        // Hover over the screen, scroll the list, and drag the window.
+        for (int y = 0; y < HEIGHT; y += 2) {
+            for (int x = 0; x < WIDTH; x += 8) {
+                events.add(mouse(backend, TMouseEvent.Type.MOUSE_MOTION, x, y,
+                        false, false));
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            events.add(mouse(backend, TMouseEvent.Type.MOUSE_DOWN, 8, 13,
+                    false, true));
+        }
+        events.add(mouse(backend, TMouseEvent.Type.MOUSE_DOWN, 20, 2,
+                true, false));
+        for (int i = 1; i <= 4; i++) {
+            events.add(mouse(backend, TMouseEvent.Type.MOUSE_MOTION, 20 + i,
+                    2 + i, true, false));
+        }
+        events.add(mouse(backend, TMouseEvent.Type.MOUSE_UP, 24, 6,
+                true, false));
+
+        // Resize the screen and back.
+        events.add(new TResizeEvent(backend, TResizeEvent.Type.SCREEN,
+                WIDTH + 20, HEIGHT + 6));
+        events.add(new TResizeEvent(backend, TResizeEvent.Type.SCREEN,
+                WIDTH, HEIGHT));
+
+        long time = System.currentTimeMillis();
+        for (TInputEvent event: events) {
+            event.setTime(new Date(time));
+            time += EVENT_SPACING;
+        }
+        return events;
+    }
+
+    /**
+     * Make a mouse event.
+     *
+     * @param backend the backend the event comes from
+     * @param type the event type
+     * @param x the column
+     * @param y the row
+     * @param mouse1 if true, the left button is down
+     * @param wheelDown if true, the wheel scrolled down
+     * @return the event
+     */
+    private static TMouseEvent mouse(final Backend backend,
+        final TMouseEvent.Type type, final int x, final int y,
+        final boolean mouse1, final boolean wheelDown) {
+
+        return new TMouseEvent(backend, type, x, y, x, y, 0, 0,
+            mouse1, false, false, false, wheelDown, false, false,
+            false, false, false);
+    }
+
+}
@@ -16,6 +16,7 @@
 package casciian.backend.terminal;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintWriter;
 import java.io.Reader;
 
@@ -81,6 +82,25 @@ public interface Terminal {
      */
     int read(char[] buffer, int off, int len) throws IOException;
 
+    /**
+     * Wait for input to arrive, then read the characters that are ready
+     * into the provided buffer.  This lets a reader thread sleep until
+     * there is something to do instead of polling {@link #available()}, so
+     * implementations must block on their input, not poll it.
+     *
+     * @param buffer the buffer to read characters into
+     * @param off the offset in the buffer to start writing characters
+     * @param len the maximum number of characters to read
+     * @param timeout the longest time to wait for input in millis, or 0 to
+     * wait until input arrives
+     * @return the number of characters read, 0 if the timeout expired
+     * first, or -1 if end of stream is reached
+     * @throws InterruptedIOException if the calling thread is interrupted
+     * while waiting
+     * @throws IOException if an I/O error occurs while reading
+     */
+    int read(char[] buffer, int off, int len, long timeout) throws IOException;
+
     /**
      * Query the terminal window size.
      * This method updates the internal width and height values.
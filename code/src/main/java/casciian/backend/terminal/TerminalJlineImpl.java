@@ -23,6 +23,7 @@ import java.nio.charset.StandardCharsets;
 import org.jline.terminal.Attributes;
 import org.jline.terminal.TerminalBuilder;
 import org.jline.utils.InfoCmp;
+import org.jline.utils.NonBlockingReader;
 
 /**
  * JLine-based terminal implementation for raw/cooked mode handling.
@@ -287,6 +288,37 @@ public class TerminalJlineImpl implements Terminal {
         return jlineTerminal.reader().readBuffered(buffer, off, len, TIMEOUT);
     }
 
+    /**
+     * Wait for input and read it into a buffer.  JLine's reader blocks on
+     * a condition that its pump thread signals, so this wakes as soon as
+     * input arrives.
+     *
+     * @param buffer the character array to read data into
+     * @param off the starting offset in the buffer
+     * @param len the maximum number of characters to read
+     * @param timeout the longest time to wait in millis, or 0 to wait
+     * until input arrives
+     * @return the number of characters read, 0 if the timeout expired
+     * first, or -1 if end of stream is reached
+     * @throws IOException if an I/O error occurs, including
+     * InterruptedIOException if the calling thread is interrupted
+     */
+    @Override
+    public int read(char[] buffer, int off, int len,
+        long timeout) throws IOException {
+
+        if (jlineTerminal == null) {
+            throw new IllegalStateException("Terminal not initialized");
+        }
+
+        int rc = jlineTerminal.reader().readBuffered(buffer, off, len,
+            timeout);
+        if (rc == NonBlockingReader.READ_EXPIRED) {
+            return 0;
+        }
+        return rc;
+    }
+
     /**
      * Query the terminal window size.
      * JLine automatically tracks the terminal size, so this is a no-op.
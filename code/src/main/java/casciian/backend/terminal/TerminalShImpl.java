@@ -21,6 +21,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -47,6 +48,11 @@ public class TerminalShImpl implements Terminal {
      */
     private static final int DEFAULT_HEIGHT = 24;
 
+    /**
+     * The longest time in millis close() waits for the input pump to stop.
+     */
+    private static final long PUMP_JOIN_MILLIS = 100;
+
     /**
      * If true, print debug output to stderr.
      */
@@ -67,6 +73,33 @@ public class TerminalShImpl implements Terminal {
      */
     private final PrintWriter writer;
 
+    /**
+     * Characters read by the input pump thread that have not been handed
+     * out yet.  Also the lock for the pump state below.
+     */
+    private final StringBuilder pumped = new StringBuilder();
+
+    /**
+     * The thread blocking on reader for timed reads, or null if no timed
+     * read has been requested yet.
+     */
+    private Thread pumpThread;
+
+    /**
+     * If true, the input pump saw end of stream.
+     */
+    private boolean pumpEof = false;
+
+    /**
+     * The error that stopped the input pump, if any.
+     */
+    private IOException pumpError;
+
+    /**
+     * If true, close() was called and the input pump stops reading.
+     */
+    private boolean pumpClosed = false;
+
     /**
      * Text window width.
      */
@@ -144,12 +177,30 @@ public class TerminalShImpl implements Terminal {
     /**
      * Close the terminal.
      * This implementation does not close System.in/out streams as the caller
-     * is responsible for managing their lifecycle.
+     * is responsible for managing their lifecycle.  It interrupts the input
+     * pump, which ends its read on streams that can be interrupted, such as
+     * pipes.  A read that an interrupt cannot end, such as one on the
+     * console, ends when its owner closes the stream or the next input
+     * arrives, and that input is dropped.
      */
     @Override
     public void close() {
         // We don't close System.in/out if we created them from null
         // The caller is responsible for managing the lifecycle
+        Thread thread;
+        synchronized (pumped) {
+            pumpClosed = true;
+            pumped.notifyAll();
+            thread = pumpThread;
+        }
+        if ((thread != null) && (thread != Thread.currentThread())) {
+            thread.interrupt();
+            try {
+                thread.join(PUMP_JOIN_MILLIS);
+            } catch (InterruptedException e) {
+                // SQUASH
+            }
+        }
     }
 
     /**
@@ -220,6 +271,11 @@ public class TerminalShImpl implements Terminal {
      */
     @Override
     public int available() throws IOException {
+        synchronized (pumped) {
+            if (pumpThread != null) {
+                return pumped.length();
+            }
+        }
         return inputStream.available();
     }
 
@@ -234,9 +290,119 @@ public class TerminalShImpl implements Terminal {
      */
     @Override
     public int read(char[] buffer, int off, int len) throws IOException {
+        synchronized (pumped) {
+            if (pumpThread != null) {
+                return read(buffer, off, len, 0);
+            }
+        }
         return reader.read(buffer, off, len);
     }
 
+    /**
+     * Wait for input and read it into a buffer.  A plain InputStream cannot
+     * be read with a timeout, so the first call starts a daemon thread that
+     * blocks on the reader and hands characters over as soon as they
+     * arrive.
+     * From then on all reads go through that thread.
+     *
+     * @param buffer the character array to read data into
+     * @param off the starting offset in the buffer
+     * @param len the maximum number of characters to read
+     * @param timeout the longest time to wait in millis, or 0 to wait
+     * until input arrives
+     * @return the number of characters read, 0 if the timeout expired
+     * first, or -1 if end of stream is reached or the terminal is closed
+     * @throws IOException if an I/O error occurs, including
+     * InterruptedIOException if the calling thread is interrupted
+     */
+    @Override
+    public int read(char[] buffer, int off, int len,
+        long timeout) throws IOException {
+
+        synchronized (pumped) {
+            if ((pumpThread == null) && !pumpClosed) {
+                startPump();
+            }
+            long deadline = System.currentTimeMillis() + timeout;
+            while ((pumped.length() == 0) && !pumpEof && (pumpError == null)
+                && !pumpClosed
+            ) {
+                long remaining = 0;
+                if (timeout > 0) {
+                    remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return 0;
+                    }
+                }
+                try {
+                    pumped.wait(remaining);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            if (pumped.length() > 0) {
+                int n = Math.min(len, pumped.length());
+                pumped.getChars(0, n, buffer, off);
+                pumped.delete(0, n);
+                return n;
+            }
+            if (pumpError != null) {
+                throw pumpError;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Start the thread that reads the reader for timed reads.  Callers
+     * must hold the pumped lock.
+     */
+    private void startPump() {
+        pumpThread = new Thread(this::pump, "TerminalShImpl input");
+        pumpThread.setDaemon(true);
+        pumpThread.start();
+    }
+
+    /**
+     * Run the input pump: block on the reader, and hand each batch of
+     * characters to read(timeout) as soon as it arrives.  It stops at end of
+     * stream, on an error, or when close() interrupts it.
+     */
+    private void pump() {
+        char [] readBuffer = new char[1024];
+        try {
+            while (true) {
+                int rc = reader.read(readBuffer, 0, readBuffer.length);
+                synchronized (pumped) {
+                    if (pumpClosed) {
+                        return;
+                    }
+                    if (rc == -1) {
+                        pumpEof = true;
+                    } else {
+                        pumped.append(readBuffer, 0, rc);
+                    }
+                    pumped.notifyAll();
+                    if (rc == -1) {
+                        return;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            synchronized (pumped) {
+                if (pumpClosed) {
+                    // close() interrupted the read.
+                    return;
+                }
+                if (debugToStderr) {
+                    e.printStackTrace();
+                }
+                pumpError = e;
+                pumped.notifyAll();
+            }
+        }
+    }
+
     /**
      * Call stty to set raw or cooked mode.
      *
@@ -0,0 +1,175 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.util.List;
+
+/**
+ * AnimatedImage is an immutable sequence of image frames, each with its own
+ * display time.  A single still image is simply an animation with one
+ * frame.
+ */
+public class AnimatedImage {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Frame delay used when a format does not carry one, in milliseconds.
+     */
+    public static final int DEFAULT_DELAY = 100;
+
+    /**
+     * The shortest frame delay honored, in milliseconds.  Formats such as
+     * GIF commonly use 0 or 10 to mean "as fast as possible", which browsers
+     * also clamp.
+     */
+    public static final int MIN_DELAY = 20;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The frames.
+     */
+    private final List<ImageRGB> frames;
+
+    /**
+     * The display time of each frame, in milliseconds.
+     */
+    private final int [] delays;
+
+    /**
+     * The number of times to play the animation, or 0 to loop forever.
+     */
+    private final int loopCount;
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Public constructor.
+     *
+     * @param frames the frames, at least one
+     * @param delays the display time of each frame in milliseconds, or null
+     * to use {@link #DEFAULT_DELAY} for every frame
+     * @param loopCount the number of times to play the animation, or 0 to
+     * loop forever
+     * @throws IllegalArgumentException if there are no frames, or the number
+     * of delays does not match the number of frames
+     */
+    public AnimatedImage(final List<ImageRGB> frames, final int [] delays,
+        final int loopCount) {
+
+        if ((frames == null) || frames.isEmpty()) {
+            throw new IllegalArgumentException("At least one frame is required");
+        }
+        if ((delays != null) && (delays.length != frames.size())) {
+            throw new IllegalArgumentException("Expected " + frames.size() +
+                " delays, got " + delays.length);
+        }
+        for (ImageRGB frame: frames) {
+            if (frame == null) {
+                throw new IllegalArgumentException("Frames cannot be null");
+            }
+        }
+        this.frames = List.copyOf(frames);
+        this.delays = new int[frames.size()];
+        for (int i = 0; i < this.delays.length; i++) {
+            int delay = (delays == null ? DEFAULT_DELAY : delays[i]);
+            this.delays[i] = Math.max(MIN_DELAY, delay);
+        }
+        this.loopCount = Math.max(0, loopCount);
+    }
+
+    /**
+     * Create a single-frame animation from a still image.
+     *
+     * @param image the image
+     * @return the animation
+     */
+    public static AnimatedImage of(final ImageRGB image) {
+        return new AnimatedImage(List.of(image), null, 0);
+    }
+
+    // ------------------------------------------------------------------------
+    // AnimatedImage ----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the number of frames.
+     *
+     * @return the number of frames, always at least 1
+     */
+    public int getFrameCount() {
+        return frames.size();
+    }
+
+    /**
+     * Get one frame.
+     *
+     * @param index the frame index, 0-based
+     * @return the frame image
+     */
+    public ImageRGB getFrame(final int index) {
+        return frames.get(index);
+    }
+
+    /**
+     * Get the display time of one frame.
+     *
+     * @param index the frame index, 0-based
+     * @return the display time in milliseconds
+     */
+    public int getDelay(final int index) {
+        return delays[index];
+    }
+
+    /**
+     * Get the shortest display time of any frame.
+     *
+     * @return the shortest display time in milliseconds
+     */
+    public int getMinimumDelay() {
+        int min = Integer.MAX_VALUE;
+        for (int delay: delays) {
+            min = Math.min(min, delay);
+        }
+        return min;
+    }
+
+    /**
+     * Get the number of times to play the animation.
+     *
+     * @return the loop count, or 0 to loop forever
+     */
+    public int getLoopCount() {
+        return loopCount;
+    }
+
+    /**
+     * Check if this image has more than one frame.
+     *
+     * @return true if there is something to play
+     */
+    public boolean isAnimated() {
+        return frames.size() > 1;
+    }
+
+}
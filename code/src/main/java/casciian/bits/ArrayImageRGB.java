@@ -276,6 +276,28 @@ public class ArrayImageRGB implements ImageRGB {
         return subimage;
     }
 
+    /**
+     * Get a view of a rectangle of this image that shares its pixels.
+     *
+     * @param x the x-coordinate of the upper-left corner of the view
+     * @param y the y-coordinate of the upper-left corner of the view
+     * @param w the width of the view in pixels
+     * @param h the height of the view in pixels
+     * @return a ViewImageRGB showing the specified rectangle
+     * @throws IllegalArgumentException if the rectangle is not inside this
+     * image
+     */
+    @Override
+    public ImageRGB getView(final int x, final int y, final int w,
+        final int h) {
+
+        if (x < 0 || y < 0 || w <= 0 || h <= 0 || x + w > width
+            || y + h > height) {
+            throw new IllegalArgumentException("Invalid view dimensions");
+        }
+        return new ViewImageRGB(rgb, x, y, w, h);
+    }
+
     /**
      * Retrieves the width of the image in pixels.
      *
@@ -0,0 +1,144 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * CodePointTable is a two-stage lookup table holding a 16-bit property
+ * value for every Unicode codepoint.  The first stage is indexed by the
+ * high bits of the codepoint and points to a block of 256 values, indexed
+ * by the low bits.
+ *
+ * <p>The values are generated from a classification function, which
+ * remains the single definition of the property.  Blocks are generated the
+ * first time any of their codepoints is looked up, so text that only uses
+ * a few scripts only pays for those scripts, and blocks that are never
+ * used cost one null reference each.  After that, a lookup is two array
+ * reads.</p>
+ *
+ * <p>When a native image is built with the owning class initialized at
+ * build time, the blocks of the first two planes (which hold nearly all
+ * text and emoji in use) are generated up front and land in the image
+ * heap, so the executable starts with them ready.</p>
+ *
+ * <p>This class is thread-safe.  Two threads may race to generate the same
+ * block; both compute identical values and one of them wins.</p>
+ */
+final class CodePointTable {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The number of low codepoint bits that index into a block.
+     */
+    private static final int BLOCK_BITS = 8;
+
+    /**
+     * The number of values in a block.
+     */
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+    /**
+     * The last codepoint generated up front when building a native image:
+     * the end of the Supplementary Multilingual Plane.
+     */
+    private static final int PREGENERATED_LAST = 0x1FFFF;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The classification function that generates the values.
+     */
+    private final IntUnaryOperator property;
+
+    /**
+     * The blocks of values, null until first used.
+     */
+    private final AtomicReferenceArray<char []> blocks;
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Package private constructor.
+     *
+     * @param property the classification function, which must return a
+     * value between 0 and 0xFFFF for every codepoint
+     */
+    CodePointTable(final IntUnaryOperator property) {
+        this.property = property;
+        blocks = new AtomicReferenceArray<char []>(
+            (Character.MAX_CODE_POINT + 1) >> BLOCK_BITS);
+
+        // native-image sets this property while it runs static
+        // initializers.
+        if ("buildtime".equals(System.getProperty(
+                "org.graalvm.nativeimage.imagecode"))) {
+
+            for (int i = 0; i <= (PREGENERATED_LAST >> BLOCK_BITS); i++) {
+                generate(i);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // CodePointTable ---------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Look up the property value of a codepoint.
+     *
+     * @param ch the codepoint
+     * @return the value
+     */
+    int get(final int ch) {
+        if ((ch < 0) || (ch > Character.MAX_CODE_POINT)) {
+            return property.applyAsInt(ch);
+        }
+        int index = ch >>> BLOCK_BITS;
+        char [] block = blocks.get(index);
+        if (block == null) {
+            block = generate(index);
+        }
+        return block[ch & (BLOCK_SIZE - 1)];
+    }
+
+    /**
+     * Generate one block of values.
+     *
+     * @param index the block index
+     * @return the block
+     */
+    private char [] generate(final int index) {
+        char [] block = new char[BLOCK_SIZE];
+        int base = index << BLOCK_BITS;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            block[i] = (char) property.applyAsInt(base + i);
+        }
+        if (blocks.compareAndSet(index, null, block)) {
+            return block;
+        }
+        return blocks.get(index);
+    }
+
+}
@@ -28,11 +28,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import casciian.backend.SystemProperties;
 import static casciian.backend.SystemProperties.CASCIAN_PROPERTY_PREFIX;
@@ -920,9 +922,92 @@ public class ColorTheme {
     public static final String THELPWINDOW_LINK_ACTIVE = "thelpwindow.link.active";
 
     /**
-     * The current theme colors.
+     * A built-in theme, compiled once into sorted parallel arrays and shared
+     * by every ColorTheme using it.  Neither the arrays nor the
+     * CellAttributes in them are ever changed.
      */
-    private final SortedMap<String, CellAttributes> colors;
+    private static final class Table {
+
+        /**
+         * The color names, sorted.
+         */
+        private final String [] names;
+
+        /**
+         * The colors, in the same order as names.
+         */
+        private final CellAttributes [] values;
+
+        /**
+         * Compile a theme.
+         *
+         * @param map the theme colors
+         */
+        Table(final SortedMap<String, CellAttributes> map) {
+            names = map.keySet().toArray(new String[0]);
+            values = map.values().toArray(new CellAttributes[0]);
+        }
+
+        /**
+         * Look up a color.
+         *
+         * @param name the color name
+         * @return the color, or null if the name is not in the theme
+         */
+        CellAttributes get(final String name) {
+            if (name == null) {
+                return null;
+            }
+            int i = Arrays.binarySearch(names, name);
+            return (i >= 0) ? values[i] : null;
+        }
+
+        /**
+         * Copy the theme into a map that can be changed.
+         *
+         * @return a new map of copies of the colors
+         */
+        SortedMap<String, CellAttributes> toMap() {
+            SortedMap<String, CellAttributes> map = new TreeMap<>();
+            for (int i = 0; i < names.length; i++) {
+                CellAttributes copy = new CellAttributes();
+                copy.setTo(values[i]);
+                map.put(names[i], copy);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * The built-in themes compiled so far, by name.  A theme is compiled the
+     * first time any ColorTheme asks for it.
+     */
+    private static final Map<String, Table> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * The name of the theme selected by setDefaultTheme().
+     */
+    private static final String DEFAULT_THEME = "defaultTheme";
+
+    static {
+        // Every TApplication starts with the default theme, and it does not
+        // use rgbToPalette(), so compile it up front for both color modes.
+        // A native image that initializes this class at build time carries
+        // it in the image heap.
+        TABLES.put(DEFAULT_THEME, build(DEFAULT_THEME));
+    }
+
+    /**
+     * The built-in theme in use, or null once the colors have been changed
+     * and copied into colors.
+     */
+    private Table table;
+
+    /**
+     * The current theme colors, or null while they are those of a built-in
+     * theme.
+     */
+    private SortedMap<String, CellAttributes> colors;
 
     /**
      * Cached result of {@link #isDarkTheme()} for the modeless variant.
@@ -947,7 +1032,6 @@ public class ColorTheme {
      */
     @SuppressWarnings("this-escape")
     public ColorTheme() {
-        colors = new TreeMap<>();
         setDefaultTheme();
         loadThemeFromCasciianRcFile();
     }
@@ -995,7 +1079,7 @@ public class ColorTheme {
      *         the name is not registered
      */
     public CellAttributes getColor(final String name) {
-        CellAttributes stored = colors.get(name);
+        CellAttributes stored = lookup(name);
         if (stored == null) {
             return null;
         }
@@ -1027,10 +1111,10 @@ public class ColorTheme {
     public CellAttributes getColor(final String name, final boolean modal) {
         CellAttributes stored = null;
         if (modal && (name != null) && !name.endsWith(".modal")) {
-            stored = colors.get(name + ".modal");
+            stored = lookup(name + ".modal");
         }
         if (stored == null) {
-            stored = colors.get(name);
+            stored = lookup(name);
         }
         if (stored == null) {
             return null;
@@ -1113,6 +1197,139 @@ public class ColorTheme {
         isDarkThemeModalCache = null;
     }
 
+    /**
+     * Look up a color without copying it.
+     *
+     * @param name theme color name
+     * @return the stored color, or null if the name is not registered
+     */
+    private CellAttributes lookup(final String name) {
+        if (colors == null) {
+            return table.get(name);
+        }
+        return colors.get(name);
+    }
+
+    /**
+     * Get the colors for changing.  The first change after selecting a
+     * built-in theme copies it out of the shared table.
+     *
+     * @return the map of this theme's own colors
+     */
+    private SortedMap<String, CellAttributes> edit() {
+        if (colors == null) {
+            colors = table.toMap();
+            table = null;
+        }
+        return colors;
+    }
+
+    /**
+     * Switch to a built-in theme, compiling it if no ColorTheme has used it
+     * yet.
+     *
+     * @param name the theme name, see fillTheme()
+     */
+    private void useTheme(final String name) {
+        table = compile(name);
+        colors = null;
+        invalidateIsDarkThemeCache();
+    }
+
+    /**
+     * Lay a built-in theme's colors over the current ones, keeping the
+     * current colors that the theme does not set.
+     *
+     * @param name the theme name, see fillTheme()
+     */
+    private void overlayTheme(final String name) {
+        Table overlay = compile(name);
+        SortedMap<String, CellAttributes> map = edit();
+        for (int i = 0; i < overlay.names.length; i++) {
+            CellAttributes copy = new CellAttributes();
+            copy.setTo(overlay.values[i]);
+            map.put(overlay.names[i], copy);
+        }
+        invalidateIsDarkThemeCache();
+    }
+
+    /**
+     * Get the compiled table of a built-in theme.  Themes built with
+     * rgbToPalette() depend on casciian.ECMA48.rgbColor, so that setting is
+     * part of the cache key of every theme but the default.
+     *
+     * @param name the theme name, see fillTheme()
+     * @return the shared table
+     */
+    private static Table compile(final String name) {
+        String key = name;
+        if (!name.equals(DEFAULT_THEME) && SystemProperties.isRgbColor()) {
+            key = name + ".rgb";
+        }
+        Table table = TABLES.get(key);
+        if (table == null) {
+            table = build(name);
+            Table other = TABLES.putIfAbsent(key, table);
+            if (other != null) {
+                table = other;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Compile a built-in theme.
+     *
+     * @param name the theme name, see fillTheme()
+     * @return a new table
+     */
+    private static Table build(final String name) {
+        SortedMap<String, CellAttributes> map = new TreeMap<>();
+        fillTheme(name, map);
+        return new Table(map);
+    }
+
+    /**
+     * Fill a map with the colors of a built-in theme.  This is a plain
+     * switch rather than a map of method references so that the first
+     * ColorTheme does not pay for bootstrapping lambdas.
+     *
+     * @param name the theme name
+     * @param colors the map to fill
+     */
+    private static void fillTheme(final String name,
+        final SortedMap<String, CellAttributes> colors) {
+
+        switch (name) {
+        case DEFAULT_THEME:
+            putDefaultTheme(colors);
+            break;
+        case "femme":
+            putFemme(colors);
+            break;
+        case "qmodem5":
+            putQmodem5(colors);
+            break;
+        case "darkDefault":
+            putDarkDefault(colors);
+            break;
+        case "midnightCommander":
+            putMidnightCommander(colors);
+            break;
+        case "flatDark":
+            putFlatDark(colors);
+            break;
+        case "vscodeDark":
+            putVSCodeDark(colors);
+            break;
+        case "vscodeLight":
+            putVSCodeLight(colors);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown theme: " + name);
+        }
+    }
+
     /**
      * Compute the perceptual luminance (ITU-R BT.601 weights, 0-255) of a
      * color channel of a CellAttributes, resolving named and palette colors
@@ -1164,10 +1381,10 @@ public class ColorTheme {
      * @return a list of names
      */
     public List<String> getColorNames() {
-        Set<String> keys = colors.keySet();
-        List<String> names = new ArrayList<>(keys.size());
-        names.addAll(keys);
-        return names;
+        if (colors == null) {
+            return new ArrayList<>(Arrays.asList(table.names));
+        }
+        return new ArrayList<>(colors.keySet());
     }
 
     /**
@@ -1184,7 +1401,7 @@ public class ColorTheme {
     public void setColor(final String name, final CellAttributes color) {
         CellAttributes copy = new CellAttributes();
         copy.setTo(color);
-        colors.put(name, copy);
+        edit().put(name, copy);
         invalidateIsDarkThemeCache();
     }
 
@@ -1196,7 +1413,7 @@ public class ColorTheme {
      */
     public void save(final String filename) throws IOException {
         try (FileWriter file = new FileWriter(filename)) {
-            for (String key : colors.keySet()) {
+            for (String key : getColorNames()) {
                 CellAttributes color = getColor(key);
                 file.write("%s = %s%n".formatted(key,
                     colorToThemeString(color)));
@@ -1349,7 +1566,7 @@ public class ColorTheme {
             // Invalid line: need both a foreground and a background.
             return;
         }
-        colors.put(key, color);
+        edit().put(key, color);
         invalidateIsDarkThemeCache();
     }
 
@@ -1450,8 +1667,15 @@ public class ColorTheme {
      * Sets to defaults that resemble the Borland IDE colors.
      */
     public void setDefaultTheme() {
-        invalidateIsDarkThemeCache();
+        useTheme(DEFAULT_THEME);
+    }
 
+    /**
+     * Fill a map with the colors of setDefaultTheme().
+     *
+     * @param colors the map to fill
+     */
+    private static void putDefaultTheme(final SortedMap<String, CellAttributes> colors) {
         // TWindow border
         colors.put(TWINDOW_BORDER, attr(BRIGHT_WHITE, BLUE));
 
@@ -1761,7 +1985,16 @@ public class ColorTheme {
      */
     @SuppressWarnings("DuplicatedCode")
     public void setFemme() {
-        setDefaultTheme();
+        useTheme("femme");
+    }
+
+    /**
+     * Fill a map with the colors of setFemme().
+     *
+     * @param colors the map to fill
+     */
+    private static void putFemme(final SortedMap<String, CellAttributes> colors) {
+        putDefaultTheme(colors);
         final int pink = 0xf7a8b8;
         final int blue = 0x55cdfc;
         final int pink2 = 0xd77888;
@@ -1926,7 +2159,15 @@ public class ColorTheme {
      * Sets to colors that resemble the "Custom" colors of Qmodem 5.0.
      */
     public void setQmodem5() {
-        invalidateIsDarkThemeCache();
+        overlayTheme("qmodem5");
+    }
+
+    /**
+     * Fill a map with the colors of setQmodem5().
+     *
+     * @param colors the map to fill
+     */
+    private static void putQmodem5(final SortedMap<String, CellAttributes> colors) {
         CellAttributes color;
 
         // TWindow border
@@ -2757,7 +2998,16 @@ public class ColorTheme {
      * without the stark look of pure black surfaces.
      */
     public void setDarkDefault() {
-        setDefaultTheme();
+        useTheme("darkDefault");
+    }
+
+    /**
+     * Fill a map with the colors of setDarkDefault().
+     *
+     * @param colors the map to fill
+     */
+    private static void putDarkDefault(final SortedMap<String, CellAttributes> colors) {
+        putDefaultTheme(colors);
 
         // Dark palette: softened greys with a navy desktop and Borland-style
         // yellow mnemonics.  Full RGB so the look stays consistent regardless
@@ -2962,7 +3212,16 @@ public class ColorTheme {
      * dialogs.
      */
     public void setMidnightCommander() {
-        setDefaultTheme();
+        useTheme("midnightCommander");
+    }
+
+    /**
+     * Fill a map with the colors of setMidnightCommander().
+     *
+     * @param colors the map to fill
+     */
+    private static void putMidnightCommander(final SortedMap<String, CellAttributes> colors) {
+        putDefaultTheme(colors);
 
         // Desktop: Midnight Commander shows the shell behind it; use a dark
         // blue desktop similar to its typical root colour.
@@ -3153,7 +3412,16 @@ public class ColorTheme {
      * because the desktop and window surfaces are the same black.
      */
     public void setFlatDark() {
-        setDefaultTheme();
+        useTheme("flatDark");
+    }
+
+    /**
+     * Fill a map with the colors of setFlatDark().
+     *
+     * @param colors the map to fill
+     */
+    private static void putFlatDark(final SortedMap<String, CellAttributes> colors) {
+        putDefaultTheme(colors);
 
         // Flat dark palette: everything on pure black with vibrant accents.
         final int bgBlack = 0x000000; // main surface
@@ -3373,7 +3641,16 @@ public class ColorTheme {
      * Visual Studio Code.  Uses 24-bit RGB colours.
      */
     public void setVSCodeDark() {
-        setDefaultTheme();
+        useTheme("vscodeDark");
+    }
+
+    /**
+     * Fill a map with the colors of setVSCodeDark().
+     *
+     * @param colors the map to fill
+     */
+    private static void putVSCodeDark(final SortedMap<String, CellAttributes> colors) {
+        putDefaultTheme(colors);
 
         // VS Code Dark Modern palette.
         final int bgEditor = 0x1e1e1e; // editor.background
@@ -3597,7 +3874,16 @@ public class ColorTheme {
      * Visual Studio Code.  Uses 24-bit RGB colours.
      */
     public void setVSCodeLight() {
-        setDefaultTheme();
+        useTheme("vscodeLight");
+    }
+
+    /**
+     * Fill a map with the colors of setVSCodeLight().
+     *
+     * @param colors the map to fill
+     */
+    private static void putVSCodeLight(final SortedMap<String, CellAttributes> colors) {
+        putDefaultTheme(colors);
 
         // VS Code Light Modern palette.
         final int bgEditor = 0xffffff; // editor.background
@@ -3820,6 +4106,9 @@ public class ColorTheme {
      */
     @Override
     public String toString() {
+        if (colors == null) {
+            return table.toMap().toString();
+        }
         return colors.toString();
     }
 
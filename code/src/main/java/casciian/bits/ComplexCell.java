@@ -14,9 +14,14 @@
  */
 package casciian.bits;
 
+import java.util.Arrays;
+
 /**
  * ComplexCell represents a multi-codepoint glyph, as commonly used in color
- * emojis, accented characters, and more.
+ * emojis, accented characters, and more.  Complete clusters are interned
+ * in GraphemeTable, so the cell itself holds only the cluster ID.  A
+ * cluster still being built by add(), or one that did not fit in the
+ * table, is kept in the cell as an array instead.
  */
 public class ComplexCell extends Cell {
 
@@ -29,9 +34,17 @@ public class ComplexCell extends Cell {
     // ------------------------------------------------------------------------
 
     /**
-     * The codepoints at this cell.
+     * The GraphemeTable ID of the codepoints at this cell, or
+     * GraphemeTable.NONE if the cell holds only the one codepoint returned
+     * by getChar().
      */
-    private int [] codePoints = new int[1];
+    private int cluster = GraphemeTable.NONE;
+
+    /**
+     * The codepoints at this cell if they are not interned, else null.  The
+     * array is shared between copies of the cell and never changed.
+     */
+    private int [] inline = null;
 
     // ------------------------------------------------------------------------
     // Constructors -----------------------------------------------------------
@@ -54,7 +67,6 @@ public class ComplexCell extends Cell {
      */
     public ComplexCell(final CellAttributes attr) {
         super(attr);
-        codePoints[0] = ' ';
     }
 
     /**
@@ -65,7 +77,6 @@ public class ComplexCell extends Cell {
      */
     public ComplexCell(final int codePoint, final CellAttributes attr) {
         super(codePoint, attr);
-        codePoints[0] = codePoint;
     }
 
     /**
@@ -77,7 +88,6 @@ public class ComplexCell extends Cell {
      */
     public ComplexCell(final int codePoint) {
         super(codePoint);
-        codePoints[0] = codePoint;
     }
 
     /**
@@ -89,8 +99,7 @@ public class ComplexCell extends Cell {
      */
     public ComplexCell(final int [] codePoints) {
         super(codePoints[0]);
-        this.codePoints = new int[codePoints.length];
-        System.arraycopy(codePoints, 0, this.codePoints, 0, codePoints.length);
+        setCluster(codePoints, true);
     }
 
     /**
@@ -102,8 +111,7 @@ public class ComplexCell extends Cell {
      */
     public ComplexCell(final int [] codePoints, final CellAttributes attr) {
         super(codePoints[0], attr);
-        this.codePoints = new int[codePoints.length];
-        System.arraycopy(codePoints, 0, this.codePoints, 0, codePoints.length);
+        setCluster(codePoints, true);
     }
 
     /**
@@ -111,18 +119,12 @@ public class ComplexCell extends Cell {
      *
      * @param cell the instance to copy
      */
-    @SuppressWarnings("this-escape")
     public ComplexCell(final Cell cell) {
         super(cell);
 
-        codePoints = new int[1];
-        codePoints[0] = cell.getChar();
-
         if (cell instanceof ComplexCell complexCell) {
-            int [] otherCodePoints = complexCell.codePoints;
-            codePoints = new int[otherCodePoints.length];
-            System.arraycopy(otherCodePoints, 0, codePoints, 0,
-                otherCodePoints.length);
+            cluster = complexCell.cluster;
+            inline = complexCell.inline;
         }
     }
 
@@ -130,16 +132,6 @@ public class ComplexCell extends Cell {
     // Cell -------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
-    /**
-     * Getter for cell character.
-     *
-     * @return cell character
-     */
-    @Override
-    public int getChar() {
-        return codePoints[0];
-    }
-
     /**
      * Setter for cell character.
      *
@@ -148,8 +140,8 @@ public class ComplexCell extends Cell {
     @Override
     public void setChar(final int ch) {
         super.setChar(ch);
-        codePoints = new int[1];
-        codePoints[0] = ch;
+        cluster = GraphemeTable.NONE;
+        inline = null;
     }
 
     /**
@@ -161,14 +153,12 @@ public class ComplexCell extends Cell {
     public void setChar(final Cell other) {
         super.setChar(other);
 
-        codePoints = new int[1];
-        codePoints[0] = other.getChar();
-
         if (other instanceof ComplexCell complexCell) {
-            int [] otherCodePoints = complexCell.codePoints;
-            codePoints = new int[otherCodePoints.length];
-            System.arraycopy(otherCodePoints, 0, codePoints, 0,
-                otherCodePoints.length);
+            cluster = complexCell.cluster;
+            inline = complexCell.inline;
+        } else {
+            cluster = GraphemeTable.NONE;
+            inline = null;
         }
     }
 
@@ -178,8 +168,8 @@ public class ComplexCell extends Cell {
     @Override
     public void reset() {
         super.reset();
-        codePoints = new int[1];
-        codePoints[0] = ' ';
+        cluster = GraphemeTable.NONE;
+        inline = null;
     }
 
     /**
@@ -189,8 +179,26 @@ public class ComplexCell extends Cell {
     @Override
     public void unset() {
         super.unset();
-        codePoints = new int[1];
-        codePoints[0] = super.getChar();
+        cluster = GraphemeTable.NONE;
+        inline = null;
+    }
+
+    /**
+     * Replace an image that is one solid color with a text cell, if
+     * possible.  The replacement character is always a single codepoint.
+     *
+     * @param opaque if true, replace with full foreground block 0x2588 (█),
+     * otherwise replace with space (' ')
+     * @return true if the image was a single color (and has now been erased)
+     */
+    @Override
+    public boolean checkForSingleColor(final boolean opaque) {
+        if (super.checkForSingleColor(opaque)) {
+            cluster = GraphemeTable.NONE;
+            inline = null;
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -204,16 +212,14 @@ public class ComplexCell extends Cell {
         if (!(rhs instanceof ComplexCell that)) {
             return false;
         }
-
-        if (this.codePoints.length != that.codePoints.length) {
-            return false;
-        }
-        for (int i = 0; i < codePoints.length; i++) {
-            if (this.codePoints[i] != that.codePoints[i]) {
+        if ((this.cluster != that.cluster) || (this.inline != that.inline)) {
+            if ((this.inline == null) && (that.inline == null)) {
+                return false;
+            }
+            if (!Arrays.equals(codePoints(), that.codePoints())) {
                 return false;
             }
         }
-
         return super.equals(rhs);
     }
 
@@ -228,9 +234,9 @@ public class ComplexCell extends Cell {
         int b = 23;
         int hash = a;
         hash = (b * hash) + super.hashCode();
-        for (int codePoint : codePoints) {
-            hash = (b * hash) + codePoint;
-        }
+        // The same cluster can be interned in one cell and inline in
+        // another, so hash its length rather than its ID.
+        hash = (b * hash) + getCodePointCount();
         return hash;
     }
 
@@ -244,15 +250,11 @@ public class ComplexCell extends Cell {
         super.setTo(rhs);
 
         if (rhs instanceof ComplexCell complexCell) {
-            this.codePoints = new int[complexCell.codePoints.length];
-            System.arraycopy(complexCell.codePoints, 0, this.codePoints, 0,
-                codePoints.length);
-            return;
-        }
-
-        if (rhs instanceof Cell cell) {
-            codePoints = new int[1];
-            codePoints[0] = cell.getChar();
+            cluster = complexCell.cluster;
+            inline = complexCell.inline;
+        } else if (rhs instanceof Cell) {
+            cluster = GraphemeTable.NONE;
+            inline = null;
         }
     }
 
@@ -263,14 +265,11 @@ public class ComplexCell extends Cell {
      */
     @Override
     public String toString() {
-        if (codePoints.length == 1) {
-            return new String(Character.toChars(codePoints[0]));
+        if ((cluster == GraphemeTable.NONE) && (inline == null)) {
+            return new String(Character.toChars(getChar()));
         }
-        StringBuilder sb = new StringBuilder(codePoints.length);
-        for (int codePoint : codePoints) {
-            sb.append(Character.toChars(codePoint));
-        }
-        return sb.toString();
+        int [] codePoints = codePoints();
+        return new String(codePoints, 0, codePoints.length);
     }
 
     /**
@@ -283,6 +282,7 @@ public class ComplexCell extends Cell {
         StringBuilder sb = new StringBuilder("<font ");
         sb.append(super.toHtml());
         sb.append('>');
+        int [] codePoints = codePoints();
         for (int i = 0; i < codePoints.length; i++) {
             int ch = codePoints[i];
             if (ch == ' ') {
@@ -304,11 +304,23 @@ public class ComplexCell extends Cell {
     /**
      * Get for number of display cells required to show this cell's text.
      *
-     * @return 1 or 2
+     * @return 0, 1, or 2
      */
     @Override
     public int getDisplayWidth() {
-        return StringUtils.width(codePoints);
+        if (inline != null) {
+            return StringUtils.width(inline);
+        }
+        if (cluster == GraphemeTable.NONE) {
+            int ch = getChar();
+            // Same as StringUtils.width(int[]) for one codepoint: VS16 and
+            // the enclosing keycap are emoji-wide even on their own.
+            if ((ch == 0xFE0F) || (ch == 0x20E3)) {
+                return 2;
+            }
+            return StringUtils.width(ch);
+        }
+        return GraphemeTable.getWidth(cluster);
     }
 
     /**
@@ -319,10 +331,8 @@ public class ComplexCell extends Cell {
      */
     @Override
     public boolean isCodePoint(final int codePoint) {
-        if (codePoints.length == 1) {
-            return (codePoints[0] == codePoint);
-        }
-        return false;
+        return (cluster == GraphemeTable.NONE) && (inline == null)
+            && (getChar() == codePoint);
     }
 
     /**
@@ -332,7 +342,7 @@ public class ComplexCell extends Cell {
      */
     @Override
     public boolean isEmoji() {
-        return ExtendedGraphemeClusterUtils.isEmoji(codePoints[0]);
+        return ExtendedGraphemeClusterUtils.isEmoji(getChar());
     }
 
     // ------------------------------------------------------------------------
@@ -340,13 +350,27 @@ public class ComplexCell extends Cell {
     // ------------------------------------------------------------------------
 
     /**
-     * Set all cell codepoints.
+     * Set all cell codepoints to a complete cluster.
      *
      * @param codePoints the codepoints to set to
      */
     public void setCodePoints(final int [] codePoints) {
-        this.codePoints = new int[codePoints.length];
-        System.arraycopy(codePoints, 0, this.codePoints, 0, codePoints.length);
+        setCodePoints(codePoints, true);
+    }
+
+    /**
+     * Set all cell codepoints.
+     *
+     * @param codePoints the codepoints to set to
+     * @param complete if true, the cluster is complete and is interned.  If
+     * false, more codepoints may follow, so the cluster is kept in this
+     * cell: pass it again with complete set once it is finished.
+     */
+    public void setCodePoints(final int [] codePoints,
+        final boolean complete) {
+
+        super.setChar(codePoints[0]);
+        setCluster(codePoints, complete);
     }
 
     /**
@@ -355,9 +379,10 @@ public class ComplexCell extends Cell {
      * @return a copy of the codepoints
      */
     public int [] getCodePoints() {
-        int [] result = new int[codePoints.length];
-        System.arraycopy(codePoints, 0, result, 0, codePoints.length);
-        return result;
+        if ((cluster == GraphemeTable.NONE) && (inline == null)) {
+            return new int [] { getChar() };
+        }
+        return codePoints().clone();
     }
 
     /**
@@ -366,19 +391,29 @@ public class ComplexCell extends Cell {
      * @return the number of codepoints
      */
     public int getCodePointCount() {
-        return codePoints.length;
+        if (inline != null) {
+            return inline.length;
+        }
+        if (cluster == GraphemeTable.NONE) {
+            return 1;
+        }
+        return GraphemeTable.getCodePoints(cluster).length;
     }
 
     /**
-     * Append one codepoint to the end of the sequence.
+     * Append one codepoint to the end of the sequence.  The cluster is kept
+     * in this cell rather than interned, since more codepoints may follow:
+     * pass the finished cluster to setCodePoints() to intern it.
      *
      * @param codePoint the codepoint to add
      */
     public void add(final int codePoint) {
-        int [] oldCodePoints = codePoints;
-        codePoints = new int[oldCodePoints.length + 1];
-        System.arraycopy(oldCodePoints, 0, codePoints, 0, oldCodePoints.length);
-        codePoints[oldCodePoints.length] = codePoint;
+        int [] oldCodePoints = codePoints();
+        int [] newCodePoints = new int[oldCodePoints.length + 1];
+        System.arraycopy(oldCodePoints, 0, newCodePoints, 0,
+            oldCodePoints.length);
+        newCodePoints[oldCodePoints.length] = codePoint;
+        setCluster(newCodePoints, false);
     }
 
     /**
@@ -387,16 +422,43 @@ public class ComplexCell extends Cell {
      * @return an array of all of the codepoints
      */
     public char [] toCharArray() {
-        int n = 0;
-        for (int i = 0; i < codePoints.length; i++) {
-            n += Character.charCount(codePoints[i]);
+        return toString().toCharArray();
+    }
+
+    /**
+     * Get the codepoints without copying them.
+     *
+     * @return the codepoints, which must not be changed
+     */
+    private int [] codePoints() {
+        if (inline != null) {
+            return inline;
+        }
+        if (cluster == GraphemeTable.NONE) {
+            return new int [] { getChar() };
+        }
+        return GraphemeTable.getCodePoints(cluster);
+    }
+
+    /**
+     * Set the cluster, interning it if it is complete and the table has
+     * room.
+     *
+     * @param codePoints the codepoints
+     * @param complete if true, try to intern the cluster
+     */
+    private void setCluster(final int [] codePoints, final boolean complete) {
+        cluster = GraphemeTable.NONE;
+        inline = null;
+        if (codePoints.length < 2) {
+            return;
+        }
+        if (complete) {
+            cluster = GraphemeTable.intern(codePoints);
         }
-        char [] result = new char[n];
-        int idx = 0;
-        for (int codePoint : codePoints) {
-            idx += Character.toChars(codePoint, result, idx);
+        if (cluster == GraphemeTable.NONE) {
+            inline = codePoints.clone();
         }
-        return result;
     }
 
 }
@@ -32,9 +32,94 @@ import java.util.ArrayList;
  *   <li>GB9c is not implemented.</li>
  *   <li>GB11 is implemented for emoji ZWJ sequences.</li>
  * </ul>
+ *
+ * <p>The isXXX() classifiers below define the properties.  Segmentation
+ * does not call them directly: each codepoint's properties are kept as
+ * bits in a lookup table generated from them, so that finding a break
+ * costs two table lookups rather than hundreds of range comparisons.</p>
  */
 public class ExtendedGraphemeClusterUtils {
 
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Property bit: Prepend.
+     */
+    private static final int PREPEND = 0x0001;
+
+    /**
+     * Property bit: Extend.
+     */
+    private static final int EXTEND = 0x0002;
+
+    /**
+     * Property bit: SpacingMark.
+     */
+    private static final int SPACING_MARK = 0x0004;
+
+    /**
+     * Property bit: Hangul L.
+     */
+    private static final int L = 0x0008;
+
+    /**
+     * Property bit: Hangul V.
+     */
+    private static final int V = 0x0010;
+
+    /**
+     * Property bit: Hangul T.
+     */
+    private static final int T = 0x0020;
+
+    /**
+     * Property bit: Hangul LV.
+     */
+    private static final int LV = 0x0040;
+
+    /**
+     * Property bit: Hangul LVT.
+     */
+    private static final int LVT = 0x0080;
+
+    /**
+     * Property bit: ZWJ.
+     */
+    private static final int ZWJ = 0x0100;
+
+    /**
+     * Property bit: Regional Indicator.
+     */
+    private static final int REGIONAL_INDICATOR = 0x0200;
+
+    /**
+     * Property bit: emoji, in or out of the BMP.
+     */
+    private static final int EMOJI = 0x0400;
+
+    /**
+     * Property bit: emoji combiner.
+     */
+    private static final int EMOJI_COMBINER = 0x0800;
+
+    /**
+     * Property bit: emoji component.
+     */
+    private static final int EMOJI_COMPONENT = 0x1000;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The property bits of every codepoint, generated from the isXXX()
+     * classifiers.
+     */
+    private static final CodePointTable PROPERTIES =
+        new CodePointTable(ExtendedGraphemeClusterUtils::computeProperties);
+
     // ------------------------------------------------------------------------
     // Constructors -----------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -1912,18 +1997,22 @@ public class ExtendedGraphemeClusterUtils {
     }
 
     /**
-     * Make a sub-copy of a codepoint array.
+     * Copy the codepoints of a range of text.
      *
-     * @param codePoints an array of codepoints
-     * @param start starting location to copy
-     * @param length number of codepoints to copy
-     * @return a new array containing codePoints[start .. (length - 1)]
+     * @param text the text
+     * @param start the index of the first char to copy
+     * @param end the index just past the last char to copy
+     * @return a new array containing the codepoints of text[start .. end)
      */
-    private static int [] slice(final int [] codePoints, final int start,
-        final int length) {
+    private static int [] codePoints(final CharSequence text, final int start,
+        final int end) {
 
-        int [] result = new int[length];
-        System.arraycopy(codePoints, start, result, 0, length);
+        int [] result = new int[Character.codePointCount(text, start, end)];
+        for (int i = start, j = 0; i < end; j++) {
+            int ch = Character.codePointAt(text, i);
+            result[j] = ch;
+            i += Character.charCount(ch);
+        }
         return result;
     }
 
@@ -1936,45 +2025,102 @@ public class ExtendedGraphemeClusterUtils {
      * @return true if a break should be between these codepoints
      */
     public static boolean shouldBreak(final int firstCh, final int secondCh) {
-        /*
-        System.err.println("shouldBreak: " + (char) firstCh + " "
-            + (char) secondCh);
-         */
+        return shouldBreakProperties(PROPERTIES.get(firstCh),
+            PROPERTIES.get(secondCh));
+    }
+
+    /**
+     * Collect the properties of a codepoint that grapheme cluster breaking
+     * depends on.  This is the definition that the lookup table is
+     * generated from.
+     *
+     * @param ch the codepoint
+     * @return the property bits
+     */
+    private static int computeProperties(final int ch) {
+        int properties = 0;
+        if (isPrepend(ch)) {
+            properties |= PREPEND;
+        }
+        if (isExtend(ch)) {
+            properties |= EXTEND;
+        }
+        if (isSpacingMark(ch)) {
+            properties |= SPACING_MARK;
+        }
+        if (isL(ch)) {
+            properties |= L;
+        }
+        if (isV(ch)) {
+            properties |= V;
+        }
+        if (isT(ch)) {
+            properties |= T;
+        }
+        if (isLV(ch)) {
+            properties |= LV;
+        }
+        if (isLVT(ch)) {
+            properties |= LVT;
+        }
+        if (isZWJ(ch)) {
+            properties |= ZWJ;
+        }
+        if (isRegionalIndicator(ch)) {
+            properties |= REGIONAL_INDICATOR;
+        }
+        if (isEmoji(ch) || isEmojiBMP(ch)) {
+            properties |= EMOJI;
+        }
+        if (isEmojiCombiner(ch)) {
+            properties |= EMOJI_COMBINER;
+        }
+        if (isEmojiComponent(ch)) {
+            properties |= EMOJI_COMPONENT;
+        }
+        return properties;
+    }
 
-        if (isL(firstCh)
-            && (isL(secondCh) || isV(secondCh) || isLV(secondCh) || isLVT(secondCh))
+    /**
+     * See if a grapheme cluster break should occur between two codepoints,
+     * given their property bits.
+     *
+     * @param first the properties of the first codepoint in the sequence
+     * @param second the properties of the second codepoint in the sequence
+     * @return true if a break should be between these codepoints
+     */
+    private static boolean shouldBreakProperties(final int first,
+        final int second) {
+
+        if (((first & L) != 0)
+            && ((second & (L | V | LV | LVT)) != 0)
         ) {
             // GB6
-            // System.err.println("GB6 false");
             return false;
         }
 
-        if ((isLV(firstCh) || isV(firstCh))
-            && (isV(secondCh) || isT(secondCh))
+        if (((first & (LV | V)) != 0)
+            && ((second & (V | T)) != 0)
         ) {
             // GB7
-            // System.err.println("GB7 false");
             return false;
         }
 
-        if ((isLVT(firstCh) || isT(firstCh))
-            && isT(secondCh)
+        if (((first & (LVT | T)) != 0)
+            && ((second & T) != 0)
         ) {
             // GB8
-            // System.err.println("GB8 false");
             return false;
         }
 
-        if (isExtend(secondCh) || isZWJ(secondCh)) {
+        if ((second & (EXTEND | ZWJ)) != 0) {
             // GB9
-            // System.err.println("GB9 false");
             return false;
         }
 
-        if (isSpacingMark(secondCh) || isPrepend(firstCh)) {
+        if (((second & SPACING_MARK) != 0) || ((first & PREPEND) != 0)) {
             // GB9a
             // GB9b
-            // System.err.println("GB9a GB9b false");
             return false;
         }
 
@@ -1982,29 +2128,25 @@ public class ExtendedGraphemeClusterUtils {
         // codepoint is a ZWJ that follows an emoji (guaranteed by GB9, which
         // joins the emoji and any Extend* to the ZWJ), do not break before a
         // following Extended_Pictographic codepoint.
-        if (isZWJ(firstCh)
-            && (isEmoji(secondCh) || isEmojiBMP(secondCh))
-        ) {
-            // System.err.println("GB11 false");
+        if (((first & ZWJ) != 0) && ((second & EMOJI) != 0)) {
             return false;
         }
 
-        if (isRegionalIndicator(firstCh) && isRegionalIndicator(secondCh)) {
+        if (((first & REGIONAL_INDICATOR) != 0)
+            && ((second & REGIONAL_INDICATOR) != 0)
+        ) {
             // GB12 and GB13 need the parity of the current RI run, which is
-            // tracked by toComplexCells().
+            // tracked by nextBreak().
             return true;
         }
 
         // GB3, GB4, and GB9c - Will not implement
 
-        if ((isEmoji(firstCh)
-                || isEmojiBMP(firstCh)
-                || isEmojiCombiner(secondCh))
-            && (isEmojiCombiner(secondCh) || isEmojiComponent(secondCh))
-            && !isRegionalIndicator(firstCh)
+        if ((((first & EMOJI) != 0) || ((second & EMOJI_COMBINER) != 0))
+            && ((second & (EMOJI_COMBINER | EMOJI_COMPONENT)) != 0)
+            && ((first & REGIONAL_INDICATOR) == 0)
         ) {
             // GB11
-            // System.err.println("GB11 false");
             return false;
         }
 
@@ -2013,67 +2155,77 @@ public class ExtendedGraphemeClusterUtils {
     }
 
     /**
-     * Converts a string into a sequence of grapheme clusters following most
-     * of the rules of Unicode TR #29 section 3.1.1.
+     * Find the end of the grapheme cluster that starts at an index.  This
+     * is the streaming form of toComplexCells(): walking a string with it
+     * visits the same clusters without allocating anything.
      *
-     * @param input a string of codepoints
-     * @return a sequence of grapheme clusters
+     * @param text the text
+     * @param start the index of the first char of a cluster
+     * @return the index just past the end of the cluster, or
+     * text.length() if start is at or past the end
      */
-    public static List<ComplexCell> toComplexCells(final String input) {
-        List<ComplexCell> result = new ArrayList<ComplexCell>();
-        int [] codePoints = StringUtils.toCodePoints(input);
+    public static int nextBreak(final CharSequence text, final int start) {
+        int length = text.length();
+        if (start >= length) {
+            return length;
+        }
 
-        int [] grapheme = null;
-        int begin = 0;
-        int lastCh = 0;
+        int lastCh = Character.codePointAt(text, start);
+        int last = PROPERTIES.get(lastCh);
+        int i = start + Character.charCount(lastCh);
         int regionalIndicatorCount = 0;
-        if (codePoints.length > 0) {
-            lastCh = codePoints[0];
-            if (isRegionalIndicator(lastCh)) {
-                regionalIndicatorCount = 1;
-            }
+        if ((last & REGIONAL_INDICATOR) != 0) {
+            regionalIndicatorCount = 1;
         }
 
-        // As per GB1, any codepoint after the start of text (sot) begins a
-        // new grapheme. So we start the loop at 1 instead of 0.
-        for (int i = 1; i < codePoints.length; i++) {
-            int ch = codePoints[i];
+        while (i < length) {
+            int ch = Character.codePointAt(text, i);
+            int properties = PROPERTIES.get(ch);
 
-            boolean riPair = isRegionalIndicator(lastCh)
-                && isRegionalIndicator(ch);
-            boolean shouldBreak = shouldBreak(lastCh, ch);
+            boolean regionalIndicator = (properties & REGIONAL_INDICATOR) != 0;
+            boolean riPair = regionalIndicator
+                && ((last & REGIONAL_INDICATOR) != 0);
+            boolean shouldBreak;
             if (riPair) {
                 shouldBreak = ((regionalIndicatorCount % 2) == 0);
+            } else {
+                shouldBreak = shouldBreakProperties(last, properties);
             }
-
             if (shouldBreak) {
-                // Everything before this is one grapheme.
-                int n = i - begin;
-                assert (n > 0);
-                grapheme = slice(codePoints, begin, n);
-                ComplexCell cell = new ComplexCell(grapheme);
-                result.add(cell);
-                begin = i;
-                regionalIndicatorCount = isRegionalIndicator(ch) ? 1 : 0;
-            } else if (riPair) {
+                return i;
+            }
+            if (riPair) {
                 regionalIndicatorCount++;
-            } else if (!isRegionalIndicator(ch)) {
+            } else if (!regionalIndicator) {
                 regionalIndicatorCount = 0;
             }
 
-            lastCh = ch;
-
-        } // for (int i = 1; i < codePoints.length; i++)
-
-        int n = codePoints.length - begin;
-        if (n > 0) {
-            // GB2
-            grapheme = slice(codePoints, begin, n);
-            ComplexCell cell = new ComplexCell(grapheme);
-            result.add(cell);
-            begin = codePoints.length;
+            last = properties;
+            i += Character.charCount(ch);
         }
+        return length;
+    }
 
+    /**
+     * Converts a string into a sequence of grapheme clusters following most
+     * of the rules of Unicode TR #29 section 3.1.1.
+     *
+     * @param input a string of codepoints
+     * @return a sequence of grapheme clusters
+     */
+    public static List<ComplexCell> toComplexCells(final String input) {
+        List<ComplexCell> result = new ArrayList<ComplexCell>();
+        int length = input.length();
+        int begin = 0;
+        while (begin < length) {
+            int end = nextBreak(input, begin);
+            if (end == begin + 1) {
+                result.add(new ComplexCell(input.charAt(begin)));
+            } else {
+                result.add(new ComplexCell(codePoints(input, begin, end)));
+            }
+            begin = end;
+        }
         return result;
     }
 
@@ -0,0 +1,214 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GraphemeCache remembers how strings split into grapheme clusters and how
+ * wide each cluster is.  Labels, menu titles, status bar text, and most
+ * other strings drawn by widgets are the same from one frame to the next,
+ * so drawing them again only costs a lookup.
+ *
+ * <p>The cache is keyed by string content and bounded: it holds at most
+ * {@link #CACHE_SIZE} strings, evicting the least recently used, and does
+ * not hold strings longer than {@link #MAX_LENGTH} chars at all.</p>
+ */
+public final class GraphemeCache {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Maximum number of strings kept in the cache.
+     */
+    public static final int CACHE_SIZE = 1024;
+
+    /**
+     * Longest string, in chars, that is cached.  Longer strings are
+     * segmented every time.
+     */
+    public static final int MAX_LENGTH = 256;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Bounded least-recently-used cache of segmented strings.  As with
+     * Palette256, an access-order LinkedHashMap is wrapped with
+     * Collections.synchronizedMap() so that computeIfAbsent() is atomic.
+     */
+    private static final Map<String, Clusters> CACHE =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                    final Map.Entry<String, Clusters> eldest) {
+
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /**
+     * The grapheme clusters of one string.  Instances are immutable and
+     * shared between callers.
+     */
+    public static final class Clusters {
+
+        /**
+         * One cell per cluster, with default attributes.
+         */
+        private final ComplexCell [] cells;
+
+        /**
+         * The display width of each cluster.
+         */
+        private final int [] widths;
+
+        /**
+         * The display width of the whole string.
+         */
+        private final int width;
+
+        /**
+         * Private constructor.
+         *
+         * @param str the string to segment
+         */
+        private Clusters(final String str) {
+            int length = str.length();
+            ComplexCell [] cells = new ComplexCell[length];
+            int [] widths = new int[length];
+            int count = 0;
+            int total = 0;
+            int begin = 0;
+            while (begin < length) {
+                int end = ExtendedGraphemeClusterUtils.nextBreak(str, begin);
+                ComplexCell cell;
+                if (end == begin + 1) {
+                    cell = new ComplexCell(str.charAt(begin));
+                } else {
+                    cell = new ComplexCell(str.substring(begin,
+                            end).codePoints().toArray());
+                }
+                cells[count] = cell;
+                widths[count] = StringUtils.width(str, begin, end);
+                total += widths[count];
+                count++;
+                begin = end;
+            }
+            if (count < length) {
+                cells = Arrays.copyOf(cells, count);
+                widths = Arrays.copyOf(widths, count);
+            }
+            this.cells = cells;
+            this.widths = widths;
+            this.width = total;
+        }
+
+        /**
+         * Get the number of clusters.
+         *
+         * @return the number of clusters
+         */
+        public int size() {
+            return cells.length;
+        }
+
+        /**
+         * Get the cell of one cluster.  The cell is shared: callers that
+         * need to change it, for example to set its attributes, must copy
+         * it first.
+         *
+         * @param index the cluster index, 0-based
+         * @return the cell, with default attributes
+         */
+        public ComplexCell getCell(final int index) {
+            return cells[index];
+        }
+
+        /**
+         * Get the display width of one cluster.
+         *
+         * @param index the cluster index, 0-based
+         * @return the number of text cell columns, either 0, 1 or 2
+         */
+        public int getWidth(final int index) {
+            return widths[index];
+        }
+
+        /**
+         * Get the display width of the whole string.
+         *
+         * @return the number of text cell columns
+         */
+        public int getWidth() {
+            return width;
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Private constructor: this is a utility class.
+     */
+    private GraphemeCache() {
+        // NOP
+    }
+
+    // ------------------------------------------------------------------------
+    // GraphemeCache ----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the grapheme clusters of a string, segmenting it only if it is
+     * not already in the cache.
+     *
+     * @param str the string
+     * @return the clusters
+     */
+    public static Clusters get(final String str) {
+        if (str.length() > MAX_LENGTH) {
+            return new Clusters(str);
+        }
+        return CACHE.computeIfAbsent(str, Clusters::new);
+    }
+
+    /**
+     * Get the number of strings currently cached.
+     *
+     * @return the number of strings
+     */
+    public static int size() {
+        return CACHE.size();
+    }
+
+    /**
+     * Empty the cache.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * GraphemeTable interns multi-codepoint grapheme clusters: emoji ZWJ
+ * sequences, flags, base characters with combining marks, and so on.  Each
+ * distinct cluster is stored once for the whole JVM and given a small
+ * integer ID, so that a ComplexCell holds one int instead of its own
+ * codepoint array, copying a cell copies the int, and comparing two cells
+ * compares the ints.
+ *
+ * <p>IDs are never reused, and the table only grows.  Real text uses a few
+ * thousand distinct clusters at most, but a program can print arbitrary
+ * combining sequences, so the table is bounded at {@link #MAX_CLUSTERS}.
+ * Once it is full, new clusters are not interned and cells holding them
+ * keep their own codepoint arrays.  Only complete clusters should be
+ * interned, not each prefix of one as it is built.</p>
+ */
+public final class GraphemeTable {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The ID for "not a multi-codepoint cluster".  A cell with this ID
+     * holds only its base character.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * The most clusters the table will hold.
+     */
+    public static final int MAX_CLUSTERS = 65536;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Cluster IDs, keyed by the cluster as a string.
+     */
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    /**
+     * Codepoints by cluster ID.  The array is replaced, never changed in
+     * place except to add new entries past the last ID handed out, so that
+     * readers need not lock.
+     */
+    private static volatile int [][] clusters = new int[64][];
+
+    /**
+     * Display widths by cluster ID, replaced along with clusters.
+     */
+    private static volatile int [] widths = new int[64];
+
+    /**
+     * The next ID to hand out.
+     */
+    private static int nextId = 1;
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Private constructor prevents accidental creation of this class.
+     */
+    private GraphemeTable() {}
+
+    // ------------------------------------------------------------------------
+    // GraphemeTable ----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the ID of a cluster, adding it to the table if it is new.
+     *
+     * @param codePoints the codepoints of the cluster
+     * @return the ID, or NONE if the cluster is a single codepoint or the
+     * table is full
+     */
+    public static int intern(final int [] codePoints) {
+        if (codePoints.length < 2) {
+            return NONE;
+        }
+        String key = new String(codePoints, 0, codePoints.length);
+        synchronized (IDS) {
+            Integer id = IDS.get(key);
+            if (id != null) {
+                return id;
+            }
+            if (nextId >= MAX_CLUSTERS) {
+                return NONE;
+            }
+            int newId = nextId;
+            int [][] newClusters = clusters;
+            int [] newWidths = widths;
+            if (newId == newClusters.length) {
+                int size = Math.min(newClusters.length * 2, MAX_CLUSTERS);
+                newClusters = Arrays.copyOf(newClusters, size);
+                newWidths = Arrays.copyOf(newWidths, size);
+            }
+            newClusters[newId] = codePoints.clone();
+            newWidths[newId] = StringUtils.width(codePoints);
+            widths = newWidths;
+            clusters = newClusters;
+            IDS.put(key, newId);
+            nextId++;
+            return newId;
+        }
+    }
+
+    /**
+     * Get the codepoints of a cluster.
+     *
+     * @param id the cluster ID, not NONE
+     * @return the codepoints.  The array is shared and must not be changed.
+     */
+    public static int [] getCodePoints(final int id) {
+        return clusters[id];
+    }
+
+    /**
+     * Get the display width of a cluster.
+     *
+     * @param id the cluster ID, not NONE
+     * @return 0, 1, or 2
+     */
+    public static int getWidth(final int id) {
+        return widths[id];
+    }
+
+    /**
+     * Get the number of clusters in the table.
+     *
+     * @return the number of clusters
+     */
+    public static int size() {
+        synchronized (IDS) {
+            return nextId - 1;
+        }
+    }
+
+}
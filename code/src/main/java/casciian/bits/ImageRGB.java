@@ -112,6 +112,31 @@ public interface ImageRGB {
      */
     ImageRGB getSubimage(int x, int y, int w, int h);
 
+    /**
+     * Get an image of a rectangle of this one that shares its pixels, if
+     * the implementation can, rather than copying them.  Writing to either
+     * image may change the other, so views are for images that are no
+     * longer changed, such as those sliced into cells.
+     *
+     * <p>The default implementation returns a copy from
+     * {@link #getSubimage(int, int, int, int)}.</p>
+     *
+     * @param x the x-coordinate of the upper-left corner of the view
+     * @param y the y-coordinate of the upper-left corner of the view
+     * @param w the width of the view in pixels
+     * @param h the height of the view in pixels
+     * @return an ImageRGB showing the specified rectangle
+     * @throws IllegalArgumentException if the rectangle is not inside this
+     * image
+     */
+    default ImageRGB getView(int x, int y, int w, int h) {
+        if (x < 0 || y < 0 || w <= 0 || h <= 0 || x + w > getWidth()
+            || y + h > getHeight()) {
+            throw new IllegalArgumentException("Invalid view dimensions");
+        }
+        return getSubimage(x, y, w, h);
+    }
+
     /**
      * Retrieves the width of the image in pixels.
      *
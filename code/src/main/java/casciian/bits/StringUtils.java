@@ -410,6 +410,10 @@ public class StringUtils {
      * letters, ZWJ emoji, flags, keycaps, ...) contribute the width of the
      * whole cluster rather than the sum of their individual codepoints.
      *
+     * <p>A run of ASCII characters, none of which can join a cluster with
+     * its neighbor, is measured one char at a time.  Other clusters are
+     * walked in place without allocating.</p>
+     *
      * @param str the string
      * @return the number of text cell columns required to display this string
      */
@@ -418,11 +422,67 @@ public class StringUtils {
             return 0;
         }
 
+        int length = str.length();
         int n = 0;
-        for (ComplexCell cell
-            : ExtendedGraphemeClusterUtils.toComplexCells(str)
-        ) {
-            n += cell.getDisplayWidth();
+        int i = 0;
+        while (i < length) {
+            char ch = str.charAt(i);
+            if ((ch < 0x80)
+                && ((i + 1 == length) || (str.charAt(i + 1) < 0x80))
+            ) {
+                if ((ch >= 0x20) && (ch < 0x7F)) {
+                    n++;
+                }
+                i++;
+                continue;
+            }
+            int end = ExtendedGraphemeClusterUtils.nextBreak(str, i);
+            n += width(str, i, end);
+            i = end;
+        }
+        return n;
+    }
+
+    /**
+     * Determine display width of a range of text that will be displayed as
+     * a single extended grapheme cluster.  This applies the same rules as
+     * width(int[]) without copying the codepoints out.
+     *
+     * @param text the text
+     * @param start the index of the first char of the cluster
+     * @param end the index just past the last char of the cluster
+     * @return the number of text cell columns required to display this
+     * grapheme, either 0, 1 or 2
+     */
+    static int width(final CharSequence text, final int start,
+        final int end) {
+
+        int count = 0;
+        int regionalIndicators = 0;
+        boolean hasEmojiPresentation = false;
+        boolean hasTextPresentation = false;
+        int n = 0;
+        for (int i = start; i < end; count++) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (codePoint == 0xFE0F) {
+                hasEmojiPresentation = true;
+            } else if (codePoint == 0xFE0E) {
+                hasTextPresentation = true;
+            } else if (codePoint == 0x20E3) {
+                hasEmojiPresentation = true;
+            }
+            if (ExtendedGraphemeClusterUtils.isRegionalIndicator(codePoint)) {
+                regionalIndicators++;
+            }
+            n = Math.max(n, width(codePoint));
+        }
+
+        if ((count == 2) && (regionalIndicators == 2)) {
+            return 2;
+        }
+        if (hasEmojiPresentation && !hasTextPresentation) {
+            return 2;
         }
         return n;
     }
@@ -520,7 +580,7 @@ public class StringUtils {
      */
     public static int width(final Cell cell) {
         if (cell instanceof ComplexCell) {
-            return width(((ComplexCell) cell).getCodePoints());
+            return cell.getDisplayWidth();
         }
         return width(cell.getChar());
     }
@@ -34,9 +34,23 @@ package casciian.bits;
  * - Modern emoji ranges
  * - Variation selectors (text vs emoji presentation)
  * - CJK characters and fullwidth forms
+ * <br>
+ * The classification below is only evaluated once per codepoint: its
+ * results are kept in a lookup table, and printable ASCII does not even
+ * need that.
  */
 public class UnicodeWidth {
 
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The width of every codepoint, generated from computeWidth().
+     */
+    private static final CodePointTable WIDTHS =
+        new CodePointTable(UnicodeWidth::computeWidth);
+
     // ------------------------------------------------------------------------
     // Constructors -----------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -58,6 +72,22 @@ public class UnicodeWidth {
      * point, one of 0, 1, or 2
      */
     public static int width(final int ch) {
+        if ((ch >= 0x20) && (ch < 0x7F)) {
+            // Printable ASCII
+            return 1;
+        }
+        return WIDTHS.get(ch);
+    }
+
+    /**
+     * Classify the display width of a Unicode code point.  This is the
+     * definition that the lookup table is generated from.
+     *
+     * @param ch the Unicode code point to measure
+     * @return the number of text cell columns required to display this code
+     * point, one of 0, 1, or 2
+     */
+    private static int computeWidth(final int ch) {
         if (isControlCharacter(ch) || isZeroWidthCharacter(ch) || isCombiningCharacter(ch)) {
             return 0;
         }
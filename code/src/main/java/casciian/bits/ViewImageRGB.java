@@ -0,0 +1,377 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.util.Arrays;
+
+/**
+ * An {@link ImageRGB} that is a window onto a rectangle of an
+ * {@link ArrayImageRGB}'s pixels, without copying them.  TImage slices its
+ * picture into one view per text cell, and the terminal hands a run of
+ * views that sit side by side in the same picture to the image encoders as
+ * one view, rather than stitching the cells back together.
+ *
+ * <p>Views share pixels with the image they came from: writing to one
+ * changes the other.  Cell images are treated as immutable everywhere, so
+ * this only matters to code that makes views of images it then changes.
+ * Operations that make a new image (scale, rotate, resizeCanvas,
+ * getSubimage) return an independent ArrayImageRGB.</p>
+ */
+public final class ViewImageRGB implements ImageRGB {
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The rows of the shared raster: rgb[row][col].
+     */
+    private final int[][] rgb;
+
+    /**
+     * The column of the raster where this view starts.
+     */
+    private final int left;
+
+    /**
+     * The row of the raster where this view starts.
+     */
+    private final int top;
+
+    /**
+     * The width of this view.
+     */
+    private final int width;
+
+    /**
+     * The height of this view.
+     */
+    private final int height;
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Package private constructor.  The rectangle must be inside the
+     * raster.
+     *
+     * @param rgb the rows of the shared raster
+     * @param left the column of the raster where this view starts
+     * @param top the row of the raster where this view starts
+     * @param width the width of this view
+     * @param height the height of this view
+     */
+    ViewImageRGB(final int[][] rgb, final int left, final int top,
+        final int width, final int height) {
+
+        this.rgb    = rgb;
+        this.left   = left;
+        this.top    = top;
+        this.width  = width;
+        this.height = height;
+    }
+
+    // ------------------------------------------------------------------------
+    // ImageRGB ---------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get an RGB value.
+     *
+     * @param x the column location
+     * @param y the row location
+     * @return the RGB value
+     */
+    @Override
+    public int getRGB(final int x, final int y) {
+        return rgb[top + y][left + x];
+    }
+
+    /**
+     * Set an RGB value.  This changes the shared raster.
+     *
+     * @param x   the column location
+     * @param y   the row location
+     * @param rgb the new RGB value
+     */
+    @Override
+    public void setRGB(final int x, final int y, final int rgb) {
+        this.rgb[top + y][left + x] = rgb;
+    }
+
+    /**
+     * Retrieves the RGB values of a rectangular region of the image.
+     *
+     * @param startX   the starting X-coordinate of the region
+     * @param startY   the starting Y-coordinate of the region
+     * @param w        the width of the region
+     * @param h        the height of the region
+     * @param rgbArray an optional pre-existing array to store the RGB values,
+     *                 or {@code null} to create a new array
+     * @param offset   the starting index in the array at which to write RGB values
+     * @param scansize the number of array entries per row of the rectangular region
+     * @return an integer array containing the RGB values of the specified region
+     * @throws IllegalArgumentException if the specified region dimensions are invalid
+     *                                  or extend beyond the bounds of the image
+     */
+    @Override
+    public int[] getRGB(final int startX, final int startY, final int w,
+        final int h, final int[] rgbArray, final int offset,
+        final int scansize) {
+
+        checkRegion(startX, startY, w, h);
+        int[] result = rgbArray;
+        if (result == null) {
+            result = new int[offset + h * scansize];
+        }
+        for (int row = 0; row < h; row++) {
+            System.arraycopy(rgb[top + startY + row], left + startX, result,
+                offset + row * scansize, w);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the RGB values for a rectangular region of the image.  This
+     * changes the shared raster.
+     *
+     * @param startX   the starting X-coordinate of the region to be updated
+     * @param startY   the starting Y-coordinate of the region to be updated
+     * @param w        the width of the region
+     * @param h        the height of the region
+     * @param rgbArray an array containing the RGB values that will be set in the region
+     * @param offset   the starting index in the array from which RGB values should be read
+     * @param scanSize the number of array entries per row of the region
+     * @throws IllegalArgumentException if the specified region dimensions are invalid or extend
+     *                                  beyond the bounds of the image
+     */
+    @Override
+    public void setRGB(final int startX, final int startY, final int w,
+        final int h, final int[] rgbArray, final int offset,
+        final int scanSize) {
+
+        checkRegion(startX, startY, w, h);
+        for (int row = 0; row < h; row++) {
+            System.arraycopy(rgbArray, offset + row * scanSize,
+                rgb[top + startY + row], left + startX, w);
+        }
+    }
+
+    /**
+     * Alpha-blend another image over this one.  This changes the shared
+     * raster.
+     *
+     * @param image the other image
+     * @param alpha a number between 0 and 1
+     */
+    @Override
+    public void alphaBlendOver(final ImageRGB image, final double alpha) {
+        ArrayImageRGB blended = new ArrayImageRGB(this);
+        blended.alphaBlendOver(image, alpha);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            blended.getRGB(0, y, width, 1, row, 0, width);
+            System.arraycopy(row, 0, rgb[top + y], left, width);
+        }
+    }
+
+    /**
+     * Extracts a copy of a rectangle of this image.  As with
+     * ArrayImageRGB, the parts of the rectangle outside this image are
+     * left 0.
+     *
+     * @param x the x-coordinate of the upper-left corner of the subimage
+     * @param y the y-coordinate of the upper-left corner of the subimage
+     * @param w the width of the subimage in pixels
+     * @param h the height of the subimage in pixels
+     * @return a new ImageRGB containing the specified subimage
+     * @throws IllegalArgumentException if the specified dimensions are invalid
+     */
+    @Override
+    public ImageRGB getSubimage(final int x, final int y, final int w,
+        final int h) {
+
+        if (x < 0 || y < 0 || w <= 0 || h <= 0) {
+            throw new IllegalArgumentException("Invalid subimage dimensions");
+        }
+        ArrayImageRGB subimage = new ArrayImageRGB(w, h);
+        int copyWidth = Math.min(w, width - x);
+        int copyHeight = Math.min(h, height - y);
+        if (copyWidth > 0 && copyHeight > 0) {
+            subimage.setRGB(0, 0, copyWidth, copyHeight,
+                getRGB(x, y, copyWidth, copyHeight, null, 0, copyWidth),
+                0, copyWidth);
+        }
+        return subimage;
+    }
+
+    /**
+     * Get a view of a rectangle of this image, sharing the same raster.
+     *
+     * @param x the x-coordinate of the upper-left corner of the view
+     * @param y the y-coordinate of the upper-left corner of the view
+     * @param w the width of the view in pixels
+     * @param h the height of the view in pixels
+     * @return the view
+     * @throws IllegalArgumentException if the rectangle is not inside this
+     * image
+     */
+    @Override
+    public ImageRGB getView(final int x, final int y, final int w,
+        final int h) {
+
+        checkRegion(x, y, w, h);
+        return new ViewImageRGB(rgb, left + x, top + y, w, h);
+    }
+
+    /**
+     * Retrieves the width of the image in pixels.
+     *
+     * @return the width of the image as an integer
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retrieves the height of the image in pixels.
+     *
+     * @return the height of the image as an integer
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Fills a rectangular area of the image with a specified color.  This
+     * changes the shared raster.
+     *
+     * @param startX the starting x-coordinate of the fill area
+     * @param startY the starting y-coordinate of the fill area
+     * @param width the width of the fill area
+     * @param height the height of the fill area
+     * @param color the color to fill the area with
+     */
+    @Override
+    public void fillRect(final int startX, final int startY, final int width,
+        final int height, final int color) {
+
+        if (startX < 0 || startY < 0 || startX + width > this.width
+            || startY + height > this.height
+        ) {
+            throw new IllegalArgumentException("Invalid fill rectangle dimensions");
+        }
+        for (int row = startY; row < startY + height; row++) {
+            Arrays.fill(rgb[top + row], left + startX, left + startX + width,
+                color);
+        }
+    }
+
+    /**
+     * Scales this image to the specified dimensions.
+     *
+     * @param newWidth  the target width in pixels
+     * @param newHeight the target height in pixels
+     * @return a new ImageRGB with the specified dimensions
+     * @throws IllegalArgumentException if dimensions are not positive
+     */
+    @Override
+    public ImageRGB scale(final int newWidth, final int newHeight) {
+        return new ArrayImageRGB(this).scale(newWidth, newHeight);
+    }
+
+    /**
+     * Rotates the image 90 degrees clockwise or counter-clockwise.
+     *
+     * @param clockwise number of turns clockwise
+     * @return a new ImageRGB containing the rotated image
+     */
+    @Override
+    public ImageRGB rotate(final int clockwise) {
+        return new ArrayImageRGB(this).rotate(clockwise);
+    }
+
+    /**
+     * Resizes the canvas to the specified dimensions.
+     *
+     * @param newWidth the new width in pixels
+     * @param newHeight the new height in pixels
+     * @param backgroundColor the RGB color to use for filling extra space
+     * @return a new ImageRGB with the specified dimensions
+     */
+    @Override
+    public ImageRGB resizeCanvas(final int newWidth, final int newHeight,
+        final int backgroundColor) {
+
+        return new ArrayImageRGB(this).resizeCanvas(newWidth, newHeight,
+            backgroundColor);
+    }
+
+    // ------------------------------------------------------------------------
+    // ViewImageRGB -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Check if another view starts right where this one ends, in the same
+     * rows of the same raster.
+     *
+     * @param right the other view
+     * @return true if the two views can be joined into one
+     */
+    public boolean isLeftOf(final ViewImageRGB right) {
+        return (right.rgb == rgb)
+            && (right.top == top)
+            && (right.height == height)
+            && (right.left == left + width);
+    }
+
+    /**
+     * Get a view spanning this one and the views to its right.
+     *
+     * @param width the width of the joined view, in pixels
+     * @return the joined view
+     * @see #isLeftOf(ViewImageRGB)
+     */
+    public ViewImageRGB extendRight(final int width) {
+        if (left + width > rgb[top].length) {
+            throw new IllegalArgumentException("Invalid view width");
+        }
+        return new ViewImageRGB(rgb, left, top, width, height);
+    }
+
+    /**
+     * Check that a region is inside this view.
+     *
+     * @param x the x-coordinate of the upper-left corner of the region
+     * @param y the y-coordinate of the upper-left corner of the region
+     * @param w the width of the region
+     * @param h the height of the region
+     * @throws IllegalArgumentException if the region is not inside this view
+     */
+    private void checkRegion(final int x, final int y, final int w,
+        final int h) {
+
+        if (x < 0 || y < 0 || w <= 0 || h <= 0 || x + w > width
+            || y + h > height
+        ) {
+            throw new IllegalArgumentException("Invalid region dimensions");
+        }
+    }
+
+}
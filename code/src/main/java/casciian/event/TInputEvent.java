@@ -66,6 +66,17 @@ public abstract class TInputEvent {
         return time;
     }
 
+    /**
+     * Set time.  This is used when replaying a recorded session, so that
+     * things like double-click detection see the original spacing between
+     * events.
+     *
+     * @param time the time that this event was generated
+     */
+    public final void setTime(final Date time) {
+        this.time = time;
+    }
+
     /**
      * Get the backend that generated this event.
      *
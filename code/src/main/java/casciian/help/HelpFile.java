@@ -14,29 +14,39 @@
  */
 package casciian.help;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.regex.Matcher;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
 import java.util.regex.Pattern;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.xml.sax.SAXException;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * A HelpFile is a collection of Topics with a table of contents and index of
  * relevant terms.
+ *
+ * <p>Loading a help file only streams through the XML to find the topic
+ * titles.  A topic's text is read back from the file the first time the
+ * topic is asked for, and the most recently used topics are kept.  The
+ * index and the search index need every topic's text, so they are built by
+ * one more pass over the file the first time they are needed.</p>
  */
 public class HelpFile {
 
@@ -49,6 +59,51 @@ public class HelpFile {
      */
     public static final String RESOURCE_BUNDLE_NAME = HelpFile.class.getName() + "Bundle";
 
+    /**
+     * The number of parsed topics to keep.
+     */
+    private static final int TOPIC_CACHE_SIZE = 32;
+
+    /**
+     * Where the XML of a help file can be read from, as many times as
+     * needed.
+     */
+    private interface Source {
+        /**
+         * Open the XML.
+         *
+         * @return the stream, positioned at the start of the XML
+         * @throws IOException if an I/O error occurs
+         */
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Receives topics as a pass over the XML reads them.
+     */
+    private interface TopicHandler {
+        /**
+         * Receive a topic.
+         *
+         * @param ordinal the position of the topic in the file, counting
+         * from 0
+         * @param title the topic title
+         * @param text the raw topic text, or null if the pass does not read
+         * topic text
+         */
+        void topic(int ordinal, String title, String text);
+    }
+
+    /**
+     * scan() mode that reads the header and the titles, but no topic text.
+     */
+    private static final int SCAN_TITLES = -2;
+
+    /**
+     * scan() mode that reads every topic's text.
+     */
+    private static final int SCAN_ALL = -1;
+
     // ------------------------------------------------------------------------
     // Variables --------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -58,20 +113,49 @@ public class HelpFile {
      */
     private static final ResourceBundle i18n = ResourceBundle.getBundle(RESOURCE_BUNDLE_NAME);
 
+    /**
+     * The help.xml of each class loader, loaded once and shared by every
+     * TApplication in the JVM.  A HelpFile is not changed after load().
+     */
+    private static final Map<ClassLoader, HelpFile> DEFAULTS =
+        new WeakHashMap<>();
+
     /**
      * The XML factory.
      */
-    private DocumentBuilder domBuilder;
+    private XMLInputFactory xmlFactory;
 
     /**
-     * The map of topics by title.
+     * Where to read topic text from, or null if nothing was loaded.
      */
-    private HashMap<String, Topic> topicsByTitle;
+    private Source source;
 
     /**
-     * The map of topics by index key term.
+     * The position of each topic in the file, by title.
      */
-    private HashMap<String, Topic> topicsByTerm;
+    private Map<String, Integer> topicOrdinals = new HashMap<>();
+
+    /**
+     * The most recently used topics, by title.
+     */
+    private Map<String, Topic> topicCache = new LinkedHashMap<>(16, 0.75f,
+        true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String,
+            Topic> eldest) {
+
+            return size() > TOPIC_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * The inverted index of topic words used by getSearchResults(), or null
+     * if it has not been built yet.
+     */
+    private SearchIndex searchIndex;
 
     /**
      * The special "table of contents" topic.
@@ -79,7 +163,7 @@ public class HelpFile {
     private Topic tableOfContents;
 
     /**
-     * The special "index" topic.
+     * The special "index" topic, or null if it has not been built yet.
      */
     private Topic index;
 
@@ -117,7 +201,8 @@ public class HelpFile {
     // ------------------------------------------------------------------------
 
     /**
-     * Load a help file from an input stream.
+     * Load a help file from an input stream.  The stream is read to the
+     * end, and its bytes are kept to read topics from later.
      *
      * @param input the input strem
      * @throws IOException if an I/O error occurs
@@ -127,19 +212,58 @@ public class HelpFile {
     public void load(final InputStream input) throws IOException,
                                 ParserConfigurationException, SAXException {
 
-        topicsByTitle = new HashMap<>();
-        topicsByTerm = new HashMap<>();
+        // Null check, in case input was loaded from ClassLoader from a file
+        // not actually on the classpath.
+        if (input == null) {
+            load((Source) null);
+            return;
+        }
+        final byte [] bytes = input.readAllBytes();
+        load(() -> new ByteArrayInputStream(bytes));
+    }
 
-        try {
-            // Null check, in case input was loaded from ClassLoader from a
-            // file not actually on the classpath.
-            if (input != null) {
-                loadTopics(input);
+    /**
+     * Load a help file from a file.  The file is opened again to read
+     * topics later, and must not change while this HelpFile is in use.
+     *
+     * @param path the file
+     * @throws IOException if an I/O error occurs
+     * @throws ParserConfigurationException if no XML parser is available
+     * @throws SAXException if XML parsing fails
+     */
+    public void load(final Path path) throws IOException,
+                                ParserConfigurationException, SAXException {
+
+        load(() -> Files.newInputStream(path));
+    }
+
+    /**
+     * Get the help file named help.xml on a class loader's classpath.  It
+     * is loaded the first time it is asked for, and the same instance is
+     * returned after that.
+     *
+     * @param loader the class loader
+     * @return the help file, empty if there is no help.xml
+     * @throws IOException if an I/O error occurs
+     * @throws ParserConfigurationException if no XML parser is available
+     * @throws SAXException if XML parsing fails
+     */
+    public static HelpFile getDefault(final ClassLoader loader)
+        throws IOException, ParserConfigurationException, SAXException {
+
+        synchronized (DEFAULTS) {
+            HelpFile helpFile = DEFAULTS.get(loader);
+            if (helpFile == null) {
+                helpFile = new HelpFile();
+                URL url = loader.getResource("help.xml");
+                if (url == null) {
+                    helpFile.load((Source) null);
+                } else {
+                    helpFile.load(url::openStream);
+                }
+                DEFAULTS.put(loader, helpFile);
             }
-        } finally {
-            // Always generate the TOC and Index from what was read.
-            generateTableOfContents();
-            generateIndex();
+            return helpFile;
         }
     }
 
@@ -149,61 +273,56 @@ public class HelpFile {
      * @param title the title for the topic
      * @return the topic, or the "not found" topic if title is not found
      */
-    public Topic getTopic(final String title) {
-        Topic topic = topicsByTitle.get(title);
-        if (topic == null) {
+    public synchronized Topic getTopic(final String title) {
+        Topic topic = topicCache.get(title);
+        if (topic != null) {
+            return topic;
+        }
+        Integer ordinal = topicOrdinals.get(title);
+        if (ordinal == null) {
+            return Topic.NOT_FOUND;
+        }
+        final Topic [] found = new Topic[1];
+        rescan(ordinal, (n, topicTitle, text) -> {
+            found[0] = new Topic(topicTitle, text);
+        });
+        if (found[0] == null) {
             return Topic.NOT_FOUND;
         }
-        return topic;
+        topicCache.put(title, found[0]);
+        return found[0];
     }
 
     /**
-     * Get the special "search results" topic.
+     * Get the special "search results" topic.  A search string of plain
+     * words is looked up in the search index: topics must contain every
+     * word, or a word starting with it, and are ranked by how often the
+     * words appear, titles counting most.  Anything else, or a plain search
+     * that the index finds nothing for, is matched as a regular expression
+     * against every topic.
      *
-     * @param searchString a regular expression search string
+     * @param searchString words or a regular expression to search for
      * @return an index topic containing topics with text that matches the
      * search string
      */
-    public Topic getSearchResults(final String searchString) {
-        List<Topic> allTopics = new ArrayList<>();
-        allTopics.addAll(topicsByTitle.values());
-        Collections.sort(allTopics);
-
-        List<Topic> results = new ArrayList<>();
-        Pattern pattern = Pattern.compile(searchString);
-        Pattern patternLower = Pattern.compile(searchString.toLowerCase());
-
-        for (Topic topic: allTopics) {
-            Matcher match = pattern.matcher(topic.getText().toLowerCase());
-            if (match.find()) {
-                results.add(topic);
-                continue;
-            }
-            match = pattern.matcher(topic.getTitle().toLowerCase());
-            if (match.find()) {
-                results.add(topic);
-                continue;
-            }
-            match = patternLower.matcher(topic.getText().toLowerCase());
-            if (match.find()) {
-                results.add(topic);
-                continue;
-            }
-            match = patternLower.matcher(topic.getTitle().toLowerCase());
-            if (match.find()) {
-                results.add(topic);
-                continue;
-            }
+    public synchronized Topic getSearchResults(final String searchString) {
+        List<String> results = new ArrayList<>();
+        if (SearchIndex.isPlain(searchString)) {
+            generateIndexes();
+            results = searchIndex.search(searchString);
+        }
+        if (results.isEmpty()) {
+            results = getRegexSearchResults(searchString);
         }
 
         StringBuilder text = new StringBuilder();
         int wordIndex = 0;
         List<Link> links = new ArrayList<>();
-        for (Topic topic: results) {
-            text.append(topic.getTitle());
+        for (String title: results) {
+            text.append(title);
             text.append("\n\n");
 
-            Link link = new Link(topic.getTitle(), topic.getTitle(), wordIndex);
+            Link link = new Link(title, title, wordIndex);
             wordIndex += link.getWordCount();
             links.add(link);
         }
@@ -212,6 +331,39 @@ public class HelpFile {
                 searchString), text.toString(), links);
     }
 
+    /**
+     * Find the topics whose title or text matches a regular expression.
+     * This reads every topic from the file.
+     *
+     * @param searchString a regular expression search string
+     * @return the titles of the matching topics, sorted
+     */
+    private List<String> getRegexSearchResults(final String searchString) {
+        final List<String> results = new ArrayList<>();
+        final Pattern pattern = Pattern.compile(searchString);
+        final Pattern patternLower = Pattern.compile(searchString.
+            toLowerCase());
+
+        rescan(SCAN_ALL, (ordinal, title, text) -> {
+            if (topicOrdinals.get(title) != ordinal) {
+                // A later topic with the same title replaced this one.
+                return;
+            }
+            Topic topic = new Topic(title, text);
+            String lowerText = topic.getText().toLowerCase();
+            String lowerTitle = title.toLowerCase();
+            if (pattern.matcher(lowerText).find()
+                || pattern.matcher(lowerTitle).find()
+                || patternLower.matcher(lowerText).find()
+                || patternLower.matcher(lowerTitle).find()
+            ) {
+                results.add(title);
+            }
+        });
+        Collections.sort(results);
+        return results;
+    }
+
     /**
      * Get the special "table of contents" topic.
      *
@@ -226,26 +378,60 @@ public class HelpFile {
      *
      * @return the index topic
      */
-    public Topic getIndex() {
+    public synchronized Topic getIndex() {
+        generateIndexes();
         return index;
     }
 
+    /**
+     * Load a help file: read the header and the topic titles.
+     *
+     * @param source where to read the XML from, or null for an empty help
+     * file
+     * @throws IOException if an I/O error occurs
+     * @throws SAXException if XML parsing fails
+     */
+    private synchronized void load(final Source source) throws IOException,
+                                                        SAXException {
+
+        this.source = source;
+        topicOrdinals = new HashMap<>();
+        topicCache.clear();
+        searchIndex = null;
+        index = null;
+
+        try {
+            if (source != null) {
+                scan(SCAN_TITLES, (ordinal, title, text) -> {
+                    topicOrdinals.put(title, ordinal);
+                });
+            }
+        } catch (IOException | SAXException e) {
+            // Whatever was read cannot be read back later.
+            this.source = null;
+            topicOrdinals = new HashMap<>();
+            throw e;
+        } finally {
+            // Always generate the TOC from what was read.
+            generateTableOfContents();
+        }
+    }
+
     /**
      * Generate the table of contents topic.
      */
     private void generateTableOfContents() {
-        List<Topic> allTopics = new ArrayList<>();
-        allTopics.addAll(topicsByTitle.values());
-        Collections.sort(allTopics);
+        List<String> titles = new ArrayList<>(topicOrdinals.keySet());
+        Collections.sort(titles);
 
         StringBuilder text = new StringBuilder();
         int wordIndex = 0;
         List<Link> links = new ArrayList<>();
-        for (Topic topic: allTopics) {
-            text.append(topic.getTitle());
+        for (String title: titles) {
+            text.append(title);
             text.append("\n\n");
 
-            Link link = new Link(topic.getTitle(), topic.getTitle(), wordIndex);
+            Link link = new Link(title, title, wordIndex);
             wordIndex += link.getWordCount();
             links.add(link);
         }
@@ -255,131 +441,244 @@ public class HelpFile {
     }
 
     /**
-     * Generate the index topic.
+     * Generate the index topic and the search index, if they have not been
+     * generated yet.  This reads every topic from the file.
      */
-    private void generateIndex() {
-        List<Topic> allTopics = new ArrayList<>();
-        allTopics.addAll(topicsByTitle.values());
+    private void generateIndexes() {
+        if (index != null) {
+            return;
+        }
 
-        HashMap<String, ArrayList<Topic>> allKeys;
-        allKeys = new HashMap<>();
-        for (Topic topic: allTopics) {
+        final SearchIndex newSearchIndex = new SearchIndex();
+        final Map<String, List<String>> allKeys = new TreeMap<>();
+        rescan(SCAN_ALL, (ordinal, title, text) -> {
+            if (topicOrdinals.get(title) != ordinal) {
+                // A later topic with the same title replaced this one.
+                return;
+            }
+            Topic topic = new Topic(title, text);
+            newSearchIndex.add(title, topic.getText());
             for (String key: topic.getIndexKeys()) {
                 key = key.toLowerCase();
-                ArrayList<Topic> topics = allKeys.get(key);
-                if (topics == null) {
-                    topics = new ArrayList<>();
-                    allKeys.put(key, topics);
+                List<String> titles = allKeys.get(key);
+                if (titles == null) {
+                    titles = new ArrayList<>();
+                    allKeys.put(key, titles);
                 }
-                topics.add(topic);
+                titles.add(title);
             }
-        }
-        List<String> keys = new ArrayList<>();
-        keys.addAll(allKeys.keySet());
-        Collections.sort(keys);
+        });
 
         StringBuilder text = new StringBuilder();
         int wordIndex = 0;
         List<Link> links = new ArrayList<>();
 
-        for (String key: keys) {
-            List<Topic> topics = allKeys.get(key);
-            assert (topics != null);
-            for (Topic topic: topics) {
-                String line = String.format("%15s %15s", key, topic.getTitle());
+        for (Map.Entry<String, List<String>> entry: allKeys.entrySet()) {
+            String key = entry.getKey();
+            for (String title: entry.getValue()) {
+                String line = String.format("%15s %15s", key, title);
                 text.append(line);
                 text.append("\n\n");
 
                 wordIndex += key.split("\\s+").length;
-                Link link = new Link(topic.getTitle(), topic.getTitle(), wordIndex);
+                Link link = new Link(title, title, wordIndex);
                 wordIndex += link.getWordCount();
                 links.add(link);
             }
         }
 
+        searchIndex = newSearchIndex;
         index = new Topic(i18n.getString("index"), text.toString(), links);
     }
 
     /**
-     * Load topics from a help file into the topics pool.
+     * Read topics again after load().
      *
-     * @param input the input strem
+     * @param wanted the ordinal of the one topic to read, or SCAN_ALL
+     * @param handler receives the topics
+     * @throws IllegalStateException if the help file can no longer be read
+     */
+    private void rescan(final int wanted, final TopicHandler handler) {
+        if (source == null) {
+            return;
+        }
+        try {
+            scan(wanted, handler);
+        } catch (IOException | SAXException e) {
+            // load() read this file without trouble.
+            throw new IllegalStateException("help file changed since it " +
+                "was loaded", e);
+        }
+    }
+
+    /**
+     * Stream through the XML, passing topics to a handler.
+     *
+     * @param wanted the ordinal of the one topic to read and stop at,
+     * SCAN_ALL to read every topic, or SCAN_TITLES to read the header and
+     * every title but no topic text
+     * @param handler receives the topics that have a title
      * @throws IOException if an I/O error occurs
-     * @throws ParserConfigurationException if no XML parser is available
      * @throws SAXException if XML parsing fails
      */
-    private void loadTopics(final InputStream input) throws IOException,
-                                ParserConfigurationException, SAXException {
+    private void scan(final int wanted, final TopicHandler handler)
+        throws IOException, SAXException {
 
-        if (domBuilder == null) {
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.
-                                                                newInstance();
-            domBuilder = dbFactory.newDocumentBuilder();
+        if (xmlFactory == null) {
+            xmlFactory = XMLInputFactory.newInstance();
+            xmlFactory.setProperty(
+                XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
         }
-        Document doc = domBuilder.parse(input);
-
-        // Get the document's root XML node
-        Node root = doc.getChildNodes().item(0);
-        NodeList level1 = root.getChildNodes();
-        for (int i = 0; i < level1.getLength(); i++) {
-            Node node = level1.item(i);
-            String topicName = node.getNodeName();
-            String value = node.getTextContent();
-
-            if (topicName.equals("name")) {
-                this.name = value;
-            }
-            if (topicName.equals("version")) {
-                this.version = value;
-            }
-            if (topicName.equals("author")) {
-                this.author = value;
-            }
-            if (topicName.equals("date")) {
-                this.date = value;
-            }
-            if (topicName.equals("topics")) {
-                NodeList topics = node.getChildNodes();
-                for (int j = 0; j < topics.getLength(); j++) {
-                    Node topic = topics.item(j);
-                    addTopic(topic);
+
+        try (InputStream input = source.open()) {
+            XMLStreamReader xml = xmlFactory.createXMLStreamReader(input);
+            try {
+                int ordinal = 0;
+                // 1 is the document's root XML node
+                int depth = 0;
+                boolean inTopics = false;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                        if (depth == 1) {
+                            inTopics = false;
+                        }
+                        continue;
+                    }
+                    if (event != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    depth++;
+                    String nodeName = xml.getLocalName();
+
+                    if ((depth == 2) && (wanted == SCAN_TITLES)) {
+                        switch (nodeName) {
+                        case "name":
+                            this.name = readText(xml, true);
+                            depth--;
+                            break;
+                        case "version":
+                            this.version = readText(xml, true);
+                            depth--;
+                            break;
+                        case "author":
+                            this.author = readText(xml, true);
+                            depth--;
+                            break;
+                        case "date":
+                            this.date = readText(xml, true);
+                            depth--;
+                            break;
+                        default:
+                            break;
+                        }
+                    }
+                    if ((depth == 2) && nodeName.equals("topics")) {
+                        inTopics = true;
+                        continue;
+                    }
+                    if ((depth != 3) || !inTopics) {
+                        continue;
+                    }
+
+                    // This is a topic.
+                    int thisOrdinal = ordinal++;
+                    if ((wanted >= 0) && (thisOrdinal != wanted)) {
+                        readText(xml, false);
+                        depth--;
+                        continue;
+                    }
+                    String title = xml.getAttributeValue(null, "title");
+                    title = (title == null ? "" : title.trim());
+                    String text = null;
+                    if (wanted == SCAN_TITLES) {
+                        readText(xml, false);
+                    } else {
+                        text = readTopicText(xml);
+                    }
+                    depth--;
+                    if (title.length() > 0) {
+                        handler.topic(thisOrdinal, title, text);
+                    }
+                    if (wanted >= 0) {
+                        return;
+                    }
                 }
+            } finally {
+                xml.close();
             }
+        } catch (XMLStreamException e) {
+            throw new SAXException(e);
         }
     }
 
     /**
-     * Add a topic to this help file.
+     * Read the text of the topic element the reader is on, up to the end
+     * of the topic.
      *
-     * @param xmlNode the topic XML node
-     * @throws IOException if a java.io operation throws
+     * @param xml the reader, on the topic's start element
+     * @return the trimmed content of the topic's text element, or an empty
+     * string if it has none
+     * @throws XMLStreamException if XML parsing fails
      */
-    private void addTopic(final Node xmlNode) throws IOException {
-        String title = "";
-        String text = "";
+    private String readTopicText(final XMLStreamReader xml)
+        throws XMLStreamException {
 
-        NamedNodeMap attributes = xmlNode.getAttributes();
-        if (attributes != null) {
-            for (int i = 0; i < attributes.getLength(); i++) {
-                Node attr = attributes.item(i);
-                if (attr.getNodeName().equals("title")) {
-                    title = attr.getNodeValue().trim();
+        String text = "";
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ((depth == 1) && xml.getLocalName().equals("text")) {
+                    text = readText(xml, true).trim();
+                } else {
+                    depth++;
                 }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
             }
         }
-        NodeList level2 = xmlNode.getChildNodes();
-        for (int i = 0; i < level2.getLength(); i++) {
-            Node node = level2.item(i);
-            String nodeName = node.getNodeName();
-            String nodeValue = node.getTextContent();
-            if (nodeName.equals("text")) {
-                text = nodeValue.trim();
+        return text;
+    }
+
+    /**
+     * Read the text content of the element the reader is on, including the
+     * text of any elements inside it, leaving the reader on the element's
+     * end.
+     *
+     * @param xml the reader, on a start element
+     * @param keep if false, skip the element without collecting its text
+     * @return the text content, or null if keep is false
+     * @throws XMLStreamException if XML parsing fails
+     */
+    private String readText(final XMLStreamReader xml, final boolean keep)
+        throws XMLStreamException {
+
+        StringBuilder sb = (keep ? new StringBuilder() : null);
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                depth++;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                depth--;
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+            case XMLStreamConstants.ENTITY_REFERENCE:
+                if (keep) {
+                    sb.append(xml.getText());
+                }
+                break;
+            default:
+                break;
             }
         }
-        if (title.length() > 0) {
-            Topic topic = new Topic(title, text);
-            topicsByTitle.put(title, topic);
-        }
+        return (keep ? sb.toString() : null);
     }
 
 }
@@ -0,0 +1,242 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.help;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SearchIndex is an inverted index of the words in a help file's topics.
+ * It maps each lowercased word to the topics that use it, so that a search
+ * only looks at the topics containing the query words instead of running a
+ * regex over every topic.
+ *
+ * <p>Results are ranked by how often the query words appear in a topic,
+ * with words in the title counting {@code TITLE_WEIGHT} times as much as
+ * words in the text.  A query word also matches the words it is a prefix
+ * of, at half the weight of an exact match.  A topic must match every
+ * query word.</p>
+ */
+final class SearchIndex {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * How much more a word in the title counts than a word in the text.
+     */
+    private static final int TITLE_WEIGHT = 10;
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Topic titles, by topic number.
+     */
+    private final List<String> titles = new ArrayList<>();
+
+    /**
+     * The postings of each word: pairs of (topic number, weight) packed
+     * into an int list as consecutive entries.
+     */
+    private final Map<String, IntList> postings = new HashMap<>();
+
+    /**
+     * All words in sorted order, for prefix matching.  Rebuilt on the
+     * first search after a topic is added.
+     */
+    private String [] words = null;
+
+    /**
+     * A growable list of ints, so that postings are not boxed.
+     */
+    private static final class IntList {
+
+        /**
+         * The values, of which only the first size are used.
+         */
+        private int [] values = new int[4];
+
+        /**
+         * The number of values in the list.
+         */
+        private int size = 0;
+
+        /**
+         * Append a value.
+         *
+         * @param value the value
+         */
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Package private constructor.
+     */
+    SearchIndex() {}
+
+    // ------------------------------------------------------------------------
+    // SearchIndex ------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Check if a search string can be answered by the index: it is made of
+     * only letters, digits, and whitespace.  Anything else is treated as a
+     * regular expression.
+     *
+     * @param searchString the search string
+     * @return true if the index can answer it
+     */
+    static boolean isPlain(final String searchString) {
+        for (int i = 0; i < searchString.length(); ) {
+            int ch = searchString.codePointAt(i);
+            if (!Character.isLetterOrDigit(ch) && !Character.isWhitespace(ch)) {
+                return false;
+            }
+            i += Character.charCount(ch);
+        }
+        return true;
+    }
+
+    /**
+     * Add a topic to the index.
+     *
+     * @param title the topic title
+     * @param text the topic text
+     */
+    void add(final String title, final String text) {
+        int topic = titles.size();
+        titles.add(title);
+
+        Map<String, Integer> weights = new HashMap<>();
+        for (String word: tokenize(title)) {
+            weights.merge(word, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String word: tokenize(text)) {
+            weights.merge(word, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry: weights.entrySet()) {
+            IntList list = postings.computeIfAbsent(entry.getKey(),
+                k -> new IntList());
+            list.add(topic);
+            list.add(entry.getValue());
+        }
+        words = null;
+    }
+
+    /**
+     * Find the topics matching every word of a search string.
+     *
+     * @param searchString the search string, see isPlain()
+     * @return the titles of the matching topics, best match first
+     */
+    List<String> search(final String searchString) {
+        List<String> query = tokenize(searchString);
+        List<String> results = new ArrayList<>();
+        if (query.isEmpty()) {
+            return results;
+        }
+        if (words == null) {
+            words = postings.keySet().toArray(new String[0]);
+            Arrays.sort(words);
+        }
+
+        int [] scores = null;
+        for (String prefix: query) {
+            int [] wordScores = new int[titles.size()];
+            int i = Arrays.binarySearch(words, prefix);
+            if (i < 0) {
+                i = -(i + 1);
+            }
+            for (; (i < words.length) && words[i].startsWith(prefix); i++) {
+                int factor = words[i].length() == prefix.length() ? 2 : 1;
+                IntList list = postings.get(words[i]);
+                for (int j = 0; j < list.size; j += 2) {
+                    wordScores[list.values[j]] += list.values[j + 1] * factor;
+                }
+            }
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                for (int topic = 0; topic < scores.length; topic++) {
+                    if ((scores[topic] > 0) && (wordScores[topic] > 0)) {
+                        scores[topic] += wordScores[topic];
+                    } else {
+                        scores[topic] = 0;
+                    }
+                }
+            }
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        for (int topic = 0; topic < scores.length; topic++) {
+            if (scores[topic] > 0) {
+                matches.add(topic);
+            }
+        }
+        final int [] finalScores = scores;
+        matches.sort((a, b) -> {
+            if (finalScores[a] != finalScores[b]) {
+                return Integer.compare(finalScores[b], finalScores[a]);
+            }
+            return titles.get(a).compareTo(titles.get(b));
+        });
+        for (Integer topic: matches) {
+            results.add(titles.get(topic));
+        }
+        return results;
+    }
+
+    /**
+     * Split text into lowercased words: runs of letters and digits.
+     *
+     * @param text the text
+     * @return the words
+     */
+    private static List<String> tokenize(final String text) {
+        List<String> result = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); ) {
+            int ch = (i < text.length()) ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(ch)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                result.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+            i += Character.charCount(ch);
+        }
+        return result;
+    }
+
+}
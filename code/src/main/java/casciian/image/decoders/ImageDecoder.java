@@ -15,6 +15,7 @@
  */
 package casciian.image.decoders;
 
+import casciian.bits.AnimatedImage;
 import casciian.bits.ImageRGB;
 
 import java.io.IOException;
@@ -96,6 +97,48 @@ public interface ImageDecoder {
         }
     }
 
+    /**
+     * Decode all frames of a possibly animated image from an
+     * {@link InputStream}.
+     *
+     * <p>The default implementation decodes a single image via
+     * {@link #decode(InputStream, String)} and wraps it as a one-frame
+     * animation.  Decoders for formats that can carry several frames should
+     * override this method.</p>
+     *
+     * @param inputStream the input stream containing image data; must not be {@code null}
+     * @param mimeType    the MIME type of the image, or {@code null} if unknown
+     * @return the decoded frames, at least one
+     * @throws IOException if an error occurs during decoding
+     */
+    default AnimatedImage decodeAnimation(InputStream inputStream,
+        String mimeType) throws IOException {
+
+        ImageRGB image = decode(inputStream, mimeType);
+        if (image == null) {
+            throw new IOException("No image could be decoded");
+        }
+        return AnimatedImage.of(image);
+    }
+
+    /**
+     * Decode all frames of a possibly animated image from a file path.
+     *
+     * @param path the path to the image file
+     * @return the decoded frames, at least one
+     * @throws IOException if an error occurs during decoding
+     */
+    default AnimatedImage decodeAnimation(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+
+        String mimeType = Files.probeContentType(path);
+        try (InputStream is = Files.newInputStream(path)) {
+            return decodeAnimation(is, mimeType);
+        }
+    }
+
     /**
      * Get the MIME types supported by this decoder.
      *
@@ -15,6 +15,7 @@
  */
 package casciian.image.decoders;
 
+import casciian.bits.AnimatedImage;
 import casciian.bits.ImageRGB;
 
 import java.io.IOException;
@@ -136,6 +137,21 @@ public class ImageDecoderRegistry {
         return decoder.decode(path);
     }
 
+    /**
+     * Decode all frames of a possibly animated image using the appropriate
+     * registered decoder.
+     *
+     * @param path the path to the image file
+     * @return the decoded frames, at least one
+     * @throws IOException if an error occurs during decoding
+     * @throws IllegalArgumentException if no decoder is found for the file
+     */
+    public AnimatedImage decodeAnimation(Path path) throws IOException {
+        ImageDecoder decoder = findDecoder(path).orElseThrow(
+            () -> new IllegalArgumentException("No decoder found for file: " + path.getFileName()));
+        return decoder.decodeAnimation(path);
+    }
+
     /**
      * Find a decoder that can handle the given MIME type.
      *
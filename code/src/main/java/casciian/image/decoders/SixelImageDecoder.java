@@ -15,11 +15,13 @@
  */
 package casciian.image.decoders;
 
+import casciian.bits.AnimatedImage;
 import casciian.bits.ImageRGB;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -41,6 +43,48 @@ public class SixelImageDecoder implements ImageDecoder {
         return decoder.getImage();
     }
 
+    /**
+     * Decode a sixel stream that may hold several images.  Sixel
+     * animations are plain concatenations of DCS sequences, one per frame,
+     * with no timing information, so every frame is shown for
+     * {@link AnimatedImage#DEFAULT_DELAY} milliseconds.
+     *
+     * @param inputStream the input stream containing sixel data
+     * @param mimeType the MIME type, ignored
+     * @return the decoded frames, at least one
+     * @throws IOException if no frame could be decoded
+     */
+    @Override
+    public AnimatedImage decodeAnimation(InputStream inputStream,
+        String mimeType) throws IOException {
+
+        String content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        String [] sequences = content.split("\033P");
+        List<ImageRGB> frames = new ArrayList<>(sequences.length);
+        if (sequences.length > 2) {
+            for (String sequence : sequences) {
+                if (sequence.isBlank()) {
+                    continue;
+                }
+                SixelDecoder decoder = new SixelDecoder(sequence, null, 0xFFFFFF, false);
+                ImageRGB frame = decoder.getImage();
+                if (frame != null) {
+                    frames.add(frame);
+                }
+            }
+        } else {
+            SixelDecoder decoder = new SixelDecoder(content, null, 0xFFFFFF, false);
+            ImageRGB image = decoder.getImage();
+            if (image != null) {
+                frames.add(image);
+            }
+        }
+        if (frames.isEmpty()) {
+            throw new IOException("No sixel image could be decoded");
+        }
+        return new AnimatedImage(frames, null, 0);
+    }
+
     @Override
     public List<String> getSupportedMimeTypes() {
         return List.of("image/x-sixel");
@@ -0,0 +1,497 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.net;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import casciian.TApplication;
+
+/**
+ * SessionHost runs one TApplication per connection to a server socket,
+ * all in one JVM.  Resources that do not change are already shared between
+ * applications: the Unicode width and grapheme tables, the grapheme cache,
+ * and the parsed help file.  What each session holds on its own, mostly
+ * its screen buffers and encoded image caches, is accounted for and
+ * limited:
+ *
+ * <ul>
+ * <li>casciian.SessionHost.maxSessions - the most sessions at once.
+ * Default: 256.</li>
+ * <li>casciian.SessionHost.sessionMemoryMB - the most memory one session
+ * may hold, in MiB.  A session over the limit first has its caches
+ * dropped, and is disconnected if that is not enough.  Default: 32.</li>
+ * <li>casciian.SessionHost.memoryMB - new connections are turned away
+ * while all sessions together hold more than this, in MiB.  Default:
+ * three quarters of the maximum heap.</li>
+ * </ul>
+ *
+ * <p>Memory use is an estimate from Screen.getMemoryUsage(), which counts
+ * cells and cached output rather than walking the heap.</p>
+ *
+ * <p>Each session also costs four platform threads: the session thread,
+ * which runs TApplication.run(), the application's screen and event
+ * handler threads, and the terminal's input reader.  A modal dialog adds
+ * a fifth while it is open.  These are not virtual threads because all
+ * of them wait in synchronized blocks, which on Java 21 pins the carrier
+ * thread, so a few idle sessions would use up the carriers and stall the
+ * rest.  Sizing maxSessions is therefore also sizing the thread count.</p>
+ */
+public class SessionHost implements Runnable {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Default for the most sessions at once.
+     */
+    private static final int DEFAULT_MAX_SESSIONS = 256;
+
+    /**
+     * Default for the most memory one session may hold, in MiB.
+     */
+    private static final long DEFAULT_SESSION_MEMORY_MB = 32;
+
+    /**
+     * Time between memory checks, in millis.
+     */
+    private static final long CHECK_INTERVAL = 5000;
+
+    /**
+     * Sent to a connection that is turned away.
+     */
+    private static final String BUSY_MESSAGE =
+        "\r\nThe server is busy, please try again later.\r\n";
+
+    // ------------------------------------------------------------------------
+    // Variables --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The server socket to accept connections on.
+     */
+    private final ServerSocket server;
+
+    /**
+     * Creates the application for each new connection.
+     */
+    private final ApplicationFactory factory;
+
+    /**
+     * The running sessions, by ID.
+     */
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * The ID of the next session.
+     */
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * The number of connections turned away.
+     */
+    private final AtomicLong refused = new AtomicLong();
+
+    /**
+     * The most sessions at once.
+     */
+    private int maxSessions = DEFAULT_MAX_SESSIONS;
+
+    /**
+     * The most memory one session may hold, in bytes.
+     */
+    private long sessionMemoryLimit = DEFAULT_SESSION_MEMORY_MB << 20;
+
+    /**
+     * The most memory all sessions together may hold before new
+     * connections are turned away, in bytes.
+     */
+    private long memoryLimit = Runtime.getRuntime().maxMemory() / 4 * 3;
+
+    /**
+     * Creates a TApplication for a new connection.
+     */
+    @FunctionalInterface
+    public interface ApplicationFactory {
+
+        /**
+         * Create the application for a connection.  The application should
+         * use the socket's streams; SessionHost runs it and closes the
+         * socket when it exits.
+         *
+         * @param socket the new connection
+         * @return the application
+         * @throws Exception if the application cannot be created, in which
+         * case the connection is closed
+         */
+        public TApplication newApplication(final Socket socket)
+            throws Exception;
+
+    }
+
+    /**
+     * One connection and its application.
+     */
+    public static final class Session {
+
+        /**
+         * The session ID, unique within the host.
+         */
+        private final long id;
+
+        /**
+         * The connection.
+         */
+        private final Socket socket;
+
+        /**
+         * The application, or null while it is being created.
+         */
+        private volatile TApplication application;
+
+        /**
+         * When the session started, in millis since the epoch.
+         */
+        private final long startTime;
+
+        /**
+         * Private constructor.
+         *
+         * @param id the session ID
+         * @param socket the connection
+         */
+        private Session(final long id, final Socket socket) {
+            this.id        = id;
+            this.socket    = socket;
+            this.startTime = System.currentTimeMillis();
+        }
+
+        /**
+         * Get the session ID.
+         *
+         * @return the ID
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Get the address of the remote user.
+         *
+         * @return the address
+         */
+        public SocketAddress getRemoteAddress() {
+            return socket.getRemoteSocketAddress();
+        }
+
+        /**
+         * Get the application.
+         *
+         * @return the application, or null if it is still being created
+         */
+        public TApplication getApplication() {
+            return application;
+        }
+
+        /**
+         * Get when the session started.
+         *
+         * @return the time in millis since the epoch
+         */
+        public long getStartTime() {
+            return startTime;
+        }
+
+        /**
+         * Estimate the memory this session holds.
+         *
+         * @return the estimate in bytes
+         */
+        public long getMemoryUsage() {
+            TApplication app = application;
+            if (app == null) {
+                return 0;
+            }
+            return app.getScreen().getMemoryUsage();
+        }
+
+        /**
+         * Tell the application to exit, if it has been created.
+         */
+        private void exit() {
+            TApplication app = application;
+            if (app != null) {
+                app.exit();
+            }
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Public constructor listens for telnet connections on a port.
+     *
+     * @param port the port number, or 0 to use a port number that is
+     * automatically allocated
+     * @param factory creates the application for each connection
+     * @throws IOException if the port cannot be opened
+     */
+    public SessionHost(final int port,
+        final ApplicationFactory factory) throws IOException {
+
+        this(new TelnetServerSocket(port), factory);
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param server the server socket to accept connections on, usually a
+     * TelnetServerSocket
+     * @param factory creates the application for each connection
+     */
+    public SessionHost(final ServerSocket server,
+        final ApplicationFactory factory) {
+
+        this.server  = server;
+        this.factory = factory;
+
+        try {
+            maxSessions = Math.max(1, Integer.parseInt(System.getProperty(
+                "casciian.SessionHost.maxSessions",
+                    Integer.toString(DEFAULT_MAX_SESSIONS))));
+        } catch (NumberFormatException e) {
+            // SQUASH
+        }
+        try {
+            sessionMemoryLimit = Math.max(1, Long.parseLong(
+                System.getProperty("casciian.SessionHost.sessionMemoryMB",
+                    Long.toString(DEFAULT_SESSION_MEMORY_MB)))) << 20;
+        } catch (NumberFormatException e) {
+            // SQUASH
+        }
+        String memoryMB = System.getProperty("casciian.SessionHost.memoryMB");
+        if (memoryMB != null) {
+            try {
+                memoryLimit = Math.max(1, Long.parseLong(memoryMB)) << 20;
+            } catch (NumberFormatException e) {
+                // SQUASH
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Runnable ---------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Accept connections until the server socket is closed.
+     */
+    @Override
+    public void run() {
+        Thread monitor = new Thread(this::monitor, "casciian-session-monitor");
+        monitor.setDaemon(true);
+        monitor.start();
+
+        try {
+            while (!server.isClosed()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (IOException e) {
+                    // The server socket was closed.
+                    break;
+                }
+                if ((sessions.size() >= maxSessions)
+                    || (getMemoryUsage() >= memoryLimit)
+                ) {
+                    refuse(socket);
+                } else {
+                    startSession(socket);
+                }
+            }
+        } finally {
+            monitor.interrupt();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // SessionHost ------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the port connections are accepted on.
+     *
+     * @return the port number
+     */
+    public int getLocalPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Get the running sessions.
+     *
+     * @return a snapshot of the sessions
+     */
+    public List<Session> getSessions() {
+        return List.copyOf(sessions.values());
+    }
+
+    /**
+     * Get the number of connections turned away because the host was full.
+     *
+     * @return the number of connections
+     */
+    public long getRefusedCount() {
+        return refused.get();
+    }
+
+    /**
+     * Estimate the memory all sessions hold.
+     *
+     * @return the estimate in bytes
+     */
+    public long getMemoryUsage() {
+        long bytes = 0;
+        for (Session session: sessions.values()) {
+            bytes += session.getMemoryUsage();
+        }
+        return bytes;
+    }
+
+    /**
+     * Stop accepting connections and tell every application to exit.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    public void close() throws IOException {
+        server.close();
+        for (Session session: sessions.values()) {
+            session.exit();
+        }
+    }
+
+    /**
+     * Create the application for a connection and run it, both on a new
+     * thread.  Creating an application can block on the connection, for
+     * example while a terminal answers queries, so it must not hold up
+     * accepting the next one.
+     *
+     * @param socket the connection
+     */
+    private void startSession(final Socket socket) {
+        final Session session = new Session(nextId.getAndIncrement(), socket);
+        sessions.put(session.id, session);
+
+        Thread thread = new Thread(() -> {
+            try {
+                TApplication application;
+                try {
+                    application = factory.newApplication(socket);
+                } catch (Exception e) {
+                    return;
+                }
+                session.application = application;
+                if (server.isClosed()) {
+                    // close() ran while the application was created.
+                    application.exit();
+                }
+                application.run();
+            } finally {
+                sessions.remove(session.id);
+                closeQuietly(socket);
+            }
+        }, "casciian-session-" + session.id);
+        thread.start();
+    }
+
+    /**
+     * Turn a connection away.
+     *
+     * @param socket the connection
+     */
+    private void refuse(final Socket socket) {
+        refused.incrementAndGet();
+        try {
+            OutputStream output = socket.getOutputStream();
+            output.write(BUSY_MESSAGE.getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+        } catch (IOException e) {
+            // SQUASH
+        }
+        closeQuietly(socket);
+    }
+
+    /**
+     * Call checkMemory() every CHECK_INTERVAL millis.  This runs on its own
+     * daemon thread.
+     */
+    private void monitor() {
+        while (!server.isClosed()) {
+            try {
+                Thread.sleep(CHECK_INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            }
+            checkMemory();
+        }
+    }
+
+    /**
+     * Enforce the per-session memory limit: a session over it has its
+     * caches dropped, and is told to exit if that is not enough.
+     */
+    void checkMemory() {
+        for (Session session: sessions.values()) {
+            TApplication app = session.application;
+            if ((app == null)
+                || (session.getMemoryUsage() <= sessionMemoryLimit)
+            ) {
+                continue;
+            }
+            app.getScreen().trimMemory();
+            if (session.getMemoryUsage() > sessionMemoryLimit) {
+                // Its screen alone is over the limit.
+                app.exit();
+            }
+        }
+    }
+
+    /**
+     * Close a socket, ignoring errors.
+     *
+     * @param socket the socket
+     */
+    private static void closeQuietly(final Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // SQUASH
+        }
+    }
+
+}
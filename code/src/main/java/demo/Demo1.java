@@ -19,6 +19,8 @@
  */
 package demo;
 
+import java.util.Arrays;
+
 import casciian.TApplication;
 
 /**
@@ -41,11 +43,17 @@ public final class Demo1 {
     // ------------------------------------------------------------------------
 
     /**
-     * Main entry point.
+     * Main entry point.  "--replay recording [width height]" replays a
+     * recorded session headless instead, see DemoReplay.  That is how the
+     * native image is trained for profile-guided optimization.
      *
      * @param args Command line arguments
      */
     public static void main(final String [] args) {
+        if ((args.length > 0) && args[0].equals("--replay")) {
+            DemoReplay.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         try {
             DemoApplication app;
             app = new DemoApplication(TApplication.BackendType.XTERM);
@@ -0,0 +1,98 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package demo;
+
+import java.io.FileReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ResourceBundle;
+
+import casciian.backend.EventRecording;
+import casciian.backend.ReplayBackend;
+
+/**
+ * This class replays a recorded session against the demo application on a
+ * ReplayBackend, and prints the frame rate, output size, allocation, and
+ * latency figures.  It needs no terminal, so it can run on build machines.
+ */
+public class DemoReplay {
+
+    // ------------------------------------------------------------------------
+    // Constants --------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * The name of the resource bundle for this class.
+     */
+    public static final String RESOURCE_BUNDLE_NAME = DemoReplay.class.getName() + "Bundle";
+
+    /**
+     * Translated strings.
+     */
+    private static final ResourceBundle i18n = ResourceBundle.getBundle(RESOURCE_BUNDLE_NAME);
+
+    // ------------------------------------------------------------------------
+    // Constructors -----------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     */
+    public DemoReplay() {}
+
+    // ------------------------------------------------------------------------
+    // DemoReplay -------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+     * Main entry point.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(final String [] args) {
+        if ((args.length != 1) && (args.length != 3)) {
+            System.err.println(i18n.getString("usageString"));
+            return;
+        }
+
+        try {
+            int width = 80;
+            int height = 24;
+            if (args.length == 3) {
+                width = Integer.parseInt(args[1]);
+                height = Integer.parseInt(args[2]);
+            }
+
+            ReplayBackend backend = new ReplayBackend(width, height);
+            EventRecording recording;
+            try (Reader reader = new FileReader(args[0],
+                    StandardCharsets.UTF_8)) {
+                recording = EventRecording.read(reader, backend);
+            }
+            System.out.println(MessageFormat.format(
+                i18n.getString("replaying"), recording.size(), width, height));
+
+            DemoApplication app = new DemoApplication(backend);
+            ReplayBackend.Report report = backend.replay(app, recording);
+            System.out.println(report);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        System.exit(0);
+    }
+
+}
@@ -31,6 +31,7 @@
 module casciian {
     requires java.base;
     requires transitive java.xml;
+    requires static jdk.management;
     requires org.jline.terminal;
     requires org.jline.terminal.jni;
 
@@ -0,0 +1,192 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import casciian.backend.HeadlessBackend;
+import casciian.bits.ArrayImageRGB;
+import casciian.bits.ImageRGB;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TImage scaling and slicing.
+ */
+@DisplayName("TImage Tests")
+class TImageTest {
+
+    /**
+     * HeadlessBackend has no pixels: this gives it a cell size.
+     */
+    private static final int TEXT_WIDTH = 10;
+
+    /**
+     * The cell height in pixels.
+     */
+    private static final int TEXT_HEIGHT = 20;
+
+    @Test
+    @DisplayName("Large images are sliced in the background, small ones at once")
+    void shouldSliceLargeImagesInBackground() {
+        // HeadlessBackend has no pixels: give it a cell size.
+        final int textWidth = 10;
+        final int textHeight = 20;
+        TApplication application = new TApplication(new HeadlessBackend() {
+            @Override
+            public int getTextWidth() {
+                return textWidth;
+            }
+
+            @Override
+            public int getTextHeight() {
+                return textHeight;
+            }
+        });
+        TWindow window = new TWindow(application, "test", 0, 0, 40, 10);
+
+        ImageRGB small = new ArrayImageRGB(textWidth * 4, textHeight * 2);
+        TImage image = window.addImage(0, 0, 20, 5, small, 0, 0);
+        assertFalse(image.isPending());
+        assertEquals(4, image.getColumns());
+        assertEquals(2, image.getRows());
+
+        // The previous cells stay until the new ones are ready.
+        ImageRGB large = new ArrayImageRGB(textWidth * 100, textHeight * 60);
+        image.setImage(large);
+        assertTrue(image.isPending());
+        assertEquals(4, image.getColumns());
+        assertEquals(2, image.getRows());
+
+        // A newer request replaces the one in the background.
+        image.setAsync(false);
+        image.setImage(new ArrayImageRGB(textWidth * 100, textHeight * 60));
+        assertFalse(image.isPending());
+        assertEquals(100, image.getColumns());
+        assertEquals(60, image.getRows());
+    }
+
+    @Test
+    @DisplayName("Cells sliced in the background are delivered to the widget")
+    void shouldDeliverBackgroundResult() throws Exception {
+        TApplication application = newApplication();
+        TWindow window = new TWindow(application, "test", 0, 0, 40, 10);
+        TImage image = window.addImage(0, 0, 20, 5,
+            new ArrayImageRGB(TEXT_WIDTH * 4, TEXT_HEIGHT * 2), 0, 0);
+
+        CountDownLatch ready = new CountDownLatch(1);
+        image.setReadyAction(new TAction() {
+            public void DO() {
+                ready.countDown();
+            }
+        });
+        image.setImage(new ArrayImageRGB(TEXT_WIDTH * 100, TEXT_HEIGHT * 60));
+        assertTrue(image.isPending());
+
+        Thread ui = new Thread(application::run);
+        ui.start();
+        try {
+            assertTrue(ready.await(30, TimeUnit.SECONDS));
+            assertFalse(onUiThread(application, image::isPending));
+        } finally {
+            application.exit();
+            ui.join(5000);
+        }
+        assertEquals(100, image.getColumns());
+        assertEquals(60, image.getRows());
+    }
+
+    @Test
+    @DisplayName("An image that fails in the background leaves the last one")
+    void shouldKeepLastImageWhenBackgroundFails() throws Exception {
+        TApplication application = newApplication();
+        TWindow window = new TWindow(application, "test", 0, 0, 40, 10);
+        TImage image = window.addImage(0, 0, 20, 5,
+            new ArrayImageRGB(TEXT_WIDTH * 4, TEXT_HEIGHT * 2), 0, 0);
+
+        image.setImage(new ArrayImageRGB(TEXT_WIDTH * 100,
+                TEXT_HEIGHT * 60) {
+
+            @Override
+            public ImageRGB getView(final int x, final int y, final int w,
+                final int h) {
+
+                throw new IllegalStateException("broken image");
+            }
+        });
+        assertTrue(image.isPending());
+
+        Thread ui = new Thread(application::run);
+        ui.start();
+        try {
+            long deadline = System.currentTimeMillis() + 30000;
+            while (onUiThread(application, image::isPending)
+                && (System.currentTimeMillis() < deadline)
+            ) {
+                Thread.sleep(10);
+            }
+            assertFalse(onUiThread(application, image::isPending));
+        } finally {
+            application.exit();
+            ui.join(5000);
+        }
+        assertEquals(4, image.getColumns());
+        assertEquals(2, image.getRows());
+    }
+
+    /**
+     * Make an application on a backend with a cell size.
+     *
+     * @return the application
+     */
+    private static TApplication newApplication() {
+        return new TApplication(new HeadlessBackend() {
+            @Override
+            public int getTextWidth() {
+                return TEXT_WIDTH;
+            }
+
+            @Override
+            public int getTextHeight() {
+                return TEXT_HEIGHT;
+            }
+        });
+    }
+
+    /**
+     * Evaluate a condition on a running application's UI thread.
+     *
+     * @param application the application
+     * @param condition the condition
+     * @return the result
+     * @throws Exception if it does not run within five seconds
+     */
+    private static boolean onUiThread(final TApplication application,
+        final BooleanSupplier condition) throws Exception {
+
+        CompletableFuture<Boolean> result = new CompletableFuture<Boolean>();
+        application.invokeLater(() ->
+            result.complete(condition.getAsBoolean()));
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+}
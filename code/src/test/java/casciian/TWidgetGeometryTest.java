@@ -0,0 +1,104 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import casciian.backend.HeadlessBackend;
+import casciian.event.TResizeEvent;
+import casciian.layout.StretchLayoutManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the cached absolute positions and deferred layout of widgets.
+ */
+@DisplayName("TWidget Geometry Tests")
+class TWidgetGeometryTest {
+
+    /**
+     * A StretchLayoutManager that counts its layouts.
+     */
+    private static class CountingLayoutManager extends StretchLayoutManager {
+        int layouts = 0;
+
+        CountingLayoutManager(final int width, final int height) {
+            super(width, height);
+        }
+
+        @Override
+        public void onResize(final TResizeEvent resize) {
+            layouts++;
+            super.onResize(resize);
+        }
+    }
+
+    @Test
+    @DisplayName("Absolute positions follow ancestor moves and border changes")
+    void shouldFollowAncestorChanges() {
+        TWindow window = new TWindow(new TApplication(new HeadlessBackend()),
+            "test", 0, 0, 40, 20);
+        TPanel outer = new TPanel(window, 2, 3, 30, 12);
+        TPanel inner = new TPanel(outer, 1, 1, 20, 8);
+        TLabel label = new TLabel(inner, "hello", 4, 2);
+
+        int x = label.getAbsoluteX();
+        int y = label.getAbsoluteY();
+
+        window.setX(10);
+        outer.setY(5);
+        assertEquals(x + 10, label.getAbsoluteX());
+        assertEquals(y + 2, label.getAbsoluteY());
+
+        outer.setBorderStyle("single");
+        assertEquals(x + 10 + 1, label.getAbsoluteX());
+        assertEquals(y + 2 + 1, label.getAbsoluteY());
+
+        inner.setDimensions(0, 0, 20, 8);
+        assertEquals(x + 10, label.getAbsoluteX());
+        assertEquals(y + 2, label.getAbsoluteY());
+    }
+
+    @Test
+    @DisplayName("A burst of resizes is laid out once")
+    void shouldBatchLayout() {
+        TWindow window = new TWindow(new TApplication(new HeadlessBackend()),
+            "test", 0, 0, 22, 12);
+        CountingLayoutManager layout = new CountingLayoutManager(20, 10);
+        window.setLayoutManager(layout);
+        TPanel panel = new TPanel(window, 0, 0, 10, 5);
+        new TPanel(window, 10, 0, 10, 5);
+
+        for (int i = 1; i <= 10; i++) {
+            window.setDimensions(0, 0, 22 + i, 12);
+            window.onResize(new TResizeEvent(null, TResizeEvent.Type.WIDGET,
+                    22 + i, 12 + i));
+        }
+        assertEquals(0, layout.layouts);
+        assertEquals(10, panel.getWidth());
+
+        window.doLayout();
+        assertEquals(1, layout.layouts);
+        assertEquals(15, panel.getWidth());
+        assertEquals(10, panel.getHeight());
+
+        // Back at the size already laid out: nothing to do.
+        window.setWidth(32);
+        window.doLayout();
+        assertEquals(1, layout.layouts);
+    }
+}
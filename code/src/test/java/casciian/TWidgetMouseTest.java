@@ -0,0 +1,129 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import casciian.backend.HeadlessBackend;
+import casciian.event.TMouseEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests routing mouse events to child widgets.
+ */
+@DisplayName("TWidget Mouse Routing Tests")
+class TWidgetMouseTest {
+
+    /**
+     * A widget that counts the mouse events it gets.
+     */
+    private static class Counter extends TWidget {
+        int downs = 0;
+        int motions = 0;
+
+        Counter(final TWidget parent, final int x, final int y,
+            final int width, final int height) {
+
+            super(parent, x, y, width, height);
+        }
+
+        @Override
+        public void onMouseDown(final TMouseEvent mouse) {
+            downs++;
+        }
+
+        @Override
+        public void onMouseMotion(final TMouseEvent mouse) {
+            motions++;
+        }
+    }
+
+    @Test
+    @DisplayName("Clicks reach the topmost child under the mouse")
+    void shouldClickTopmostChild() {
+        TWindow window = makeWindow();
+        List<Counter> rows = makeRows(window);
+        Counter over = new Counter(window, 2, 3, 5, 2);
+
+        click(window, over.getAbsoluteX(), over.getAbsoluteY() + 1);
+        assertEquals(1, over.downs);
+        assertEquals(0, rows.get(4).downs);
+
+        // Moving a child is seen by the next click.
+        rows.get(0).setY(15);
+        click(window, rows.get(0).getAbsoluteX() + 30,
+            rows.get(0).getAbsoluteY());
+        assertEquals(1, rows.get(0).downs);
+    }
+
+    @Test
+    @DisplayName("Hover motion reaches only the children it enters and leaves")
+    void shouldSendHoverToEnteredAndLeftChildren() {
+        TWindow window = makeWindow();
+        List<Counter> rows = makeRows(window);
+
+        move(window, rows.get(2), false);
+        move(window, rows.get(3), false);
+        int total = 0;
+        for (Counter row: rows) {
+            total += row.motions;
+        }
+        assertEquals(1 + 2, total);
+        assertEquals(2, rows.get(2).motions);
+        assertEquals(1, rows.get(3).motions);
+
+        // A drag still reaches every child.
+        move(window, rows.get(5), true);
+        assertEquals(1, rows.get(0).motions);
+        assertEquals(1, rows.get(11).motions);
+    }
+
+    private TWindow makeWindow() {
+        return new TWindow(new TApplication(new HeadlessBackend()), "test",
+            0, 0, 40, 20);
+    }
+
+    private List<Counter> makeRows(final TWindow window) {
+        List<Counter> rows = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            rows.add(new Counter(window, 0, i, 38, 1));
+        }
+        return rows;
+    }
+
+    private void click(final TWidget widget, final int x, final int y) {
+        TMouseEvent event = new TMouseEvent(null, TMouseEvent.Type.MOUSE_DOWN,
+            x, y, x, y, 0, 0,
+            true, false, false, false, false, false, false, false);
+        widget.onMouseDown(event);
+    }
+
+    private void move(final TWidget widget, final TWidget target,
+        final boolean drag) {
+
+        int x = target.getAbsoluteX();
+        int y = target.getAbsoluteY();
+        TMouseEvent event = new TMouseEvent(null,
+            TMouseEvent.Type.MOUSE_MOTION, x, y, x, y, 0, 0,
+            drag, false, false, false, false, false, false, false);
+        widget.onMouseMotion(event);
+    }
+}
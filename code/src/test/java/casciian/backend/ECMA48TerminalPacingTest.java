@@ -0,0 +1,145 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package casciian.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+import casciian.bits.CellAttributes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for pacing ECMA48Terminal frames to the rate the connection
+ * drains them.
+ */
+@DisplayName("ECMA48Terminal frame pacing")
+class ECMA48TerminalPacingTest {
+
+    /**
+     * An output stream that takes a while to accept each flush, like a
+     * slow network link with a full send buffer.
+     */
+    private static class SlowOutputStream extends ByteArrayOutputStream {
+        @Override
+        public void flush() {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The user's side of the terminal input, kept open so that the reader
+     * thread stays alive.
+     */
+    private final PipedOutputStream keyboard = new PipedOutputStream();
+
+    /**
+     * Build a terminal writing to an output stream.
+     *
+     * @param out the output stream
+     * @return the terminal
+     */
+    private ECMA48Terminal newTerminal(final OutputStream out) {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(out,
+                StandardCharsets.UTF_8));
+        PipedInputStream input;
+        try {
+            input = new PipedInputStream(keyboard);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        ECMA48Terminal terminal = new ECMA48Terminal(new HeadlessBackend(),
+            null, input, new InputStreamReader(input, StandardCharsets.UTF_8),
+            writer);
+        terminal.setDimensions(80, 24);
+        return terminal;
+    }
+
+    /**
+     * Hang up the input, then close the terminal.
+     *
+     * @param terminal the terminal
+     */
+    private void close(final ECMA48Terminal terminal) {
+        try {
+            keyboard.close();
+        } catch (IOException e) {
+            // SQUASH
+        }
+        terminal.closeTerminal();
+    }
+
+    @Test
+    @DisplayName("A connection that keeps up is never paced")
+    void fastConnectionIsNotPaced() {
+        ECMA48Terminal terminal = newTerminal(new ByteArrayOutputStream());
+        try {
+            for (int i = 0; i < 10; i++) {
+                terminal.putStringXY(0, 0, "frame " + i, new CellAttributes());
+                terminal.flushPhysical();
+                assertFalse(terminal.isFramePaced());
+            }
+        } finally {
+            close(terminal);
+        }
+    }
+
+    @Test
+    @DisplayName("A blocking connection folds bursts of frames together")
+    void slowConnectionCoalescesFrames() {
+        SlowOutputStream out = new SlowOutputStream();
+        ECMA48Terminal terminal = newTerminal(out);
+        try {
+            for (int i = 0; i < 10; i++) {
+                terminal.putStringXY(0, 0, "frame " + i, new CellAttributes());
+                terminal.flushPhysical();
+            }
+            assertTrue(terminal.isFramePaced());
+            assertTrue(terminal.getFramesCoalesced() > 0);
+
+            // A frame drawn while paced still reaches the terminal once the
+            // reader thread sees the deadline pass.
+            terminal.putStringXY(0, 1, "last-frame", new CellAttributes());
+            terminal.flushPhysical();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!out.toString(StandardCharsets.UTF_8).contains("last-frame")
+                && (System.currentTimeMillis() < deadline)
+            ) {
+                Thread.onSpinWait();
+            }
+            assertTrue(out.toString(StandardCharsets.UTF_8).contains(
+                "last-frame"));
+        } finally {
+            close(terminal);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package casciian.backend;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import casciian.TApplication;
+import casciian.TKeypress;
+import casciian.event.TCommandEvent;
+import casciian.event.TKeypressEvent;
+import casciian.event.TMouseEvent;
+import casciian.event.TResizeEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static casciian.TCommand.cmExit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for saving and loading input event recordings, and replaying them
+ * against an application on ReplayBackend.
+ */
+@DisplayName("Event recording and replay")
+class EventRecordingTest {
+
+    @Test
+    @DisplayName("Keyboard, mouse and resize events survive a round trip")
+    void roundTrip() throws IOException {
+        HeadlessBackend backend = new HeadlessBackend();
+        EventRecording recording = new EventRecording();
+        recording.record(List.of(
+            new TKeypressEvent(backend, false, 0, 'x', true, false, false),
+            new TKeypressEvent(backend, TKeypress.kbF10),
+            new TCommandEvent(backend, cmExit),
+            new TMouseEvent(backend, TMouseEvent.Type.MOUSE_DOWN, 3, 4, 5, 6,
+                7, 8, true, false, false, false, false, false, false,
+                false, true, false),
+            new TResizeEvent(backend, TResizeEvent.Type.SCREEN, 100, 30)));
+        assertEquals(4, recording.size());
+
+        StringWriter writer = new StringWriter();
+        recording.write(writer);
+        assertTrue(writer.toString().startsWith(EventRecording.HEADER));
+
+        EventRecording copy = EventRecording.read(
+            new StringReader(writer.toString()), backend);
+        List<EventRecording.Entry> entries = copy.getEntries();
+        assertEquals(4, entries.size());
+
+        TKeypress key = ((TKeypressEvent) entries.get(0).event()).getKey();
+        assertEquals('x', key.getChar());
+        assertTrue(key.isAlt());
+        assertEquals(TKeypress.kbF10,
+            ((TKeypressEvent) entries.get(1).event()).getKey());
+
+        TMouseEvent mouse = (TMouseEvent) entries.get(2).event();
+        assertEquals(TMouseEvent.Type.MOUSE_DOWN, mouse.getType());
+        assertEquals(3, mouse.getX());
+        assertEquals(6, mouse.getAbsoluteY());
+        assertEquals(8, mouse.getPixelOffsetY());
+        assertTrue(mouse.isMouse1());
+        assertTrue(mouse.isCtrl());
+
+        TResizeEvent resize = (TResizeEvent) entries.get(3).event();
+        assertEquals(100, resize.getWidth());
+        assertEquals(30, resize.getHeight());
+        assertEquals(writer.toString(), write(copy));
+    }
+
+    @Test
+    @DisplayName("A malformed line is reported with its line number")
+    void malformedLine() {
+        IOException e = assertThrows(IOException.class, () ->
+            EventRecording.read(new StringReader(EventRecording.HEADER +
+                "\n0 key 0 0 120 0 0 0\n5 mouse SIDEWAYS 1 2\n"),
+                new HeadlessBackend()));
+        assertTrue(e.getMessage().contains("line 3"));
+    }
+
+    @Test
+    @DisplayName("Replay produces a frame for every event")
+    void replay() throws Exception {
+        ReplayBackend backend = new ReplayBackend(80, 24);
+        EventRecording recording = EventRecording.read(new StringReader(
+            "0 key 0 0 97 0 0 0\n" +
+            "10 mouse MOUSE_MOTION 5 5 5 5 0 0 0 0 0 0 0 0 0 0 0 0\n" +
+            "20 key 0 0 98 0 0 0\n"), backend);
+        TApplication application = new TApplication(backend);
+
+        ReplayBackend.Report report = backend.replay(application, recording);
+        assertEquals(3, report.events());
+        assertEquals(0, report.timeouts());
+        assertTrue(report.frames() >= 3);
+        assertTrue(report.bytes() > 0);
+        assertTrue(report.p99LatencyNanos() >= report.medianLatencyNanos());
+
+        // A second replay on the same backend measures only its own frames.
+        ReplayBackend.Report again = backend.replay(new TApplication(backend),
+            EventRecording.read(new StringReader("0 key 0 0 99 0 0 0\n"),
+                backend));
+        assertEquals(1, again.events());
+        assertTrue(again.maxFrameBytes() <= again.bytes());
+    }
+
+    private static String write(final EventRecording recording)
+        throws IOException {
+
+        StringWriter writer = new StringWriter();
+        recording.write(writer);
+        return writer.toString();
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package casciian.backend;
+
+import casciian.bits.ArrayImageRGB;
+import casciian.bits.ImageRGB;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the Kitty graphics protocol wire format and the image ID /
+ * placement bookkeeping that lets unchanged images be placed again without
+ * re-sending their pixels.
+ */
+@DisplayName("Kitty graphics protocol")
+class KittyGraphicsTest {
+
+    @Test
+    @DisplayName("Small images are transmitted in a single chunk")
+    void singleChunkTransmit() {
+        ImageRGB image = new ArrayImageRGB(2, 2);
+        image.fillRect(0, 0, 2, 2, 0xFF0000);
+        StringBuilder sb = new StringBuilder();
+        KittyGraphics.transmit(7, image, sb);
+
+        String text = sb.toString();
+        assertTrue(text.startsWith("\033_Ga=t,f=24,s=2,v=2,i=7,q=2,m=0;"));
+        assertTrue(text.endsWith("\033\\"));
+        // 4 pixels * 3 bytes = 12 bytes = 16 base64 characters
+        assertEquals("\033_Ga=t,f=24,s=2,v=2,i=7,q=2,m=0;".length() + 16 + 2,
+            text.length());
+    }
+
+    @Test
+    @DisplayName("Large images are split into 4096 character chunks")
+    void chunkedTransmit() {
+        ImageRGB image = new ArrayImageRGB(64, 64);
+        StringBuilder sb = new StringBuilder();
+        KittyGraphics.transmit(1, image, sb);
+
+        String [] chunks = sb.toString().split("\033\\\\");
+        // 64 * 64 * 3 = 12288 bytes = 16384 base64 characters
+        assertEquals(4, chunks.length);
+        assertTrue(chunks[0].contains("m=1;"));
+        assertTrue(chunks[1].startsWith("\033_Gm=1;"));
+        assertTrue(chunks[3].startsWith("\033_Gm=0;"));
+        for (String chunk : chunks) {
+            String payload = chunk.substring(chunk.indexOf(';') + 1);
+            assertTrue(payload.length() <= KittyGraphics.CHUNK_SIZE);
+        }
+    }
+
+    @Test
+    @DisplayName("Uploaded images are found again by key")
+    void uploadAndLookup() {
+        KittyGraphics kitty = new KittyGraphics(10);
+        StringBuilder sb = new StringBuilder();
+        assertEquals(0, kitty.getImageId("a"));
+
+        int id = kitty.upload("a", new ArrayImageRGB(1, 1), sb);
+        assertNotEquals(0, id);
+        assertEquals(id, kitty.getImageId("a"));
+        assertEquals(1, kitty.getImageCount());
+    }
+
+    @Test
+    @DisplayName("Placing an image costs a short command, not pixel data")
+    void placementIsSmall() {
+        KittyGraphics kitty = new KittyGraphics(10);
+        StringBuilder sb = new StringBuilder();
+        int id = kitty.upload("a", new ArrayImageRGB(200, 20), sb);
+
+        sb.setLength(0);
+        kitty.place(3, 4, 20, id, sb);
+        assertTrue(sb.length() < 64);
+        assertTrue(sb.toString().contains("a=p,i=" + id));
+        assertTrue(sb.toString().contains("c=20"));
+
+        KittyGraphics.Placement placement = kitty.findPlacement(3, 4, 20);
+        assertNotNull(placement);
+        assertNull(kitty.findPlacement(3, 4, 19));
+    }
+
+    @Test
+    @DisplayName("Removing a placement keeps the image data")
+    void removeKeepsImage() {
+        KittyGraphics kitty = new KittyGraphics(10);
+        StringBuilder sb = new StringBuilder();
+        int id = kitty.upload("a", new ArrayImageRGB(1, 1), sb);
+        kitty.place(0, 0, 1, id, sb);
+
+        sb.setLength(0);
+        kitty.remove(0, kitty.findPlacement(0, 0, 1), sb);
+        assertTrue(sb.toString().contains("a=d,d=i,i=" + id));
+        assertNull(kitty.findPlacement(0, 0, 1));
+        assertEquals(id, kitty.getImageId("a"));
+    }
+
+    @Test
+    @DisplayName("Images without a key are freed when their placement goes")
+    void transientImageIsFreed() {
+        KittyGraphics kitty = new KittyGraphics(10);
+        StringBuilder sb = new StringBuilder();
+        int id = kitty.upload(null, new ArrayImageRGB(1, 1), sb);
+        kitty.place(0, 0, 1, id, sb);
+        assertEquals(0, kitty.getImageCount());
+
+        sb.setLength(0);
+        kitty.remove(0, kitty.findPlacement(0, 0, 1), sb);
+        assertEquals(KittyGraphics.deleteImage(id), sb.toString());
+    }
+
+    @Test
+    @DisplayName("The least recently used hidden image is evicted")
+    void evictsHiddenImage() {
+        KittyGraphics kitty = new KittyGraphics(2);
+        StringBuilder sb = new StringBuilder();
+        int a = kitty.upload("a", new ArrayImageRGB(1, 1), sb);
+        kitty.place(0, 0, 1, a, sb);
+        int b = kitty.upload("b", new ArrayImageRGB(1, 1), sb);
+        kitty.upload("c", new ArrayImageRGB(1, 1), sb);
+
+        // "a" is older, but still visible, so "b" goes.
+        assertEquals(a, kitty.getImageId("a"));
+        assertEquals(0, kitty.getImageId("b"));
+
+        sb.setLength(0);
+        kitty.flushPendingDeletes(sb);
+        assertEquals(KittyGraphics.deleteImage(b), sb.toString());
+
+        sb.setLength(0);
+        kitty.flushPendingDeletes(sb);
+        assertEquals(0, sb.length());
+    }
+
+    @Test
+    @DisplayName("Clearing placements forgets every row")
+    void clearPlacements() {
+        KittyGraphics kitty = new KittyGraphics(10);
+        StringBuilder sb = new StringBuilder();
+        int id = kitty.upload("a", new ArrayImageRGB(1, 1), sb);
+        kitty.place(0, 0, 1, id, sb);
+        kitty.place(0, 5, 1, id, sb);
+
+        sb.setLength(0);
+        kitty.clearPlacements(sb);
+        assertEquals(0, sb.length());
+        assertTrue(kitty.getPlacements(0).isEmpty());
+        assertTrue(kitty.getPlacements(5).isEmpty());
+        assertFalse(kitty.getImageId("a") == 0);
+    }
+
+}
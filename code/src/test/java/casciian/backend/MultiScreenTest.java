@@ -5,6 +5,15 @@
  */
 package casciian.backend;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
 import casciian.bits.CellAttributes;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -785,4 +794,86 @@ class MultiScreenTest {
         assertEquals(14, multi.getTextWidth());
         assertEquals(22, multi.getTextHeight());
     }
+
+    /**
+     * Build an ECMA48Terminal writing to a byte array.
+     *
+     * @param keyboard the user's side of the terminal input
+     * @param out the terminal output
+     * @return the terminal
+     */
+    private ECMA48Terminal newTerminal(final PipedOutputStream keyboard,
+        final ByteArrayOutputStream out) throws IOException {
+
+        PipedInputStream input = new PipedInputStream(keyboard);
+        ECMA48Terminal terminal = new ECMA48Terminal(new HeadlessBackend(),
+            null, input, new InputStreamReader(input, StandardCharsets.UTF_8),
+            new PrintWriter(new OutputStreamWriter(out,
+                    StandardCharsets.UTF_8)));
+        terminal.setDimensions(80, 24);
+        return terminal;
+    }
+
+    /**
+     * Wait until a terminal's output contains some text.
+     *
+     * @param out the terminal output
+     * @param text the text
+     * @return true if the text arrived within two seconds
+     */
+    private boolean waitFor(final ByteArrayOutputStream out,
+        final String text) throws InterruptedException {
+
+        for (int i = 0; i < 200; i++) {
+            if (out.toString(StandardCharsets.UTF_8).contains(text)) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Terminals with the same profile share one rendered frame")
+    void testFanOutSharesFrames() throws Exception {
+        PipedOutputStream keyboard1 = new PipedOutputStream();
+        PipedOutputStream keyboard2 = new PipedOutputStream();
+        ByteArrayOutputStream out1 = new ByteArrayOutputStream();
+        ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+        ECMA48Terminal terminal1 = newTerminal(keyboard1, out1);
+        ECMA48Terminal terminal2 = newTerminal(keyboard2, out2);
+        try {
+            MultiScreen multi = new MultiScreen(terminal1);
+            multi.addScreen(terminal2);
+
+            multi.putStringXY(0, 0, "first-frame", new CellAttributes());
+            multi.flushPhysical();
+            assertTrue(multi.isHandled(terminal1));
+            assertTrue(multi.isHandled(terminal2));
+            assertTrue(waitFor(out1, "first-frame"));
+            assertTrue(waitFor(out2, "first-frame"));
+
+            multi.putStringXY(0, 1, "second-frame", new CellAttributes());
+            multi.flushPhysical();
+            assertTrue(waitFor(out1, "second-frame"));
+            assertTrue(waitFor(out2, "second-frame"));
+
+            // Only the leader copied and diffed the screen.
+            int copies = 0;
+            for (ECMA48Terminal terminal: new ECMA48Terminal [] {
+                    terminal1, terminal2 }) {
+
+                if (terminal.getCharXY(0, 1).getChar() == 's') {
+                    copies++;
+                }
+            }
+            assertEquals(1, copies);
+        } finally {
+            keyboard1.close();
+            keyboard2.close();
+            terminal1.closeTerminal();
+            terminal2.closeTerminal();
+        }
+    }
+
 }
@@ -0,0 +1,166 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package casciian.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import casciian.TKeypress;
+import casciian.bits.CellAttributes;
+import casciian.event.TKeypressEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the session recording file format, and for what an
+ * ECMA48Terminal saves to it.
+ */
+@DisplayName("Session recording")
+class SessionRecordingTest {
+
+    /**
+     * One record read back from a file.
+     *
+     * @param kind the record kind
+     * @param payload the payload, decoded as UTF-8
+     */
+    private record Record(int kind, String payload) {}
+
+    @Test
+    @DisplayName("Records are written after the header in order")
+    void writesRecords(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("session.csrec");
+        SessionRecording recording = new SessionRecording(file);
+        assertTrue(recording.isKeyframeDue());
+        recording.recordOutput("hello");
+        recording.recordOutput("");
+        TKeypressEvent key = new TKeypressEvent(new HeadlessBackend(),
+            TKeypress.kbF10);
+        recording.recordInput(List.of(key));
+        recording.recordKeyframe(80, 24, "\033[2J");
+        assertFalse(recording.isKeyframeDue());
+        recording.close();
+        assertFalse(recording.isOpen());
+        recording.recordOutput("after close");
+
+        List<Record> records = read(file);
+        assertEquals(3, records.size());
+        assertEquals(new Record(SessionRecording.OUTPUT, "hello"),
+            records.get(0));
+        assertEquals(new Record(SessionRecording.INPUT,
+                EventRecording.formatEvent(key)), records.get(1));
+        // Width 80 and height 24 fit in one varint byte each.
+        assertEquals(new Record(SessionRecording.KEYFRAME, "P\030\033[2J"),
+            records.get(2));
+    }
+
+    @Test
+    @DisplayName("Output outside of frames is recorded too")
+    void recordsAllTerminalOutput(@TempDir Path dir) throws IOException {
+        PipedOutputStream keyboard = new PipedOutputStream();
+        PipedInputStream input = new PipedInputStream(keyboard);
+        ECMA48Terminal terminal = new ECMA48Terminal(new HeadlessBackend(),
+            null, input, new InputStreamReader(input, StandardCharsets.UTF_8),
+            new PrintWriter(new OutputStreamWriter(new ByteArrayOutputStream(),
+                StandardCharsets.UTF_8)));
+        Path file = dir.resolve("session.csrec");
+        SessionRecording recording = new SessionRecording(file);
+        try {
+            terminal.setDimensions(80, 24);
+            terminal.setSessionRecording(recording);
+            terminal.putStringXY(0, 0, "frame", new CellAttributes());
+            terminal.flushPhysical();
+            terminal.setTitle("recorded title");
+        } finally {
+            keyboard.close();
+            terminal.closeTerminal();
+            recording.close();
+        }
+
+        List<Record> records = read(file);
+        assertTrue(records.stream().anyMatch(record ->
+                (record.kind() == SessionRecording.OUTPUT)
+                && record.payload().contains("frame")));
+        assertTrue(records.stream().anyMatch(record ->
+                (record.kind() == SessionRecording.KEYFRAME)));
+        assertTrue(records.stream().anyMatch(record ->
+                (record.kind() == SessionRecording.OUTPUT)
+                && record.payload().equals("\033]2;recorded title\007")));
+    }
+
+    /**
+     * Read the records of a recording file.
+     *
+     * @param file the file
+     * @return the records
+     * @throws IOException if the file cannot be read
+     */
+    private static List<Record> read(final Path file) throws IOException {
+        byte [] data = Files.readAllBytes(file);
+        assertEquals(SessionRecording.MAGIC, new String(data, 0,
+                SessionRecording.MAGIC.length(), StandardCharsets.US_ASCII));
+        assertEquals(SessionRecording.VERSION,
+            data[SessionRecording.MAGIC.length()]);
+
+        List<Record> records = new ArrayList<Record>();
+        int [] offset = { SessionRecording.HEADER_LENGTH };
+        while (offset[0] < data.length) {
+            int kind = data[offset[0]++];
+            readVarint(data, offset);
+            int length = (int) readVarint(data, offset);
+            records.add(new Record(kind, new String(Arrays.copyOfRange(data,
+                offset[0], offset[0] + length), StandardCharsets.UTF_8)));
+            offset[0] += length;
+        }
+        return records;
+    }
+
+    /**
+     * Decode an unsigned LEB128 varint.
+     *
+     * @param data the bytes
+     * @param offset where to read, advanced past the varint
+     * @return the number
+     */
+    private static long readVarint(final byte [] data, final int [] offset) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = data[offset[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package casciian.backend;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class data sharing training run.
+ */
+@DisplayName("TrainingRun")
+class TrainingRunTest {
+
+    @Test
+    @DisplayName("The scripted session runs to the end without timeouts")
+    void runsWholeSession() throws InterruptedException {
+        ReplayBackend.Report report = TrainingRun.run();
+        assertTrue(report.events() > 0);
+        assertEquals(0, report.timeouts());
+        assertTrue(report.frames() >= report.events(),
+            report.frames() + " frames for " + report.events() + " events");
+    }
+
+}
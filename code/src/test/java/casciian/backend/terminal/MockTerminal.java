@@ -60,6 +60,13 @@ public class MockTerminal implements Terminal {
         return -1;
     }
 
+    @Override
+    public int read(char[] buffer, int off, int len, long timeout)
+        throws IOException {
+
+        return -1;
+    }
+
     @Override
     public void queryWindowSize() {
         queryWindowSizeCalled = true;
@@ -23,6 +23,10 @@ import org.junit.jupiter.api.DisplayName;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -166,4 +170,117 @@ class TerminalShImplTest {
         assertEquals(80, terminal.getWindowWidth());
         assertEquals(24, terminal.getWindowHeight());
     }
+
+    @Test
+    @DisplayName("timed read with input returns it")
+    void testTimedReadReturnsInput() throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream("abc".getBytes());
+        TerminalShImpl customTerminal = new TerminalShImpl(input, null, false);
+        char[] buffer = new char[8];
+        int n = 0;
+        while (n < 3) {
+            int rc = customTerminal.read(buffer, n, buffer.length - n, 1000);
+            assertTrue(rc > 0, "Expected input, got " + rc);
+            n += rc;
+        }
+        assertEquals("abc", new String(buffer, 0, n));
+        customTerminal.close();
+    }
+
+    @Test
+    @DisplayName("timed read times out while no input arrives")
+    void testTimedReadTimesOut() throws IOException {
+        BlockingInputStream input = new BlockingInputStream();
+        TerminalShImpl customTerminal = new TerminalShImpl(input, null, false);
+        assertEquals(0, customTerminal.read(new char[8], 0, 8, 50));
+
+        // Input wakes the reader as soon as it arrives.
+        input.feed("x");
+        char[] buffer = new char[8];
+        assertEquals(1, customTerminal.read(buffer, 0, 8, 5000));
+        assertEquals('x', buffer[0]);
+        customTerminal.close();
+    }
+
+    @Test
+    @DisplayName("timed read on an exhausted stream reports EOF")
+    void testTimedReadAtEndOfStream() throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream(new byte[0]);
+        TerminalShImpl customTerminal = new TerminalShImpl(input, null, false);
+        assertEquals(-1, customTerminal.read(new char[8], 0, 8, 5000));
+        customTerminal.close();
+    }
+
+    @Test
+    @DisplayName("close stops reading the input stream")
+    void testCloseStopsReadingInput() throws IOException {
+        BlockingInputStream input = new BlockingInputStream();
+        TerminalShImpl customTerminal = new TerminalShImpl(input, null, false);
+        assertEquals(0, customTerminal.read(new char[8], 0, 8, 50));
+
+        long start = System.currentTimeMillis();
+        customTerminal.close();
+        assertTrue(System.currentTimeMillis() - start < 1000,
+            "close() should not wait for input");
+
+        // Input that arrives after close() is left for the next reader.
+        input.feed("left");
+        assertEquals(4, input.available());
+        assertEquals(-1, customTerminal.read(new char[8], 0, 8, 50));
+    }
+
+    /**
+     * An input stream whose reads block until bytes are fed to it, and end
+     * with InterruptedIOException if the reading thread is interrupted, as
+     * a pipe's do.
+     */
+    private static class BlockingInputStream extends InputStream {
+
+        /**
+         * The bytes fed and not yet read.
+         */
+        private final LinkedBlockingQueue<Integer> bytes =
+            new LinkedBlockingQueue<Integer>();
+
+        /**
+         * Add input.
+         *
+         * @param text ASCII text to add
+         */
+        void feed(final String text) {
+            for (char ch: text.toCharArray()) {
+                bytes.add((int) ch);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return bytes.take();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int off, final int len)
+            throws IOException {
+
+            if (len == 0) {
+                return 0;
+            }
+            buffer[off] = (byte) read();
+            int n = 1;
+            while ((n < len) && !bytes.isEmpty()) {
+                buffer[off + n] = (byte) read();
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return bytes.size();
+        }
+    }
 }
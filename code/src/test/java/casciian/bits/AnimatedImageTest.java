@@ -0,0 +1,91 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import casciian.image.decoders.SixelImageDecoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for AnimatedImage and multi-frame decoding.
+ */
+@DisplayName("AnimatedImage Tests")
+class AnimatedImageTest {
+
+    @Test
+    @DisplayName("A still image is a one-frame animation")
+    void stillImage() {
+        ImageRGB image = new ArrayImageRGB(4, 4);
+        AnimatedImage animation = AnimatedImage.of(image);
+        assertEquals(1, animation.getFrameCount());
+        assertSame(image, animation.getFrame(0));
+        assertFalse(animation.isAnimated());
+        assertEquals(AnimatedImage.DEFAULT_DELAY, animation.getDelay(0));
+    }
+
+    @Test
+    @DisplayName("Delays are clamped to the minimum")
+    void delaysClamped() {
+        AnimatedImage animation = new AnimatedImage(
+            List.of(new ArrayImageRGB(1, 1), new ArrayImageRGB(1, 1)),
+            new int[] { 0, 250 }, 3);
+        assertTrue(animation.isAnimated());
+        assertEquals(AnimatedImage.MIN_DELAY, animation.getDelay(0));
+        assertEquals(250, animation.getDelay(1));
+        assertEquals(AnimatedImage.MIN_DELAY, animation.getMinimumDelay());
+        assertEquals(3, animation.getLoopCount());
+    }
+
+    @Test
+    @DisplayName("Mismatched delays and empty frame lists are rejected")
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new AnimatedImage(List.of(), null, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new AnimatedImage(List.of(new ArrayImageRGB(1, 1)),
+                new int[] { 10, 20 }, 0));
+    }
+
+    @Test
+    @DisplayName("Concatenated sixel sequences decode as frames")
+    void sixelFrames() throws IOException {
+        String frame = "\033Pq\"1;1;10;10#0~-\033\\";
+        SixelImageDecoder decoder = new SixelImageDecoder();
+
+        AnimatedImage single = decoder.decodeAnimation(
+            new ByteArrayInputStream(frame.getBytes(StandardCharsets.UTF_8)),
+            "image/x-sixel");
+        assertEquals(1, single.getFrameCount());
+
+        String three = frame + frame + frame;
+        AnimatedImage animation = decoder.decodeAnimation(
+            new ByteArrayInputStream(three.getBytes(StandardCharsets.UTF_8)),
+            "image/x-sixel");
+        assertEquals(3, animation.getFrameCount());
+    }
+
+}
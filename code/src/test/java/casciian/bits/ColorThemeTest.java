@@ -429,4 +429,33 @@ class ColorThemeTest {
         assertFalse(theme.isDarkTheme());
         assertFalse(theme.isDarkTheme(false));
     }
+
+    @Test
+    void testChangingOneThemeDoesNotChangeAnother() {
+        ColorTheme first = new ColorTheme();
+        ColorTheme second = new ColorTheme();
+        CellAttributes before = second.getColor(ColorTheme.TTEXT);
+
+        first.setColorFromString(ColorTheme.TTEXT, "black on white");
+        assertEquals(before, second.getColor(ColorTheme.TTEXT));
+        assertEquals(second.getColorNames(), first.getColorNames());
+
+        first.setDefaultTheme();
+        assertEquals(before, first.getColor(ColorTheme.TTEXT));
+        assertEquals(second.toString(), first.toString());
+    }
+
+    @Test
+    void testQmodem5KeepsColorsItDoesNotSet() {
+        ColorTheme theme = new ColorTheme();
+        theme.setColorFromString(ColorTheme.THYPERLINK, "red on black");
+        CellAttributes link = theme.getColor(ColorTheme.THYPERLINK);
+        theme.setQmodem5();
+        ColorTheme qmodem = new ColorTheme();
+        qmodem.setQmodem5();
+
+        assertEquals(link, theme.getColor(ColorTheme.THYPERLINK));
+        assertEquals(qmodem.getColor(ColorTheme.TTEXT),
+            theme.getColor(ColorTheme.TTEXT));
+    }
 }
@@ -209,4 +209,68 @@ class ComplexCellTest {
         assertNotEquals(blank.getChar(), cell.getChar(),
             "Unset cell must not report a plain space character");
     }
+
+    @Test
+    @DisplayName("Cells with the same cluster share one interned copy")
+    void testClustersAreInterned() {
+        // Woman technologist: woman, ZWJ, laptop.
+        int[] cluster = new int[] {0x1F469, 0x200D, 0x1F4BB};
+        ComplexCell built = new ComplexCell('x');
+        built.setCodePoints(new int[] {0x1F469, 0x200D});
+        built.add(0x1F4BB);
+        ComplexCell direct = new ComplexCell(cluster);
+        int size = GraphemeTable.size();
+
+        ComplexCell copy = new ComplexCell();
+        copy.setTo(direct);
+        assertEquals(direct, built);
+        assertEquals(direct.hashCode(), built.hashCode());
+        assertEquals(direct, copy);
+        assertArrayEquals(cluster, copy.getCodePoints());
+        assertEquals(2, copy.getDisplayWidth());
+        assertEquals(size, GraphemeTable.size(),
+            "Copying a cell must not intern anything new");
+
+        copy.setChar('y');
+        assertEquals(1, copy.getCodePointCount());
+        assertNotEquals(direct, copy);
+    }
+
+    @Test
+    @DisplayName("Only the finished cluster is interned, not each prefix")
+    void testPrefixesAreNotInterned() {
+        // A private use character with three combining accents, which
+        // nothing else interns.
+        int[] cluster = new int[] {0xE123, 0x0301, 0x0302, 0x0303};
+        int size = GraphemeTable.size();
+        ComplexCell built = new ComplexCell(cluster[0]);
+        for (int i = 1; i < cluster.length; i++) {
+            built.add(cluster[i]);
+        }
+        ComplexCell partial = new ComplexCell();
+        partial.setCodePoints(cluster, false);
+        assertEquals(size, GraphemeTable.size());
+        assertArrayEquals(cluster, built.getCodePoints());
+        assertEquals(built, partial);
+
+        ComplexCell finished = new ComplexCell(cluster);
+        assertEquals(size + 1, GraphemeTable.size());
+        assertEquals(finished, built);
+        assertEquals(built, finished);
+        assertEquals(finished.hashCode(), built.hashCode());
+        assertEquals(finished.getDisplayWidth(), built.getDisplayWidth());
+        assertEquals(finished.toString(), built.toString());
+    }
+
+    @Test
+    @DisplayName("A lone VS16 or keycap is measured like its codepoint array")
+    void testLoneEmojiModifierWidth() {
+        for (int codePoint : new int[] {0xFE0F, 0x20E3, 0xFE0E, 'a'}) {
+            ComplexCell cell = new ComplexCell(codePoint);
+            assertEquals(StringUtils.width(new int[] {codePoint}),
+                cell.getDisplayWidth());
+        }
+        assertEquals(2, new ComplexCell(0xFE0F).getDisplayWidth());
+        assertEquals(2, new ComplexCell(0x20E3).getDisplayWidth());
+    }
 }
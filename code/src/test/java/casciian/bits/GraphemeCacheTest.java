@@ -0,0 +1,73 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.bits;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cache of segmented strings.
+ */
+@DisplayName("GraphemeCache")
+class GraphemeCacheTest {
+
+    @Test
+    @DisplayName("Cached clusters match toComplexCells")
+    void matchesSegmentation() {
+        String text = "Á 中 👩‍💻!";
+        GraphemeCache.Clusters clusters = GraphemeCache.get(text);
+        List<ComplexCell> cells = ExtendedGraphemeClusterUtils.toComplexCells(
+            text);
+        assertEquals(cells.size(), clusters.size());
+        int width = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            assertArrayEquals(cells.get(i).getCodePoints(),
+                clusters.getCell(i).getCodePoints());
+            assertEquals(cells.get(i).getDisplayWidth(), clusters.getWidth(i));
+            width += clusters.getWidth(i);
+        }
+        assertEquals(width, clusters.getWidth());
+        assertEquals(StringUtils.width(text), clusters.getWidth());
+    }
+
+    @Test
+    @DisplayName("Equal strings share one entry")
+    void sharesEntries() {
+        String label = "Fíle";
+        GraphemeCache.Clusters first = GraphemeCache.get(label);
+        assertSame(first, GraphemeCache.get(new String(label)));
+    }
+
+    @Test
+    @DisplayName("The cache stays bounded")
+    void bounded() {
+        for (int i = 0; i < GraphemeCache.CACHE_SIZE * 2; i++) {
+            GraphemeCache.get("label " + i);
+        }
+        assertTrue(GraphemeCache.size() <= GraphemeCache.CACHE_SIZE);
+
+        String longText = "x".repeat(GraphemeCache.MAX_LENGTH + 1);
+        assertNotSame(GraphemeCache.get(longText),
+            GraphemeCache.get(longText));
+        assertEquals(longText.length(),
+            GraphemeCache.get(longText).getWidth());
+    }
+
+}
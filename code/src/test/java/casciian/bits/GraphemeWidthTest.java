@@ -147,4 +147,43 @@ class GraphemeWidthTest {
         // "🇺🇸X" -> 2 + 1 = 3
         assertEquals(3, StringUtils.width(s(0x1F1FA, 0x1F1F8, 0x58)));
     }
+
+    @Test
+    @DisplayName("String width agrees with summing the clusters")
+    void stringWidthMatchesCells() {
+        String [] samples = {
+            "",
+            "plain ASCII",
+            "tab\tand\u001b escape",
+            s(0x41, 0x0301, 0x20, 0x4E2D, 0x41),
+            s(0x1F1FA, 0x1F1F8, 0x1F1E6, 0x1F1FA, 0x1F1FA),
+            s(0x31, 0xFE0F, 0x20E3, 0x61),
+            s(0x1100, 0x1161, 0x11A8, 0x61, 0xAC00),
+            "a" + s(0x1F468, 0x200D, 0x1F469, 0x200D, 0x1F467) + "z",
+        };
+        for (String sample : samples) {
+            int n = 0;
+            for (ComplexCell cell : cells(sample)) {
+                n += cell.getDisplayWidth();
+            }
+            assertEquals(n, StringUtils.width(sample), sample);
+        }
+    }
+
+    @Test
+    @DisplayName("nextBreak walks the same clusters as toComplexCells")
+    void nextBreakMatchesCells() {
+        String text = "x" + s(0x41, 0x0301) + s(0x1F1FA, 0x1F1F8, 0x1F1E6)
+            + s(0x1F469, 0x200D, 0x1F4BB) + "!";
+        int begin = 0;
+        for (ComplexCell cell : cells(text)) {
+            int end = ExtendedGraphemeClusterUtils.nextBreak(text, begin);
+            assertArrayEquals(cell.getCodePoints(),
+                text.substring(begin, end).codePoints().toArray());
+            begin = end;
+        }
+        assertEquals(text.length(), begin);
+        assertEquals(text.length(),
+            ExtendedGraphemeClusterUtils.nextBreak(text, text.length()));
+    }
 }
@@ -977,4 +977,35 @@ class ImageRGBTest {
             }
         }
     }
+
+    @Test
+    @DisplayName("getView: views share pixels and join side by side")
+    void testViewSharesPixels() {
+        ImageRGB image = new ArrayImageRGB(8, 4);
+        image.setRGB(5, 2, 0x123456);
+
+        ImageRGB left = image.getView(0, 1, 4, 2);
+        ImageRGB right = image.getView(4, 1, 4, 2);
+        assertInstanceOf(ViewImageRGB.class, right);
+        assertEquals(0x123456, right.getRGB(1, 1));
+        int[] row = right.getRGB(0, 1, 4, 1, null, 0, 4);
+        assertEquals(0x123456, row[1]);
+
+        // Copies do not share pixels; views do.
+        ImageRGB copy = right.getSubimage(0, 0, 4, 2);
+        image.setRGB(5, 2, 0x654321);
+        assertEquals(0x123456, copy.getRGB(1, 1));
+        assertEquals(0x654321, right.getRGB(1, 1));
+
+        ViewImageRGB first = (ViewImageRGB) left;
+        assertTrue(first.isLeftOf((ViewImageRGB) right));
+        assertFalse(((ViewImageRGB) right).isLeftOf(first));
+        ImageRGB joined = first.extendRight(8);
+        assertEquals(8, joined.getWidth());
+        assertEquals(2, joined.getHeight());
+        assertEquals(0x654321, joined.getRGB(5, 1));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> image.getView(6, 0, 4, 1));
+    }
 }
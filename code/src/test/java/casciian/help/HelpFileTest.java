@@ -0,0 +1,114 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package casciian.help;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for loading and searching help files.
+ */
+@DisplayName("HelpFile Tests")
+class HelpFileTest {
+
+    private static final String XML = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <help>
+          <name>Test</name>
+          <topics>
+            <topic title="Windows">
+              <text>Windows can be moved and resized with the mouse.</text>
+            </topic>
+            <topic title="Menus">
+              <text>Menus open windows.  See [Windows](Windows).</text>
+            </topic>
+            <topic title="Keyboard">
+              <text>The #{keyboard} moves focus between widgets.</text>
+            </topic>
+          </topics>
+        </help>
+        """;
+
+    @Test
+    @DisplayName("Word searches are ranked, with titles counting most")
+    void shouldRankWordSearches() throws Exception {
+        HelpFile helpFile = load();
+        assertEquals(List.of("Windows", "Menus"),
+            getResults(helpFile, "windows"));
+        // Prefix match, ties by title, every word required.
+        assertEquals(List.of("Keyboard", "Windows"),
+            getResults(helpFile, "mov"));
+        assertEquals(List.of("Keyboard"),
+            getResults(helpFile, "Mov FOCUS"));
+    }
+
+    @Test
+    @DisplayName("Regular expressions and word fragments scan every topic")
+    void shouldFallBackToRegex() throws Exception {
+        HelpFile helpFile = load();
+        assertEquals(List.of("Keyboard", "Windows"),
+            getResults(helpFile, "mo.e"));
+        assertEquals(List.of("Menus", "Windows"),
+            getResults(helpFile, "ndow"));
+    }
+
+    @Test
+    @DisplayName("Topics are read from the file when first asked for")
+    void shouldReadTopicsOnDemand(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("help.xml");
+        Files.writeString(file, XML.strip());
+        HelpFile helpFile = new HelpFile();
+        helpFile.load(file);
+
+        assertEquals(3, helpFile.getTableOfContents().getLinks().size());
+        Topic menus = helpFile.getTopic("Menus");
+        assertEquals("Menus open windows.  See Windows.\n", menus.getText());
+        assertEquals("Windows", menus.getLinks().get(0).getTopic());
+        assertSame(menus, helpFile.getTopic("Menus"));
+        assertSame(Topic.NOT_FOUND, helpFile.getTopic("Nothing"));
+        assertTrue(helpFile.getIndex().getText().contains("keyboard"));
+        assertSame(helpFile.getIndex(), helpFile.getIndex());
+    }
+
+    private HelpFile load() throws Exception {
+        HelpFile helpFile = new HelpFile();
+        helpFile.load(new ByteArrayInputStream(
+            XML.strip().getBytes(StandardCharsets.UTF_8)));
+        return helpFile;
+    }
+
+    private List<String> getResults(final HelpFile helpFile,
+        final String searchString) {
+
+        List<String> titles = new ArrayList<>();
+        for (Link link: helpFile.getSearchResults(searchString).getLinks()) {
+            titles.add(link.getTopic());
+        }
+        return titles;
+    }
+}
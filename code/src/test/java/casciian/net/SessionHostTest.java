@@ -0,0 +1,221 @@
+/*
+ * Casciian - Java Text User Interface
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package casciian.net;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import casciian.TApplication;
+import casciian.backend.HeadlessBackend;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for hosting many applications in one JVM.
+ */
+@DisplayName("SessionHost")
+class SessionHostTest {
+
+    @Test
+    @DisplayName("Connections beyond maxSessions are turned away")
+    void refusesWhenFull() throws Exception {
+        System.setProperty("casciian.SessionHost.maxSessions", "1");
+        SessionHost host;
+        try {
+            host = new SessionHost(new ServerSocket(0, 50,
+                    InetAddress.getLoopbackAddress()),
+                socket -> new TApplication(new HeadlessBackend()));
+        } finally {
+            System.clearProperty("casciian.SessionHost.maxSessions");
+        }
+        int port = host.getLocalPort();
+        Thread accept = new Thread(host);
+        accept.start();
+
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(),
+                port);
+            Socket second = new Socket(InetAddress.getLoopbackAddress(),
+                port)
+        ) {
+            waitFor(() -> host.getRefusedCount() == 1);
+            assertEquals(1, host.getSessions().size());
+            waitFor(() -> host.getSessions().get(0).getApplication() != null);
+            assertTrue(host.getMemoryUsage() > 0);
+
+            InputStream input = second.getInputStream();
+            String message = new String(input.readAllBytes(),
+                StandardCharsets.US_ASCII);
+            assertTrue(message.contains("busy"));
+        } finally {
+            host.close();
+        }
+        waitFor(() -> host.getSessions().isEmpty());
+        accept.join(5000);
+    }
+
+    @Test
+    @DisplayName("A slow factory does not hold up other connections")
+    void slowFactoryDoesNotBlockAccept() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SessionHost host = new SessionHost(new ServerSocket(0, 50,
+                InetAddress.getLoopbackAddress()),
+            socket -> {
+                if (socket.getInputStream().read() == 's') {
+                    release.await();
+                }
+                return new TApplication(new HeadlessBackend());
+            });
+        int port = host.getLocalPort();
+        Thread accept = new Thread(host);
+        accept.start();
+
+        try (Socket slow = new Socket(InetAddress.getLoopbackAddress(),
+                port);
+            Socket fast = new Socket(InetAddress.getLoopbackAddress(),
+                port)
+        ) {
+            slow.getOutputStream().write('s');
+            fast.getOutputStream().write('f');
+            waitFor(() -> host.getSessions().stream().filter(session ->
+                    session.getApplication() != null).count() == 1);
+            assertEquals(2, host.getSessions().size());
+        } finally {
+            release.countDown();
+            host.close();
+        }
+        waitFor(() -> host.getSessions().isEmpty());
+        accept.join(5000);
+    }
+
+    @Test
+    @DisplayName("A session over the memory limit is trimmed, then ended")
+    void enforcesSessionMemoryLimit() throws Exception {
+        CachingBackend trimmable = new CachingBackend(2 << 20, true);
+        CachingBackend stuck = new CachingBackend(2 << 20, false);
+        System.setProperty("casciian.SessionHost.sessionMemoryMB", "1");
+        SessionHost host;
+        try {
+            host = new SessionHost(new ServerSocket(0, 50,
+                    InetAddress.getLoopbackAddress()),
+                socket -> new TApplication(
+                    socket.getInputStream().read() == 't' ? trimmable : stuck));
+        } finally {
+            System.clearProperty("casciian.SessionHost.sessionMemoryMB");
+        }
+        int port = host.getLocalPort();
+        Thread accept = new Thread(host);
+        accept.start();
+
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(),
+                port);
+            Socket second = new Socket(InetAddress.getLoopbackAddress(),
+                port)
+        ) {
+            first.getOutputStream().write('t');
+            second.getOutputStream().write('s');
+            waitFor(() -> host.getSessions().stream().filter(session ->
+                    session.getApplication() != null).count() == 2);
+
+            host.checkMemory();
+            assertTrue(trimmable.trimmed);
+            assertTrue(stuck.trimmed);
+            waitFor(() -> host.getSessions().size() == 1);
+            SessionHost.Session survivor = host.getSessions().get(0);
+            assertSame(trimmable, survivor.getApplication().getScreen());
+            assertTrue(survivor.getMemoryUsage() <= 1 << 20);
+        } finally {
+            host.close();
+        }
+        waitFor(() -> host.getSessions().isEmpty());
+        accept.join(5000);
+    }
+
+    /**
+     * Wait up to five seconds for a condition.
+     *
+     * @param condition the condition
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void waitFor(final BooleanSupplier condition)
+        throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()
+            && (System.currentTimeMillis() < deadline)
+        ) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * A headless backend holding a cache that counts toward its memory
+     * usage.
+     */
+    private static class CachingBackend extends HeadlessBackend {
+
+        /**
+         * The cache size in bytes.
+         */
+        private volatile long cache;
+
+        /**
+         * If true, trimMemory() drops the cache.
+         */
+        private final boolean canTrim;
+
+        /**
+         * If true, trimMemory() was called.
+         */
+        private volatile boolean trimmed = false;
+
+        /**
+         * Public constructor.
+         *
+         * @param cache the cache size in bytes
+         * @param canTrim if true, trimMemory() drops the cache
+         */
+        CachingBackend(final long cache, final boolean canTrim) {
+            this.cache   = cache;
+            this.canTrim = canTrim;
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            return super.getMemoryUsage() + cache;
+        }
+
+        @Override
+        public void trimMemory() {
+            trimmed = true;
+            if (canTrim) {
+                cache = 0;
+            }
+        }
+
+    }
+
+}